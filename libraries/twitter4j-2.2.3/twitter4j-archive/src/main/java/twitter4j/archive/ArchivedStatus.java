@@ -0,0 +1,223 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.archive;
+
+import twitter4j.Annotations;
+import twitter4j.BinaryDecoder;
+import twitter4j.BinaryEncoder;
+import twitter4j.GeoLocation;
+import twitter4j.HashtagEntity;
+import twitter4j.MediaEntity;
+import twitter4j.Place;
+import twitter4j.RateLimitStatus;
+import twitter4j.Status;
+import twitter4j.URLEntity;
+import twitter4j.User;
+import twitter4j.UserMentionEntity;
+
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+import static twitter4j.archive.StatusRecord.*;
+
+/**
+ * A flyweight view of an archived status. Numbers are read from the mapped segment on each call, and strings are
+ * decoded on each call. Views are bound to the mapped segment. A view is serialized as a copy of the status on the
+ * heap, which is read back as an ordinary Status.<br>
+ * Place, contributors, entities and annotations are not archived.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+/*package*/ final class ArchivedStatus implements Status {
+    private static final long serialVersionUID = 5227408573460693395L;
+    private final StatusArchive archive;
+    private final ByteBuffer buffer;
+    private final int offset;
+
+    ArchivedStatus(StatusArchive archive, ByteBuffer buffer, int offset) {
+        this.archive = archive;
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    /**
+     * Replaces the view with a copy of the status on the heap, as the mapped segment can't be serialized.
+     *
+     * @return a copy of the status
+     * @throws ObjectStreamException never
+     */
+    private Object writeReplace() throws ObjectStreamException {
+        try {
+            return BinaryDecoder.decodeStatus(BinaryEncoder.encode(this));
+        } catch (IOException ioe) {
+            // never happens with bytes just encoded
+            throw new AssertionError(ioe);
+        }
+    }
+
+    public Date getCreatedAt() {
+        return getDate(buffer, offset, CREATED_AT);
+    }
+
+    public long getId() {
+        return buffer.getLong(offset + ID);
+    }
+
+    public String getText() {
+        return getString(buffer, offset, TEXT);
+    }
+
+    public String getSource() {
+        return getString(buffer, offset, SOURCE);
+    }
+
+    public boolean isTruncated() {
+        return isSet(buffer, offset, TRUNCATED);
+    }
+
+    public long getInReplyToStatusId() {
+        return buffer.getLong(offset + IN_REPLY_TO_STATUS_ID);
+    }
+
+    public long getInReplyToUserId() {
+        return buffer.getLong(offset + IN_REPLY_TO_USER_ID);
+    }
+
+    public String getInReplyToScreenName() {
+        return getString(buffer, offset, IN_REPLY_TO_SCREEN_NAME);
+    }
+
+    public GeoLocation getGeoLocation() {
+        if (!isSet(buffer, offset, HAS_GEO_LOCATION)) {
+            return null;
+        }
+        return new GeoLocation(buffer.getDouble(offset + LATITUDE), buffer.getDouble(offset + LONGITUDE));
+    }
+
+    public Place getPlace() {
+        return null;
+    }
+
+    public boolean isFavorited() {
+        return isSet(buffer, offset, FAVORITED);
+    }
+
+    public User getUser() {
+        return isSet(buffer, offset, HAS_USER) ? new ArchivedUser(buffer, offset) : null;
+    }
+
+    public boolean isRetweet() {
+        return -1 != buffer.getLong(offset + RETWEETED_STATUS_ID);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The retweeted status is archived as a separate record and looked up on each call.
+     */
+    public Status getRetweetedStatus() {
+        long retweetedStatusId = buffer.getLong(offset + RETWEETED_STATUS_ID);
+        return -1 == retweetedStatusId ? null : archive.getStatus(retweetedStatusId);
+    }
+
+    public long[] getContributors() {
+        return null;
+    }
+
+    public long getRetweetCount() {
+        return buffer.getLong(offset + RETWEET_COUNT);
+    }
+
+    public boolean isRetweetedByMe() {
+        return isSet(buffer, offset, RETWEETED_BY_ME);
+    }
+
+    public UserMentionEntity[] getUserMentionEntities() {
+        return null;
+    }
+
+    public URLEntity[] getURLEntities() {
+        return null;
+    }
+
+    public HashtagEntity[] getHashtagEntities() {
+        return null;
+    }
+
+    public Annotations getAnnotations() {
+        return null;
+    }
+
+    public MediaEntity[] getMediaEntities() {
+        return null;
+    }
+
+    public RateLimitStatus getRateLimitStatus() {
+        return null;
+    }
+
+    public int getAccessLevel() {
+        return NONE;
+    }
+
+    public int compareTo(Status that) {
+        long delta = getId() - that.getId();
+        if (delta < Integer.MIN_VALUE) {
+            return Integer.MIN_VALUE;
+        } else if (delta > Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) delta;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) getId();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (null == obj) {
+            return false;
+        }
+        if (this == obj) {
+            return true;
+        }
+        return obj instanceof Status && ((Status) obj).getId() == getId();
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedStatus{" +
+                "createdAt=" + getCreatedAt() +
+                ", id=" + getId() +
+                ", text='" + getText() + '\'' +
+                ", source='" + getSource() + '\'' +
+                ", isTruncated=" + isTruncated() +
+                ", inReplyToStatusId=" + getInReplyToStatusId() +
+                ", inReplyToUserId=" + getInReplyToUserId() +
+                ", isFavorited=" + isFavorited() +
+                ", inReplyToScreenName='" + getInReplyToScreenName() + '\'' +
+                ", geoLocation=" + getGeoLocation() +
+                ", retweetCount=" + getRetweetCount() +
+                ", wasRetweetedByMe=" + isRetweetedByMe() +
+                ", user=" + getUser() +
+                '}';
+    }
+}
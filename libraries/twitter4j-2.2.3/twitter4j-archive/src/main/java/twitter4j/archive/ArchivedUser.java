@@ -0,0 +1,273 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.archive;
+
+import twitter4j.BinaryDecoder;
+import twitter4j.BinaryEncoder;
+import twitter4j.RateLimitStatus;
+import twitter4j.Status;
+import twitter4j.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+import static twitter4j.archive.StatusRecord.*;
+
+/**
+ * A flyweight view of the user of an archived status, reading the same record as the status.<br>
+ * Profile colors and images, the latest status and the relationship with the authenticating user are not archived.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+/*package*/ final class ArchivedUser implements User {
+    private static final long serialVersionUID = -3097286430516327547L;
+    private final ByteBuffer buffer;
+    private final int offset;
+
+    ArchivedUser(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    /**
+     * Replaces the view with a copy of the user on the heap, as the mapped segment can't be serialized.
+     *
+     * @return a copy of the user
+     * @throws ObjectStreamException never
+     */
+    private Object writeReplace() throws ObjectStreamException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            BinaryEncoder encoder = new BinaryEncoder(bytes);
+            encoder.writeUser(this);
+            encoder.flush();
+            return new BinaryDecoder(new ByteArrayInputStream(bytes.toByteArray())).readUser();
+        } catch (IOException ioe) {
+            // never happens with byte arrays
+            throw new AssertionError(ioe);
+        }
+    }
+
+    public long getId() {
+        return buffer.getLong(offset + USER_ID);
+    }
+
+    public String getName() {
+        return getString(buffer, offset, NAME);
+    }
+
+    public String getScreenName() {
+        return getString(buffer, offset, SCREEN_NAME);
+    }
+
+    public String getLocation() {
+        return getString(buffer, offset, LOCATION);
+    }
+
+    public String getDescription() {
+        return getString(buffer, offset, DESCRIPTION);
+    }
+
+    public boolean isContributorsEnabled() {
+        return isSet(buffer, offset, CONTRIBUTORS_ENABLED);
+    }
+
+    public URL getProfileImageURL() {
+        return toURL(getString(buffer, offset, PROFILE_IMAGE_URL));
+    }
+
+    public URL getProfileImageUrlHttps() {
+        return null;
+    }
+
+    public URL getURL() {
+        return toURL(getString(buffer, offset, USER_URL));
+    }
+
+    public boolean isProtected() {
+        return isSet(buffer, offset, PROTECTED);
+    }
+
+    public int getFollowersCount() {
+        return buffer.getInt(offset + FOLLOWERS_COUNT);
+    }
+
+    public Status getStatus() {
+        return null;
+    }
+
+    public String getProfileBackgroundColor() {
+        return null;
+    }
+
+    public String getProfileTextColor() {
+        return null;
+    }
+
+    public String getProfileLinkColor() {
+        return null;
+    }
+
+    public String getProfileSidebarFillColor() {
+        return null;
+    }
+
+    public String getProfileSidebarBorderColor() {
+        return null;
+    }
+
+    public boolean isProfileUseBackgroundImage() {
+        return false;
+    }
+
+    public boolean isShowAllInlineMedia() {
+        return false;
+    }
+
+    public int getFriendsCount() {
+        return buffer.getInt(offset + FRIENDS_COUNT);
+    }
+
+    public Date getCreatedAt() {
+        return getDate(buffer, offset, USER_CREATED_AT);
+    }
+
+    public int getFavouritesCount() {
+        return buffer.getInt(offset + FAVOURITES_COUNT);
+    }
+
+    public int getUtcOffset() {
+        return buffer.getInt(offset + UTC_OFFSET);
+    }
+
+    public String getTimeZone() {
+        return getString(buffer, offset, TIME_ZONE);
+    }
+
+    public String getProfileBackgroundImageUrl() {
+        return null;
+    }
+
+    public String getProfileBackgroundImageUrlHttps() {
+        return null;
+    }
+
+    public boolean isProfileBackgroundTiled() {
+        return false;
+    }
+
+    public String getLang() {
+        return getString(buffer, offset, LANG);
+    }
+
+    public int getStatusesCount() {
+        return buffer.getInt(offset + STATUSES_COUNT);
+    }
+
+    public boolean isGeoEnabled() {
+        return isSet(buffer, offset, GEO_ENABLED);
+    }
+
+    public boolean isVerified() {
+        return isSet(buffer, offset, VERIFIED);
+    }
+
+    public boolean isTranslator() {
+        return isSet(buffer, offset, TRANSLATOR);
+    }
+
+    public int getListedCount() {
+        return buffer.getInt(offset + LISTED_COUNT);
+    }
+
+    public boolean isFollowRequestSent() {
+        return false;
+    }
+
+    public RateLimitStatus getRateLimitStatus() {
+        return null;
+    }
+
+    public int getAccessLevel() {
+        return NONE;
+    }
+
+    public int compareTo(User that) {
+        return (int) (getId() - that.getId());
+    }
+
+    private static URL toURL(String url) {
+        if (null == url) {
+            return null;
+        }
+        try {
+            return new URL(url);
+        } catch (MalformedURLException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) getId();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (null == obj) {
+            return false;
+        }
+        if (this == obj) {
+            return true;
+        }
+        return obj instanceof User && ((User) obj).getId() == getId();
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedUser{" +
+                "id=" + getId() +
+                ", name='" + getName() + '\'' +
+                ", screenName='" + getScreenName() + '\'' +
+                ", location='" + getLocation() + '\'' +
+                ", description='" + getDescription() + '\'' +
+                ", isContributorsEnabled=" + isContributorsEnabled() +
+                ", profileImageUrl='" + getProfileImageURL() + '\'' +
+                ", url='" + getURL() + '\'' +
+                ", isProtected=" + isProtected() +
+                ", followersCount=" + getFollowersCount() +
+                ", friendsCount=" + getFriendsCount() +
+                ", createdAt=" + getCreatedAt() +
+                ", favouritesCount=" + getFavouritesCount() +
+                ", utcOffset=" + getUtcOffset() +
+                ", timeZone='" + getTimeZone() + '\'' +
+                ", lang='" + getLang() + '\'' +
+                ", statusesCount=" + getStatusesCount() +
+                ", isGeoEnabled=" + isGeoEnabled() +
+                ", isVerified=" + isVerified() +
+                ", translator=" + isTranslator() +
+                ", listedCount=" + getListedCount() +
+                '}';
+    }
+}
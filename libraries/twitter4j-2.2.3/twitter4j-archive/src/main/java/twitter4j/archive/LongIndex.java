@@ -0,0 +1,108 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.archive;
+
+/**
+ * A map from positive long keys to long values, backed by two primitive arrays so that millions of entries make only
+ * two objects for the garbage collector.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+/*package*/ final class LongIndex {
+    private static final long FREE = 0;
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    LongIndex() {
+        keys = new long[1024];
+        values = new long[1024];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param key positive key
+     * @return the value, or -1 if not found
+     */
+    long get(long key) {
+        if (key <= 0) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (key == keys[i]) {
+                return values[i];
+            }
+            if (FREE == keys[i]) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * @param key   positive key
+     * @param value value
+     */
+    void put(long key, long value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("key must be positive: " + key);
+        }
+        if ((size + 1) * 4 > keys.length * 3) {
+            rehash(keys.length * 2);
+        }
+        if (insert(keys, values, key, value)) {
+            size++;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] newKeys = new long[capacity];
+        long[] newValues = new long[capacity];
+        for (int i = 0; i < keys.length; i++) {
+            if (FREE != keys[i]) {
+                insert(newKeys, newValues, keys[i], values[i]);
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+    }
+
+    private static boolean insert(long[] keys, long[] values, long key, long value) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (FREE == keys[i]) {
+                keys[i] = key;
+                values[i] = value;
+                return true;
+            }
+            if (key == keys[i]) {
+                values[i] = value;
+                return false;
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        // ids are generated by snowflake and the lower bits are not well distributed
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
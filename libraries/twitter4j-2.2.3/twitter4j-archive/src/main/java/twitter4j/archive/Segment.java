@@ -0,0 +1,129 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.archive;
+
+import twitter4j.Status;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A memory-mapped file holding status records one after another.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+/*package*/ final class Segment {
+    private static final int MAGIC = 0x54344A41;
+    private static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    private final int number;
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private int position;
+
+    /**
+     * Maps the segment file, creating it if not exists.
+     *
+     * @param file     segment file
+     * @param number   sequential number of the segment
+     * @param capacity size of a new segment. existing segments are mapped in their own size
+     * @throws IOException when failed to map the file, or the file is not a segment
+     */
+    Segment(File file, int number, int capacity) throws IOException {
+        this.number = number;
+        this.file = new RandomAccessFile(file, "rw");
+        try {
+            long length = this.file.length();
+            boolean created = 0 == length;
+            buffer = this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, created ? capacity : length);
+            if (created) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, FORMAT_VERSION);
+            } else if (length < HEADER_SIZE || MAGIC != buffer.getInt(0) || FORMAT_VERSION != buffer.getInt(4)) {
+                throw new IOException("not a status archive segment: " + file);
+            }
+        } catch (IOException ioe) {
+            this.file.close();
+            throw ioe;
+        }
+        position = HEADER_SIZE;
+        while (position + StatusRecord.STRINGS <= buffer.capacity()) {
+            int recordLength = buffer.getInt(position + StatusRecord.LENGTH);
+            if (0 == recordLength) {
+                break;
+            }
+            position += recordLength;
+        }
+    }
+
+    int getNumber() {
+        return number;
+    }
+
+    MappedByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return offset next to the last record
+     */
+    int getPosition() {
+        return position;
+    }
+
+    /**
+     * @param offset offset of a record
+     * @return offset of the next record
+     */
+    int next(int offset) {
+        return offset + buffer.getInt(offset + StatusRecord.LENGTH);
+    }
+
+    boolean hasRoom(int length) {
+        return position + length <= buffer.capacity();
+    }
+
+    /**
+     * Appends a record. The caller must check the room with {@link #hasRoom(int)} beforehand.
+     *
+     * @return offset of the record
+     */
+    int append(Status status, byte[][] strings, long retweetedStatusId) {
+        int offset = position;
+        position += StatusRecord.write(buffer, offset, status, strings, retweetedStatusId);
+        return offset;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Closes the file. The mapping remains valid until the buffer is garbage collected.
+     *
+     * @throws IOException when failed to close the file
+     */
+    void close() throws IOException {
+        buffer.force();
+        file.close();
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.archive;
+
+import twitter4j.Status;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Keeps statuses off the Java heap. Statuses are appended in a compact binary form to memory-mapped segment files in
+ * a directory, and read back as flyweight views reading the mapped files, so that days of statuses neither sit in the
+ * old generation nor need to be deserialized.<br>
+ * Only the id to location index lives on the heap, in two primitive arrays. The index is rebuilt by scanning the
+ * segments when an existing archive is opened.<br>
+ * Retweeted statuses are archived as separate records. Place, contributors, entities and annotations are not archived.
+ * <br>This class is thread safe. Appending is serialized and reading can be done concurrently.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public final class StatusArchive implements Iterable<Status> {
+    /**
+     * default size of a segment file: 64MB
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    private final File directory;
+    private final int segmentSize;
+    private final List<Segment> segments = new ArrayList<Segment>();
+    private final LongIndex index = new LongIndex();
+    private boolean closed = false;
+
+    /**
+     * Opens the archive in the specified directory with the default segment size, creating it if not exists.
+     *
+     * @param directory directory holding the segment files
+     * @throws IOException when failed to open the archive
+     */
+    public StatusArchive(File directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the archive in the specified directory, creating it if not exists.
+     *
+     * @param directory   directory holding the segment files
+     * @param segmentSize size of new segment files. a status larger than this cannot be archived
+     * @throws IOException when failed to open the archive
+     */
+    public StatusArchive(File directory, int segmentSize) throws IOException {
+        if (segmentSize < Segment.HEADER_SIZE + StatusRecord.STRINGS) {
+            throw new IllegalArgumentException("segment size too small: " + segmentSize);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("failed to create directory: " + directory);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        String[] names = directory.list();
+        Arrays.sort(names);
+        try {
+            for (String name : names) {
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    Segment segment = new Segment(new File(directory, name), segments.size(), segmentSize);
+                    segments.add(segment);
+                    for (int offset = Segment.HEADER_SIZE; offset < segment.getPosition(); offset = segment.next(offset)) {
+                        index.put(segment.getBuffer().getLong(offset + StatusRecord.ID), toLocation(segment, offset));
+                    }
+                }
+            }
+        } catch (IOException ioe) {
+            close();
+            throw ioe;
+        }
+    }
+
+    /**
+     * Appends a status to the archive. A retweet is appended after the retweeted status, which is appended as well if
+     * not archived yet.
+     *
+     * @param status status to be archived
+     * @return false if the status is already archived
+     * @throws IOException              when failed to create a new segment
+     * @throws IllegalArgumentException when the status does not fit in a segment
+     */
+    public synchronized boolean append(Status status) throws IOException {
+        ensureOpen();
+        if (status.getId() <= 0) {
+            throw new IllegalArgumentException("status id must be positive: " + status.getId());
+        }
+        if (-1 != index.get(status.getId())) {
+            return false;
+        }
+        long retweetedStatusId = -1;
+        if (status.isRetweet() && null != status.getRetweetedStatus()) {
+            retweetedStatusId = status.getRetweetedStatus().getId();
+            append(status.getRetweetedStatus());
+        }
+        byte[][] strings = StatusRecord.getStrings(status);
+        int length = StatusRecord.getLength(strings);
+        if (Segment.HEADER_SIZE + length > segmentSize) {
+            throw new IllegalArgumentException("status too large for the segment size: " + length + " bytes");
+        }
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (null == segment || !segment.hasRoom(length)) {
+            segment = newSegment();
+        }
+        int offset = segment.append(status, strings, retweetedStatusId);
+        index.put(status.getId(), toLocation(segment, offset));
+        return true;
+    }
+
+    private Segment newSegment() throws IOException {
+        String name = String.valueOf(segments.size());
+        while (name.length() < 8) {
+            name = "0" + name;
+        }
+        Segment segment = new Segment(new File(directory, name + SEGMENT_SUFFIX), segments.size(), segmentSize);
+        segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * Returns a view of the archived status. The view reads the mapped segment and holds no copy of the status.
+     *
+     * @param id id of the status
+     * @return the status, or null if not archived
+     */
+    public Status getStatus(long id) {
+        Segment segment;
+        long location;
+        synchronized (this) {
+            location = index.get(id);
+            if (-1 == location) {
+                return null;
+            }
+            segment = segments.get((int) (location >>> 32));
+        }
+        return new ArchivedStatus(this, segment.getBuffer(), (int) location);
+    }
+
+    /**
+     * @param id id of the status
+     * @return true if the status is archived
+     */
+    public synchronized boolean contains(long id) {
+        return -1 != index.get(id);
+    }
+
+    /**
+     * @return number of the archived statuses
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns an iterator over the statuses archived so far, in the order they were appended. Statuses appended
+     * after the iterator was created are not returned.
+     *
+     * @return iterator of views of the archived statuses
+     */
+    public Iterator<Status> iterator() {
+        final Segment[] snapshot;
+        final int end;
+        synchronized (this) {
+            snapshot = segments.toArray(new Segment[segments.size()]);
+            end = 0 == snapshot.length ? 0 : snapshot[snapshot.length - 1].getPosition();
+        }
+        return new Iterator<Status>() {
+            private int segmentIndex = 0;
+            private int offset = Segment.HEADER_SIZE;
+
+            public boolean hasNext() {
+                while (segmentIndex < snapshot.length) {
+                    int limit = segmentIndex == snapshot.length - 1 ? end : snapshot[segmentIndex].getPosition();
+                    if (offset < limit) {
+                        return true;
+                    }
+                    segmentIndex++;
+                    offset = Segment.HEADER_SIZE;
+                }
+                return false;
+            }
+
+            public Status next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Segment segment = snapshot[segmentIndex];
+                Status status = new ArchivedStatus(StatusArchive.this, segment.getBuffer(), offset);
+                offset = segment.next(offset);
+                return status;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Writes the appended statuses to the storage.
+     */
+    public synchronized void flush() {
+        for (Segment segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Flushes and closes the segment files. Views obtained before remain readable.
+     *
+     * @throws IOException when failed to close a segment file
+     */
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        IOException exception = null;
+        for (Segment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException ioe) {
+                exception = ioe;
+            }
+        }
+        if (null != exception) {
+            throw exception;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Status archive already closed.");
+        }
+    }
+
+    private static long toLocation(Segment segment, int offset) {
+        return ((long) segment.getNumber() << 32) | offset;
+    }
+
+    @Override
+    public String toString() {
+        return "StatusArchive{" +
+                "directory=" + directory +
+                ", segmentSize=" + segmentSize +
+                ", segments=" + segments.size() +
+                ", size=" + size() +
+                '}';
+    }
+}
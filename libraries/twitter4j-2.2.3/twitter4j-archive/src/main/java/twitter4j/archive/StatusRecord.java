@@ -0,0 +1,247 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.archive;
+
+import twitter4j.GeoLocation;
+import twitter4j.Status;
+import twitter4j.User;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+/**
+ * Binary layout of an archived status. A record consists of a fixed length part holding the numbers, followed by the
+ * lengths and the UTF-8 bytes of the strings. The length of the record is written at last so that a record half
+ * written by a crashed process reads as the end of the segment.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+/*package*/ final class StatusRecord {
+    private StatusRecord() {
+        throw new AssertionError();
+    }
+
+    static final int LENGTH = 0;
+    static final int ID = 4;
+    static final int CREATED_AT = 12;
+    static final int IN_REPLY_TO_STATUS_ID = 20;
+    static final int IN_REPLY_TO_USER_ID = 28;
+    static final int RETWEETED_STATUS_ID = 36;
+    static final int RETWEET_COUNT = 44;
+    static final int LATITUDE = 52;
+    static final int LONGITUDE = 60;
+    static final int FLAGS = 68;
+    static final int USER_ID = 72;
+    static final int USER_CREATED_AT = 80;
+    static final int FOLLOWERS_COUNT = 88;
+    static final int FRIENDS_COUNT = 92;
+    static final int STATUSES_COUNT = 96;
+    static final int FAVOURITES_COUNT = 100;
+    static final int LISTED_COUNT = 104;
+    static final int UTC_OFFSET = 108;
+    static final int STRING_LENGTHS = 112;
+
+    static final int TEXT = 0;
+    static final int SOURCE = 1;
+    static final int IN_REPLY_TO_SCREEN_NAME = 2;
+    static final int SCREEN_NAME = 3;
+    static final int NAME = 4;
+    static final int LOCATION = 5;
+    static final int DESCRIPTION = 6;
+    static final int PROFILE_IMAGE_URL = 7;
+    static final int USER_URL = 8;
+    static final int TIME_ZONE = 9;
+    static final int LANG = 10;
+    private static final int NUMBER_OF_STRINGS = 11;
+
+    static final int STRINGS = STRING_LENGTHS + NUMBER_OF_STRINGS * 2;
+
+    // length of a null string. strings are limited to 65534 bytes
+    private static final char NULL_STRING = 0xFFFF;
+
+    static final int TRUNCATED = 1;
+    static final int FAVORITED = 1 << 1;
+    static final int RETWEETED_BY_ME = 1 << 2;
+    static final int HAS_GEO_LOCATION = 1 << 3;
+    static final int HAS_USER = 1 << 4;
+    static final int PROTECTED = 1 << 5;
+    static final int VERIFIED = 1 << 6;
+    static final int GEO_ENABLED = 1 << 7;
+    static final int CONTRIBUTORS_ENABLED = 1 << 8;
+    static final int TRANSLATOR = 1 << 9;
+
+    /**
+     * @param status status to be archived
+     * @return UTF-8 bytes of the strings of the status, null for null strings
+     */
+    static byte[][] getStrings(Status status) {
+        byte[][] strings = new byte[NUMBER_OF_STRINGS][];
+        strings[TEXT] = toBytes(status.getText());
+        strings[SOURCE] = toBytes(status.getSource());
+        strings[IN_REPLY_TO_SCREEN_NAME] = toBytes(status.getInReplyToScreenName());
+        User user = status.getUser();
+        if (null != user) {
+            strings[SCREEN_NAME] = toBytes(user.getScreenName());
+            strings[NAME] = toBytes(user.getName());
+            strings[LOCATION] = toBytes(user.getLocation());
+            strings[DESCRIPTION] = toBytes(user.getDescription());
+            strings[PROFILE_IMAGE_URL] = toBytes(null == user.getProfileImageURL() ? null : user.getProfileImageURL().toString());
+            strings[USER_URL] = toBytes(null == user.getURL() ? null : user.getURL().toString());
+            strings[TIME_ZONE] = toBytes(user.getTimeZone());
+            strings[LANG] = toBytes(user.getLang());
+        }
+        return strings;
+    }
+
+    /**
+     * @param strings strings returned by {@link #getStrings(twitter4j.Status)}
+     * @return length of the record
+     */
+    static int getLength(byte[][] strings) {
+        int length = STRINGS;
+        for (byte[] string : strings) {
+            if (null != string) {
+                length += string.length;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Writes a record at the specified offset.
+     *
+     * @param buffer            segment
+     * @param offset            offset of the record
+     * @param status            status to be archived
+     * @param strings           strings returned by {@link #getStrings(twitter4j.Status)}
+     * @param retweetedStatusId id of the retweeted status, or -1
+     * @return length of the record
+     */
+    static int write(ByteBuffer buffer, int offset, Status status, byte[][] strings, long retweetedStatusId) {
+        User user = status.getUser();
+        GeoLocation location = status.getGeoLocation();
+        int flags = (status.isTruncated() ? TRUNCATED : 0)
+                | (status.isFavorited() ? FAVORITED : 0)
+                | (status.isRetweetedByMe() ? RETWEETED_BY_ME : 0)
+                | (null != location ? HAS_GEO_LOCATION : 0);
+        buffer.putLong(offset + ID, status.getId());
+        buffer.putLong(offset + CREATED_AT, toTime(status.getCreatedAt()));
+        buffer.putLong(offset + IN_REPLY_TO_STATUS_ID, status.getInReplyToStatusId());
+        buffer.putLong(offset + IN_REPLY_TO_USER_ID, status.getInReplyToUserId());
+        buffer.putLong(offset + RETWEETED_STATUS_ID, retweetedStatusId);
+        buffer.putLong(offset + RETWEET_COUNT, status.getRetweetCount());
+        buffer.putDouble(offset + LATITUDE, null != location ? location.getLatitude() : 0);
+        buffer.putDouble(offset + LONGITUDE, null != location ? location.getLongitude() : 0);
+        if (null != user) {
+            flags |= HAS_USER
+                    | (user.isProtected() ? PROTECTED : 0)
+                    | (user.isVerified() ? VERIFIED : 0)
+                    | (user.isGeoEnabled() ? GEO_ENABLED : 0)
+                    | (user.isContributorsEnabled() ? CONTRIBUTORS_ENABLED : 0)
+                    | (user.isTranslator() ? TRANSLATOR : 0);
+            buffer.putLong(offset + USER_ID, user.getId());
+            buffer.putLong(offset + USER_CREATED_AT, toTime(user.getCreatedAt()));
+            buffer.putInt(offset + FOLLOWERS_COUNT, user.getFollowersCount());
+            buffer.putInt(offset + FRIENDS_COUNT, user.getFriendsCount());
+            buffer.putInt(offset + STATUSES_COUNT, user.getStatusesCount());
+            buffer.putInt(offset + FAVOURITES_COUNT, user.getFavouritesCount());
+            buffer.putInt(offset + LISTED_COUNT, user.getListedCount());
+            buffer.putInt(offset + UTC_OFFSET, user.getUtcOffset());
+        } else {
+            buffer.putLong(offset + USER_ID, -1);
+        }
+        buffer.putInt(offset + FLAGS, flags);
+        // the segment is shared with concurrent readers. bulk copies go through a duplicate to leave its position alone
+        ByteBuffer out = buffer.duplicate();
+        out.position(offset + STRINGS);
+        for (int i = 0; i < NUMBER_OF_STRINGS; i++) {
+            byte[] string = strings[i];
+            if (null == string) {
+                buffer.putChar(offset + STRING_LENGTHS + i * 2, NULL_STRING);
+            } else {
+                buffer.putChar(offset + STRING_LENGTHS + i * 2, (char) string.length);
+                out.put(string);
+            }
+        }
+        int length = out.position() - offset;
+        buffer.putInt(offset + LENGTH, length);
+        return length;
+    }
+
+    /**
+     * Decodes a string of the record. The string is decoded on each call.
+     *
+     * @param buffer segment
+     * @param offset offset of the record
+     * @param index  index of the string such as {@link #TEXT}
+     * @return the string, or null
+     */
+    static String getString(ByteBuffer buffer, int offset, int index) {
+        int position = offset + STRINGS;
+        for (int i = 0; i < index; i++) {
+            char length = buffer.getChar(offset + STRING_LENGTHS + i * 2);
+            if (NULL_STRING != length) {
+                position += length;
+            }
+        }
+        char length = buffer.getChar(offset + STRING_LENGTHS + index * 2);
+        if (NULL_STRING == length) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        // through a duplicate, as in write()
+        ByteBuffer in = buffer.duplicate();
+        in.position(position);
+        in.get(bytes);
+        try {
+            return new String(bytes, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static boolean isSet(ByteBuffer buffer, int offset, int flag) {
+        return 0 != (buffer.getInt(offset + FLAGS) & flag);
+    }
+
+    static Date getDate(ByteBuffer buffer, int offset, int field) {
+        long time = buffer.getLong(offset + field);
+        return Long.MIN_VALUE == time ? null : new Date(time);
+    }
+
+    private static long toTime(Date date) {
+        return null == date ? Long.MIN_VALUE : date.getTime();
+    }
+
+    private static byte[] toBytes(String str) {
+        if (null == str) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = str.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+        if (bytes.length >= NULL_STRING) {
+            throw new IllegalArgumentException("string too long to be archived: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+}
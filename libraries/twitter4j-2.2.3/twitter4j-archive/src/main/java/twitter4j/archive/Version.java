@@ -0,0 +1,42 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.archive;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public final class Version {
+    private static final String VERSION = "2.2.3";
+    private static final String TITLE = "Twitter4J Archive";
+
+    private Version() {
+        throw new AssertionError();
+    }
+
+    public static String getVersion() {
+        return VERSION;
+    }
+
+    /**
+     * prints the version string
+     *
+     * @param args will be just ignored.
+     */
+    public static void main(String[] args) {
+        System.out.println(TITLE + " " + VERSION);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.archive;
+
+import junit.framework.TestCase;
+import twitter4j.Status;
+import twitter4j.User;
+import twitter4j.json.DataObjectFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public class StatusArchiveTest extends TestCase {
+    private File directory;
+
+    public StatusArchiveTest(String name) {
+        super(name);
+    }
+
+    private static final String USER = "{\"id\":6358482,\"name\":\"Twitter4J\",\"screen_name\":\"twit4j\""
+            + ",\"location\":\"Tokyo \\u3042\",\"description\":null,\"contributors_enabled\":false"
+            + ",\"profile_image_url\":\"http:\\/\\/a0.twimg.com\\/profile_images\\/1.png\",\"url\":null"
+            + ",\"protected\":false,\"geo_enabled\":true,\"verified\":true,\"followers_count\":101"
+            + ",\"friends_count\":24,\"created_at\":\"Sun May 27 10:59:47 +0000 2007\""
+            + ",\"favourites_count\":0,\"utc_offset\":32400,\"time_zone\":\"Tokyo\""
+            + ",\"lang\":\"ja\",\"statuses_count\":1532,\"listed_count\":31}";
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        directory = File.createTempFile("archive", "");
+        directory.delete();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        File[] files = directory.listFiles();
+        if (null != files) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+        super.tearDown();
+    }
+
+    private static Status status(long id, String text) throws Exception {
+        return DataObjectFactory.createStatus("{\"created_at\":\"Tue Nov 08 07:34:58 +0000 2011\",\"id\":" + id
+                + ",\"text\":\"" + text + "\",\"source\":\"web\",\"truncated\":false"
+                + ",\"in_reply_to_status_id\":133800000000000000,\"in_reply_to_user_id\":6358482"
+                + ",\"in_reply_to_screen_name\":\"twit4j\",\"favorited\":true,\"retweet_count\":3"
+                + ",\"geo\":{\"type\":\"Point\",\"coordinates\":[35.6,139.7]},\"user\":" + USER + "}");
+    }
+
+    public void testAppendAndRead() throws Exception {
+        StatusArchive archive = new StatusArchive(directory);
+        Status original = status(133811048014868480L, "\\u3053\\u3093\\u306b\\u3061\\u306f");
+        assertTrue(archive.append(original));
+        assertFalse(archive.append(original));
+        assertEquals(1, archive.size());
+        assertNull(archive.getStatus(1));
+
+        Status status = archive.getStatus(133811048014868480L);
+        assertEquals(original, status);
+        assertEquals(original.getCreatedAt(), status.getCreatedAt());
+        assertEquals("\u3053\u3093\u306b\u3061\u306f", status.getText());
+        assertEquals("web", status.getSource());
+        assertEquals(133800000000000000L, status.getInReplyToStatusId());
+        assertEquals(6358482, status.getInReplyToUserId());
+        assertEquals("twit4j", status.getInReplyToScreenName());
+        assertTrue(status.isFavorited());
+        assertFalse(status.isTruncated());
+        assertFalse(status.isRetweet());
+        assertEquals(3, status.getRetweetCount());
+        assertEquals(original.getGeoLocation(), status.getGeoLocation());
+
+        User user = status.getUser();
+        assertEquals(6358482, user.getId());
+        assertEquals("twit4j", user.getScreenName());
+        assertEquals("Tokyo \u3042", user.getLocation());
+        assertNull(user.getDescription());
+        assertNull(user.getURL());
+        assertEquals("http://a0.twimg.com/profile_images/1.png", user.getProfileImageURL().toString());
+        assertEquals(original.getUser().getCreatedAt(), user.getCreatedAt());
+        assertEquals(101, user.getFollowersCount());
+        assertEquals(1532, user.getStatusesCount());
+        assertEquals(32400, user.getUtcOffset());
+        assertEquals("ja", user.getLang());
+        assertTrue(user.isVerified());
+        assertTrue(user.isGeoEnabled());
+        assertFalse(user.isProtected());
+        archive.close();
+        try {
+            archive.append(status(2, "closed"));
+            fail("expecting IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+        // views remain readable after close
+        assertEquals("twit4j", status.getUser().getScreenName());
+    }
+
+    public void testRetweet() throws Exception {
+        StatusArchive archive = new StatusArchive(directory);
+        Status retweet = DataObjectFactory.createStatus("{\"id\":200,\"text\":\"RT @twit4j: hello\",\"user\":" + USER
+                + ",\"retweeted_status\":{\"id\":100,\"text\":\"hello\",\"user\":" + USER + "}}");
+        archive.append(retweet);
+        assertEquals(2, archive.size());
+        Status status = archive.getStatus(200);
+        assertTrue(status.isRetweet());
+        assertEquals("hello", status.getRetweetedStatus().getText());
+        assertNull(archive.getStatus(100).getRetweetedStatus());
+        archive.close();
+    }
+
+    public void testSerialization() throws Exception {
+        StatusArchive archive = new StatusArchive(directory);
+        Status retweet = DataObjectFactory.createStatus("{\"id\":200,\"text\":\"RT @twit4j: hello\",\"user\":" + USER
+                + ",\"retweeted_status\":{\"id\":100,\"text\":\"hello\",\"user\":" + USER + "}}");
+        archive.append(retweet);
+        Status status = archive.getStatus(200);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(status);
+        out.writeObject(status.getUser());
+        out.close();
+        archive.close();
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Status copy = (Status) in.readObject();
+        assertEquals(status, copy);
+        assertEquals("RT @twit4j: hello", copy.getText());
+        assertEquals("hello", copy.getRetweetedStatus().getText());
+        assertEquals("Tokyo \u3042", copy.getUser().getLocation());
+        User user = (User) in.readObject();
+        assertEquals("twit4j", user.getScreenName());
+        assertEquals(1532, user.getStatusesCount());
+    }
+
+    public void testSegmentsAndReopen() throws Exception {
+        StatusArchive archive = new StatusArchive(directory, 2048);
+        for (int i = 1; i <= 100; i++) {
+            archive.append(status(i, "status " + i));
+        }
+        assertTrue(directory.list().length > 1);
+        assertEquals("status 50", archive.getStatus(50).getText());
+        archive.close();
+
+        archive = new StatusArchive(directory, 2048);
+        assertEquals(100, archive.size());
+        assertEquals("status 100", archive.getStatus(100).getText());
+        List<Long> ids = new ArrayList<Long>();
+        for (Status status : archive) {
+            ids.add(status.getId());
+        }
+        assertEquals(100, ids.size());
+        assertEquals(1L, (long) ids.get(0));
+        assertEquals(100L, (long) ids.get(99));
+        archive.append(status(101, "appended after reopen"));
+        assertEquals("appended after reopen", archive.getStatus(101).getText());
+        assertEquals("status 1", archive.getStatus(1).getText());
+        archive.close();
+    }
+}
@@ -23,12 +23,21 @@ import twitter4j.auth.RequestToken;
 import twitter4j.conf.Configuration;
 import twitter4j.internal.async.Dispatcher;
 import twitter4j.internal.async.DispatcherFactory;
+import twitter4j.internal.async.KeyedRunnable;
+import twitter4j.internal.http.DeferredRequestException;
+import twitter4j.internal.http.DeferredRetryException;
+import twitter4j.internal.http.HttpResponseEvent;
+import twitter4j.internal.http.HttpResponseListener;
+import twitter4j.internal.http.RequestDeferral;
+import twitter4j.internal.http.RetryDeferral;
 
 import java.io.File;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
 
 import static twitter4j.TwitterMethod.*;
 
@@ -2751,6 +2760,8 @@ class AsyncTwitterImpl extends TwitterBaseImpl
     }
 
     private static transient Dispatcher dispatcher;
+    // schedules deferred retries so that dispatcher threads never sleep between retries
+    private static transient Timer retryTimer;
 
     /**
      * {@inheritDoc}
@@ -2762,6 +2773,10 @@ class AsyncTwitterImpl extends TwitterBaseImpl
                 dispatcher.shutdown();
                 dispatcher = null;
             }
+            if (retryTimer != null) {
+                retryTimer.cancel();
+                retryTimer = null;
+            }
         }
         twitter.shutdown();
     }
@@ -2780,6 +2795,19 @@ class AsyncTwitterImpl extends TwitterBaseImpl
         return AsyncTwitterImpl.dispatcher;
     }
 
+    private void scheduleRetry(final AsyncTask task, long delay) {
+        synchronized (AsyncTwitterImpl.class) {
+            if (null == retryTimer) {
+                retryTimer = new Timer(true);
+            }
+            retryTimer.schedule(new TimerTask() {
+                public void run() {
+                    getDispatcher().invokeLater(task);
+                }
+            }, delay);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -2863,9 +2891,13 @@ class AsyncTwitterImpl extends TwitterBaseImpl
         return twitter.getOAuthAccessToken(screenName, password);
     }
 
-    abstract class AsyncTask implements Runnable {
+    abstract class AsyncTask implements KeyedRunnable {
         List<TwitterListener> listeners;
         TwitterMethod method;
+        // number of retries already made, carried over when the task is re-run after a deferred retry
+        int retriedCount = 0;
+        // responses received so far, replayed when the task is re-run after a deferred request
+        final List<HttpResponseEvent> responses = new ArrayList<HttpResponseEvent>(1);
 
         AsyncTask(TwitterMethod method, List<TwitterListener> listeners) {
             this.method = method;
@@ -2874,9 +2906,26 @@ class AsyncTwitterImpl extends TwitterBaseImpl
 
         abstract void invoke(List<TwitterListener> listeners) throws TwitterException;
 
+        public Object getKey() {
+            return method;
+        }
+
         public void run() {
+            RetryDeferral.begin(retriedCount);
+            RequestDeferral.begin(responses);
             try {
                 invoke(listeners);
+            } catch (DeferredRequestException dre) {
+                // the dispatcher thread is released while the request is in flight
+                dre.request(new HttpResponseListener() {
+                    public void httpResponseReceived(HttpResponseEvent event) {
+                        responses.add(event);
+                        getDispatcher().invokeLater(AsyncTask.this);
+                    }
+                });
+            } catch (DeferredRetryException dre) {
+                retriedCount = dre.getRetriedCount();
+                scheduleRetry(this, dre.getDelay());
             } catch (TwitterException te) {
                 if (null != listeners) {
                     for (TwitterListener listener : listeners) {
@@ -2886,6 +2935,9 @@ class AsyncTwitterImpl extends TwitterBaseImpl
                         }
                     }
                 }
+            } finally {
+                RetryDeferral.end();
+                RequestDeferral.end();
             }
         }
     }
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reads statuses, users, direct messages, lists, saved searches, relationships and trends written by
+ * {@link BinaryEncoder}, in the same order as they were written.<br>
+ * A decoder is stateful and not thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see BinaryEncoder
+ * @since Twitter4J 2.2.4
+ */
+public final class BinaryDecoder {
+    // upper bound of the length of a string or an array, far beyond anything the API returns
+    private static final int MAX_LENGTH = 1 << 20;
+    // lists grow as their elements are read, so that a corrupt size ends up at the end of the stream
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private final DataInputStream in;
+    private final List<String> strings = new ArrayList<String>();
+    private long lastId = 0;
+    private long lastTime = 0;
+
+    /**
+     * Creates a decoder reading from the specified stream. The header is read immediately.
+     *
+     * @param in stream to read from
+     * @throws IOException when failed to read the header, or the stream was not written by {@link BinaryEncoder}
+     */
+    public BinaryDecoder(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        if (BinaryEncoder.MAGIC != this.in.readShort()) {
+            throw new StreamCorruptedException("not written by BinaryEncoder");
+        }
+        int version = readVarInt();
+        if (BinaryEncoder.FORMAT_VERSION != version) {
+            throw new StreamCorruptedException("unsupported format version: " + version);
+        }
+    }
+
+    /**
+     * Decodes a status encoded by {@link BinaryEncoder#encode(Status)}.
+     *
+     * @param bytes encoded status
+     * @return decoded status
+     * @throws IOException when the bytes are malformed
+     */
+    public static Status decodeStatus(byte[] bytes) throws IOException {
+        return new BinaryDecoder(new ByteArrayInputStream(bytes)).readStatus();
+    }
+
+    /**
+     * @return the status, or null if null was written
+     * @throws IOException when failed to read
+     */
+    public Status readStatus() throws IOException {
+        return readBoolean() ? new StatusJSONImpl(this) : null;
+    }
+
+    /**
+     * @return the user, or null if null was written
+     * @throws IOException when failed to read
+     */
+    public User readUser() throws IOException {
+        return readBoolean() ? new UserJSONImpl(this) : null;
+    }
+
+    /**
+     * @return the direct message, or null if null was written
+     * @throws IOException when failed to read
+     */
+    public DirectMessage readDirectMessage() throws IOException {
+        return readBoolean() ? new DirectMessageJSONImpl(this) : null;
+    }
+
+    /**
+     * @return the list, or null if null was written
+     * @throws IOException when failed to read
+     */
+    public UserList readUserList() throws IOException {
+        return readBoolean() ? new UserListJSONImpl(this) : null;
+    }
+
+    /**
+     * @return the saved search, or null if null was written
+     * @throws IOException when failed to read
+     */
+    public SavedSearch readSavedSearch() throws IOException {
+        return readBoolean() ? new SavedSearchJSONImpl(this) : null;
+    }
+
+    /**
+     * @return the relationship, or null if null was written
+     * @throws IOException when failed to read
+     */
+    public Relationship readRelationship() throws IOException {
+        return readBoolean() ? new RelationshipJSONImpl(this) : null;
+    }
+
+    /**
+     * @return the trends, or null if null was written
+     * @throws IOException when failed to read
+     */
+    public Trends readTrends() throws IOException {
+        return readBoolean() ? new TrendsJSONImpl(this) : null;
+    }
+
+    /**
+     * @return statuses written by {@link BinaryEncoder#writeStatuses(java.util.List)}
+     * @throws IOException when failed to read
+     */
+    public ResponseList<Status> readStatuses() throws IOException {
+        int size = readSize();
+        ResponseList<Status> statuses = new ResponseListImpl<Status>(initialCapacity(size), null);
+        for (int i = 0; i < size; i++) {
+            statuses.add(readStatus());
+        }
+        return statuses;
+    }
+
+    /**
+     * @return users written by {@link BinaryEncoder#writeUsers(java.util.List)}
+     * @throws IOException when failed to read
+     */
+    public ResponseList<User> readUsers() throws IOException {
+        int size = readSize();
+        ResponseList<User> users = new ResponseListImpl<User>(initialCapacity(size), null);
+        for (int i = 0; i < size; i++) {
+            users.add(readUser());
+        }
+        return users;
+    }
+
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /*package*/ boolean readBoolean() throws IOException {
+        return 0 != in.readUnsignedByte();
+    }
+
+    /*package*/ int readVarInt() throws IOException {
+        return (int) readVarLong();
+    }
+
+    /**
+     * @return the length of a string or an array
+     */
+    /*package*/ int readLength() throws IOException {
+        int length = readVarInt();
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new StreamCorruptedException("invalid length: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * @return the length of an array, or -1 if null was written
+     */
+    /*package*/ int readNullableLength() throws IOException {
+        int length = readVarInt();
+        if (length < -1 || length > MAX_LENGTH) {
+            throw new StreamCorruptedException("invalid length: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * @return the number of elements of a list
+     */
+    private int readSize() throws IOException {
+        int size = readVarInt();
+        if (size < 0) {
+            throw new StreamCorruptedException("negative size: " + size);
+        }
+        return size;
+    }
+
+    private static int initialCapacity(int size) {
+        return Math.min(size, MAX_INITIAL_CAPACITY);
+    }
+
+    /*package*/ long readVarLong() throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if (0 == (b & 0x80)) {
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+        throw new StreamCorruptedException("malformed variable length integer");
+    }
+
+    /*package*/ long readId() throws IOException {
+        lastId += readVarLong();
+        return lastId;
+    }
+
+    /*package*/ double readDouble() throws IOException {
+        return in.readDouble();
+    }
+
+    /*package*/ Date readDate() throws IOException {
+        if (!readBoolean()) {
+            return null;
+        }
+        lastTime += readVarLong();
+        return new Date(lastTime);
+    }
+
+    /*package*/ URL readURL() throws IOException {
+        String url = readString();
+        if (null == url) {
+            return null;
+        }
+        try {
+            return new URL(url);
+        } catch (MalformedURLException ignore) {
+            return null;
+        }
+    }
+
+    /*package*/ String readString() throws IOException {
+        int code = readVarInt();
+        if (BinaryEncoder.NULL_STRING == code) {
+            return null;
+        }
+        if (BinaryEncoder.NEW_STRING != code) {
+            int index = code - BinaryEncoder.SHARED_STRING_BASE;
+            if (index < 0 || index >= strings.size()) {
+                throw new StreamCorruptedException("unknown string reference: " + code);
+            }
+            return strings.get(index);
+        }
+        byte[] bytes = new byte[readLength()];
+        in.readFully(bytes);
+        String str = new String(bytes, "UTF-8");
+        if (str.length() <= BinaryEncoder.MAX_SHARED_STRING_LENGTH && strings.size() < BinaryEncoder.MAX_SHARED_STRINGS) {
+            strings.add(str);
+        }
+        return str;
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes statuses, users, direct messages, lists, saved searches, relationships and trends in a compact binary form,
+ * read by {@link BinaryDecoder}.<br>
+ * Numbers are written as variable length integers, status ids and dates as the differences from the previous ones,
+ * and short strings repeated in the stream, such as screen names and sources, as references to the first occurrence.
+ * The result is several times smaller and faster to produce than the default Java serialization. Like the Java
+ * serialization, rate limit status and access level are not written.<br>
+ * An encoder is stateful and not thread safe. Objects written by an encoder must be read by one decoder in the same
+ * order.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see BinaryDecoder
+ * @since Twitter4J 2.2.4
+ */
+public final class BinaryEncoder {
+    static final int MAGIC = 0x5434;
+    static final int FORMAT_VERSION = 1;
+    // strings up to this length are referenced when repeated
+    static final int MAX_SHARED_STRING_LENGTH = 64;
+    static final int MAX_SHARED_STRINGS = 4096;
+
+    static final int NULL_STRING = 0;
+    static final int NEW_STRING = 1;
+    static final int SHARED_STRING_BASE = 2;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+    private long lastId = 0;
+    private long lastTime = 0;
+
+    /**
+     * Creates an encoder writing to the specified stream. The header is written immediately.
+     *
+     * @param out stream to write to
+     * @throws IOException when failed to write the header
+     */
+    public BinaryEncoder(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.out.writeShort(MAGIC);
+        writeVarInt(FORMAT_VERSION);
+    }
+
+    /**
+     * Encodes a status into a byte array, readable by {@link BinaryDecoder#decodeStatus(byte[])}.
+     *
+     * @param status status to encode
+     * @return encoded status
+     */
+    public static byte[] encode(Status status) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try {
+            BinaryEncoder encoder = new BinaryEncoder(bytes);
+            encoder.writeStatus(status);
+            encoder.flush();
+        } catch (IOException ioe) {
+            // never happens with ByteArrayOutputStream
+            throw new AssertionError(ioe);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param status status to write, may be null
+     * @throws IOException when failed to write
+     */
+    public void writeStatus(Status status) throws IOException {
+        writeBoolean(null != status);
+        if (null != status) {
+            StatusJSONImpl.write(status, this);
+        }
+    }
+
+    /**
+     * @param user user to write, may be null
+     * @throws IOException when failed to write
+     */
+    public void writeUser(User user) throws IOException {
+        writeBoolean(null != user);
+        if (null != user) {
+            UserJSONImpl.write(user, this);
+        }
+    }
+
+    /**
+     * @param message direct message to write, may be null
+     * @throws IOException when failed to write
+     */
+    public void writeDirectMessage(DirectMessage message) throws IOException {
+        writeBoolean(null != message);
+        if (null != message) {
+            DirectMessageJSONImpl.write(message, this);
+        }
+    }
+
+    /**
+     * @param list list to write, may be null
+     * @throws IOException when failed to write
+     */
+    public void writeUserList(UserList list) throws IOException {
+        writeBoolean(null != list);
+        if (null != list) {
+            UserListJSONImpl.write(list, this);
+        }
+    }
+
+    /**
+     * @param savedSearch saved search to write, may be null
+     * @throws IOException when failed to write
+     */
+    public void writeSavedSearch(SavedSearch savedSearch) throws IOException {
+        writeBoolean(null != savedSearch);
+        if (null != savedSearch) {
+            SavedSearchJSONImpl.write(savedSearch, this);
+        }
+    }
+
+    /**
+     * @param relationship relationship to write, may be null
+     * @throws IOException when failed to write
+     */
+    public void writeRelationship(Relationship relationship) throws IOException {
+        writeBoolean(null != relationship);
+        if (null != relationship) {
+            RelationshipJSONImpl.write(relationship, this);
+        }
+    }
+
+    /**
+     * @param trends trends to write, may be null
+     * @throws IOException when failed to write
+     */
+    public void writeTrends(Trends trends) throws IOException {
+        writeBoolean(null != trends);
+        if (null != trends) {
+            TrendsJSONImpl.write(trends, this);
+        }
+    }
+
+    /**
+     * Writes a list of statuses such as a {@link ResponseList} of a timeline.
+     *
+     * @param statuses statuses to write
+     * @throws IOException when failed to write
+     */
+    public void writeStatuses(List<Status> statuses) throws IOException {
+        writeVarInt(statuses.size());
+        for (Status status : statuses) {
+            writeStatus(status);
+        }
+    }
+
+    /**
+     * @param users users to write
+     * @throws IOException when failed to write
+     */
+    public void writeUsers(List<User> users) throws IOException {
+        writeVarInt(users.size());
+        for (User user : users) {
+            writeUser(user);
+        }
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /*package*/ void writeBoolean(boolean value) throws IOException {
+        out.write(value ? 1 : 0);
+    }
+
+    /*package*/ void writeVarInt(int value) throws IOException {
+        writeVarLong(value);
+    }
+
+    /**
+     * Writes a number in 7 bits groups, small absolute values including -1 in fewer bytes.
+     */
+    /*package*/ void writeVarLong(long value) throws IOException {
+        // zigzag encoding maps -1 to 1, 1 to 2, -2 to 3 and so on
+        long v = (value << 1) ^ (value >> 63);
+        while (0 != (v & ~0x7FL)) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    /**
+     * Writes an id of a status or a direct message as the difference from the previous one.
+     */
+    /*package*/ void writeId(long id) throws IOException {
+        writeVarLong(id - lastId);
+        lastId = id;
+    }
+
+    /*package*/ void writeDouble(double value) throws IOException {
+        out.writeDouble(value);
+    }
+
+    /*package*/ void writeDate(Date date) throws IOException {
+        writeBoolean(null != date);
+        if (null != date) {
+            long time = date.getTime();
+            writeVarLong(time - lastTime);
+            lastTime = time;
+        }
+    }
+
+    /*package*/ void writeURL(URL url) throws IOException {
+        writeString(null == url ? null : url.toString());
+    }
+
+    /*package*/ void writeString(String str) throws IOException {
+        if (null == str) {
+            writeVarInt(NULL_STRING);
+            return;
+        }
+        Integer index = strings.get(str);
+        if (null != index) {
+            writeVarInt(SHARED_STRING_BASE + index);
+            return;
+        }
+        writeVarInt(NEW_STRING);
+        byte[] bytes = str.getBytes("UTF-8");
+        writeVarInt(bytes.length);
+        out.write(bytes);
+        if (str.length() <= MAX_SHARED_STRING_LENGTH && strings.size() < MAX_SHARED_STRINGS) {
+            strings.put(str, strings.size());
+        }
+    }
+}
@@ -23,6 +23,7 @@ import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.Date;
 
 import static twitter4j.internal.util.ParseUtil.getDate;
@@ -59,6 +60,44 @@ import static twitter4j.internal.util.ParseUtil.getUnescapedString;
         init(json);
     }
 
+    /**
+     * @param in decoder positioned at a direct message written by {@link #write(DirectMessage, BinaryEncoder)}
+     * @throws IOException when failed to read the direct message
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/DirectMessageJSONImpl(BinaryDecoder in) throws IOException {
+        id = in.readId();
+        text = in.readString();
+        createdAt = in.readDate();
+        senderId = in.readVarLong();
+        recipientId = in.readVarLong();
+        senderScreenName = in.readString();
+        recipientScreenName = in.readString();
+        sender = in.readUser();
+        recipient = in.readUser();
+    }
+
+    /**
+     * Writes any implementation of DirectMessage, to be read by {@link #DirectMessageJSONImpl(BinaryDecoder)}.
+     *
+     * @param message direct message to write
+     * @param out     encoder
+     * @throws IOException when failed to write the direct message
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static void write(DirectMessage message, BinaryEncoder out) throws IOException {
+        out.writeId(message.getId());
+        out.writeString(message.getText());
+        out.writeDate(message.getCreatedAt());
+        out.writeVarLong(message.getSenderId());
+        out.writeVarLong(message.getRecipientId());
+        out.writeString(message.getSenderScreenName());
+        out.writeString(message.getRecipientScreenName());
+        out.writeUser(message.getSender());
+        out.writeUser(message.getRecipient());
+    }
+
     private void init(JSONObject json) throws TwitterException {
         id = getLong("id", json);
         text = getUnescapedString("text", json);
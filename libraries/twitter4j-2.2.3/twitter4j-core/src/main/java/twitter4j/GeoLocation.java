@@ -16,6 +16,7 @@
 
 package twitter4j;
 
+import twitter4j.internal.json.JSONPullParser;
 import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
@@ -67,6 +68,47 @@ public class GeoLocation implements java.io.Serializable {
         return null;
     }
 
+    /**
+     * returns a GeoLocation instance from the value of a "geo" element.
+     *
+     * @param parser parser positioned at the value of the "geo" element
+     * @return GeoLocation instance, or null if the value is null
+     * @throws TwitterException when coordinates is not included in geo element (should be an API side issue)
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static GeoLocation getInstance(JSONPullParser parser) throws TwitterException {
+        try {
+            if (JSONPullParser.START_OBJECT != parser.getToken()) {
+                parser.skipChildren();
+                return null;
+            }
+            GeoLocation geoLocation = null;
+            while (JSONPullParser.FIELD_NAME == parser.next()) {
+                String name = parser.getCurrentName();
+                parser.next();
+                if ("coordinates".equals(name) && JSONPullParser.START_ARRAY == parser.getToken()) {
+                    parser.next();
+                    double latitude = parser.getDoubleValue();
+                    parser.next();
+                    double longitude = parser.getDoubleValue();
+                    if (JSONPullParser.END_ARRAY != parser.next()) {
+                        throw new JSONException("Malformed coordinates.");
+                    }
+                    geoLocation = new GeoLocation(latitude, longitude);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (null == geoLocation) {
+                throw new JSONException("coordinates not found.");
+            }
+            return geoLocation;
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        }
+    }
+
     /*package*/
     static GeoLocation[][] coordinatesAsGeoLocationArray(JSONArray coordinates) throws TwitterException {
         try {
@@ -16,9 +16,13 @@
 
 package twitter4j;
 
+import twitter4j.internal.json.JSONPullParser;
 import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
+import twitter4j.internal.util.ParseUtil;
+
+import java.io.IOException;
 
 /**
  * A data class representing one single Hashtag entity.
@@ -52,6 +56,62 @@ import twitter4j.internal.org.json.JSONObject;
         }
     }
 
+    /**
+     * @param parser parser positioned at the start of the entity object
+     * @throws TwitterException when the entity is malformed
+     * @since Twitter4J 2.2.4
+     */
+    /* package */ HashtagEntityJSONImpl(JSONPullParser parser) throws TwitterException {
+        super();
+        try {
+            while (JSONPullParser.FIELD_NAME == parser.next()) {
+                String name = parser.getCurrentName();
+                parser.next();
+                if ("indices".equals(name)) {
+                    int[] indices = ParseUtil.getIntArray(parser);
+                    if (null == indices || indices.length < 2) {
+                        throw new JSONException("Malformed indices.");
+                    }
+                    this.start = indices[0];
+                    this.end = indices[1];
+                } else if ("text".equals(name)) {
+                    this.text = ParseUtil.getRawString(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        }
+    }
+
+    /**
+     * @param in decoder positioned at an entity written by {@link #write(HashtagEntity, BinaryEncoder)}
+     * @throws IOException when failed to read the entity
+     * @since Twitter4J 2.2.4
+     */
+    /* package */ HashtagEntityJSONImpl(BinaryDecoder in) throws IOException {
+        super();
+        start = in.readVarInt();
+        end = in.readVarInt();
+        text = in.readString();
+    }
+
+    /**
+     * Writes any implementation of HashtagEntity, to be read by {@link #HashtagEntityJSONImpl(BinaryDecoder)}.
+     *
+     * @param entity entity to write
+     * @param out    encoder
+     * @throws IOException when failed to write the entity
+     * @since Twitter4J 2.2.4
+     */
+    /* package */
+    static void write(HashtagEntity entity, BinaryEncoder out) throws IOException {
+        out.writeVarInt(entity.getStart());
+        out.writeVarInt(entity.getEnd());
+        out.writeString(entity.getText());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -19,11 +19,11 @@ package twitter4j;
 import twitter4j.conf.Configuration;
 import twitter4j.internal.http.HttpResponse;
 import twitter4j.internal.json.DataObjectFactoryUtil;
-import twitter4j.internal.org.json.JSONArray;
+import twitter4j.internal.json.JSONPullParser;
 import twitter4j.internal.org.json.JSONException;
-import twitter4j.internal.org.json.JSONObject;
 import twitter4j.internal.util.ParseUtil;
 
+import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
 
 /**
@@ -40,11 +40,13 @@ import java.util.Arrays;
 
     /*package*/ IDsJSONImpl(HttpResponse res, Configuration conf) throws TwitterException {
         super(res);
-        String json = res.asString();
-        init(json);
         if (conf.isJSONStoreEnabled()) {
+            String json = res.asString();
+            init(json);
             DataObjectFactoryUtil.clearThreadLocalMap();
             DataObjectFactoryUtil.registerJSONObject(this, json);
+        } else {
+            init(res.asJSONPullParser());
         }
     }
 
@@ -52,39 +54,61 @@ import java.util.Arrays;
         init(json);
     }
 
-    private void init(String jsonStr) throws TwitterException {
+    private void init(String json) throws TwitterException {
+        byte[] bytes;
+        try {
+            bytes = json.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException uee) {
+            throw new TwitterException(uee);
+        }
+        init(new JSONPullParser(bytes, 0, bytes.length));
+    }
 
-        JSONArray idList;
+    /**
+     * Reads the ids straight into the long[] without building a JSONArray of boxed values.
+     *
+     * @param parser parser positioned before {"ids":[...],...} or [...]. closed on return
+     * @throws TwitterException when the response is malformed
+     */
+    private void init(JSONPullParser parser) throws TwitterException {
         try {
-            if (jsonStr.startsWith("{")) {
-                JSONObject json = new JSONObject(jsonStr);
-                idList = json.getJSONArray("ids");
-                ids = new long[idList.length()];
-                for (int i = 0; i < idList.length(); i++) {
-                    try {
-                        ids[i] = Long.parseLong(idList.getString(i));
-                    } catch (NumberFormatException nfe) {
-                        throw new TwitterException("Twitter API returned malformed response: " + json, nfe);
+            int token = parser.next();
+            if (JSONPullParser.START_OBJECT == token) {
+                while (JSONPullParser.FIELD_NAME == parser.next()) {
+                    String name = parser.getCurrentName();
+                    parser.next();
+                    if ("ids".equals(name)) {
+                        ids = readIDs(parser);
+                    } else if ("previous_cursor".equals(name)) {
+                        previousCursor = ParseUtil.getLong(parser);
+                    } else if ("next_cursor".equals(name)) {
+                        nextCursor = ParseUtil.getLong(parser);
+                    } else {
+                        parser.skipChildren();
                     }
                 }
-                previousCursor = ParseUtil.getLong("previous_cursor", json);
-                nextCursor = ParseUtil.getLong("next_cursor", json);
-            } else {
-                idList = new JSONArray(jsonStr);
-                ids = new long[idList.length()];
-                for (int i = 0; i < idList.length(); i++) {
-                    try {
-                        ids[i] = Long.parseLong(idList.getString(i));
-                    } catch (NumberFormatException nfe) {
-                        throw new TwitterException("Twitter API returned malformed response: " + idList, nfe);
-                    }
+                if (null == ids) {
+                    throw new TwitterException("Twitter API returned malformed response: ids not found");
                 }
+            } else {
+                ids = readIDs(parser);
             }
         } catch (JSONException jsone) {
             throw new TwitterException(jsone);
+        } finally {
+            parser.close();
         }
+    }
 
-
+    private static long[] readIDs(JSONPullParser parser) throws TwitterException, JSONException {
+        if (JSONPullParser.START_ARRAY != parser.getToken()) {
+            throw new JSONException("Expected a JSON array: " + parser);
+        }
+        try {
+            return ParseUtil.getLongArray(parser);
+        } catch (JSONException jsone) {
+            throw new TwitterException("Twitter API returned malformed response: " + parser, jsone);
+        }
     }
 
     /**
@@ -0,0 +1,627 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.internal.json.JSONPullParser;
+import twitter4j.internal.logging.Logger;
+import twitter4j.internal.org.json.JSONException;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static twitter4j.internal.util.ParseUtil.getBoolean;
+import static twitter4j.internal.util.ParseUtil.getDate;
+import static twitter4j.internal.util.ParseUtil.getInternedUnescapedString;
+import static twitter4j.internal.util.ParseUtil.getLong;
+import static twitter4j.internal.util.ParseUtil.getUnescapedString;
+
+/**
+ * A status decoded on demand from its raw JSON.<br>
+ * The constructor only records where the value of each field starts and ends in the bytes. Each getter decodes its
+ * field on the first call and keeps the result, so a consumer reading the id, the text and the user pays for those
+ * three fields only. The retweeted status is lazy as well.<br>
+ * A field that fails to decode is logged and reported as absent, as getters cannot throw TwitterException.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+/*package*/ final class LazyStatusJSONImpl extends TwitterResponseImpl implements Status, java.io.Serializable {
+    private static final Logger logger = Logger.getLogger(LazyStatusJSONImpl.class);
+    private static final long serialVersionUID = -2390452873716187443L;
+
+    private static final int ID = 0;
+    private static final int TEXT = 1;
+    private static final int SOURCE = 2;
+    private static final int CREATED_AT = 3;
+    private static final int TRUNCATED = 4;
+    private static final int IN_REPLY_TO_STATUS_ID = 5;
+    private static final int IN_REPLY_TO_USER_ID = 6;
+    private static final int FAVORITED = 7;
+    private static final int IN_REPLY_TO_SCREEN_NAME = 8;
+    private static final int RETWEET_COUNT = 9;
+    private static final int RETWEETED = 10;
+    private static final int USER = 11;
+    private static final int GEO = 12;
+    private static final int PLACE = 13;
+    private static final int RETWEETED_STATUS = 14;
+    private static final int CONTRIBUTORS = 15;
+    private static final int ENTITIES = 16;
+    private static final int ANNOTATIONS = 17;
+    private static final int SENDER = 18;
+    private static final int NUM_FIELDS = 19;
+    // the entities object holds four fields decoded separately
+    private static final int USER_MENTIONS = 19;
+    private static final int URLS = 20;
+    private static final int HASHTAGS = 21;
+    private static final int MEDIA = 22;
+
+    private static final Map<String, Integer> FIELDS = new HashMap<String, Integer>();
+
+    static {
+        String[] names = {"id", "text", "source", "created_at", "truncated", "in_reply_to_status_id",
+                "in_reply_to_user_id", "favorited", "in_reply_to_screen_name", "retweet_count", "retweeted", "user",
+                "geo", "place", "retweeted_status", "contributors", "entities", "annotations", "sender"};
+        for (int i = 0; i < names.length; i++) {
+            FIELDS.put(names[i], i);
+        }
+    }
+
+    private final byte[] bytes;
+    private final transient UserCache userCache;
+    // start and end of the value of each field in bytes. -1 when the field is absent or null
+    private final int[] starts = new int[NUM_FIELDS];
+    private final int[] ends = new int[NUM_FIELDS];
+    // bit per field already decoded
+    private int decoded = 0;
+
+    private Date createdAt;
+    private long id = -1;
+    private String text;
+    private String source;
+    private boolean isTruncated;
+    private long inReplyToStatusId = -1;
+    private long inReplyToUserId = -1;
+    private boolean isFavorited;
+    private String inReplyToScreenName;
+    private GeoLocation geoLocation;
+    private Place place;
+    private long retweetCount = -1;
+    private boolean wasRetweetedByMe;
+    private long[] contributorsIDs;
+    private Annotations annotations;
+    private User user;
+    private Status retweetedStatus;
+    private UserMentionEntity[] userMentionEntities;
+    private URLEntity[] urlEntities;
+    private HashtagEntity[] hashtagEntities;
+    private MediaEntity[] mediaEntities;
+
+    /**
+     * Indexes a status. The bytes are referenced, not copied, and must not be modified afterwards.
+     *
+     * @param bytes  bytes holding a JSON object
+     * @param offset offset of the object
+     * @param length length of the object
+     * @throws TwitterException when the JSON is malformed
+     */
+    /*package*/ LazyStatusJSONImpl(byte[] bytes, int offset, int length) throws TwitterException {
+        this(bytes, offset, length, null);
+    }
+
+    /**
+     * Indexes a status. The bytes are referenced, not copied, and must not be modified afterwards.
+     *
+     * @param bytes     bytes holding a JSON object
+     * @param offset    offset of the object
+     * @param length    length of the object
+     * @param userCache cache sharing the user instances, or null
+     * @throws TwitterException when the JSON is malformed
+     */
+    /*package*/ LazyStatusJSONImpl(byte[] bytes, int offset, int length, UserCache userCache) throws TwitterException {
+        super();
+        this.bytes = bytes;
+        this.userCache = userCache;
+        Arrays.fill(starts, -1);
+        JSONPullParser parser = new JSONPullParser(bytes, offset, length);
+        try {
+            if (JSONPullParser.START_OBJECT != parser.next()) {
+                throw new TwitterException("Expected a JSON object: " + parser);
+            }
+            index(parser);
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        }
+    }
+
+    private LazyStatusJSONImpl(byte[] bytes, JSONPullParser parser, UserCache userCache) throws JSONException {
+        super();
+        this.bytes = bytes;
+        this.userCache = userCache;
+        Arrays.fill(starts, -1);
+        index(parser);
+    }
+
+    private void index(JSONPullParser parser) throws JSONException {
+        while (JSONPullParser.FIELD_NAME == parser.next()) {
+            Integer field = FIELDS.get(parser.getCurrentName());
+            int start = parser.getPosition();
+            parser.next();
+            if (null == field || JSONPullParser.VALUE_NULL == parser.getToken()) {
+                parser.skipChildren();
+                continue;
+            }
+            parser.skipChildren();
+            starts[field] = start;
+            ends[field] = parser.getPosition();
+        }
+    }
+
+    /**
+     * @return true if the JSON is a status, in the way {@link twitter4j.json.JSONObjectType#determine} tells
+     */
+    /*package*/ boolean isStatus() {
+        return -1 != starts[TEXT] && -1 == starts[SENDER];
+    }
+
+    /**
+     * Marks the field as decoded.
+     *
+     * @param field field
+     * @return true if the field is to be decoded now
+     */
+    private boolean firstAccess(int field) {
+        int bit = 1 << field;
+        if (0 != (decoded & bit)) {
+            return false;
+        }
+        decoded |= bit;
+        return -1 != starts[USER_MENTIONS <= field ? ENTITIES : field];
+    }
+
+    private JSONPullParser parserAt(int field) throws JSONException {
+        JSONPullParser parser = new JSONPullParser(bytes, starts[field], ends[field] - starts[field]);
+        parser.next();
+        return parser;
+    }
+
+    /**
+     * @param name name of an entity array
+     * @return parser positioned at the array, or null if it is not in the entities object
+     */
+    private JSONPullParser entitiesParserAt(String name) throws JSONException {
+        JSONPullParser parser = parserAt(ENTITIES);
+        if (JSONPullParser.START_OBJECT != parser.getToken()) {
+            return null;
+        }
+        while (JSONPullParser.FIELD_NAME == parser.next()) {
+            boolean found = name.equals(parser.getCurrentName());
+            parser.next();
+            if (found) {
+                return JSONPullParser.START_ARRAY == parser.getToken() ? parser : null;
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    private void failedToDecode(String name, Exception e) {
+        logger.warn("failed to parse " + name + ":" + e.getMessage());
+    }
+
+    private long decodeLong(int field, String name, long defaultValue) {
+        try {
+            return getLong(parserAt(field));
+        } catch (JSONException jsone) {
+            failedToDecode(name, jsone);
+            return defaultValue;
+        } catch (NumberFormatException nfe) {
+            failedToDecode(name, nfe);
+            return defaultValue;
+        }
+    }
+
+    private String decodeString(int field, String name) {
+        try {
+            return getUnescapedString(parserAt(field));
+        } catch (JSONException jsone) {
+            failedToDecode(name, jsone);
+            return null;
+        }
+    }
+
+    private String decodeInternedString(int field, String name) {
+        try {
+            return getInternedUnescapedString(parserAt(field));
+        } catch (JSONException jsone) {
+            failedToDecode(name, jsone);
+            return null;
+        }
+    }
+
+    private boolean decodeBoolean(int field, String name) {
+        try {
+            return getBoolean(parserAt(field));
+        } catch (JSONException jsone) {
+            failedToDecode(name, jsone);
+            return false;
+        }
+    }
+
+    public int compareTo(Status that) {
+        long delta = getId() - that.getId();
+        if (delta < Integer.MIN_VALUE) {
+            return Integer.MIN_VALUE;
+        } else if (delta > Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) delta;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized Date getCreatedAt() {
+        if (firstAccess(CREATED_AT)) {
+            try {
+                createdAt = getDate(parserAt(CREATED_AT), "EEE MMM d HH:mm:ss z yyyy");
+            } catch (JSONException jsone) {
+                failedToDecode("created_at", jsone);
+            } catch (TwitterException te) {
+                failedToDecode("created_at", te);
+            }
+        }
+        return createdAt;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized long getId() {
+        if (firstAccess(ID)) {
+            id = decodeLong(ID, "id", -1);
+        }
+        return id;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized String getText() {
+        if (firstAccess(TEXT)) {
+            text = decodeString(TEXT, "text");
+        }
+        return text;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized String getSource() {
+        if (firstAccess(SOURCE)) {
+            source = decodeInternedString(SOURCE, "source");
+        }
+        return source;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized boolean isTruncated() {
+        if (firstAccess(TRUNCATED)) {
+            isTruncated = decodeBoolean(TRUNCATED, "truncated");
+        }
+        return isTruncated;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized long getInReplyToStatusId() {
+        if (firstAccess(IN_REPLY_TO_STATUS_ID)) {
+            inReplyToStatusId = decodeLong(IN_REPLY_TO_STATUS_ID, "in_reply_to_status_id", -1);
+        }
+        return inReplyToStatusId;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized long getInReplyToUserId() {
+        if (firstAccess(IN_REPLY_TO_USER_ID)) {
+            inReplyToUserId = decodeLong(IN_REPLY_TO_USER_ID, "in_reply_to_user_id", -1);
+        }
+        return inReplyToUserId;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized String getInReplyToScreenName() {
+        if (firstAccess(IN_REPLY_TO_SCREEN_NAME)) {
+            inReplyToScreenName = decodeString(IN_REPLY_TO_SCREEN_NAME, "in_reply_to_screen_name");
+        }
+        return inReplyToScreenName;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized GeoLocation getGeoLocation() {
+        if (firstAccess(GEO)) {
+            try {
+                geoLocation = GeoLocation.getInstance(parserAt(GEO));
+            } catch (JSONException jsone) {
+                failedToDecode("geo", jsone);
+            } catch (TwitterException te) {
+                failedToDecode("geo", te);
+            }
+        }
+        return geoLocation;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized Place getPlace() {
+        if (firstAccess(PLACE)) {
+            try {
+                JSONPullParser parser = parserAt(PLACE);
+                if (JSONPullParser.START_OBJECT == parser.getToken()) {
+                    place = new PlaceJSONImpl(parser.readJSONObject());
+                }
+            } catch (JSONException jsone) {
+                failedToDecode("place", jsone);
+            } catch (TwitterException te) {
+                failedToDecode("place", te);
+            }
+        }
+        return place;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized long[] getContributors() {
+        if (firstAccess(CONTRIBUTORS)) {
+            try {
+                JSONPullParser parser = parserAt(CONTRIBUTORS);
+                if (JSONPullParser.START_ARRAY == parser.getToken()) {
+                    contributorsIDs = StatusJSONImpl.readContributors(parser);
+                }
+            } catch (JSONException jsone) {
+                failedToDecode("contributors", jsone);
+            }
+        }
+        return contributorsIDs;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized Annotations getAnnotations() {
+        if (firstAccess(ANNOTATIONS)) {
+            try {
+                JSONPullParser parser = parserAt(ANNOTATIONS);
+                if (JSONPullParser.START_ARRAY == parser.getToken()) {
+                    annotations = new Annotations(parser.readJSONArray());
+                }
+            } catch (JSONException jsone) {
+                failedToDecode("annotations", jsone);
+            }
+        }
+        return annotations;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized boolean isFavorited() {
+        if (firstAccess(FAVORITED)) {
+            isFavorited = decodeBoolean(FAVORITED, "favorited");
+        }
+        return isFavorited;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized User getUser() {
+        if (firstAccess(USER)) {
+            try {
+                JSONPullParser parser = parserAt(USER);
+                if (JSONPullParser.START_OBJECT == parser.getToken()) {
+                    UserJSONImpl userJSONImpl = new UserJSONImpl(parser);
+                    user = null != userCache ? userCache.intern(userJSONImpl) : userJSONImpl;
+                }
+            } catch (JSONException jsone) {
+                failedToDecode("user", jsone);
+            } catch (TwitterException te) {
+                failedToDecode("user", te);
+            }
+        }
+        return user;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean isRetweet() {
+        return -1 != starts[RETWEETED_STATUS];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized Status getRetweetedStatus() {
+        if (firstAccess(RETWEETED_STATUS)) {
+            try {
+                JSONPullParser parser = new JSONPullParser(bytes, starts[RETWEETED_STATUS],
+                        ends[RETWEETED_STATUS] - starts[RETWEETED_STATUS]);
+                if (JSONPullParser.START_OBJECT == parser.next()) {
+                    retweetedStatus = new LazyStatusJSONImpl(bytes, parser, userCache);
+                }
+            } catch (JSONException jsone) {
+                failedToDecode("retweeted_status", jsone);
+            }
+        }
+        return retweetedStatus;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized long getRetweetCount() {
+        if (firstAccess(RETWEET_COUNT)) {
+            retweetCount = decodeLong(RETWEET_COUNT, "retweet_count", -1);
+        }
+        return retweetCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized boolean isRetweetedByMe() {
+        if (firstAccess(RETWEETED)) {
+            wasRetweetedByMe = decodeBoolean(RETWEETED, "retweeted");
+        }
+        return wasRetweetedByMe;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized UserMentionEntity[] getUserMentionEntities() {
+        if (firstAccess(USER_MENTIONS)) {
+            try {
+                JSONPullParser parser = entitiesParserAt("user_mentions");
+                if (null != parser) {
+                    userMentionEntities = StatusJSONImpl.readUserMentionEntities(parser);
+                }
+            } catch (JSONException jsone) {
+                failedToDecode("user_mentions", jsone);
+            } catch (TwitterException te) {
+                failedToDecode("user_mentions", te);
+            }
+        }
+        return userMentionEntities;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized URLEntity[] getURLEntities() {
+        if (firstAccess(URLS)) {
+            try {
+                JSONPullParser parser = entitiesParserAt("urls");
+                if (null != parser) {
+                    urlEntities = StatusJSONImpl.readURLEntities(parser);
+                }
+            } catch (JSONException jsone) {
+                failedToDecode("urls", jsone);
+            } catch (TwitterException te) {
+                failedToDecode("urls", te);
+            }
+        }
+        return urlEntities;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized HashtagEntity[] getHashtagEntities() {
+        if (firstAccess(HASHTAGS)) {
+            try {
+                JSONPullParser parser = entitiesParserAt("hashtags");
+                if (null != parser) {
+                    hashtagEntities = StatusJSONImpl.readHashtagEntities(parser);
+                }
+            } catch (JSONException jsone) {
+                failedToDecode("hashtags", jsone);
+            } catch (TwitterException te) {
+                failedToDecode("hashtags", te);
+            }
+        }
+        return hashtagEntities;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized MediaEntity[] getMediaEntities() {
+        if (firstAccess(MEDIA)) {
+            try {
+                JSONPullParser parser = entitiesParserAt("media");
+                if (null != parser) {
+                    mediaEntities = StatusJSONImpl.readMediaEntities(parser);
+                }
+            } catch (JSONException jsone) {
+                failedToDecode("media", jsone);
+            } catch (TwitterException te) {
+                failedToDecode("media", te);
+            }
+        }
+        return mediaEntities;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) getId();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (null == obj) {
+            return false;
+        }
+        if (this == obj) {
+            return true;
+        }
+        return obj instanceof Status && ((Status) obj).getId() == getId();
+    }
+
+    @Override
+    public String toString() {
+        long[] contributors = getContributors();
+        UserMentionEntity[] userMentionEntities = getUserMentionEntities();
+        URLEntity[] urlEntities = getURLEntities();
+        HashtagEntity[] hashtagEntities = getHashtagEntities();
+        return "LazyStatusJSONImpl{" +
+                "createdAt=" + getCreatedAt() +
+                ", id=" + getId() +
+                ", text='" + getText() + '\'' +
+                ", source='" + getSource() + '\'' +
+                ", isTruncated=" + isTruncated() +
+                ", inReplyToStatusId=" + getInReplyToStatusId() +
+                ", inReplyToUserId=" + getInReplyToUserId() +
+                ", isFavorited=" + isFavorited() +
+                ", inReplyToScreenName='" + getInReplyToScreenName() + '\'' +
+                ", geoLocation=" + getGeoLocation() +
+                ", place=" + getPlace() +
+                ", retweetCount=" + getRetweetCount() +
+                ", wasRetweetedByMe=" + isRetweetedByMe() +
+                ", contributors=" + (contributors == null ? null : Arrays.asList(contributors)) +
+                ", annotations=" + getAnnotations() +
+                ", retweetedStatus=" + getRetweetedStatus() +
+                ", userMentionEntities=" + (userMentionEntities == null ? null : Arrays.asList(userMentionEntities)) +
+                ", urlEntities=" + (urlEntities == null ? null : Arrays.asList(urlEntities)) +
+                ", hashtagEntities=" + (hashtagEntities == null ? null : Arrays.asList(hashtagEntities)) +
+                ", user=" + getUser() +
+                '}';
+    }
+}
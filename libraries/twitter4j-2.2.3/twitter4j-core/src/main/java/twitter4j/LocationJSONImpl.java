@@ -23,6 +23,8 @@ import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 
+import java.io.IOException;
+
 import static twitter4j.internal.util.ParseUtil.getInt;
 import static twitter4j.internal.util.ParseUtil.getRawString;
 import static twitter4j.internal.util.ParseUtil.getUnescapedString;
@@ -60,6 +62,40 @@ import static twitter4j.internal.util.ParseUtil.getUnescapedString;
         }
     }
 
+    /**
+     * @param in decoder positioned at a location written by {@link #write(Location, BinaryEncoder)}
+     * @throws IOException when failed to read the location
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/ LocationJSONImpl(BinaryDecoder in) throws IOException {
+        woeid = in.readVarInt();
+        countryName = in.readString();
+        countryCode = in.readString();
+        placeName = in.readString();
+        placeCode = in.readVarInt();
+        name = in.readString();
+        url = in.readString();
+    }
+
+    /**
+     * Writes any implementation of Location, to be read by {@link #LocationJSONImpl(BinaryDecoder)}.
+     *
+     * @param location location to write
+     * @param out      encoder
+     * @throws IOException when failed to write the location
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static void write(Location location, BinaryEncoder out) throws IOException {
+        out.writeVarInt(location.getWoeid());
+        out.writeString(location.getCountryName());
+        out.writeString(location.getCountryCode());
+        out.writeString(location.getPlaceName());
+        out.writeVarInt(location.getPlaceCode());
+        out.writeString(location.getName());
+        out.writeString(location.getURL());
+    }
+
     /*package*/
     static ResponseList<Location> createLocationList(HttpResponse res, Configuration conf) throws TwitterException {
         if (conf.isJSONStoreEnabled()) {
@@ -19,6 +19,7 @@ import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.HashMap;
@@ -87,6 +88,64 @@ public class MediaEntityJSONImpl implements MediaEntity {
 
     }
 
+    /**
+     * @param in decoder positioned at a media entity written by {@link #write(MediaEntity, BinaryEncoder)}
+     * @throws IOException when failed to read the entity
+     * @since Twitter4J 2.2.4
+     */
+    /* package */ MediaEntityJSONImpl(BinaryDecoder in) throws IOException {
+        id = in.readVarLong();
+        start = in.readVarInt();
+        end = in.readVarInt();
+        url = in.readURL();
+        mediaURL = in.readURL();
+        mediaURLHttps = in.readURL();
+        expandedURL = in.readURL();
+        displayURL = in.readString();
+        int size = in.readNullableLength();
+        if (-1 != size) {
+            sizes = new HashMap<Integer, MediaEntity.Size>(size);
+            for (int i = 0; i < size; i++) {
+                Size mediaSize = new Size();
+                int key = in.readVarInt();
+                mediaSize.width = in.readVarInt();
+                mediaSize.height = in.readVarInt();
+                mediaSize.resize = in.readVarInt();
+                sizes.put(key, mediaSize);
+            }
+        }
+    }
+
+    /**
+     * Writes any implementation of MediaEntity, to be read by {@link #MediaEntityJSONImpl(BinaryDecoder)}.
+     *
+     * @param entity entity to write
+     * @param out    encoder
+     * @throws IOException when failed to write the entity
+     * @since Twitter4J 2.2.4
+     */
+    /* package */
+    static void write(MediaEntity entity, BinaryEncoder out) throws IOException {
+        out.writeVarLong(entity.getId());
+        out.writeVarInt(entity.getStart());
+        out.writeVarInt(entity.getEnd());
+        out.writeURL(entity.getURL());
+        out.writeURL(entity.getMediaURL());
+        out.writeURL(entity.getMediaURLHttps());
+        out.writeURL(entity.getExpandedURL());
+        out.writeString(entity.getDisplayURL());
+        Map<Integer, MediaEntity.Size> sizes = entity.getSizes();
+        out.writeVarInt(null == sizes ? -1 : sizes.size());
+        if (null != sizes) {
+            for (Map.Entry<Integer, MediaEntity.Size> size : sizes.entrySet()) {
+                out.writeVarInt(size.getKey());
+                out.writeVarInt(size.getValue().getWidth());
+                out.writeVarInt(size.getValue().getHeight());
+                out.writeVarInt(size.getValue().getResize());
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -153,6 +212,9 @@ public class MediaEntityJSONImpl implements MediaEntity {
         int height;
         int resize;
 
+        Size() {
+        }
+
         Size(JSONObject json) throws JSONException {
             width = json.getInt("w");
             height = json.getInt("h");
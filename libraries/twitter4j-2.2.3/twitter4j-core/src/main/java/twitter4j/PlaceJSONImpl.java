@@ -23,8 +23,10 @@ import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.Arrays;
 
+import static twitter4j.internal.util.ParseUtil.getInternedString;
 import static twitter4j.internal.util.ParseUtil.getRawString;
 import static twitter4j.internal.util.ParseUtil.getUnescapedString;
 
@@ -68,17 +70,103 @@ final class PlaceJSONImpl extends TwitterResponseImpl implements Place, java.io.
         init(json);
     }
 
+    /**
+     * @param in decoder positioned at a place written by {@link #write(Place, BinaryEncoder)}
+     * @throws IOException when failed to read the place
+     * @since Twitter4J 2.2.4
+     */
+    PlaceJSONImpl(BinaryDecoder in) throws IOException {
+        super();
+        id = in.readString();
+        name = in.readString();
+        fullName = in.readString();
+        streetAddress = in.readString();
+        countryCode = in.readString();
+        country = in.readString();
+        placeType = in.readString();
+        url = in.readString();
+        boundingBoxType = in.readString();
+        boundingBoxCoordinates = readCoordinates(in);
+        geometryType = in.readString();
+        geometryCoordinates = readCoordinates(in);
+        int length = in.readNullableLength();
+        if (-1 != length) {
+            containedWithIn = new Place[length];
+            for (int i = 0; i < length; i++) {
+                containedWithIn[i] = new PlaceJSONImpl(in);
+            }
+        }
+    }
+
+    /**
+     * Writes any implementation of Place, to be read by {@link #PlaceJSONImpl(BinaryDecoder)}.
+     *
+     * @param place place to write
+     * @param out   encoder
+     * @throws IOException when failed to write the place
+     * @since Twitter4J 2.2.4
+     */
+    static void write(Place place, BinaryEncoder out) throws IOException {
+        out.writeString(place.getId());
+        out.writeString(place.getName());
+        out.writeString(place.getFullName());
+        out.writeString(place.getStreetAddress());
+        out.writeString(place.getCountryCode());
+        out.writeString(place.getCountry());
+        out.writeString(place.getPlaceType());
+        out.writeString(place.getURL());
+        out.writeString(place.getBoundingBoxType());
+        writeCoordinates(place.getBoundingBoxCoordinates(), out);
+        out.writeString(place.getGeometryType());
+        writeCoordinates(place.getGeometryCoordinates(), out);
+        Place[] containedWithIn = place.getContainedWithIn();
+        out.writeVarInt(null == containedWithIn ? -1 : containedWithIn.length);
+        if (null != containedWithIn) {
+            for (Place contained : containedWithIn) {
+                write(contained, out);
+            }
+        }
+    }
+
+    private static GeoLocation[][] readCoordinates(BinaryDecoder in) throws IOException {
+        int length = in.readNullableLength();
+        if (-1 == length) {
+            return null;
+        }
+        GeoLocation[][] coordinates = new GeoLocation[length][];
+        for (int i = 0; i < length; i++) {
+            coordinates[i] = new GeoLocation[in.readLength()];
+            for (int j = 0; j < coordinates[i].length; j++) {
+                coordinates[i][j] = new GeoLocation(in.readDouble(), in.readDouble());
+            }
+        }
+        return coordinates;
+    }
+
+    private static void writeCoordinates(GeoLocation[][] coordinates, BinaryEncoder out) throws IOException {
+        out.writeVarInt(null == coordinates ? -1 : coordinates.length);
+        if (null != coordinates) {
+            for (GeoLocation[] polygon : coordinates) {
+                out.writeVarInt(polygon.length);
+                for (GeoLocation point : polygon) {
+                    out.writeDouble(point.getLatitude());
+                    out.writeDouble(point.getLongitude());
+                }
+            }
+        }
+    }
+
     private void init(JSONObject json) throws TwitterException {
         try {
             name = getUnescapedString("name", json);
             streetAddress = getUnescapedString("street_address", json);
-            countryCode = getRawString("country_code", json);
+            countryCode = getInternedString("country_code", json);
             id = getRawString("id", json);
             country = getRawString("country", json);
             if (!json.isNull("place_type")) {
-                placeType = getRawString("place_type", json);
+                placeType = getInternedString("place_type", json);
             } else {
-                placeType = getRawString("type", json);
+                placeType = getInternedString("type", json);
             }
             url = getRawString("url", json);
             fullName = getRawString("full_name", json);
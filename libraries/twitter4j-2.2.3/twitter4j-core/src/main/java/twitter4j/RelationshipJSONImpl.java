@@ -23,6 +23,8 @@ import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 
+import java.io.IOException;
+
 import static twitter4j.internal.util.ParseUtil.getBoolean;
 import static twitter4j.internal.util.ParseUtil.getLong;
 import static twitter4j.internal.util.ParseUtil.getUnescapedString;
@@ -77,6 +79,49 @@ import static twitter4j.internal.util.ParseUtil.getUnescapedString;
         }
     }
 
+    private static final int BLOCKING = 1;
+    private static final int NOTIFICATIONS_ENABLED = 1 << 1;
+    private static final int FOLLOWING = 1 << 2;
+    private static final int FOLLOWED_BY = 1 << 3;
+
+    /**
+     * @param in decoder positioned at a relationship written by {@link #write(Relationship, BinaryEncoder)}
+     * @throws IOException when failed to read the relationship
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/ RelationshipJSONImpl(BinaryDecoder in) throws IOException {
+        super();
+        sourceUserId = in.readVarLong();
+        targetUserId = in.readVarLong();
+        sourceUserScreenName = in.readString();
+        targetUserScreenName = in.readString();
+        int flags = in.readVarInt();
+        sourceBlockingTarget = 0 != (flags & BLOCKING);
+        sourceNotificationsEnabled = 0 != (flags & NOTIFICATIONS_ENABLED);
+        sourceFollowingTarget = 0 != (flags & FOLLOWING);
+        sourceFollowedByTarget = 0 != (flags & FOLLOWED_BY);
+    }
+
+    /**
+     * Writes any implementation of Relationship, to be read by {@link #RelationshipJSONImpl(BinaryDecoder)}.
+     *
+     * @param relationship relationship to write
+     * @param out          encoder
+     * @throws IOException when failed to write the relationship
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static void write(Relationship relationship, BinaryEncoder out) throws IOException {
+        out.writeVarLong(relationship.getSourceUserId());
+        out.writeVarLong(relationship.getTargetUserId());
+        out.writeString(relationship.getSourceUserScreenName());
+        out.writeString(relationship.getTargetUserScreenName());
+        out.writeVarInt((relationship.isSourceBlockingTarget() ? BLOCKING : 0)
+                | (relationship.isSourceNotificationsEnabled() ? NOTIFICATIONS_ENABLED : 0)
+                | (relationship.isSourceFollowingTarget() ? FOLLOWING : 0)
+                | (relationship.isSourceFollowedByTarget() ? FOLLOWED_BY : 0));
+    }
+
     /*package*/
     static ResponseList<Relationship> createRelationshipList(HttpResponse res, Configuration conf) throws TwitterException {
         try {
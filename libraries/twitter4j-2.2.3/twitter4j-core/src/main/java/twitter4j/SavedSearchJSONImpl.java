@@ -23,6 +23,7 @@ import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.Date;
 
 import static twitter4j.internal.util.ParseUtil.getDate;
@@ -60,6 +61,37 @@ import static twitter4j.internal.util.ParseUtil.getUnescapedString;
         init(savedSearch);
     }
 
+    /**
+     * @param in decoder positioned at a saved search written by {@link #write(SavedSearch, BinaryEncoder)}
+     * @throws IOException when failed to read the saved search
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/ SavedSearchJSONImpl(BinaryDecoder in) throws IOException {
+        super();
+        id = in.readVarInt();
+        createdAt = in.readDate();
+        query = in.readString();
+        position = in.readVarInt();
+        name = in.readString();
+    }
+
+    /**
+     * Writes any implementation of SavedSearch, to be read by {@link #SavedSearchJSONImpl(BinaryDecoder)}.
+     *
+     * @param savedSearch saved search to write
+     * @param out         encoder
+     * @throws IOException when failed to write the saved search
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static void write(SavedSearch savedSearch, BinaryEncoder out) throws IOException {
+        out.writeVarInt(savedSearch.getId());
+        out.writeDate(savedSearch.getCreatedAt());
+        out.writeString(savedSearch.getQuery());
+        out.writeVarInt(savedSearch.getPosition());
+        out.writeString(savedSearch.getName());
+    }
+
     /*package*/
     static ResponseList<SavedSearch> createSavedSearchList(HttpResponse res, Configuration conf) throws TwitterException {
         if (conf.isJSONStoreEnabled()) {
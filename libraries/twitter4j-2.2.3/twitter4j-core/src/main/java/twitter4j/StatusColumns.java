@@ -0,0 +1,210 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.util.Date;
+
+/**
+ * Compact storage of a large number of statuses, held column by column in primitive arrays instead of as Status
+ * objects. Ids, counts and timestamps are stored as longs. The source and the screen name, which take few distinct
+ * values as a timeline is posted by a limited number of users, are dictionary-encoded. Texts are kept as they are.<br>
+ * Rows are appended with {@link #add(Status)}, or by the timeline methods of {@link Twitter} taking a StatusColumns.
+ * Only the fields below are kept; entities, places, geo locations and annotations are dropped.<br>
+ * This class is not thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public final class StatusColumns implements java.io.Serializable {
+    private static final long serialVersionUID = -4206713542233187025L;
+    private int size = 0;
+    private long[] ids;
+    private long[] createdAt;
+    private long[] userIds;
+    private long[] inReplyToStatusIds;
+    private long[] inReplyToUserIds;
+    private long[] retweetCounts;
+    private long[] retweetedStatusIds;
+    private String[] texts;
+    private int[] sources;
+    private int[] screenNames;
+    private final StringDictionary dictionary = new StringDictionary();
+
+    public StatusColumns() {
+        this(20);
+    }
+
+    /**
+     * @param initialCapacity number of rows to allocate at first
+     */
+    public StatusColumns(int initialCapacity) {
+        allocate(Math.max(1, initialCapacity));
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param status status
+     * @return index of the row
+     */
+    public int add(Status status) {
+        if (size == ids.length) {
+            allocate(size * 2);
+        }
+        int row = size++;
+        ids[row] = status.getId();
+        createdAt[row] = null == status.getCreatedAt() ? -1 : status.getCreatedAt().getTime();
+        User user = status.getUser();
+        userIds[row] = null == user ? -1 : user.getId();
+        screenNames[row] = dictionary.encode(null == user ? null : user.getScreenName());
+        inReplyToStatusIds[row] = status.getInReplyToStatusId();
+        inReplyToUserIds[row] = status.getInReplyToUserId();
+        retweetCounts[row] = status.getRetweetCount();
+        retweetedStatusIds[row] = status.isRetweet() ? status.getRetweetedStatus().getId() : -1;
+        texts[row] = status.getText();
+        sources[row] = dictionary.encode(status.getSource());
+        return row;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getId(int row) {
+        return ids[checkRow(row)];
+    }
+
+    /**
+     * @param row index of the row
+     * @return milliseconds since the epoch, or -1 if unknown
+     */
+    public long getCreatedAtMillis(int row) {
+        return createdAt[checkRow(row)];
+    }
+
+    public Date getCreatedAt(int row) {
+        long millis = getCreatedAtMillis(row);
+        return -1 == millis ? null : new Date(millis);
+    }
+
+    public long getUserId(int row) {
+        return userIds[checkRow(row)];
+    }
+
+    public String getScreenName(int row) {
+        return dictionary.decode(screenNames[checkRow(row)]);
+    }
+
+    public long getInReplyToStatusId(int row) {
+        return inReplyToStatusIds[checkRow(row)];
+    }
+
+    public long getInReplyToUserId(int row) {
+        return inReplyToUserIds[checkRow(row)];
+    }
+
+    public long getRetweetCount(int row) {
+        return retweetCounts[checkRow(row)];
+    }
+
+    /**
+     * @param row index of the row
+     * @return id of the retweeted status, or -1 if the status is not a retweet
+     */
+    public long getRetweetedStatusId(int row) {
+        return retweetedStatusIds[checkRow(row)];
+    }
+
+    public String getText(int row) {
+        return texts[checkRow(row)];
+    }
+
+    public String getSource(int row) {
+        return dictionary.decode(sources[checkRow(row)]);
+    }
+
+    /**
+     * @return a copy of the id column
+     */
+    public long[] getIds() {
+        long[] copy = new long[size];
+        System.arraycopy(ids, 0, copy, 0, size);
+        return copy;
+    }
+
+    /**
+     * Releases the rows allocated ahead.
+     */
+    public void trimToSize() {
+        allocate(Math.max(1, size));
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+        return row;
+    }
+
+    private void allocate(int capacity) {
+        ids = copyOf(ids, capacity);
+        createdAt = copyOf(createdAt, capacity);
+        userIds = copyOf(userIds, capacity);
+        inReplyToStatusIds = copyOf(inReplyToStatusIds, capacity);
+        inReplyToUserIds = copyOf(inReplyToUserIds, capacity);
+        retweetCounts = copyOf(retweetCounts, capacity);
+        retweetedStatusIds = copyOf(retweetedStatusIds, capacity);
+        texts = copyOf(texts, capacity);
+        sources = copyOf(sources, capacity);
+        screenNames = copyOf(screenNames, capacity);
+    }
+
+    private long[] copyOf(long[] column, int capacity) {
+        long[] newColumn = new long[capacity];
+        if (null != column) {
+            System.arraycopy(column, 0, newColumn, 0, size);
+        }
+        return newColumn;
+    }
+
+    private int[] copyOf(int[] column, int capacity) {
+        int[] newColumn = new int[capacity];
+        if (null != column) {
+            System.arraycopy(column, 0, newColumn, 0, size);
+        }
+        return newColumn;
+    }
+
+    private String[] copyOf(String[] column, int capacity) {
+        String[] newColumn = new String[capacity];
+        if (null != column) {
+            System.arraycopy(column, 0, newColumn, 0, size);
+        }
+        return newColumn;
+    }
+
+    @Override
+    public String toString() {
+        return "StatusColumns{" +
+                "size=" + size +
+                ", distinctStrings=" + dictionary.size() +
+                '}';
+    }
+}
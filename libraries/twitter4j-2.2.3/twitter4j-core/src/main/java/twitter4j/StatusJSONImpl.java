@@ -19,17 +19,25 @@ package twitter4j;
 import twitter4j.conf.Configuration;
 import twitter4j.internal.http.HttpResponse;
 import twitter4j.internal.json.DataObjectFactoryUtil;
+import twitter4j.internal.json.JSONPullParser;
 import twitter4j.internal.logging.Logger;
 import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static twitter4j.internal.util.ParseUtil.getBoolean;
 import static twitter4j.internal.util.ParseUtil.getDate;
+import static twitter4j.internal.util.ParseUtil.getInternedUnescapedString;
 import static twitter4j.internal.util.ParseUtil.getLong;
+import static twitter4j.internal.util.ParseUtil.getRawString;
 import static twitter4j.internal.util.ParseUtil.getUnescapedString;
 
 /**
@@ -67,23 +75,429 @@ import static twitter4j.internal.util.ParseUtil.getUnescapedString;
 
     /*package*/StatusJSONImpl(HttpResponse res, Configuration conf) throws TwitterException {
         super(res);
-        JSONObject json = res.asJSONObject();
-        init(json);
         if (conf.isJSONStoreEnabled()) {
+            JSONObject json = res.asJSONObject();
+            init(json, null);
             DataObjectFactoryUtil.clearThreadLocalMap();
             DataObjectFactoryUtil.registerJSONObject(this, json);
+        } else {
+            // raw JSON is not needed. populate fields straight from the response body
+            JSONPullParser parser = res.asJSONPullParser();
+            try {
+                if (JSONPullParser.START_OBJECT != parser.next()) {
+                    throw new TwitterException("Expected a JSON object: " + parser);
+                }
+                init(parser, null, null);
+            } catch (JSONException jsone) {
+                throw new TwitterException(jsone);
+            } finally {
+                parser.close();
+            }
         }
     }
 
     /*package*/ StatusJSONImpl(JSONObject json) throws TwitterException {
+        this(json, null);
+    }
+
+    /**
+     * @param json      status
+     * @param userCache cache sharing the user instances, or null
+     * @throws TwitterException when the status is malformed
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/ StatusJSONImpl(JSONObject json, UserCache userCache) throws TwitterException {
+        super();
+        init(json, userCache);
+    }
+
+    /**
+     * @param parser parser positioned at the start of the status object
+     * @throws TwitterException when the status is malformed
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/ StatusJSONImpl(JSONPullParser parser) throws TwitterException {
+        this(parser, null);
+    }
+
+    /**
+     * @param parser     parser positioned at the start of the status object
+     * @param projection fields to decode, or null for all fields
+     * @throws TwitterException when the status is malformed
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/ StatusJSONImpl(JSONPullParser parser, StatusProjection projection) throws TwitterException {
+        this(parser, projection, null);
+    }
+
+    /**
+     * @param parser     parser positioned at the start of the status object
+     * @param projection fields to decode, or null for all fields
+     * @param userCache  cache sharing the user instances, or null. not used with a projection
+     * @throws TwitterException when the status is malformed
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/ StatusJSONImpl(JSONPullParser parser, StatusProjection projection, UserCache userCache)
+            throws TwitterException {
         super();
-        init(json);
+        try {
+            init(parser, projection, userCache);
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        }
     }
 
-    private void init(JSONObject json) throws TwitterException {
+    private static final int TRUNCATED = 1;
+    private static final int FAVORITED = 1 << 1;
+    private static final int RETWEETED_BY_ME = 1 << 2;
+
+    /**
+     * @param in decoder positioned at a status written by {@link #write(Status, BinaryEncoder)}
+     * @throws IOException when failed to read the status
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/ StatusJSONImpl(BinaryDecoder in) throws IOException {
+        super();
+        id = in.readId();
+        createdAt = in.readDate();
+        text = in.readString();
+        source = in.readString();
+        int flags = in.readVarInt();
+        isTruncated = 0 != (flags & TRUNCATED);
+        isFavorited = 0 != (flags & FAVORITED);
+        wasRetweetedByMe = 0 != (flags & RETWEETED_BY_ME);
+        inReplyToStatusId = in.readVarLong();
+        inReplyToUserId = in.readVarLong();
+        inReplyToScreenName = in.readString();
+        retweetCount = in.readVarLong();
+        if (in.readBoolean()) {
+            geoLocation = new GeoLocation(in.readDouble(), in.readDouble());
+        }
+        if (in.readBoolean()) {
+            place = new PlaceJSONImpl(in);
+        }
+        int length = in.readNullableLength();
+        if (-1 != length) {
+            contributorsIDs = new long[length];
+            for (int i = 0; i < length; i++) {
+                contributorsIDs[i] = in.readVarLong();
+            }
+        }
+        length = in.readNullableLength();
+        if (-1 != length) {
+            List<Annotation> list = new ArrayList<Annotation>(length);
+            for (int i = 0; i < length; i++) {
+                String type = in.readString();
+                int size = in.readLength();
+                Map<String, String> attributes = new LinkedHashMap<String, String>();
+                for (int j = 0; j < size; j++) {
+                    attributes.put(in.readString(), in.readString());
+                }
+                list.add(new Annotation(type, attributes));
+            }
+            annotations = new Annotations(list);
+        }
+        user = in.readUser();
+        retweetedStatus = in.readStatus();
+        length = in.readNullableLength();
+        if (-1 != length) {
+            userMentionEntities = new UserMentionEntity[length];
+            for (int i = 0; i < length; i++) {
+                userMentionEntities[i] = new UserMentionEntityJSONImpl(in);
+            }
+        }
+        length = in.readNullableLength();
+        if (-1 != length) {
+            urlEntities = new URLEntity[length];
+            for (int i = 0; i < length; i++) {
+                urlEntities[i] = new URLEntityJSONImpl(in);
+            }
+        }
+        length = in.readNullableLength();
+        if (-1 != length) {
+            hashtagEntities = new HashtagEntity[length];
+            for (int i = 0; i < length; i++) {
+                hashtagEntities[i] = new HashtagEntityJSONImpl(in);
+            }
+        }
+        length = in.readNullableLength();
+        if (-1 != length) {
+            mediaEntities = new MediaEntity[length];
+            for (int i = 0; i < length; i++) {
+                mediaEntities[i] = new MediaEntityJSONImpl(in);
+            }
+        }
+    }
+
+    /**
+     * Writes any implementation of Status, to be read by {@link #StatusJSONImpl(BinaryDecoder)}.
+     *
+     * @param status status to write
+     * @param out    encoder
+     * @throws IOException when failed to write the status
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static void write(Status status, BinaryEncoder out) throws IOException {
+        out.writeId(status.getId());
+        out.writeDate(status.getCreatedAt());
+        out.writeString(status.getText());
+        out.writeString(status.getSource());
+        out.writeVarInt((status.isTruncated() ? TRUNCATED : 0)
+                | (status.isFavorited() ? FAVORITED : 0)
+                | (status.isRetweetedByMe() ? RETWEETED_BY_ME : 0));
+        out.writeVarLong(status.getInReplyToStatusId());
+        out.writeVarLong(status.getInReplyToUserId());
+        out.writeString(status.getInReplyToScreenName());
+        out.writeVarLong(status.getRetweetCount());
+        GeoLocation geoLocation = status.getGeoLocation();
+        out.writeBoolean(null != geoLocation);
+        if (null != geoLocation) {
+            out.writeDouble(geoLocation.getLatitude());
+            out.writeDouble(geoLocation.getLongitude());
+        }
+        out.writeBoolean(null != status.getPlace());
+        if (null != status.getPlace()) {
+            PlaceJSONImpl.write(status.getPlace(), out);
+        }
+        long[] contributors = status.getContributors();
+        out.writeVarInt(null == contributors ? -1 : contributors.length);
+        if (null != contributors) {
+            for (long contributor : contributors) {
+                out.writeVarLong(contributor);
+            }
+        }
+        Annotations annotations = status.getAnnotations();
+        out.writeVarInt(null == annotations ? -1 : annotations.getAnnotations().size());
+        if (null != annotations) {
+            for (Annotation annotation : annotations.getAnnotations()) {
+                out.writeString(annotation.getType());
+                Map<String, String> attributes = annotation.getAttributes();
+                out.writeVarInt(attributes.size());
+                for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                    out.writeString(attribute.getKey());
+                    out.writeString(attribute.getValue());
+                }
+            }
+        }
+        out.writeUser(status.getUser());
+        out.writeStatus(status.getRetweetedStatus());
+        UserMentionEntity[] userMentionEntities = status.getUserMentionEntities();
+        out.writeVarInt(null == userMentionEntities ? -1 : userMentionEntities.length);
+        if (null != userMentionEntities) {
+            for (UserMentionEntity entity : userMentionEntities) {
+                UserMentionEntityJSONImpl.write(entity, out);
+            }
+        }
+        URLEntity[] urlEntities = status.getURLEntities();
+        out.writeVarInt(null == urlEntities ? -1 : urlEntities.length);
+        if (null != urlEntities) {
+            for (URLEntity entity : urlEntities) {
+                URLEntityJSONImpl.write(entity, out);
+            }
+        }
+        HashtagEntity[] hashtagEntities = status.getHashtagEntities();
+        out.writeVarInt(null == hashtagEntities ? -1 : hashtagEntities.length);
+        if (null != hashtagEntities) {
+            for (HashtagEntity entity : hashtagEntities) {
+                HashtagEntityJSONImpl.write(entity, out);
+            }
+        }
+        MediaEntity[] mediaEntities = status.getMediaEntities();
+        out.writeVarInt(null == mediaEntities ? -1 : mediaEntities.length);
+        if (null != mediaEntities) {
+            for (MediaEntity entity : mediaEntities) {
+                MediaEntityJSONImpl.write(entity, out);
+            }
+        }
+    }
+
+    private void init(JSONPullParser parser, StatusProjection projection, UserCache userCache)
+            throws TwitterException, JSONException {
+        // defaults for absent fields, as ParseUtil does
+        id = -1;
+        inReplyToStatusId = -1;
+        inReplyToUserId = -1;
+        retweetCount = -1;
+        while (JSONPullParser.FIELD_NAME == parser.next()) {
+            String name = parser.getCurrentName();
+            parser.next();
+            if (null != projection && !projection.isIncluded(name)) {
+                parser.skipChildren();
+                continue;
+            }
+            if ("id".equals(name)) {
+                id = getLong(parser);
+            } else if ("text".equals(name)) {
+                text = getUnescapedString(parser);
+            } else if ("source".equals(name)) {
+                source = getInternedUnescapedString(parser);
+            } else if ("created_at".equals(name)) {
+                createdAt = getDate(parser, "EEE MMM d HH:mm:ss z yyyy");
+            } else if ("truncated".equals(name)) {
+                isTruncated = getBoolean(parser);
+            } else if ("in_reply_to_status_id".equals(name)) {
+                inReplyToStatusId = getLong(parser);
+            } else if ("in_reply_to_user_id".equals(name)) {
+                inReplyToUserId = getLong(parser);
+            } else if ("favorited".equals(name)) {
+                isFavorited = getBoolean(parser);
+            } else if ("in_reply_to_screen_name".equals(name)) {
+                inReplyToScreenName = getUnescapedString(parser);
+            } else if ("retweet_count".equals(name)) {
+                retweetCount = getLong(parser);
+            } else if ("retweeted".equals(name)) {
+                wasRetweetedByMe = getBoolean(parser);
+            } else if ("user".equals(name)) {
+                if (JSONPullParser.START_OBJECT == parser.getToken()) {
+                    UserJSONImpl userJSONImpl = new UserJSONImpl(parser, projection);
+                    // partially decoded users are not shared
+                    user = null != userCache && null == projection ? userCache.intern(userJSONImpl) : userJSONImpl;
+                } else {
+                    parser.skipChildren();
+                }
+            } else if ("geo".equals(name)) {
+                geoLocation = GeoLocation.getInstance(parser);
+            } else if ("place".equals(name)) {
+                if (JSONPullParser.START_OBJECT == parser.getToken()) {
+                    // rarely present. not worth parsing field by field
+                    place = new PlaceJSONImpl(parser.readJSONObject());
+                } else {
+                    parser.skipChildren();
+                }
+            } else if ("retweeted_status".equals(name)) {
+                if (JSONPullParser.START_OBJECT == parser.getToken()) {
+                    retweetedStatus = new StatusJSONImpl(parser, projection, userCache);
+                } else {
+                    parser.skipChildren();
+                }
+            } else if ("contributors".equals(name)) {
+                if (JSONPullParser.START_ARRAY == parser.getToken()) {
+                    contributorsIDs = readContributors(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            } else if ("entities".equals(name)) {
+                initEntities(parser);
+            } else if ("annotations".equals(name)) {
+                if (JSONPullParser.START_ARRAY == parser.getToken()) {
+                    annotations = new Annotations(parser.readJSONArray());
+                } else {
+                    parser.skipChildren();
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void initEntities(JSONPullParser parser) throws TwitterException, JSONException {
+        if (JSONPullParser.START_OBJECT != parser.getToken()) {
+            parser.skipChildren();
+            return;
+        }
+        while (JSONPullParser.FIELD_NAME == parser.next()) {
+            String name = parser.getCurrentName();
+            if (JSONPullParser.START_ARRAY != parser.next()) {
+                parser.skipChildren();
+                continue;
+            }
+            if ("user_mentions".equals(name)) {
+                userMentionEntities = readUserMentionEntities(parser);
+            } else if ("urls".equals(name)) {
+                urlEntities = readURLEntities(parser);
+            } else if ("hashtags".equals(name)) {
+                hashtagEntities = readHashtagEntities(parser);
+            } else if ("media".equals(name)) {
+                mediaEntities = readMediaEntities(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * @param parser parser positioned at the array of contributors
+     * @return ids of the contributors
+     * @throws JSONException when the array is malformed
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static long[] readContributors(JSONPullParser parser) throws JSONException {
+        List<Long> ids = new ArrayList<Long>();
+        while (JSONPullParser.END_ARRAY != parser.next()) {
+            String contributor = getRawString(parser);
+            try {
+                if (null != contributor) {
+                    ids.add(Long.parseLong(contributor));
+                }
+            } catch (NumberFormatException ignore) {
+                logger.warn("failed to parse contributors:" + contributor);
+            }
+        }
+        long[] contributorsIDs = new long[ids.size()];
+        for (int i = 0; i < contributorsIDs.length; i++) {
+            contributorsIDs[i] = ids.get(i);
+        }
+        return contributorsIDs;
+    }
+
+    /*package*/
+    static UserMentionEntity[] readUserMentionEntities(JSONPullParser parser) throws TwitterException, JSONException {
+        List<UserMentionEntity> entities = new ArrayList<UserMentionEntity>();
+        while (JSONPullParser.END_ARRAY != parser.next()) {
+            if (JSONPullParser.START_OBJECT == parser.getToken()) {
+                entities.add(new UserMentionEntityJSONImpl(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return entities.toArray(new UserMentionEntity[entities.size()]);
+    }
+
+    /*package*/
+    static URLEntity[] readURLEntities(JSONPullParser parser) throws TwitterException, JSONException {
+        List<URLEntity> entities = new ArrayList<URLEntity>();
+        while (JSONPullParser.END_ARRAY != parser.next()) {
+            if (JSONPullParser.START_OBJECT == parser.getToken()) {
+                entities.add(new URLEntityJSONImpl(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return entities.toArray(new URLEntity[entities.size()]);
+    }
+
+    /*package*/
+    static HashtagEntity[] readHashtagEntities(JSONPullParser parser) throws TwitterException, JSONException {
+        List<HashtagEntity> entities = new ArrayList<HashtagEntity>();
+        while (JSONPullParser.END_ARRAY != parser.next()) {
+            if (JSONPullParser.START_OBJECT == parser.getToken()) {
+                entities.add(new HashtagEntityJSONImpl(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return entities.toArray(new HashtagEntity[entities.size()]);
+    }
+
+    /*package*/
+    static MediaEntity[] readMediaEntities(JSONPullParser parser) throws TwitterException, JSONException {
+        List<MediaEntity> entities = new ArrayList<MediaEntity>();
+        while (JSONPullParser.END_ARRAY != parser.next()) {
+            if (JSONPullParser.START_OBJECT == parser.getToken()) {
+                entities.add(new MediaEntityJSONImpl(parser.readJSONObject()));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return entities.toArray(new MediaEntity[entities.size()]);
+    }
+
+    private void init(JSONObject json, UserCache userCache) throws TwitterException {
         id = getLong("id", json);
         text = getUnescapedString("text", json);
-        source = getUnescapedString("source", json);
+        source = getInternedUnescapedString("source", json);
         createdAt = getDate("created_at", json);
         isTruncated = getBoolean("truncated", json);
         inReplyToStatusId = getLong("in_reply_to_status_id", json);
@@ -94,7 +508,8 @@ import static twitter4j.internal.util.ParseUtil.getUnescapedString;
         wasRetweetedByMe = getBoolean("retweeted", json);
         try {
             if (!json.isNull("user")) {
-                user = new UserJSONImpl(json.getJSONObject("user"));
+                UserJSONImpl userJSONImpl = new UserJSONImpl(json.getJSONObject("user"));
+                user = null != userCache ? userCache.intern(userJSONImpl) : userJSONImpl;
             }
         } catch (JSONException jsone) {
             throw new TwitterException(jsone);
@@ -111,7 +526,7 @@ import static twitter4j.internal.util.ParseUtil.getUnescapedString;
 
         if (!json.isNull("retweeted_status")) {
             try {
-                retweetedStatus = new StatusJSONImpl(json.getJSONObject("retweeted_status"));
+                retweetedStatus = new StatusJSONImpl(json.getJSONObject("retweeted_status"), userCache);
             } catch (JSONException ignore) {
                 ignore.printStackTrace();
                 logger.warn("failed to parse retweeted_status:" + json);
@@ -361,6 +776,9 @@ import static twitter4j.internal.util.ParseUtil.getUnescapedString;
 
     /*package*/
     static ResponseList<Status> createStatusList(HttpResponse res, Configuration conf) throws TwitterException {
+        if (!conf.isJSONStoreEnabled()) {
+            return createStatusList(res.asJSONPullParser(), res);
+        }
         try {
             if (conf.isJSONStoreEnabled()) {
                 DataObjectFactoryUtil.clearThreadLocalMap();
@@ -387,6 +805,69 @@ import static twitter4j.internal.util.ParseUtil.getUnescapedString;
         }
     }
 
+    /**
+     * Creates a list of statuses straight from the parser without building JSON objects.
+     *
+     * @param parser parser positioned before the array of statuses. closed on return
+     * @param res    response
+     * @return list of statuses
+     * @throws TwitterException when the response is malformed
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static ResponseList<Status> createStatusList(JSONPullParser parser, HttpResponse res) throws TwitterException {
+        try {
+            if (JSONPullParser.START_ARRAY != parser.next()) {
+                throw new TwitterException("Expected a JSON array: " + parser);
+            }
+            ResponseList<Status> statuses = new ResponseListImpl<Status>(20, res);
+            while (JSONPullParser.END_ARRAY != parser.next()) {
+                if (JSONPullParser.START_OBJECT == parser.getToken()) {
+                    statuses.add(new StatusJSONImpl(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return statuses;
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Appends statuses straight from the parser to the columns. Each Status is dropped as soon as it is appended.
+     *
+     * @param parser  parser positioned before the array of statuses. closed on return
+     * @param columns columns to append the statuses to
+     * @return number of the statuses appended
+     * @throws TwitterException when the response is malformed
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static int appendStatuses(JSONPullParser parser, StatusColumns columns) throws TwitterException {
+        try {
+            if (JSONPullParser.START_ARRAY != parser.next()) {
+                throw new TwitterException("Expected a JSON array: " + parser);
+            }
+            int count = 0;
+            while (JSONPullParser.END_ARRAY != parser.next()) {
+                if (JSONPullParser.START_OBJECT == parser.getToken()) {
+                    columns.add(new StatusJSONImpl(parser));
+                    count++;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return count;
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        } finally {
+            parser.close();
+        }
+    }
+
     @Override
     public int hashCode() {
         return (int) id;
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Declares which fields of statuses are needed, so that the others are skipped without being decoded.<br>
+ * Fields are named after the JSON fields of a status, such as "id", "text" or "entities". "user" includes the whole
+ * user, while "user.id" or "user.screen_name" includes the user with the named fields only. A retweeted status is
+ * decoded with the same projection. Getters of fields left out return null, -1 or false.
+ * <pre>
+ * twitterStream.addListener(listener, new StatusProjection("id", "text", "user.id"));
+ * </pre>
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public final class StatusProjection implements java.io.Serializable {
+    private static final long serialVersionUID = -6163960296347381627L;
+    private final Set<String> statusFields = new HashSet<String>();
+    // null when the whole user is included
+    private Set<String> userFields = new HashSet<String>();
+
+    /**
+     * Creates a new StatusProjection
+     *
+     * @param fields names of the fields to decode
+     */
+    public StatusProjection(String... fields) {
+        for (String field : fields) {
+            include(field);
+        }
+    }
+
+    private void include(String field) {
+        if (field.startsWith("user.")) {
+            statusFields.add("user");
+            if (null != userFields) {
+                userFields.add(field.substring(5));
+            }
+        } else {
+            statusFields.add(field);
+            if ("user".equals(field)) {
+                userFields = null;
+            }
+        }
+    }
+
+    /**
+     * @param name name of a status field
+     * @return true if the field is to be decoded
+     */
+    public boolean isIncluded(String name) {
+        return statusFields.contains(name);
+    }
+
+    /**
+     * @param name name of a user field
+     * @return true if the field is to be decoded
+     */
+    public boolean isUserFieldIncluded(String name) {
+        return null == userFields || userFields.contains(name);
+    }
+
+    /**
+     * Returns a projection including the fields of both projections. null stands for all fields.
+     *
+     * @param a a projection, or null
+     * @param b another projection, or null
+     * @return a projection including the fields of both, or null if either includes all fields
+     */
+    public static StatusProjection union(StatusProjection a, StatusProjection b) {
+        if (null == a || null == b) {
+            return null;
+        }
+        StatusProjection union = new StatusProjection();
+        union.statusFields.addAll(a.statusFields);
+        union.statusFields.addAll(b.statusFields);
+        if (null == a.userFields || null == b.userFields) {
+            union.userFields = null;
+        } else {
+            union.userFields.addAll(a.userFields);
+            union.userFields.addAll(b.userFields);
+        }
+        return union;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        StatusProjection that = (StatusProjection) o;
+
+        if (!statusFields.equals(that.statusFields)) return false;
+        if (userFields != null ? !userFields.equals(that.userFields) : that.userFields != null) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = statusFields.hashCode();
+        result = 31 * result + (userFields != null ? userFields.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "StatusProjection{" +
+                "statusFields=" + statusFields +
+                ", userFields=" + userFields +
+                '}';
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns small integer codes to strings having few distinct values, so that a column of them is stored as an int[].
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+/*package*/ final class StringDictionary implements java.io.Serializable {
+    private static final long serialVersionUID = 2894781516446131416L;
+    private final Map<String, Integer> codes = new HashMap<String, Integer>();
+    private final List<String> values = new ArrayList<String>();
+
+    /**
+     * @param value value, or null
+     * @return code of the value, or -1 for null
+     */
+    int encode(String value) {
+        if (null == value) {
+            return -1;
+        }
+        Integer code = codes.get(value);
+        if (null == code) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * @param code code
+     * @return the value, or null for -1
+     */
+    String decode(int code) {
+        return -1 == code ? null : values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+}
@@ -20,6 +20,8 @@ import twitter4j.conf.Configuration;
 import twitter4j.internal.http.HttpResponse;
 import twitter4j.internal.org.json.JSONObject;
 
+import java.io.IOException;
+
 import static twitter4j.internal.util.ParseUtil.getRawString;
 
 /**
@@ -53,6 +55,33 @@ import static twitter4j.internal.util.ParseUtil.getRawString;
         this(null, json, false);
     }
 
+    /**
+     * @param in decoder positioned at a trend written by {@link #write(Trend, BinaryEncoder)}
+     * @throws IOException when failed to read the trend
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/ TrendJSONImpl(BinaryDecoder in) throws IOException {
+        super();
+        name = in.readString();
+        url = in.readString();
+        query = in.readString();
+    }
+
+    /**
+     * Writes any implementation of Trend, to be read by {@link #TrendJSONImpl(BinaryDecoder)}.
+     *
+     * @param trend trend to write
+     * @param out   encoder
+     * @throws IOException when failed to write the trend
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static void write(Trend trend, BinaryEncoder out) throws IOException {
+        out.writeString(trend.getName());
+        out.writeString(trend.getUrl());
+        out.writeString(trend.getQuery());
+    }
+
     /**
      * {@inheritDoc}
      */
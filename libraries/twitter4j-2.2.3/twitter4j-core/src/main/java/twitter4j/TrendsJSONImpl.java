@@ -23,6 +23,7 @@ import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -96,6 +97,51 @@ import static twitter4j.internal.util.ParseUtil.getDate;
         this.trends = trends;
     }
 
+    /**
+     * @param in decoder positioned at trends written by {@link #write(Trends, BinaryEncoder)}
+     * @throws IOException when failed to read the trends
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/ TrendsJSONImpl(BinaryDecoder in) throws IOException {
+        asOf = in.readDate();
+        trendAt = in.readDate();
+        if (in.readBoolean()) {
+            location = new LocationJSONImpl(in);
+        }
+        int length = in.readNullableLength();
+        if (-1 != length) {
+            trends = new Trend[length];
+            for (int i = 0; i < length; i++) {
+                trends[i] = new TrendJSONImpl(in);
+            }
+        }
+    }
+
+    /**
+     * Writes any implementation of Trends, to be read by {@link #TrendsJSONImpl(BinaryDecoder)}.
+     *
+     * @param trends trends to write
+     * @param out    encoder
+     * @throws IOException when failed to write the trends
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static void write(Trends trends, BinaryEncoder out) throws IOException {
+        out.writeDate(trends.getAsOf());
+        out.writeDate(trends.getTrendAt());
+        out.writeBoolean(null != trends.getLocation());
+        if (null != trends.getLocation()) {
+            LocationJSONImpl.write(trends.getLocation(), out);
+        }
+        Trend[] trendArray = trends.getTrends();
+        out.writeVarInt(null == trendArray ? -1 : trendArray.length);
+        if (null != trendArray) {
+            for (Trend trend : trendArray) {
+                TrendJSONImpl.write(trend, out);
+            }
+        }
+    }
+
     /*package*/
     static List<Trends> createTrendsList(HttpResponse res, boolean storeJSON) throws
             TwitterException {
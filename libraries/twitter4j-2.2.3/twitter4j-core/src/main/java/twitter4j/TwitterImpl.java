@@ -199,6 +199,16 @@ class TwitterImpl extends TwitterBaseImpl
                 + "statuses/home_timeline.json", mergeParameters(paging.asPostParameterArray(), INCLUDE_ENTITIES)), conf);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public int getHomeTimeline(Paging paging, StatusColumns columns) throws TwitterException {
+        ensureAuthorizationEnabled();
+        return StatusJSONImpl.appendStatuses(get(conf.getRestBaseURL()
+                + "statuses/home_timeline.json", mergeParameters(paging.asPostParameterArray(), INCLUDE_ENTITIES))
+                .asJSONPullParser(), columns);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -250,6 +260,18 @@ class TwitterImpl extends TwitterBaseImpl
                         , paging.asPostParameterArray())), conf);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public int getUserTimeline(long userId, Paging paging, StatusColumns columns) throws TwitterException {
+        return StatusJSONImpl.appendStatuses(get(conf.getRestBaseURL()
+                + "statuses/user_timeline.json",
+                mergeParameters(new HttpParameter[]{new HttpParameter("user_id", userId)
+                        , INCLUDE_RTS
+                        , INCLUDE_ENTITIES}
+                        , paging.asPostParameterArray())).asJSONPullParser(), columns);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -542,6 +564,17 @@ class TwitterImpl extends TwitterBaseImpl
                 , INCLUDE_ENTITIES}), conf);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public int lookupUsers(long[] ids, UserColumns columns) throws TwitterException {
+        ensureAuthorizationEnabled();
+        return UserJSONImpl.appendUsers(get(conf.getRestBaseURL() +
+                "users/lookup.json", new HttpParameter[]{
+                new HttpParameter("user_id", T4JInternalStringUtil.join(ids))
+                , INCLUDE_ENTITIES}).asJSONPullParser(), columns);
+    }
+
     /**
      * {@inheritDoc}
      */
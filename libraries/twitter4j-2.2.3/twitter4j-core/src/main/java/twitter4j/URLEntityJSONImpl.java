@@ -16,10 +16,13 @@
 
 package twitter4j;
 
+import twitter4j.internal.json.JSONPullParser;
 import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
+import twitter4j.internal.util.ParseUtil;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 
@@ -69,6 +72,81 @@ import java.net.URL;
         }
     }
 
+    /**
+     * @param parser parser positioned at the start of the entity object
+     * @throws TwitterException when the entity is malformed
+     * @since Twitter4J 2.2.4
+     */
+    /* package */ URLEntityJSONImpl(JSONPullParser parser) throws TwitterException {
+        super();
+        try {
+            while (JSONPullParser.FIELD_NAME == parser.next()) {
+                String name = parser.getCurrentName();
+                parser.next();
+                if ("indices".equals(name)) {
+                    int[] indices = ParseUtil.getIntArray(parser);
+                    if (null == indices || indices.length < 2) {
+                        throw new JSONException("Malformed indices.");
+                    }
+                    this.start = indices[0];
+                    this.end = indices[1];
+                } else if ("url".equals(name)) {
+                    this.url = toURL(ParseUtil.getRawString(parser));
+                } else if ("expanded_url".equals(name)) {
+                    this.expandedURL = toURL(ParseUtil.getRawString(parser));
+                } else if ("display_url".equals(name)) {
+                    this.displayURL = ParseUtil.getRawString(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        }
+    }
+
+    private static URL toURL(String url) {
+        if (null == url) {
+            return null;
+        }
+        try {
+            return new URL(url);
+        } catch (MalformedURLException ignore) {
+            return null;
+        }
+    }
+
+    /**
+     * @param in decoder positioned at an entity written by {@link #write(URLEntity, BinaryEncoder)}
+     * @throws IOException when failed to read the entity
+     * @since Twitter4J 2.2.4
+     */
+    /* package */ URLEntityJSONImpl(BinaryDecoder in) throws IOException {
+        super();
+        start = in.readVarInt();
+        end = in.readVarInt();
+        url = in.readURL();
+        expandedURL = in.readURL();
+        displayURL = in.readString();
+    }
+
+    /**
+     * Writes any implementation of URLEntity, to be read by {@link #URLEntityJSONImpl(BinaryDecoder)}.
+     *
+     * @param entity entity to write
+     * @param out    encoder
+     * @throws IOException when failed to write the entity
+     * @since Twitter4J 2.2.4
+     */
+    /* package */
+    static void write(URLEntity entity, BinaryEncoder out) throws IOException {
+        out.writeVarInt(entity.getStart());
+        out.writeVarInt(entity.getEnd());
+        out.writeURL(entity.getURL());
+        out.writeURL(entity.getExpandedURL());
+        out.writeString(entity.getDisplayURL());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the latest instance of the users seen lately, so that statuses of the same user share one User instance as long
+ * as none of the fields of the user changes, e.g. statuses of one user in a single timeline response.<br>
+ * On a stream the counters such as statuses_count change with nearly every status, so that the instance is rarely
+ * shared there. The new instance still shares the unchanged strings such as the name, the description and the profile
+ * image URLs, which take most of the memory of a user.<br>
+ * The least recently seen user is forgotten when the cache is full.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+/*package*/ final class UserCache {
+    private final Map<Long, UserJSONImpl> users;
+
+    /**
+     * @param capacity maximum number of users to keep
+     */
+    /*package*/ UserCache(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        users = new LinkedHashMap<Long, UserJSONImpl>(16, 0.75f, true) {
+            private static final long serialVersionUID = -2523735658425390318L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserJSONImpl> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @param user user just decoded
+     * @return the cached instance if the user is the same, otherwise the given user
+     */
+    /*package*/ synchronized User intern(UserJSONImpl user) {
+        UserJSONImpl cached = users.get(user.getId());
+        if (null != cached) {
+            if (user.isSameAs(cached)) {
+                return cached;
+            }
+            user.shareStrings(cached);
+        }
+        users.put(user.getId(), user);
+        return user;
+    }
+
+    /*package*/ synchronized int size() {
+        return users.size();
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.util.Date;
+
+/**
+ * Compact storage of a large number of users, held column by column in primitive arrays instead of as User objects.
+ * Ids, counts and timestamps are stored as primitives. The language and the time zone, which take few distinct
+ * values, are dictionary-encoded. Screen names, names and locations are kept as they are.<br>
+ * Rows are appended with {@link #add(User)}, or by the lookup methods of {@link Twitter} taking a UserColumns.
+ * Only the fields below are kept; profile images, colors, descriptions and URLs are dropped.<br>
+ * This class is not thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public final class UserColumns implements java.io.Serializable {
+    private static final long serialVersionUID = 7451418591186398012L;
+    private int size = 0;
+    private long[] ids;
+    private long[] createdAt;
+    private String[] screenNames;
+    private String[] names;
+    private String[] locations;
+    private int[] langs;
+    private int[] timeZones;
+    private int[] utcOffsets;
+    private int[] followersCounts;
+    private int[] friendsCounts;
+    private int[] statusesCounts;
+    private int[] favouritesCounts;
+    private int[] listedCounts;
+    // bit flags of PROTECTED, VERIFIED and GEO_ENABLED
+    private byte[] flags;
+    private static final byte PROTECTED = 1;
+    private static final byte VERIFIED = 2;
+    private static final byte GEO_ENABLED = 4;
+    private final StringDictionary dictionary = new StringDictionary();
+
+    public UserColumns() {
+        this(20);
+    }
+
+    /**
+     * @param initialCapacity number of rows to allocate at first
+     */
+    public UserColumns(int initialCapacity) {
+        allocate(Math.max(1, initialCapacity));
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param user user
+     * @return index of the row
+     */
+    public int add(User user) {
+        if (size == ids.length) {
+            allocate(size * 2);
+        }
+        int row = size++;
+        ids[row] = user.getId();
+        createdAt[row] = null == user.getCreatedAt() ? -1 : user.getCreatedAt().getTime();
+        screenNames[row] = user.getScreenName();
+        names[row] = user.getName();
+        locations[row] = user.getLocation();
+        langs[row] = dictionary.encode(user.getLang());
+        timeZones[row] = dictionary.encode(user.getTimeZone());
+        utcOffsets[row] = user.getUtcOffset();
+        followersCounts[row] = user.getFollowersCount();
+        friendsCounts[row] = user.getFriendsCount();
+        statusesCounts[row] = user.getStatusesCount();
+        favouritesCounts[row] = user.getFavouritesCount();
+        listedCounts[row] = user.getListedCount();
+        flags[row] = (byte) ((user.isProtected() ? PROTECTED : 0) | (user.isVerified() ? VERIFIED : 0)
+                | (user.isGeoEnabled() ? GEO_ENABLED : 0));
+        return row;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getId(int row) {
+        return ids[checkRow(row)];
+    }
+
+    /**
+     * @param row index of the row
+     * @return milliseconds since the epoch, or -1 if unknown
+     */
+    public long getCreatedAtMillis(int row) {
+        return createdAt[checkRow(row)];
+    }
+
+    public Date getCreatedAt(int row) {
+        long millis = getCreatedAtMillis(row);
+        return -1 == millis ? null : new Date(millis);
+    }
+
+    public String getScreenName(int row) {
+        return screenNames[checkRow(row)];
+    }
+
+    public String getName(int row) {
+        return names[checkRow(row)];
+    }
+
+    public String getLocation(int row) {
+        return locations[checkRow(row)];
+    }
+
+    public String getLang(int row) {
+        return dictionary.decode(langs[checkRow(row)]);
+    }
+
+    public String getTimeZone(int row) {
+        return dictionary.decode(timeZones[checkRow(row)]);
+    }
+
+    public int getUtcOffset(int row) {
+        return utcOffsets[checkRow(row)];
+    }
+
+    public int getFollowersCount(int row) {
+        return followersCounts[checkRow(row)];
+    }
+
+    public int getFriendsCount(int row) {
+        return friendsCounts[checkRow(row)];
+    }
+
+    public int getStatusesCount(int row) {
+        return statusesCounts[checkRow(row)];
+    }
+
+    public int getFavouritesCount(int row) {
+        return favouritesCounts[checkRow(row)];
+    }
+
+    public int getListedCount(int row) {
+        return listedCounts[checkRow(row)];
+    }
+
+    public boolean isProtected(int row) {
+        return 0 != (flags[checkRow(row)] & PROTECTED);
+    }
+
+    public boolean isVerified(int row) {
+        return 0 != (flags[checkRow(row)] & VERIFIED);
+    }
+
+    public boolean isGeoEnabled(int row) {
+        return 0 != (flags[checkRow(row)] & GEO_ENABLED);
+    }
+
+    /**
+     * @return a copy of the id column
+     */
+    public long[] getIds() {
+        long[] copy = new long[size];
+        System.arraycopy(ids, 0, copy, 0, size);
+        return copy;
+    }
+
+    /**
+     * Releases the rows allocated ahead.
+     */
+    public void trimToSize() {
+        allocate(Math.max(1, size));
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+        return row;
+    }
+
+    private void allocate(int capacity) {
+        ids = copyOf(ids, capacity);
+        createdAt = copyOf(createdAt, capacity);
+        screenNames = copyOf(screenNames, capacity);
+        names = copyOf(names, capacity);
+        locations = copyOf(locations, capacity);
+        langs = copyOf(langs, capacity);
+        timeZones = copyOf(timeZones, capacity);
+        utcOffsets = copyOf(utcOffsets, capacity);
+        followersCounts = copyOf(followersCounts, capacity);
+        friendsCounts = copyOf(friendsCounts, capacity);
+        statusesCounts = copyOf(statusesCounts, capacity);
+        favouritesCounts = copyOf(favouritesCounts, capacity);
+        listedCounts = copyOf(listedCounts, capacity);
+        flags = copyOf(flags, capacity);
+    }
+
+    private long[] copyOf(long[] column, int capacity) {
+        long[] newColumn = new long[capacity];
+        if (null != column) {
+            System.arraycopy(column, 0, newColumn, 0, size);
+        }
+        return newColumn;
+    }
+
+    private int[] copyOf(int[] column, int capacity) {
+        int[] newColumn = new int[capacity];
+        if (null != column) {
+            System.arraycopy(column, 0, newColumn, 0, size);
+        }
+        return newColumn;
+    }
+
+    private byte[] copyOf(byte[] column, int capacity) {
+        byte[] newColumn = new byte[capacity];
+        if (null != column) {
+            System.arraycopy(column, 0, newColumn, 0, size);
+        }
+        return newColumn;
+    }
+
+    private String[] copyOf(String[] column, int capacity) {
+        String[] newColumn = new String[capacity];
+        if (null != column) {
+            System.arraycopy(column, 0, newColumn, 0, size);
+        }
+        return newColumn;
+    }
+
+    @Override
+    public String toString() {
+        return "UserColumns{" +
+                "size=" + size +
+                ", distinctStrings=" + dictionary.size() +
+                '}';
+    }
+}
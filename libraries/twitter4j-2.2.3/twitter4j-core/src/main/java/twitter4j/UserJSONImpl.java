@@ -19,10 +19,12 @@ package twitter4j;
 import twitter4j.conf.Configuration;
 import twitter4j.internal.http.HttpResponse;
 import twitter4j.internal.json.DataObjectFactoryUtil;
+import twitter4j.internal.json.JSONPullParser;
 import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Date;
@@ -30,6 +32,7 @@ import java.util.Date;
 import static twitter4j.internal.util.ParseUtil.getBoolean;
 import static twitter4j.internal.util.ParseUtil.getDate;
 import static twitter4j.internal.util.ParseUtil.getInt;
+import static twitter4j.internal.util.ParseUtil.getInternedString;
 import static twitter4j.internal.util.ParseUtil.getLong;
 import static twitter4j.internal.util.ParseUtil.getRawString;
 
@@ -83,11 +86,22 @@ import static twitter4j.internal.util.ParseUtil.getRawString;
         super(res);
         if (conf.isJSONStoreEnabled()) {
             DataObjectFactoryUtil.clearThreadLocalMap();
-        }
-        JSONObject json = res.asJSONObject();
-        init(json);
-        if (conf.isJSONStoreEnabled()) {
+            JSONObject json = res.asJSONObject();
+            init(json);
             DataObjectFactoryUtil.registerJSONObject(this, json);
+        } else {
+            // raw JSON is not needed. populate fields straight from the response body
+            JSONPullParser parser = res.asJSONPullParser();
+            try {
+                if (JSONPullParser.START_OBJECT != parser.next()) {
+                    throw new TwitterException("Expected a JSON object: " + parser);
+                }
+                init(parser, null);
+            } catch (JSONException jsone) {
+                throw new TwitterException(jsone);
+            } finally {
+                parser.close();
+            }
         }
     }
 
@@ -96,6 +110,220 @@ import static twitter4j.internal.util.ParseUtil.getRawString;
         init(json);
     }
 
+    /**
+     * @param parser parser positioned at the start of the user object
+     * @throws TwitterException when the user is malformed
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/UserJSONImpl(JSONPullParser parser) throws TwitterException {
+        this(parser, null);
+    }
+
+    /**
+     * @param parser     parser positioned at the start of the user object
+     * @param projection projection telling the user fields to decode, or null for all fields
+     * @throws TwitterException when the user is malformed
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/UserJSONImpl(JSONPullParser parser, StatusProjection projection) throws TwitterException {
+        super();
+        try {
+            init(parser, projection);
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        }
+    }
+
+    private static final int CONTRIBUTORS_ENABLED = 1;
+    private static final int PROTECTED = 1 << 1;
+    private static final int PROFILE_USE_BACKGROUND_IMAGE = 1 << 2;
+    private static final int SHOW_ALL_INLINE_MEDIA = 1 << 3;
+    private static final int PROFILE_BACKGROUND_TILED = 1 << 4;
+    private static final int GEO_ENABLED = 1 << 5;
+    private static final int VERIFIED = 1 << 6;
+    private static final int TRANSLATOR = 1 << 7;
+    private static final int FOLLOW_REQUEST_SENT = 1 << 8;
+
+    /**
+     * @param in decoder positioned at a user written by {@link #write(User, BinaryEncoder)}
+     * @throws IOException when failed to read the user
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/UserJSONImpl(BinaryDecoder in) throws IOException {
+        super();
+        id = in.readVarLong();
+        name = in.readString();
+        screenName = in.readString();
+        location = in.readString();
+        description = in.readString();
+        profileImageUrl = in.readString();
+        profileImageUrlHttps = in.readString();
+        url = in.readString();
+        int flags = in.readVarInt();
+        isContributorsEnabled = 0 != (flags & CONTRIBUTORS_ENABLED);
+        isProtected = 0 != (flags & PROTECTED);
+        profileUseBackgroundImage = 0 != (flags & PROFILE_USE_BACKGROUND_IMAGE);
+        showAllInlineMedia = 0 != (flags & SHOW_ALL_INLINE_MEDIA);
+        profileBackgroundTiled = 0 != (flags & PROFILE_BACKGROUND_TILED);
+        isGeoEnabled = 0 != (flags & GEO_ENABLED);
+        isVerified = 0 != (flags & VERIFIED);
+        translator = 0 != (flags & TRANSLATOR);
+        isFollowRequestSent = 0 != (flags & FOLLOW_REQUEST_SENT);
+        followersCount = in.readVarInt();
+        friendsCount = in.readVarInt();
+        favouritesCount = in.readVarInt();
+        statusesCount = in.readVarInt();
+        listedCount = in.readVarInt();
+        utcOffset = in.readVarInt();
+        createdAt = in.readDate();
+        timeZone = in.readString();
+        lang = in.readString();
+        profileBackgroundColor = in.readString();
+        profileTextColor = in.readString();
+        profileLinkColor = in.readString();
+        profileSidebarFillColor = in.readString();
+        profileSidebarBorderColor = in.readString();
+        profileBackgroundImageUrl = in.readString();
+        profileBackgroundImageUrlHttps = in.readString();
+        status = in.readStatus();
+    }
+
+    /**
+     * Writes any implementation of User, to be read by {@link #UserJSONImpl(BinaryDecoder)}.
+     *
+     * @param user user to write
+     * @param out  encoder
+     * @throws IOException when failed to write the user
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static void write(User user, BinaryEncoder out) throws IOException {
+        out.writeVarLong(user.getId());
+        out.writeString(user.getName());
+        out.writeString(user.getScreenName());
+        out.writeString(user.getLocation());
+        out.writeString(user.getDescription());
+        out.writeURL(user.getProfileImageURL());
+        out.writeURL(user.getProfileImageUrlHttps());
+        out.writeURL(user.getURL());
+        out.writeVarInt((user.isContributorsEnabled() ? CONTRIBUTORS_ENABLED : 0)
+                | (user.isProtected() ? PROTECTED : 0)
+                | (user.isProfileUseBackgroundImage() ? PROFILE_USE_BACKGROUND_IMAGE : 0)
+                | (user.isShowAllInlineMedia() ? SHOW_ALL_INLINE_MEDIA : 0)
+                | (user.isProfileBackgroundTiled() ? PROFILE_BACKGROUND_TILED : 0)
+                | (user.isGeoEnabled() ? GEO_ENABLED : 0)
+                | (user.isVerified() ? VERIFIED : 0)
+                | (user.isTranslator() ? TRANSLATOR : 0)
+                | (user.isFollowRequestSent() ? FOLLOW_REQUEST_SENT : 0));
+        out.writeVarInt(user.getFollowersCount());
+        out.writeVarInt(user.getFriendsCount());
+        out.writeVarInt(user.getFavouritesCount());
+        out.writeVarInt(user.getStatusesCount());
+        out.writeVarInt(user.getListedCount());
+        out.writeVarInt(user.getUtcOffset());
+        out.writeDate(user.getCreatedAt());
+        out.writeString(user.getTimeZone());
+        out.writeString(user.getLang());
+        out.writeString(user.getProfileBackgroundColor());
+        out.writeString(user.getProfileTextColor());
+        out.writeString(user.getProfileLinkColor());
+        out.writeString(user.getProfileSidebarFillColor());
+        out.writeString(user.getProfileSidebarBorderColor());
+        out.writeString(user.getProfileBackgroundImageUrl());
+        out.writeString(user.getProfileBackgroundImageUrlHttps());
+        out.writeStatus(user.getStatus());
+    }
+
+    private void init(JSONPullParser parser, StatusProjection projection) throws TwitterException, JSONException {
+        // defaults for absent fields, as ParseUtil does
+        id = -1;
+        followersCount = -1;
+        friendsCount = -1;
+        favouritesCount = -1;
+        utcOffset = -1;
+        statusesCount = -1;
+        listedCount = -1;
+        while (JSONPullParser.FIELD_NAME == parser.next()) {
+            String name = parser.getCurrentName();
+            parser.next();
+            if (null != projection && !projection.isUserFieldIncluded(name)) {
+                parser.skipChildren();
+                continue;
+            }
+            if ("id".equals(name)) {
+                id = getLong(parser);
+            } else if ("name".equals(name)) {
+                this.name = getRawString(parser);
+            } else if ("screen_name".equals(name)) {
+                screenName = getRawString(parser);
+            } else if ("location".equals(name)) {
+                location = getRawString(parser);
+            } else if ("description".equals(name)) {
+                description = getRawString(parser);
+            } else if ("contributors_enabled".equals(name)) {
+                isContributorsEnabled = getBoolean(parser);
+            } else if ("profile_image_url".equals(name)) {
+                profileImageUrl = getRawString(parser);
+            } else if ("profile_image_url_https".equals(name)) {
+                profileImageUrlHttps = getRawString(parser);
+            } else if ("url".equals(name)) {
+                url = getRawString(parser);
+            } else if ("protected".equals(name)) {
+                isProtected = getBoolean(parser);
+            } else if ("geo_enabled".equals(name)) {
+                isGeoEnabled = getBoolean(parser);
+            } else if ("verified".equals(name)) {
+                isVerified = getBoolean(parser);
+            } else if ("is_translator".equals(name)) {
+                translator = getBoolean(parser);
+            } else if ("followers_count".equals(name)) {
+                followersCount = getInt(parser);
+            } else if ("profile_background_color".equals(name)) {
+                profileBackgroundColor = getInternedString(parser);
+            } else if ("profile_text_color".equals(name)) {
+                profileTextColor = getInternedString(parser);
+            } else if ("profile_link_color".equals(name)) {
+                profileLinkColor = getInternedString(parser);
+            } else if ("profile_sidebar_fill_color".equals(name)) {
+                profileSidebarFillColor = getInternedString(parser);
+            } else if ("profile_sidebar_border_color".equals(name)) {
+                profileSidebarBorderColor = getInternedString(parser);
+            } else if ("profile_use_background_image".equals(name)) {
+                profileUseBackgroundImage = getBoolean(parser);
+            } else if ("show_all_inline_media".equals(name)) {
+                showAllInlineMedia = getBoolean(parser);
+            } else if ("friends_count".equals(name)) {
+                friendsCount = getInt(parser);
+            } else if ("created_at".equals(name)) {
+                createdAt = getDate(parser, "EEE MMM dd HH:mm:ss z yyyy");
+            } else if ("favourites_count".equals(name)) {
+                favouritesCount = getInt(parser);
+            } else if ("utc_offset".equals(name)) {
+                utcOffset = getInt(parser);
+            } else if ("time_zone".equals(name)) {
+                timeZone = getInternedString(parser);
+            } else if ("profile_background_image_url".equals(name)) {
+                profileBackgroundImageUrl = getRawString(parser);
+            } else if ("profile_background_image_url_https".equals(name)) {
+                profileBackgroundImageUrlHttps = getRawString(parser);
+            } else if ("profile_background_tile".equals(name)) {
+                profileBackgroundTiled = getBoolean(parser);
+            } else if ("lang".equals(name)) {
+                lang = getInternedString(parser);
+            } else if ("statuses_count".equals(name)) {
+                statusesCount = getInt(parser);
+            } else if ("listed_count".equals(name)) {
+                listedCount = getInt(parser);
+            } else if ("follow_request_sent".equals(name)) {
+                isFollowRequestSent = getBoolean(parser);
+            } else if ("status".equals(name) && JSONPullParser.START_OBJECT == parser.getToken()) {
+                status = new StatusJSONImpl(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
     private void init(JSONObject json) throws TwitterException {
         try {
             id = getLong("id", json);
@@ -113,22 +341,22 @@ import static twitter4j.internal.util.ParseUtil.getRawString;
             translator = getBoolean("is_translator", json);
             followersCount = getInt("followers_count", json);
 
-            profileBackgroundColor = getRawString("profile_background_color", json);
-            profileTextColor = getRawString("profile_text_color", json);
-            profileLinkColor = getRawString("profile_link_color", json);
-            profileSidebarFillColor = getRawString("profile_sidebar_fill_color", json);
-            profileSidebarBorderColor = getRawString("profile_sidebar_border_color", json);
+            profileBackgroundColor = getInternedString("profile_background_color", json);
+            profileTextColor = getInternedString("profile_text_color", json);
+            profileLinkColor = getInternedString("profile_link_color", json);
+            profileSidebarFillColor = getInternedString("profile_sidebar_fill_color", json);
+            profileSidebarBorderColor = getInternedString("profile_sidebar_border_color", json);
             profileUseBackgroundImage = getBoolean("profile_use_background_image", json);
             showAllInlineMedia = getBoolean("show_all_inline_media", json);
             friendsCount = getInt("friends_count", json);
             createdAt = getDate("created_at", json, "EEE MMM dd HH:mm:ss z yyyy");
             favouritesCount = getInt("favourites_count", json);
             utcOffset = getInt("utc_offset", json);
-            timeZone = getRawString("time_zone", json);
+            timeZone = getInternedString("time_zone", json);
             profileBackgroundImageUrl = getRawString("profile_background_image_url", json);
             profileBackgroundImageUrlHttps = getRawString("profile_background_image_url_https", json);
             profileBackgroundTiled = getBoolean("profile_background_tile", json);
-            lang = getRawString("lang", json);
+            lang = getInternedString("lang", json);
             statusesCount = getInt("statuses_count", json);
             listedCount = getInt("listed_count", json);
             isFollowRequestSent = getBoolean("follow_request_sent", json);
@@ -427,9 +655,75 @@ import static twitter4j.internal.util.ParseUtil.getRawString;
 
     /*package*/
     static ResponseList<User> createUserList(HttpResponse res, Configuration conf) throws TwitterException {
+        if (!conf.isJSONStoreEnabled()) {
+            return createUserList(res.asJSONPullParser(), res);
+        }
         return createUserList(res.asJSONArray(), res, conf);
     }
 
+    /**
+     * Creates a list of users straight from the parser without building JSON objects.
+     *
+     * @param parser parser positioned before the array of users. closed on return
+     * @param res    response
+     * @return list of users
+     * @throws TwitterException when the response is malformed
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static ResponseList<User> createUserList(JSONPullParser parser, HttpResponse res) throws TwitterException {
+        try {
+            if (JSONPullParser.START_ARRAY != parser.next()) {
+                throw new TwitterException("Expected a JSON array: " + parser);
+            }
+            ResponseList<User> users = new ResponseListImpl<User>(20, res);
+            while (JSONPullParser.END_ARRAY != parser.next()) {
+                if (JSONPullParser.START_OBJECT == parser.getToken()) {
+                    users.add(new UserJSONImpl(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return users;
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Appends users straight from the parser to the columns. Each User is dropped as soon as it is appended.
+     *
+     * @param parser  parser positioned before the array of users. closed on return
+     * @param columns columns to append the users to
+     * @return number of the users appended
+     * @throws TwitterException when the response is malformed
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static int appendUsers(JSONPullParser parser, UserColumns columns) throws TwitterException {
+        try {
+            if (JSONPullParser.START_ARRAY != parser.next()) {
+                throw new TwitterException("Expected a JSON array: " + parser);
+            }
+            int count = 0;
+            while (JSONPullParser.END_ARRAY != parser.next()) {
+                if (JSONPullParser.START_OBJECT == parser.getToken()) {
+                    columns.add(new UserJSONImpl(parser));
+                    count++;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return count;
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        } finally {
+            parser.close();
+        }
+    }
+
     /*package*/
     static ResponseList<User> createUserList(JSONArray list, HttpResponse res, Configuration conf) throws TwitterException {
         try {
@@ -458,6 +752,113 @@ import static twitter4j.internal.util.ParseUtil.getRawString;
         }
     }
 
+    /**
+     * @param that another instance of the same user
+     * @return true if all the fields are the same
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/ boolean isSameAs(UserJSONImpl that) {
+        // counts change most often, typically with every status of the user
+        if (statusesCount != that.statusesCount || followersCount != that.followersCount
+                || friendsCount != that.friendsCount || favouritesCount != that.favouritesCount
+                || listedCount != that.listedCount) {
+            return false;
+        }
+        if (id != that.id || isContributorsEnabled != that.isContributorsEnabled
+                || isProtected != that.isProtected || profileUseBackgroundImage != that.profileUseBackgroundImage
+                || showAllInlineMedia != that.showAllInlineMedia || utcOffset != that.utcOffset
+                || profileBackgroundTiled != that.profileBackgroundTiled || isGeoEnabled != that.isGeoEnabled
+                || isVerified != that.isVerified || translator != that.translator
+                || isFollowRequestSent != that.isFollowRequestSent) {
+            return false;
+        }
+        if (null != status || null != that.status) {
+            return false;
+        }
+        if (createdAt != null ? !createdAt.equals(that.createdAt) : that.createdAt != null) {
+            return false;
+        }
+        if (name != null ? !name.equals(that.name) : that.name != null) {
+            return false;
+        }
+        if (screenName != null ? !screenName.equals(that.screenName) : that.screenName != null) {
+            return false;
+        }
+        if (location != null ? !location.equals(that.location) : that.location != null) {
+            return false;
+        }
+        if (description != null ? !description.equals(that.description) : that.description != null) {
+            return false;
+        }
+        if (profileImageUrl != null ? !profileImageUrl.equals(that.profileImageUrl) : that.profileImageUrl != null) {
+            return false;
+        }
+        if (profileImageUrlHttps != null ? !profileImageUrlHttps.equals(that.profileImageUrlHttps) : that.profileImageUrlHttps != null) {
+            return false;
+        }
+        if (url != null ? !url.equals(that.url) : that.url != null) {
+            return false;
+        }
+        if (profileBackgroundColor != null ? !profileBackgroundColor.equals(that.profileBackgroundColor) : that.profileBackgroundColor != null) {
+            return false;
+        }
+        if (profileTextColor != null ? !profileTextColor.equals(that.profileTextColor) : that.profileTextColor != null) {
+            return false;
+        }
+        if (profileLinkColor != null ? !profileLinkColor.equals(that.profileLinkColor) : that.profileLinkColor != null) {
+            return false;
+        }
+        if (profileSidebarFillColor != null ? !profileSidebarFillColor.equals(that.profileSidebarFillColor) : that.profileSidebarFillColor != null) {
+            return false;
+        }
+        if (profileSidebarBorderColor != null ? !profileSidebarBorderColor.equals(that.profileSidebarBorderColor) : that.profileSidebarBorderColor != null) {
+            return false;
+        }
+        if (timeZone != null ? !timeZone.equals(that.timeZone) : that.timeZone != null) {
+            return false;
+        }
+        if (profileBackgroundImageUrl != null ? !profileBackgroundImageUrl.equals(that.profileBackgroundImageUrl) : that.profileBackgroundImageUrl != null) {
+            return false;
+        }
+        if (profileBackgroundImageUrlHttps != null ? !profileBackgroundImageUrlHttps.equals(that.profileBackgroundImageUrlHttps) : that.profileBackgroundImageUrlHttps != null) {
+            return false;
+        }
+        if (lang != null ? !lang.equals(that.lang) : that.lang != null) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the strings equal to those of the previous instance of the same user with its instances, so that only
+     * one copy of them is retained.
+     *
+     * @param previous previous instance of the same user
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/ void shareStrings(UserJSONImpl previous) {
+        name = share(name, previous.name);
+        screenName = share(screenName, previous.screenName);
+        location = share(location, previous.location);
+        description = share(description, previous.description);
+        profileImageUrl = share(profileImageUrl, previous.profileImageUrl);
+        profileImageUrlHttps = share(profileImageUrlHttps, previous.profileImageUrlHttps);
+        url = share(url, previous.url);
+        profileBackgroundColor = share(profileBackgroundColor, previous.profileBackgroundColor);
+        profileTextColor = share(profileTextColor, previous.profileTextColor);
+        profileLinkColor = share(profileLinkColor, previous.profileLinkColor);
+        profileSidebarFillColor = share(profileSidebarFillColor, previous.profileSidebarFillColor);
+        profileSidebarBorderColor = share(profileSidebarBorderColor, previous.profileSidebarBorderColor);
+        timeZone = share(timeZone, previous.timeZone);
+        profileBackgroundImageUrl = share(profileBackgroundImageUrl, previous.profileBackgroundImageUrl);
+        profileBackgroundImageUrlHttps = share(profileBackgroundImageUrlHttps, previous.profileBackgroundImageUrlHttps);
+        lang = share(lang, previous.lang);
+    }
+
+    private static String share(String str, String previous) {
+        return null != str && str.equals(previous) ? previous : str;
+    }
+
     @Override
     public int hashCode() {
         return (int) id;
@@ -23,6 +23,7 @@ import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 
@@ -68,6 +69,53 @@ import static twitter4j.internal.util.ParseUtil.getRawString;
         init(json);
     }
 
+    private static final int PUBLIC = 1;
+    private static final int FOLLOWING = 1 << 1;
+
+    /**
+     * @param in decoder positioned at a list written by {@link #write(UserList, BinaryEncoder)}
+     * @throws IOException when failed to read the list
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/ UserListJSONImpl(BinaryDecoder in) throws IOException {
+        super();
+        id = in.readVarInt();
+        name = in.readString();
+        fullName = in.readString();
+        slug = in.readString();
+        description = in.readString();
+        subscriberCount = in.readVarInt();
+        memberCount = in.readVarInt();
+        uri = in.readString();
+        int flags = in.readVarInt();
+        mode = 0 != (flags & PUBLIC);
+        following = 0 != (flags & FOLLOWING);
+        user = in.readUser();
+    }
+
+    /**
+     * Writes any implementation of UserList, to be read by {@link #UserListJSONImpl(BinaryDecoder)}.
+     *
+     * @param list list to write
+     * @param out  encoder
+     * @throws IOException when failed to write the list
+     * @since Twitter4J 2.2.4
+     */
+    /*package*/
+    static void write(UserList list, BinaryEncoder out) throws IOException {
+        out.writeVarInt(list.getId());
+        out.writeString(list.getName());
+        out.writeString(list.getFullName());
+        out.writeString(list.getSlug());
+        out.writeString(list.getDescription());
+        out.writeVarInt(list.getSubscriberCount());
+        out.writeVarInt(list.getMemberCount());
+        URI uri = list.getURI();
+        out.writeString(null == uri ? null : uri.toString());
+        out.writeVarInt((list.isPublic() ? PUBLIC : 0) | (list.isFollowing() ? FOLLOWING : 0));
+        out.writeUser(list.getUser());
+    }
+
     private void init(JSONObject json) throws TwitterException {
         id = getInt("id", json);
         name = getRawString("name", json);
@@ -16,11 +16,14 @@
 
 package twitter4j;
 
+import twitter4j.internal.json.JSONPullParser;
 import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 import twitter4j.internal.util.ParseUtil;
 
+import java.io.IOException;
+
 /**
  * A data interface representing one single user mention entity.
  *
@@ -58,6 +61,70 @@ import twitter4j.internal.util.ParseUtil;
         }
     }
 
+    /**
+     * @param parser parser positioned at the start of the entity object
+     * @throws TwitterException when the entity is malformed
+     * @since Twitter4J 2.2.4
+     */
+    /* package */ UserMentionEntityJSONImpl(JSONPullParser parser) throws TwitterException {
+        super();
+        try {
+            while (JSONPullParser.FIELD_NAME == parser.next()) {
+                String name = parser.getCurrentName();
+                parser.next();
+                if ("indices".equals(name)) {
+                    int[] indices = ParseUtil.getIntArray(parser);
+                    if (null == indices || indices.length < 2) {
+                        throw new JSONException("Malformed indices.");
+                    }
+                    this.start = indices[0];
+                    this.end = indices[1];
+                } else if ("name".equals(name)) {
+                    this.name = ParseUtil.getRawString(parser);
+                } else if ("screen_name".equals(name)) {
+                    this.screenName = ParseUtil.getRawString(parser);
+                } else if ("id".equals(name)) {
+                    this.id = ParseUtil.getLong(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        }
+    }
+
+    /**
+     * @param in decoder positioned at an entity written by {@link #write(UserMentionEntity, BinaryEncoder)}
+     * @throws IOException when failed to read the entity
+     * @since Twitter4J 2.2.4
+     */
+    /* package */ UserMentionEntityJSONImpl(BinaryDecoder in) throws IOException {
+        super();
+        start = in.readVarInt();
+        end = in.readVarInt();
+        id = in.readVarLong();
+        screenName = in.readString();
+        name = in.readString();
+    }
+
+    /**
+     * Writes any implementation of UserMentionEntity, to be read by {@link #UserMentionEntityJSONImpl(BinaryDecoder)}.
+     *
+     * @param entity entity to write
+     * @param out    encoder
+     * @throws IOException when failed to write the entity
+     * @since Twitter4J 2.2.4
+     */
+    /* package */
+    static void write(UserMentionEntity entity, BinaryEncoder out) throws IOException {
+        out.writeVarInt(entity.getStart());
+        out.writeVarInt(entity.getEnd());
+        out.writeVarLong(entity.getId());
+        out.writeString(entity.getScreenName());
+        out.writeString(entity.getName());
+    }
+
     /**
      * {@inheritDoc}
      */
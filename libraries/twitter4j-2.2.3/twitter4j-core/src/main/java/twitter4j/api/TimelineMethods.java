@@ -19,6 +19,7 @@ package twitter4j.api;
 import twitter4j.Paging;
 import twitter4j.ResponseList;
 import twitter4j.Status;
+import twitter4j.StatusColumns;
 import twitter4j.TwitterException;
 
 /**
@@ -61,6 +62,20 @@ public interface TimelineMethods {
      */
     ResponseList<Status> getHomeTimeline(Paging paging) throws TwitterException;
 
+    /**
+     * Same as {@link #getHomeTimeline(Paging)}, except that the statuses are appended to the columns instead of
+     * being returned as a list.
+     * <br>This method calls http://api.twitter.com/1/statuses/home_timeline
+     *
+     * @param paging  controls pagination. Supports since_id, max_id, count and page parameters.
+     * @param columns columns to append the statuses to
+     * @return number of the statuses appended
+     * @throws TwitterException when Twitter service or network is unavailable
+     * @see <a href="http://dev.twitter.com/doc/get/statuses/home_timeline">GET statuses/home_timeline | dev.twitter.com</a>
+     * @since Twitter4J 2.2.4
+     */
+    int getHomeTimeline(Paging paging, StatusColumns columns) throws TwitterException;
+
     /**
      * Returns the 20 most recent statuses posted by the authenticating user and that user's friends. This is the equivalent of /timeline/home on the Web.
      * <br>This method calls http://api.twitter.com/1/statuses/friends_timeline
@@ -116,6 +131,21 @@ public interface TimelineMethods {
      */
     ResponseList<Status> getUserTimeline(long userId, Paging paging) throws TwitterException;
 
+    /**
+     * Same as {@link #getUserTimeline(long, Paging)}, except that the statuses are appended to the columns instead of
+     * being returned as a list.
+     * <br>This method calls http://api.twitter.com/1/statuses/user_timeline.json
+     *
+     * @param userId  specifies the ID of the user for whom to return the user_timeline
+     * @param paging  controls pagination. Supports since_id, max_id, count and page parameters.
+     * @param columns columns to append the statuses to
+     * @return number of the statuses appended
+     * @throws TwitterException when Twitter service or network is unavailable
+     * @see <a href="http://dev.twitter.com/doc/get/statuses/user_timeline">GET statuses/user_timeline | dev.twitter.com</a>
+     * @since Twitter4J 2.2.4
+     */
+    int getUserTimeline(long userId, Paging paging, StatusColumns columns) throws TwitterException;
+
     /**
      * Returns the 20 most recent statuses posted from the authenticating user. It's also possible to request another user's timeline via the id parameter.<br>
      * This is the equivalent of the Web / page for your own user, or the profile page for a third party.<br>
@@ -22,6 +22,7 @@ import twitter4j.ProfileImage;
 import twitter4j.ResponseList;
 import twitter4j.TwitterException;
 import twitter4j.User;
+import twitter4j.UserColumns;
 
 /**
  * @author Joern Huxhorn - jhuxhorn at googlemail.com
@@ -74,6 +75,20 @@ public interface UserMethods {
      */
     ResponseList<User> lookupUsers(long[] ids) throws TwitterException;
 
+    /**
+     * Same as {@link #lookupUsers(long[])}, except that the users are appended to the columns instead of being
+     * returned as a list.
+     * <br>This method calls http://api.twitter.com/1/users/lookup.json
+     *
+     * @param ids     Specifies the IDs of the users to return.
+     * @param columns columns to append the users to
+     * @return number of the users appended
+     * @throws TwitterException when Twitter service or network is unavailable
+     * @see <a href="http://dev.twitter.com/doc/get/users/lookup">GET users/lookup | dev.twitter.com</a>
+     * @since Twitter4J 2.2.4
+     */
+    int lookupUsers(long[] ids, UserColumns columns) throws TwitterException;
+
     /**
      * Run a search for users similar to the Find People button on Twitter.com; the same results returned by people search on Twitter.com will be returned by using this API.<br>
      * Usage note: It is only possible to retrieve the first 1000 matches from this API.
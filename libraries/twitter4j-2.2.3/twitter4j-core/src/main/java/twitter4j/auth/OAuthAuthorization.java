@@ -19,6 +19,8 @@ package twitter4j.auth;
 import twitter4j.TwitterException;
 import twitter4j.conf.Configuration;
 import twitter4j.internal.http.BASE64Encoder;
+import twitter4j.internal.http.DeferredRequestException;
+import twitter4j.internal.http.DeferredRetryException;
 import twitter4j.internal.http.HttpClientWrapper;
 import twitter4j.internal.http.HttpParameter;
 import twitter4j.internal.http.HttpRequest;
@@ -177,6 +179,11 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
                     new HttpParameter("x_auth_mode", "client_auth")
             }, this));
             return (AccessToken) oauthToken;
+        } catch (DeferredRetryException dre) {
+            // the request is re-run later, the credentials are yet to be verified
+            throw dre;
+        } catch (DeferredRequestException dre) {
+            throw dre;
         } catch (TwitterException te) {
             throw new TwitterException("The screen name / password combination seems to be invalid.", te, te.getStatusCode());
         }
@@ -68,6 +68,10 @@ public interface Configuration extends HttpClientConfiguration
 
     int getHttpDefaultMaxPerRoute();
 
+    String getHttpClientImpl();
+
+    String getHttpRetryPolicyImpl();
+
     // oauth related setter/getters
 
     String getOAuthConsumerKey();
@@ -110,6 +114,26 @@ public interface Configuration extends HttpClientConfiguration
 
     boolean isUserStreamRepliesAllEnabled();
 
+    boolean isStreamListenersParallelEnabled();
+
+    int getStreamBufferCapacity();
+
+    String getStreamBufferOverflowPolicy();
+
+    String getStreamBufferSpillDirectory();
+
+    int getStreamBatchSize();
+
+    int getStreamBatchWindow();
+
+    boolean isStreamLazyStatusEnabled();
+
+    boolean isStreamReconnectOverlapEnabled();
+
+    int getStreamDedupSize();
+
+    int getStreamUserCacheSize();
+
     String getMediaProvider();
 
     String getMediaProviderAPIKey();
@@ -118,5 +142,11 @@ public interface Configuration extends HttpClientConfiguration
 
     int getAsyncNumThreads();
 
+    int getAsyncQueueCapacity();
+
+    String getAsyncOverflowPolicy();
+
+    int getAsyncMaxConcurrency();
+
     String getDispatcherImpl();
 }
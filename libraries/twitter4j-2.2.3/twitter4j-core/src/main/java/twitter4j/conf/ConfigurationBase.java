@@ -48,6 +48,8 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
     private int httpRetryIntervalSeconds;
     private int maxTotalConnections;
     private int defaultMaxPerRoute;
+    private String httpClientImpl;
+    private String httpRetryPolicyImpl;
     private String oAuthConsumerKey;
     private String oAuthConsumerSecret;
     private String oAuthAccessToken;
@@ -67,6 +69,9 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
     private String dispatcherImpl;
 
     private int asyncNumThreads;
+    private int asyncQueueCapacity;
+    private String asyncOverflowPolicy;
+    private int asyncMaxConcurrency;
 
     private boolean includeRTsEnabled;
 
@@ -77,6 +82,16 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
     private boolean mbeanEnabled;
 
     private boolean userStreamRepliesAllEnabled;
+    private boolean streamListenersParallelEnabled;
+    private int streamBufferCapacity;
+    private String streamBufferOverflowPolicy;
+    private String streamBufferSpillDirectory;
+    private int streamBatchSize;
+    private int streamBatchWindow;
+    private boolean streamLazyStatusEnabled;
+    private boolean streamReconnectOverlapEnabled;
+    private int streamDedupSize;
+    private int streamUserCacheSize;
 
     private String mediaProvider;
 
@@ -135,11 +150,16 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         setHttpRetryIntervalSeconds(5);
         setHttpMaxTotalConnections(20);
         setHttpDefaultMaxPerRoute(2);
+        setHttpClientImpl(null);
+        setHttpRetryPolicyImpl("twitter4j.internal.http.FixedIntervalRetryPolicy");
         setOAuthConsumerKey(null);
         setOAuthConsumerSecret(null);
         setOAuthAccessToken(null);
         setOAuthAccessTokenSecret(null);
         setAsyncNumThreads(1);
+        setAsyncQueueCapacity(1024);
+        setAsyncOverflowPolicy("block");
+        setAsyncMaxConcurrency(256);
         setClientVersion(Version.getVersion());
         setClientURL("http://twitter4j.org/en/twitter4j-" + Version.getVersion() + ".xml");
         setUserAgent("twitter4j http://twitter4j.org/ /" + Version.getVersion());
@@ -171,6 +191,16 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
 
         setIncludeRTsEnbled(true);
         setUserStreamRepliesAllEnabled(false);
+        setStreamListenersParallelEnabled(false);
+        setStreamBufferCapacity(10000);
+        setStreamBufferOverflowPolicy("block");
+        setStreamBufferSpillDirectory(null);
+        setStreamBatchSize(500);
+        setStreamBatchWindow(50);
+        setStreamLazyStatusEnabled(false);
+        setStreamReconnectOverlapEnabled(false);
+        setStreamDedupSize(10000);
+        setStreamUserCacheSize(0);
         String isDalvik;
         try {
             isDalvik = System.getProperty(DALVIK, dalvikDetected);
@@ -358,6 +388,22 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         this.defaultMaxPerRoute = defaultMaxPerRoute;
     }
 
+    public final String getHttpClientImpl() {
+        return httpClientImpl;
+    }
+
+    protected final void setHttpClientImpl(String httpClientImpl) {
+        this.httpClientImpl = httpClientImpl;
+    }
+
+    public final String getHttpRetryPolicyImpl() {
+        return httpRetryPolicyImpl;
+    }
+
+    protected final void setHttpRetryPolicyImpl(String httpRetryPolicyImpl) {
+        this.httpRetryPolicyImpl = httpRetryPolicyImpl;
+    }
+
     // oauth related setter/getters
 
     public final String getOAuthConsumerKey() {
@@ -402,6 +448,30 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         this.asyncNumThreads = asyncNumThreads;
     }
 
+    public final int getAsyncQueueCapacity() {
+        return asyncQueueCapacity;
+    }
+
+    protected final void setAsyncQueueCapacity(int asyncQueueCapacity) {
+        this.asyncQueueCapacity = asyncQueueCapacity;
+    }
+
+    public final String getAsyncOverflowPolicy() {
+        return asyncOverflowPolicy;
+    }
+
+    protected final void setAsyncOverflowPolicy(String asyncOverflowPolicy) {
+        this.asyncOverflowPolicy = asyncOverflowPolicy;
+    }
+
+    public final int getAsyncMaxConcurrency() {
+        return asyncMaxConcurrency;
+    }
+
+    protected final void setAsyncMaxConcurrency(int asyncMaxConcurrency) {
+        this.asyncMaxConcurrency = asyncMaxConcurrency;
+    }
+
     public final String getClientVersion() {
         return clientVersion;
     }
@@ -563,6 +633,86 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         this.userStreamRepliesAllEnabled = enabled;
     }
 
+    public final boolean isStreamListenersParallelEnabled() {
+        return streamListenersParallelEnabled;
+    }
+
+    protected final void setStreamListenersParallelEnabled(boolean streamListenersParallelEnabled) {
+        this.streamListenersParallelEnabled = streamListenersParallelEnabled;
+    }
+
+    public final int getStreamBufferCapacity() {
+        return streamBufferCapacity;
+    }
+
+    protected final void setStreamBufferCapacity(int streamBufferCapacity) {
+        this.streamBufferCapacity = streamBufferCapacity;
+    }
+
+    public final String getStreamBufferOverflowPolicy() {
+        return streamBufferOverflowPolicy;
+    }
+
+    protected final void setStreamBufferOverflowPolicy(String streamBufferOverflowPolicy) {
+        this.streamBufferOverflowPolicy = streamBufferOverflowPolicy;
+    }
+
+    public final String getStreamBufferSpillDirectory() {
+        return streamBufferSpillDirectory;
+    }
+
+    protected final void setStreamBufferSpillDirectory(String streamBufferSpillDirectory) {
+        this.streamBufferSpillDirectory = streamBufferSpillDirectory;
+    }
+
+    public final int getStreamBatchSize() {
+        return streamBatchSize;
+    }
+
+    protected final void setStreamBatchSize(int streamBatchSize) {
+        this.streamBatchSize = streamBatchSize;
+    }
+
+    public final int getStreamBatchWindow() {
+        return streamBatchWindow;
+    }
+
+    protected final void setStreamBatchWindow(int streamBatchWindow) {
+        this.streamBatchWindow = streamBatchWindow;
+    }
+
+    public final boolean isStreamLazyStatusEnabled() {
+        return streamLazyStatusEnabled;
+    }
+
+    protected final void setStreamLazyStatusEnabled(boolean streamLazyStatusEnabled) {
+        this.streamLazyStatusEnabled = streamLazyStatusEnabled;
+    }
+
+    public final boolean isStreamReconnectOverlapEnabled() {
+        return streamReconnectOverlapEnabled;
+    }
+
+    protected final void setStreamReconnectOverlapEnabled(boolean streamReconnectOverlapEnabled) {
+        this.streamReconnectOverlapEnabled = streamReconnectOverlapEnabled;
+    }
+
+    public final int getStreamDedupSize() {
+        return streamDedupSize;
+    }
+
+    protected final void setStreamDedupSize(int streamDedupSize) {
+        this.streamDedupSize = streamDedupSize;
+    }
+
+    public final int getStreamUserCacheSize() {
+        return streamUserCacheSize;
+    }
+
+    protected final void setStreamUserCacheSize(int streamUserCacheSize) {
+        this.streamUserCacheSize = streamUserCacheSize;
+    }
+
     public String getMediaProvider() {
         return this.mediaProvider;
     }
@@ -613,12 +763,32 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         if (useSSL != that.useSSL) return false;
         if (userStreamRepliesAllEnabled != that.userStreamRepliesAllEnabled)
             return false;
+        if (asyncQueueCapacity != that.asyncQueueCapacity) return false;
+        if (asyncMaxConcurrency != that.asyncMaxConcurrency) return false;
+        if (streamListenersParallelEnabled != that.streamListenersParallelEnabled) return false;
+        if (streamBufferCapacity != that.streamBufferCapacity) return false;
+        if (streamBatchSize != that.streamBatchSize) return false;
+        if (streamBatchWindow != that.streamBatchWindow) return false;
+        if (streamLazyStatusEnabled != that.streamLazyStatusEnabled) return false;
+        if (streamReconnectOverlapEnabled != that.streamReconnectOverlapEnabled) return false;
+        if (streamDedupSize != that.streamDedupSize) return false;
+        if (streamUserCacheSize != that.streamUserCacheSize) return false;
         if (clientURL != null ? !clientURL.equals(that.clientURL) : that.clientURL != null)
             return false;
         if (clientVersion != null ? !clientVersion.equals(that.clientVersion) : that.clientVersion != null)
             return false;
         if (dispatcherImpl != null ? !dispatcherImpl.equals(that.dispatcherImpl) : that.dispatcherImpl != null)
             return false;
+        if (httpClientImpl != null ? !httpClientImpl.equals(that.httpClientImpl) : that.httpClientImpl != null)
+            return false;
+        if (httpRetryPolicyImpl != null ? !httpRetryPolicyImpl.equals(that.httpRetryPolicyImpl) : that.httpRetryPolicyImpl != null)
+            return false;
+        if (asyncOverflowPolicy != null ? !asyncOverflowPolicy.equals(that.asyncOverflowPolicy) : that.asyncOverflowPolicy != null)
+            return false;
+        if (streamBufferOverflowPolicy != null ? !streamBufferOverflowPolicy.equals(that.streamBufferOverflowPolicy) : that.streamBufferOverflowPolicy != null)
+            return false;
+        if (streamBufferSpillDirectory != null ? !streamBufferSpillDirectory.equals(that.streamBufferSpillDirectory) : that.streamBufferSpillDirectory != null)
+            return false;
         if (httpProxyHost != null ? !httpProxyHost.equals(that.httpProxyHost) : that.httpProxyHost != null)
             return false;
         if (httpProxyPassword != null ? !httpProxyPassword.equals(that.httpProxyPassword) : that.httpProxyPassword != null)
@@ -688,6 +858,8 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         result = 31 * result + httpRetryIntervalSeconds;
         result = 31 * result + maxTotalConnections;
         result = 31 * result + defaultMaxPerRoute;
+        result = 31 * result + (httpClientImpl != null ? httpClientImpl.hashCode() : 0);
+        result = 31 * result + (httpRetryPolicyImpl != null ? httpRetryPolicyImpl.hashCode() : 0);
         result = 31 * result + (oAuthConsumerKey != null ? oAuthConsumerKey.hashCode() : 0);
         result = 31 * result + (oAuthConsumerSecret != null ? oAuthConsumerSecret.hashCode() : 0);
         result = 31 * result + (oAuthAccessToken != null ? oAuthAccessToken.hashCode() : 0);
@@ -703,8 +875,21 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         result = 31 * result + (siteStreamBaseURL != null ? siteStreamBaseURL.hashCode() : 0);
         result = 31 * result + (dispatcherImpl != null ? dispatcherImpl.hashCode() : 0);
         result = 31 * result + asyncNumThreads;
+        result = 31 * result + asyncQueueCapacity;
+        result = 31 * result + (asyncOverflowPolicy != null ? asyncOverflowPolicy.hashCode() : 0);
+        result = 31 * result + asyncMaxConcurrency;
         result = 31 * result + (includeRTsEnabled ? 1 : 0);
         result = 31 * result + (userStreamRepliesAllEnabled ? 1 : 0);
+        result = 31 * result + (streamListenersParallelEnabled ? 1 : 0);
+        result = 31 * result + streamBufferCapacity;
+        result = 31 * result + (streamBufferOverflowPolicy != null ? streamBufferOverflowPolicy.hashCode() : 0);
+        result = 31 * result + (streamBufferSpillDirectory != null ? streamBufferSpillDirectory.hashCode() : 0);
+        result = 31 * result + streamBatchSize;
+        result = 31 * result + streamBatchWindow;
+        result = 31 * result + (streamLazyStatusEnabled ? 1 : 0);
+        result = 31 * result + (streamReconnectOverlapEnabled ? 1 : 0);
+        result = 31 * result + streamDedupSize;
+        result = 31 * result + streamUserCacheSize;
         result = 31 * result + (clientVersion != null ? clientVersion.hashCode() : 0);
         result = 31 * result + (clientURL != null ? clientURL.hashCode() : 0);
         result = 31 * result + (IS_DALVIK ? 1 : 0);
@@ -734,6 +919,8 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
                 ", httpRetryIntervalSeconds=" + httpRetryIntervalSeconds +
                 ", maxTotalConnections=" + maxTotalConnections +
                 ", defaultMaxPerRoute=" + defaultMaxPerRoute +
+                ", httpClientImpl='" + httpClientImpl + '\'' +
+                ", httpRetryPolicyImpl='" + httpRetryPolicyImpl + '\'' +
                 ", oAuthConsumerKey='" + oAuthConsumerKey + '\'' +
                 ", oAuthConsumerSecret='" + oAuthConsumerSecret + '\'' +
                 ", oAuthAccessToken='" + oAuthAccessToken + '\'' +
@@ -749,9 +936,22 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
                 ", siteStreamBaseURL='" + siteStreamBaseURL + '\'' +
                 ", dispatcherImpl='" + dispatcherImpl + '\'' +
                 ", asyncNumThreads=" + asyncNumThreads +
+                ", asyncQueueCapacity=" + asyncQueueCapacity +
+                ", asyncOverflowPolicy='" + asyncOverflowPolicy + '\'' +
+                ", asyncMaxConcurrency=" + asyncMaxConcurrency +
                 ", includeRTsEnabled=" + includeRTsEnabled +
                 ", includeEntitiesEnabled=" + includeEntitiesEnabled +
                 ", userStreamRepliesAllEnabled=" + userStreamRepliesAllEnabled +
+                ", streamListenersParallelEnabled=" + streamListenersParallelEnabled +
+                ", streamBufferCapacity=" + streamBufferCapacity +
+                ", streamBufferOverflowPolicy='" + streamBufferOverflowPolicy + '\'' +
+                ", streamBufferSpillDirectory='" + streamBufferSpillDirectory + '\'' +
+                ", streamBatchSize=" + streamBatchSize +
+                ", streamBatchWindow=" + streamBatchWindow +
+                ", streamLazyStatusEnabled=" + streamLazyStatusEnabled +
+                ", streamReconnectOverlapEnabled=" + streamReconnectOverlapEnabled +
+                ", streamDedupSize=" + streamDedupSize +
+                ", streamUserCacheSize=" + streamUserCacheSize +
                 ", clientVersion='" + clientVersion + '\'' +
                 ", clientURL='" + clientURL + '\'' +
                 ", IS_DALVIK=" + IS_DALVIK +
@@ -127,6 +127,18 @@ public final class ConfigurationBuilder {
         return this;
     }
 
+    public ConfigurationBuilder setHttpClientImpl(String httpClientImpl) {
+        checkNotBuilt();
+        configurationBean.setHttpClientImpl(httpClientImpl);
+        return this;
+    }
+
+    public ConfigurationBuilder setHttpRetryPolicyImpl(String httpRetryPolicyImpl) {
+        checkNotBuilt();
+        configurationBean.setHttpRetryPolicyImpl(httpRetryPolicyImpl);
+        return this;
+    }
+
     public ConfigurationBuilder setHttpRetryIntervalSeconds(int httpRetryIntervalSeconds) {
         checkNotBuilt();
         configurationBean.setHttpRetryIntervalSeconds(httpRetryIntervalSeconds);
@@ -217,6 +229,24 @@ public final class ConfigurationBuilder {
         return this;
     }
 
+    public ConfigurationBuilder setAsyncQueueCapacity(int asyncQueueCapacity) {
+        checkNotBuilt();
+        configurationBean.setAsyncQueueCapacity(asyncQueueCapacity);
+        return this;
+    }
+
+    public ConfigurationBuilder setAsyncOverflowPolicy(String asyncOverflowPolicy) {
+        checkNotBuilt();
+        configurationBean.setAsyncOverflowPolicy(asyncOverflowPolicy);
+        return this;
+    }
+
+    public ConfigurationBuilder setAsyncMaxConcurrency(int asyncMaxConcurrency) {
+        checkNotBuilt();
+        configurationBean.setAsyncMaxConcurrency(asyncMaxConcurrency);
+        return this;
+    }
+
     public ConfigurationBuilder setClientVersion(String clientVersion) {
         checkNotBuilt();
         configurationBean.setClientVersion(clientVersion);
@@ -265,6 +295,66 @@ public final class ConfigurationBuilder {
         return this;
     }
 
+    public ConfigurationBuilder setStreamListenersParallelEnabled(boolean streamListenersParallelEnabled) {
+        checkNotBuilt();
+        configurationBean.setStreamListenersParallelEnabled(streamListenersParallelEnabled);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamBufferCapacity(int streamBufferCapacity) {
+        checkNotBuilt();
+        configurationBean.setStreamBufferCapacity(streamBufferCapacity);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamBufferOverflowPolicy(String streamBufferOverflowPolicy) {
+        checkNotBuilt();
+        configurationBean.setStreamBufferOverflowPolicy(streamBufferOverflowPolicy);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamBufferSpillDirectory(String streamBufferSpillDirectory) {
+        checkNotBuilt();
+        configurationBean.setStreamBufferSpillDirectory(streamBufferSpillDirectory);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamBatchSize(int streamBatchSize) {
+        checkNotBuilt();
+        configurationBean.setStreamBatchSize(streamBatchSize);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamBatchWindow(int streamBatchWindow) {
+        checkNotBuilt();
+        configurationBean.setStreamBatchWindow(streamBatchWindow);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamLazyStatusEnabled(boolean streamLazyStatusEnabled) {
+        checkNotBuilt();
+        configurationBean.setStreamLazyStatusEnabled(streamLazyStatusEnabled);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamReconnectOverlapEnabled(boolean streamReconnectOverlapEnabled) {
+        checkNotBuilt();
+        configurationBean.setStreamReconnectOverlapEnabled(streamReconnectOverlapEnabled);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamDedupSize(int streamDedupSize) {
+        checkNotBuilt();
+        configurationBean.setStreamDedupSize(streamDedupSize);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamUserCacheSize(int streamUserCacheSize) {
+        checkNotBuilt();
+        configurationBean.setStreamUserCacheSize(streamUserCacheSize);
+        return this;
+    }
+
     public ConfigurationBuilder setMediaProvider(String mediaProvider) {
         checkNotBuilt();
         configurationBean.setMediaProvider(mediaProvider);
@@ -55,6 +55,8 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
 
     public static final String HTTP_MAX_TOTAL_CONNECTIONS = "http.maxTotalConnections";
     public static final String HTTP_DEFAULT_MAX_PER_ROUTE = "http.defaultMaxPerRoute";
+    public static final String HTTP_CLIENT_IMPL = "http.clientImpl";
+    public static final String HTTP_RETRY_POLICY_IMPL = "http.retryPolicyImpl";
 
     public static final String OAUTH_CONSUMER_KEY = "oauth.consumerKey";
     public static final String OAUTH_CONSUMER_SECRET = "oauth.consumerSecret";
@@ -75,12 +77,25 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
 
 
     public static final String ASYNC_NUM_THREADS = "async.numThreads";
+    public static final String ASYNC_QUEUE_CAPACITY = "async.queueCapacity";
+    public static final String ASYNC_OVERFLOW_POLICY = "async.overflowPolicy";
+    public static final String ASYNC_MAX_CONCURRENCY = "async.maxConcurrency";
     public static final String ASYNC_DISPATCHER_IMPL = "async.dispatcherImpl";
     public static final String INCLUDE_RTS = "includeRTs";
     public static final String INCLUDE_ENTITIES = "includeEntities";
     public static final String JSON_STORE_ENABLED = "jsonStoreEnabled";
     public static final String MBEAN_ENABLED = "mbeanEnabled";
     public static final String STREAM_USER_REPLIES_ALL = "stream.user.repliesAll";
+    public static final String STREAM_LISTENERS_PARALLEL = "stream.listeners.parallel";
+    public static final String STREAM_BUFFER_CAPACITY = "stream.buffer.capacity";
+    public static final String STREAM_BUFFER_OVERFLOW_POLICY = "stream.buffer.overflowPolicy";
+    public static final String STREAM_BUFFER_SPILL_DIRECTORY = "stream.buffer.spillDirectory";
+    public static final String STREAM_BATCH_SIZE = "stream.batch.size";
+    public static final String STREAM_BATCH_WINDOW = "stream.batch.window";
+    public static final String STREAM_LAZY_STATUS = "stream.status.lazy";
+    public static final String STREAM_RECONNECT_OVERLAP = "stream.reconnect.overlap";
+    public static final String STREAM_DEDUP_SIZE = "stream.dedup.size";
+    public static final String STREAM_USER_CACHE_SIZE = "stream.user.cache.size";
 
     public static final String MEDIA_PROVIDER = "media.provider";
     public static final String MEDIA_PROVIDER_API_KEY = "media.providerAPIKey";
@@ -272,6 +287,12 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
         if (notNull(props, prefix, HTTP_DEFAULT_MAX_PER_ROUTE)) {
             setHttpDefaultMaxPerRoute(getIntProperty(props, prefix, HTTP_DEFAULT_MAX_PER_ROUTE));
         }
+        if (notNull(props, prefix, HTTP_CLIENT_IMPL)) {
+            setHttpClientImpl(getString(props, prefix, HTTP_CLIENT_IMPL));
+        }
+        if (notNull(props, prefix, HTTP_RETRY_POLICY_IMPL)) {
+            setHttpRetryPolicyImpl(getString(props, prefix, HTTP_RETRY_POLICY_IMPL));
+        }
         if (notNull(props, prefix, OAUTH_CONSUMER_KEY)) {
             setOAuthConsumerKey(getString(props, prefix, OAUTH_CONSUMER_KEY));
         }
@@ -287,6 +308,15 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
         if (notNull(props, prefix, ASYNC_NUM_THREADS)) {
             setAsyncNumThreads(getIntProperty(props, prefix, ASYNC_NUM_THREADS));
         }
+        if (notNull(props, prefix, ASYNC_QUEUE_CAPACITY)) {
+            setAsyncQueueCapacity(getIntProperty(props, prefix, ASYNC_QUEUE_CAPACITY));
+        }
+        if (notNull(props, prefix, ASYNC_OVERFLOW_POLICY)) {
+            setAsyncOverflowPolicy(getString(props, prefix, ASYNC_OVERFLOW_POLICY));
+        }
+        if (notNull(props, prefix, ASYNC_MAX_CONCURRENCY)) {
+            setAsyncMaxConcurrency(getIntProperty(props, prefix, ASYNC_MAX_CONCURRENCY));
+        }
         if (notNull(props, prefix, ASYNC_DISPATCHER_IMPL)) {
             setDispatcherImpl(getString(props, prefix, ASYNC_DISPATCHER_IMPL));
         }
@@ -348,6 +378,36 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
         if (notNull(props, prefix, STREAM_USER_REPLIES_ALL)) {
             setUserStreamRepliesAllEnabled(getBoolean(props, prefix, STREAM_USER_REPLIES_ALL));
         }
+        if (notNull(props, prefix, STREAM_LISTENERS_PARALLEL)) {
+            setStreamListenersParallelEnabled(getBoolean(props, prefix, STREAM_LISTENERS_PARALLEL));
+        }
+        if (notNull(props, prefix, STREAM_BUFFER_CAPACITY)) {
+            setStreamBufferCapacity(getIntProperty(props, prefix, STREAM_BUFFER_CAPACITY));
+        }
+        if (notNull(props, prefix, STREAM_BUFFER_OVERFLOW_POLICY)) {
+            setStreamBufferOverflowPolicy(getString(props, prefix, STREAM_BUFFER_OVERFLOW_POLICY));
+        }
+        if (notNull(props, prefix, STREAM_BUFFER_SPILL_DIRECTORY)) {
+            setStreamBufferSpillDirectory(getString(props, prefix, STREAM_BUFFER_SPILL_DIRECTORY));
+        }
+        if (notNull(props, prefix, STREAM_BATCH_SIZE)) {
+            setStreamBatchSize(getIntProperty(props, prefix, STREAM_BATCH_SIZE));
+        }
+        if (notNull(props, prefix, STREAM_BATCH_WINDOW)) {
+            setStreamBatchWindow(getIntProperty(props, prefix, STREAM_BATCH_WINDOW));
+        }
+        if (notNull(props, prefix, STREAM_LAZY_STATUS)) {
+            setStreamLazyStatusEnabled(getBoolean(props, prefix, STREAM_LAZY_STATUS));
+        }
+        if (notNull(props, prefix, STREAM_RECONNECT_OVERLAP)) {
+            setStreamReconnectOverlapEnabled(getBoolean(props, prefix, STREAM_RECONNECT_OVERLAP));
+        }
+        if (notNull(props, prefix, STREAM_DEDUP_SIZE)) {
+            setStreamDedupSize(getIntProperty(props, prefix, STREAM_DEDUP_SIZE));
+        }
+        if (notNull(props, prefix, STREAM_USER_CACHE_SIZE)) {
+            setStreamUserCacheSize(getIntProperty(props, prefix, STREAM_USER_CACHE_SIZE));
+        }
         if (notNull(props, prefix, MEDIA_PROVIDER)) {
             setMediaProvider(getString(props, prefix, MEDIA_PROVIDER));
         }
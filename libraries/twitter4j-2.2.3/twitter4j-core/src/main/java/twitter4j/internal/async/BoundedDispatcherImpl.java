@@ -0,0 +1,368 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.async;
+
+import twitter4j.conf.Configuration;
+import twitter4j.internal.logging.Logger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A Dispatcher backed by a bounded lock-free multi-producer multi-consumer queue.<br>
+ * Unlike {@link DispatcherImpl}, enqueueing and dequeueing do not take any lock. Monitors are only used to park idle
+ * worker threads and blocked producers, and are touched only when someone is actually parked.<br>
+ * What happens when the queue is full is decided by async.overflowPolicy:
+ * <ul>
+ * <li>block - the caller waits until a worker frees a slot (default)</li>
+ * <li>dropOldest - the oldest queued task is discarded</li>
+ * <li>callerRuns - the task is run on the calling thread</li>
+ * </ul>
+ * Tasks dropped by the dropOldest policy or left in the queue at shutdown are notified through
+ * {@link DiscardableRunnable#discarded()}.<br>
+ * The capacity is async.queueCapacity rounded up to a power of two.<br>
+ * To use this implementation, set async.dispatcherImpl to twitter4j.internal.async.BoundedDispatcherImpl.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public final class BoundedDispatcherImpl implements Dispatcher {
+    private static final Logger logger = Logger.getLogger(BoundedDispatcherImpl.class);
+
+    public static final String BLOCK = "block";
+    public static final String DROP_OLDEST = "dropOldest";
+    public static final String CALLER_RUNS = "callerRuns";
+
+    private static final int SPINS = 64;
+
+    private final int mask;
+    private final AtomicReferenceArray<Runnable> buffer;
+    // sequence numbers per slot: a producer may write slot i when sequence == position,
+    // a consumer may read it when sequence == position + 1
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    private final String overflowPolicy;
+    private final Thread[] threads;
+    private volatile boolean active = true;
+
+    private final Object notEmpty = new Object();
+    private final AtomicInteger idleWorkers = new AtomicInteger();
+    private final Object notFull = new Object();
+    private final AtomicInteger blockedProducers = new AtomicInteger();
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong callerRunsCount = new AtomicLong();
+    private final AtomicLong blockedCount = new AtomicLong();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+
+    public BoundedDispatcherImpl(Configuration conf) {
+        int capacity = 2;
+        while (capacity < conf.getAsyncQueueCapacity() && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        mask = capacity - 1;
+        buffer = new AtomicReferenceArray<Runnable>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        String policy = conf.getAsyncOverflowPolicy();
+        if (DROP_OLDEST.equals(policy) || CALLER_RUNS.equals(policy)) {
+            overflowPolicy = policy;
+        } else {
+            if (null != policy && !BLOCK.equals(policy)) {
+                logger.warn("Unknown async.overflowPolicy: " + policy + ". Falling back to " + BLOCK);
+            }
+            overflowPolicy = BLOCK;
+        }
+        threads = new Thread[conf.getAsyncNumThreads()];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Worker(), "Twitter4J Async Dispatcher[" + i + "]");
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            public void run() {
+                if (active) {
+                    shutdown();
+                }
+            }
+        });
+    }
+
+    public void invokeLater(Runnable task) {
+        if (null == task) {
+            throw new NullPointerException("task");
+        }
+        while (!offer(task)) {
+            if (!active) {
+                logger.warn("Dispatcher is already shut down. Discarding a task.");
+                discard(task);
+                return;
+            }
+            if (DROP_OLDEST == overflowPolicy) {
+                Runnable dropped = poll();
+                if (null != dropped) {
+                    droppedCount.incrementAndGet();
+                    signalNotFull();
+                    discard(dropped);
+                }
+            } else if (CALLER_RUNS == overflowPolicy) {
+                callerRunsCount.incrementAndGet();
+                run(task);
+                return;
+            } else {
+                awaitNotFull();
+            }
+        }
+        if (!active) {
+            // shut down meanwhile. nobody will take the task
+            logger.warn("Dispatcher is already shut down. Discarding a task.");
+            discardAll();
+            return;
+        }
+        enqueuedCount.incrementAndGet();
+        updatePeakQueueDepth();
+        if (0 < idleWorkers.get()) {
+            synchronized (notEmpty) {
+                notEmpty.notify();
+            }
+        }
+    }
+
+    public void shutdown() {
+        if (active) {
+            active = false;
+            synchronized (notEmpty) {
+                notEmpty.notifyAll();
+            }
+            synchronized (notFull) {
+                notFull.notifyAll();
+            }
+            discardAll();
+        }
+    }
+
+    /**
+     * @return number of tasks waiting in the queue
+     */
+    public int getQueueDepth() {
+        long depth = tail.get() - head.get();
+        return depth < 0 ? 0 : (int) Math.min(depth, mask + 1);
+    }
+
+    /**
+     * @return highest queue depth observed since the dispatcher was created
+     */
+    public int getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    public String getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @return number of tasks accepted into the queue
+     */
+    public long getEnqueuedCount() {
+        return enqueuedCount.get();
+    }
+
+    /**
+     * @return number of tasks discarded by the dropOldest policy
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return number of tasks run on the calling thread by the callerRuns policy
+     */
+    public long getCallerRunsCount() {
+        return callerRunsCount.get();
+    }
+
+    /**
+     * @return number of times a producer had to wait for a free slot with the block policy
+     */
+    public long getBlockedCount() {
+        return blockedCount.get();
+    }
+
+    private boolean offer(Runnable task) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long diff = sequences.get(index) - position;
+            if (0 == diff) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer.set(index, task);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // full
+                return false;
+            }
+            // another producer took the slot. retry with the new tail
+        }
+    }
+
+    /*package*/ Runnable poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) position & mask;
+            long diff = sequences.get(index) - (position + 1);
+            if (0 == diff) {
+                if (head.compareAndSet(position, position + 1)) {
+                    Runnable task = buffer.get(index);
+                    buffer.set(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return task;
+                }
+            } else if (diff < 0) {
+                // empty
+                return null;
+            }
+        }
+    }
+
+    private boolean isEmpty() {
+        long position = head.get();
+        return sequences.get((int) position & mask) - (position + 1) < 0;
+    }
+
+    private void updatePeakQueueDepth() {
+        int depth = getQueueDepth();
+        int peak;
+        while (depth > (peak = peakQueueDepth.get())) {
+            if (peakQueueDepth.compareAndSet(peak, depth)) {
+                break;
+            }
+        }
+    }
+
+    private void awaitNotFull() {
+        blockedCount.incrementAndGet();
+        blockedProducers.incrementAndGet();
+        try {
+            synchronized (notFull) {
+                // re-check under the monitor. consumers signal only after they see a blocked producer
+                if (active && getQueueDepth() > mask) {
+                    try {
+                        notFull.wait(100);
+                    } catch (InterruptedException ignore) {
+                    }
+                }
+            }
+        } finally {
+            blockedProducers.decrementAndGet();
+        }
+    }
+
+    private void signalNotFull() {
+        if (0 < blockedProducers.get()) {
+            synchronized (notFull) {
+                notFull.notifyAll();
+            }
+        }
+    }
+
+    private Runnable take() {
+        while (active) {
+            Runnable task = poll();
+            for (int i = 0; null == task && i < SPINS; i++) {
+                Thread.yield();
+                task = poll();
+            }
+            if (null != task) {
+                signalNotFull();
+                return task;
+            }
+            idleWorkers.incrementAndGet();
+            try {
+                synchronized (notEmpty) {
+                    // producers notify only when they see an idle worker, so the queue must be re-checked after
+                    // registering as idle to avoid missing a task enqueued in between
+                    if (active && isEmpty()) {
+                        try {
+                            notEmpty.wait();
+                        } catch (InterruptedException ignore) {
+                        }
+                    }
+                }
+            } finally {
+                idleWorkers.decrementAndGet();
+            }
+        }
+        return null;
+    }
+
+    private static void run(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception ex) {
+            logger.error("Got an exception while running a taks:", ex);
+        }
+    }
+
+    private void discardAll() {
+        Runnable task;
+        while (null != (task = poll())) {
+            discard(task);
+        }
+    }
+
+    private static void discard(Runnable task) {
+        if (task instanceof DiscardableRunnable) {
+            ((DiscardableRunnable) task).discarded();
+        }
+    }
+
+    private final class Worker implements Runnable {
+        public void run() {
+            Runnable task;
+            while (null != (task = take())) {
+                BoundedDispatcherImpl.run(task);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedDispatcherImpl{" +
+                "capacity=" + getCapacity() +
+                ", overflowPolicy='" + overflowPolicy + '\'' +
+                ", queueDepth=" + getQueueDepth() +
+                ", peakQueueDepth=" + getPeakQueueDepth() +
+                ", enqueuedCount=" + getEnqueuedCount() +
+                ", droppedCount=" + getDroppedCount() +
+                ", callerRunsCount=" + getCallerRunsCount() +
+                ", blockedCount=" + getBlockedCount() +
+                '}';
+    }
+}
@@ -18,6 +18,7 @@ package twitter4j.internal.async;
 import twitter4j.conf.Configuration;
 import twitter4j.internal.logging.Logger;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -46,6 +47,10 @@ final class DispatcherImpl implements Dispatcher {
     }
 
     public synchronized void invokeLater(Runnable task) {
+        if (!active) {
+            discard(task);
+            return;
+        }
         synchronized (q) {
             q.add(task);
         }
@@ -87,6 +92,20 @@ final class DispatcherImpl implements Dispatcher {
             synchronized (ticket) {
                 ticket.notify();
             }
+            List<Runnable> discarded;
+            synchronized (q) {
+                discarded = new ArrayList<Runnable>(q);
+                q.clear();
+            }
+            for (Runnable task : discarded) {
+                discard(task);
+            }
+        }
+    }
+
+    private static void discard(Runnable task) {
+        if (task instanceof DiscardableRunnable) {
+            ((DiscardableRunnable) task).discarded();
         }
     }
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.async;
+
+import twitter4j.conf.Configuration;
+import twitter4j.internal.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Dispatcher that runs tasks on async.numThreads lanes, each served by a single thread.<br>
+ * A {@link KeyedRunnable} always goes to the lane chosen by the hash of its key, so tasks with the same key run one
+ * at a time in submission order while tasks with different keys run in parallel. Other tasks are spread over the
+ * lanes round-robin.<br>
+ * Each lane holds up to async.queueCapacity tasks, and invokeLater() blocks while the lane is full.<br>
+ * Tasks left in the lanes at shutdown are notified through {@link DiscardableRunnable#discarded()}.<br>
+ * To use this implementation, set async.dispatcherImpl to twitter4j.internal.async.PartitionedDispatcherImpl.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public final class PartitionedDispatcherImpl implements Dispatcher {
+    private static final Logger logger = Logger.getLogger(PartitionedDispatcherImpl.class);
+
+    private final Lane[] lanes;
+    private int nextLane = 0;
+    private volatile boolean active = true;
+
+    public PartitionedDispatcherImpl(Configuration conf) {
+        lanes = new Lane[Math.max(1, conf.getAsyncNumThreads())];
+        int capacity = Math.max(1, conf.getAsyncQueueCapacity());
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(capacity, i);
+            lanes[i].start();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            public void run() {
+                if (active) {
+                    shutdown();
+                }
+            }
+        });
+    }
+
+    public void invokeLater(Runnable task) {
+        Lane lane;
+        if (task instanceof KeyedRunnable) {
+            lane = lanes[getPartition(((KeyedRunnable) task).getKey(), lanes.length)];
+        } else {
+            synchronized (this) {
+                lane = lanes[nextLane];
+                nextLane = (nextLane + 1) % lanes.length;
+            }
+        }
+        lane.enqueue(task);
+    }
+
+    /**
+     * @param key           key of a task
+     * @param numPartitions number of partitions
+     * @return partition of the key, from 0 to numPartitions - 1
+     */
+    public static int getPartition(Object key, int numPartitions) {
+        if (null == key) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        // spread the bits as sequential ids would otherwise map to lanes in lockstep
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return (hash & 0x7fffffff) % numPartitions;
+    }
+
+    public int getNumPartitions() {
+        return lanes.length;
+    }
+
+    /**
+     * @param partition partition
+     * @return number of tasks waiting in the lane of the partition
+     */
+    public int getQueueDepth(int partition) {
+        return lanes[partition].size();
+    }
+
+    public synchronized void shutdown() {
+        if (active) {
+            active = false;
+            for (Lane lane : lanes) {
+                for (Runnable task : lane.shutdown()) {
+                    discard(task);
+                }
+            }
+        }
+    }
+
+    private static void discard(Runnable task) {
+        if (task instanceof DiscardableRunnable) {
+            ((DiscardableRunnable) task).discarded();
+        }
+    }
+
+    private static final class Lane extends Thread {
+        private final Runnable[] tasks;
+        private int head = 0;
+        private int size = 0;
+        private boolean alive = true;
+
+        Lane(int capacity, int index) {
+            super("Twitter4J Async Dispatcher[" + index + "]");
+            tasks = new Runnable[capacity];
+            setDaemon(true);
+        }
+
+        void enqueue(Runnable task) {
+            synchronized (this) {
+                while (alive && size == tasks.length) {
+                    try {
+                        wait();
+                    } catch (InterruptedException ignore) {
+                    }
+                }
+                if (alive) {
+                    tasks[(head + size) % tasks.length] = task;
+                    if (0 == size++) {
+                        notifyAll();
+                    }
+                    return;
+                }
+            }
+            logger.warn("Dispatcher is already shut down. Discarding a task.");
+            discard(task);
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        /**
+         * @return tasks left in the lane
+         */
+        synchronized List<Runnable> shutdown() {
+            alive = false;
+            notifyAll();
+            List<Runnable> remaining = new ArrayList<Runnable>(size);
+            for (; 0 < size; size--) {
+                remaining.add(tasks[head]);
+                tasks[head] = null;
+                head = (head + 1) % tasks.length;
+            }
+            return remaining;
+        }
+
+        private synchronized Runnable take() {
+            while (alive && 0 == size) {
+                try {
+                    wait();
+                } catch (InterruptedException ignore) {
+                }
+            }
+            if (!alive) {
+                return null;
+            }
+            Runnable task = tasks[head];
+            tasks[head] = null;
+            head = (head + 1) % tasks.length;
+            if (tasks.length == size--) {
+                notifyAll();
+            }
+            return task;
+        }
+
+        public void run() {
+            Runnable task;
+            while (null != (task = take())) {
+                try {
+                    task.run();
+                } catch (Exception ex) {
+                    logger.error("Got an exception while running a taks:", ex);
+                }
+            }
+        }
+    }
+}
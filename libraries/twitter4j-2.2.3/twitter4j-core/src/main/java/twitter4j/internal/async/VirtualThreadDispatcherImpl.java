@@ -0,0 +1,242 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.async;
+
+import twitter4j.conf.Configuration;
+import twitter4j.internal.logging.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A Dispatcher that runs each task on its own virtual thread instead of a fixed pool of async.numThreads threads.<br>
+ * At most async.maxConcurrency tasks run at a time. Tasks beyond the limit are queued per key
+ * ({@link KeyedRunnable#getKey()}, the TwitterMethod for AsyncTwitter) and the queues are served round-robin, so a
+ * burst of calls to one method doesn't starve the others.<br>
+ * Virtual threads are looked up reflectively as they are available only on Java 21 or later. On earlier runtimes
+ * short-lived daemon threads are used with the same concurrency limit.<br>
+ * Tasks still waiting at shutdown are notified through {@link DiscardableRunnable#discarded()}.<br>
+ * To use this implementation, set async.dispatcherImpl to twitter4j.internal.async.VirtualThreadDispatcherImpl.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public final class VirtualThreadDispatcherImpl implements Dispatcher {
+    private static final Logger logger = Logger.getLogger(VirtualThreadDispatcherImpl.class);
+    private static final String THREAD_NAME = "Twitter4J Async Dispatcher";
+
+    private final ThreadFactory threadFactory;
+    private final int maxConcurrency;
+
+    private final Map<Object, LinkedList<Runnable>> pendingTasks = new HashMap<Object, LinkedList<Runnable>>();
+    // keys having pending tasks, in the order they'll be served
+    private final LinkedList<Object> pendingKeys = new LinkedList<Object>();
+    private int pendingCount = 0;
+    private int runningCount = 0;
+    private boolean active = true;
+
+    public VirtualThreadDispatcherImpl(Configuration conf) {
+        this.maxConcurrency = Math.max(1, conf.getAsyncMaxConcurrency());
+        ThreadFactory factory = getVirtualThreadFactory();
+        if (null == factory) {
+            logger.info("Virtual threads are not available. Falling back to platform threads.");
+            factory = new ThreadFactory() {
+                private int count = 0;
+
+                public synchronized Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, THREAD_NAME + "[" + count++ + "]");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+        }
+        this.threadFactory = factory;
+    }
+
+    private static ThreadFactory getVirtualThreadFactory() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = ofVirtual.invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(builder, THREAD_NAME + "-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (IllegalAccessException e) {
+            return null;
+        } catch (InvocationTargetException e) {
+            // preview feature not enabled
+            return null;
+        } catch (SecurityException e) {
+            return null;
+        }
+    }
+
+    public void invokeLater(Runnable task) {
+        boolean shutDown = false;
+        synchronized (this) {
+            if (!active) {
+                shutDown = true;
+            } else if (runningCount >= maxConcurrency) {
+                Object key = task instanceof KeyedRunnable ? ((KeyedRunnable) task).getKey() : null;
+                LinkedList<Runnable> tasks = pendingTasks.get(key);
+                if (null == tasks) {
+                    tasks = new LinkedList<Runnable>();
+                    pendingTasks.put(key, tasks);
+                    pendingKeys.addLast(key);
+                }
+                tasks.addLast(task);
+                pendingCount++;
+                return;
+            } else {
+                runningCount++;
+            }
+        }
+        if (shutDown) {
+            logger.warn("Dispatcher is already shut down. Discarding a task.");
+            discard(task);
+            return;
+        }
+        try {
+            threadFactory.newThread(new Runner(task)).start();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                runningCount--;
+            }
+            throw e;
+        } catch (Error e) {
+            synchronized (this) {
+                runningCount--;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the slot of a finished task, or hands it over to the next pending task.
+     *
+     * @return the next task to run on the calling thread, or null
+     */
+    private synchronized Runnable next() {
+        if (active && 0 < pendingCount) {
+            Object key = pendingKeys.removeFirst();
+            LinkedList<Runnable> tasks = pendingTasks.get(key);
+            Runnable task = tasks.removeFirst();
+            if (tasks.isEmpty()) {
+                pendingTasks.remove(key);
+            } else {
+                // go to the back of the line so that other keys get their turn
+                pendingKeys.addLast(key);
+            }
+            pendingCount--;
+            return task;
+        }
+        runningCount--;
+        return null;
+    }
+
+    private synchronized void release() {
+        runningCount--;
+    }
+
+    public void shutdown() {
+        List<Runnable> discarded = new ArrayList<Runnable>();
+        synchronized (this) {
+            if (active) {
+                active = false;
+                for (LinkedList<Runnable> tasks : pendingTasks.values()) {
+                    discarded.addAll(tasks);
+                }
+                pendingTasks.clear();
+                pendingKeys.clear();
+                pendingCount = 0;
+            }
+        }
+        for (Runnable task : discarded) {
+            discard(task);
+        }
+    }
+
+    private static void discard(Runnable task) {
+        if (task instanceof DiscardableRunnable) {
+            ((DiscardableRunnable) task).discarded();
+        }
+    }
+
+    /**
+     * @return number of tasks currently running
+     */
+    public synchronized int getRunningCount() {
+        return runningCount;
+    }
+
+    /**
+     * @return number of tasks waiting for a free slot
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    private final class Runner implements Runnable {
+        private Runnable task;
+
+        Runner(Runnable task) {
+            this.task = task;
+        }
+
+        public void run() {
+            try {
+                // a finished task's thread picks up the next pending task rather than starting a new thread
+                while (null != task) {
+                    try {
+                        task.run();
+                    } catch (Exception ex) {
+                        logger.error("Got an exception while running a taks:", ex);
+                    }
+                    task = next();
+                }
+            } finally {
+                if (null != task) {
+                    // the task threw an Error. give the slot back
+                    release();
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualThreadDispatcherImpl{" +
+                "maxConcurrency=" + maxConcurrency +
+                ", runningCount=" + getRunningCount() +
+                ", pendingCount=" + getPendingCount() +
+                '}';
+    }
+}
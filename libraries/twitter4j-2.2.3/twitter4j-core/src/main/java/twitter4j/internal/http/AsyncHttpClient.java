@@ -0,0 +1,36 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+/**
+ * HttpClient which is able to execute requests without blocking the calling thread.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public interface AsyncHttpClient extends HttpClient {
+
+    /**
+     * Executes the request asynchronously.<br>
+     * The listener is notified exactly once, with either the response or the TwitterException,
+     * in the same manner as {@link #request(HttpRequest)} would have returned or thrown.
+     *
+     * @param req      request
+     * @param listener listener to be notified on completion
+     */
+    void request(HttpRequest req, HttpResponseListener listener);
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+
+/**
+ * Thrown instead of waiting for a response when requests are deferred with {@link RequestDeferral}.
+ * The caller is expected to send the request with {@link #request(HttpResponseListener)} and to re-run the
+ * invocation with the received event appended to the responses passed to {@link RequestDeferral#begin(java.util.List)}.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class DeferredRequestException extends TwitterException {
+    private static final long serialVersionUID = -2379305263390564875L;
+    private final transient AsyncHttpClient http;
+    private final transient HttpRequest req;
+
+    DeferredRequestException(AsyncHttpClient http, HttpRequest req) {
+        super("Request deferred: " + req.getURL());
+        this.http = http;
+        this.req = req;
+    }
+
+    /**
+     * Sends the deferred request without blocking the calling thread.
+     *
+     * @param listener listener to be notified with the response or the TwitterException
+     */
+    public void request(HttpResponseListener listener) {
+        http.request(req, listener);
+    }
+}
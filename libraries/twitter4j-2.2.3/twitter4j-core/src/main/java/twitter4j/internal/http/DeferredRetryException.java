@@ -0,0 +1,53 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+
+/**
+ * Thrown instead of sleeping when a retry has been deferred with {@link RetryDeferral}.
+ * The caller is expected to re-run the request after {@link #getDelay()} milliseconds,
+ * calling {@link RetryDeferral#begin(int)} with {@link #getRetriedCount()}.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class DeferredRetryException extends TwitterException {
+    private static final long serialVersionUID = 5290187653427738152L;
+    private final long delay;
+    private final int retriedCount;
+
+    public DeferredRetryException(long delay, int retriedCount) {
+        super("Retry deferred for " + delay + " milliseconds.");
+        this.delay = delay;
+        this.retriedCount = retriedCount;
+    }
+
+    /**
+     * @return milliseconds to wait before the retry
+     */
+    public long getDelay() {
+        return delay;
+    }
+
+    /**
+     * @return number of retries made including the deferred one
+     */
+    public int getRetriedCount() {
+        return retriedCount;
+    }
+}
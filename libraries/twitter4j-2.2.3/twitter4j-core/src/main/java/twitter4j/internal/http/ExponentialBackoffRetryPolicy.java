@@ -0,0 +1,315 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+import twitter4j.internal.logging.Logger;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Retry policy with exponential backoff and jitter, respecting the delay requested by the server.<br>
+ * <ul>
+ * <li>The n-th retry waits between half and all of http.retryIntervalSecs * 2^n, capped at the maximum delay.</li>
+ * <li>Retry-After, or X-RateLimit-Reset of a rate limited response, overrides the backoff
+ * as long as it does not exceed the maximum delay.</li>
+ * <li>Each endpoint has a retry budget: a request earns a fraction of a retry, a retry consumes one.
+ * Once the budget is exhausted, failures are no longer retried, which keeps retries from multiplying the load
+ * during an outage.</li>
+ * <li>After consecutive server errors or connection failures, the circuit of the endpoint opens
+ * and requests fail immediately for a while. The first request after that period closes the circuit on success
+ * and re-opens it on failure.</li>
+ * </ul>
+ * To enable, set http.retryPolicyImpl to twitter4j.internal.http.ExponentialBackoffRetryPolicy.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy, HttpResponseCode, java.io.Serializable {
+    private static final Logger logger = Logger.getLogger(ExponentialBackoffRetryPolicy.class);
+    private static final long serialVersionUID = -6150683612581224931L;
+    private static final int TOO_MANY_REQUESTS = 429;
+    // number of endpoints whose state is kept
+    private static final int MAX_ENDPOINTS = 256;
+
+    private final int retryCount;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final int failureThreshold;
+    private final long openDuration;
+    private final double budgetRatio;
+    private final double maxBudget;
+    private final Random random = new Random();
+
+    private final Map<String, EndpointState> endpoints = new LinkedHashMap<String, EndpointState>(16, 0.75f, true) {
+        private static final long serialVersionUID = 2418384938126733208L;
+
+        protected boolean removeEldestEntry(Map.Entry<String, EndpointState> eldest) {
+            return size() > MAX_ENDPOINTS;
+        }
+    };
+
+    /**
+     * Creates a policy with a maximum delay of 5 minutes, opening the circuit for 30 seconds after 5 consecutive
+     * failures, and a retry budget of 20% of requests with a reserve of 10 retries per endpoint.
+     *
+     * @param conf configuration
+     */
+    public ExponentialBackoffRetryPolicy(HttpClientConfiguration conf) {
+        this(conf, 5 * 60 * 1000, 5, 30 * 1000, 0.2, 10);
+    }
+
+    /**
+     * @param conf             configuration
+     * @param maxDelay         maximum milliseconds to wait before a retry
+     * @param failureThreshold number of consecutive failures opening the circuit
+     * @param openDuration     milliseconds the circuit stays open
+     * @param budgetRatio      fraction of a retry earned by each request
+     * @param maxBudget        maximum number of retries an endpoint can save up
+     */
+    public ExponentialBackoffRetryPolicy(HttpClientConfiguration conf, long maxDelay, int failureThreshold
+            , long openDuration, double budgetRatio, double maxBudget) {
+        this.retryCount = conf.getHttpRetryCount();
+        this.baseDelay = Math.max(1, conf.getHttpRetryIntervalSeconds()) * 1000L;
+        this.maxDelay = maxDelay;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.budgetRatio = budgetRatio;
+        this.maxBudget = maxBudget;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void beforeRequest(HttpRequest req, int retriedCount) throws TwitterException {
+        String endpoint = getEndpoint(req);
+        EndpointState state = getState(endpoint);
+        synchronized (state) {
+            if (state.isOpen(System.currentTimeMillis(), failureThreshold)) {
+                throw new TwitterException("Circuit open for " + endpoint + " after " + state.consecutiveFailures
+                        + " consecutive failures.", null, SERVICE_UNAVAILABLE);
+            }
+            if (0 == retriedCount) {
+                state.budget = Math.min(maxBudget, state.budget + budgetRatio);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getRetryDelay(HttpRequest req, int retriedCount, HttpResponse res, IOException ioe) {
+        int responseCode = null == res ? -1 : res.getStatusCode();
+        boolean serverFailure = null == res || INTERNAL_SERVER_ERROR <= responseCode;
+        String endpoint = getEndpoint(req);
+        EndpointState state = getState(endpoint);
+        long now = System.currentTimeMillis();
+        long requestedDelay = null == res ? -1 : getRequestedDelay(res, now);
+        synchronized (state) {
+            if (serverFailure) {
+                state.consecutiveFailures++;
+                if (state.consecutiveFailures >= failureThreshold) {
+                    if (!state.isOpen(now, failureThreshold)) {
+                        logger.warn("Opening circuit for ", endpoint);
+                    }
+                    state.openUntil = now + openDuration;
+                    return -1;
+                }
+            }
+            if (retriedCount >= retryCount) {
+                return -1;
+            }
+            if (!serverFailure && responseCode != ENHANCE_YOUR_CLAIM && responseCode != TOO_MANY_REQUESTS
+                    && -1 == requestedDelay) {
+                // client errors are not worth retrying
+                return -1;
+            }
+            long delay = -1 != requestedDelay ? requestedDelay : getBackoff(retriedCount);
+            if (delay > maxDelay) {
+                return -1;
+            }
+            if (state.budget < 1) {
+                logger.debug("Retry budget exhausted for ", endpoint);
+                return -1;
+            }
+            state.budget--;
+            return delay;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void succeeded(HttpRequest req, HttpResponse res) {
+        EndpointState state = getState(getEndpoint(req));
+        synchronized (state) {
+            state.consecutiveFailures = 0;
+            state.openUntil = 0;
+        }
+    }
+
+    /**
+     * @param retriedCount number of retries made so far
+     * @return exponentially growing delay with jitter
+     */
+    long getBackoff(int retriedCount) {
+        long delay = baseDelay << Math.min(retriedCount, 20);
+        if (delay > maxDelay || delay <= 0) {
+            delay = maxDelay;
+        }
+        long half = delay / 2;
+        synchronized (random) {
+            return half + (long) (random.nextDouble() * (delay - half));
+        }
+    }
+
+    /**
+     * @param res error response
+     * @param now current time
+     * @return milliseconds the server asked to wait with Retry-After or X-RateLimit-Reset, or -1
+     */
+    static long getRequestedDelay(HttpResponse res, long now) {
+        String retryAfter = res.getResponseHeader("Retry-After");
+        if (null != retryAfter) {
+            retryAfter = retryAfter.trim();
+            try {
+                return Math.max(0, Long.parseLong(retryAfter) * 1000);
+            } catch (NumberFormatException notSeconds) {
+                try {
+                    // Retry-After: Fri, 31 Dec 1999 23:59:59 GMT
+                    SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.ENGLISH);
+                    return Math.max(0, format.parse(retryAfter).getTime() - now);
+                } catch (ParseException ignore) {
+                }
+            }
+        }
+        if ("0".equals(res.getResponseHeader("X-RateLimit-Remaining"))) {
+            String reset = res.getResponseHeader("X-RateLimit-Reset");
+            if (null != reset) {
+                try {
+                    return Math.max(0, Long.parseLong(reset.trim()) * 1000 - now);
+                } catch (NumberFormatException ignore) {
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param req request
+     * @return the URL without the query string, with ids in the path collapsed
+     */
+    static String getEndpoint(HttpRequest req) {
+        String url = req.getURL();
+        int query = url.indexOf('?');
+        if (-1 != query) {
+            url = url.substring(0, query);
+        }
+        StringBuffer endpoint = new StringBuffer(url.length());
+        int i = 0;
+        while (i < url.length()) {
+            char c = url.charAt(i);
+            endpoint.append(c);
+            i++;
+            if ('/' == c && i < url.length() && Character.isDigit(url.charAt(i))) {
+                int end = i;
+                while (end < url.length() && Character.isDigit(url.charAt(end))) {
+                    end++;
+                }
+                // single digits are left alone to keep the API version such as /1/
+                if (end - i > 1 && (end == url.length() || '/' == url.charAt(end) || '.' == url.charAt(end))) {
+                    endpoint.append(":id");
+                    i = end;
+                }
+            }
+        }
+        return endpoint.toString();
+    }
+
+    private EndpointState getState(String endpoint) {
+        synchronized (endpoints) {
+            EndpointState state = endpoints.get(endpoint);
+            if (null == state) {
+                state = new EndpointState(maxBudget);
+                endpoints.put(endpoint, state);
+            }
+            return state;
+        }
+    }
+
+    private static final class EndpointState implements java.io.Serializable {
+        private static final long serialVersionUID = -3417284563929815763L;
+        double budget;
+        int consecutiveFailures = 0;
+        long openUntil = 0;
+
+        EndpointState(double budget) {
+            this.budget = budget;
+        }
+
+        boolean isOpen(long now, int failureThreshold) {
+            return consecutiveFailures >= failureThreshold && now < openUntil;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ExponentialBackoffRetryPolicy that = (ExponentialBackoffRetryPolicy) o;
+
+        if (baseDelay != that.baseDelay) return false;
+        if (Double.compare(that.budgetRatio, budgetRatio) != 0) return false;
+        if (failureThreshold != that.failureThreshold) return false;
+        if (Double.compare(that.maxBudget, maxBudget) != 0) return false;
+        if (maxDelay != that.maxDelay) return false;
+        if (openDuration != that.openDuration) return false;
+        if (retryCount != that.retryCount) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = retryCount;
+        result = 31 * result + (int) (baseDelay ^ (baseDelay >>> 32));
+        result = 31 * result + (int) (maxDelay ^ (maxDelay >>> 32));
+        result = 31 * result + failureThreshold;
+        result = 31 * result + (int) (openDuration ^ (openDuration >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ExponentialBackoffRetryPolicy{" +
+                "retryCount=" + retryCount +
+                ", baseDelay=" + baseDelay +
+                ", maxDelay=" + maxDelay +
+                ", failureThreshold=" + failureThreshold +
+                ", openDuration=" + openDuration +
+                ", budgetRatio=" + budgetRatio +
+                ", maxBudget=" + maxBudget +
+                '}';
+    }
+}
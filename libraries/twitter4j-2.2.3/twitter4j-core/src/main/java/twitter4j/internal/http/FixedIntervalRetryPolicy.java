@@ -0,0 +1,95 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import java.io.IOException;
+
+/**
+ * Retries server errors and connection failures http.retryCount times, http.retryIntervalSecs apart.<br>
+ * Client errors, 420 Enhance Your Calm and 400 Bad Request (rate limited) are never retried.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class FixedIntervalRetryPolicy implements RetryPolicy, HttpResponseCode, java.io.Serializable {
+    private static final long serialVersionUID = 6404377936467546411L;
+    private final int retryCount;
+    private final long retryInterval;
+
+    public FixedIntervalRetryPolicy(HttpClientConfiguration conf) {
+        this.retryCount = conf.getHttpRetryCount();
+        this.retryInterval = conf.getHttpRetryIntervalSeconds() * 1000L;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void beforeRequest(HttpRequest req, int retriedCount) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getRetryDelay(HttpRequest req, int retriedCount, HttpResponse res, IOException ioe) {
+        if (retriedCount >= retryCount) {
+            return -1;
+        }
+        if (null != res) {
+            int responseCode = res.getStatusCode();
+            if (responseCode == ENHANCE_YOUR_CLAIM ||
+                    responseCode == BAD_REQUEST ||
+                    responseCode < INTERNAL_SERVER_ERROR) {
+                return -1;
+            }
+        }
+        return retryInterval;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void succeeded(HttpRequest req, HttpResponse res) {
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FixedIntervalRetryPolicy that = (FixedIntervalRetryPolicy) o;
+
+        if (retryCount != that.retryCount) return false;
+        if (retryInterval != that.retryInterval) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = retryCount;
+        result = 31 * result + (int) (retryInterval ^ (retryInterval >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "FixedIntervalRetryPolicy{" +
+                "retryCount=" + retryCount +
+                ", retryInterval=" + retryInterval +
+                '}';
+    }
+}
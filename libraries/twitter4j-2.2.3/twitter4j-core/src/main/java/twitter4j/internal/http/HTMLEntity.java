@@ -43,6 +43,10 @@ public final class HTMLEntity {
     public static String unescape(String original) {
         String returnValue = null;
         if (null != original) {
+            if (-1 == original.indexOf('&')) {
+                // nothing to unescape. most strings are returned as is
+                return original;
+            }
             StringBuffer buf = new StringBuffer(original);
             unescape(buf);
             returnValue = buf.toString();
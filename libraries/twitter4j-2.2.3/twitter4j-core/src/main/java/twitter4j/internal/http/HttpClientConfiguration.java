@@ -41,6 +41,10 @@ public interface HttpClientConfiguration {
 
     int getHttpDefaultMaxPerRoute();
 
+    String getHttpClientImpl();
+
+    String getHttpRetryPolicyImpl();
+
     boolean isPrettyDebugEnabled();
 
     boolean isGZIPEnabled();
@@ -20,6 +20,8 @@ import twitter4j.internal.logging.Logger;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author Yusuke Yamamoto - yusuke at mac.com
@@ -50,9 +52,39 @@ public final class HttpClientFactory {
         }
     }
 
+    private static final Map<String, Constructor> constructorMap = new HashMap<String, Constructor>(1);
+
+    /**
+     * returns the constructor of the HttpClient implementation specified with the configuration.
+     *
+     * @param httpClientImpl fully qualified class name of the HttpClient implementation
+     * @return constructor taking HttpClientConfiguration
+     */
+    private static Constructor getConstructor(String httpClientImpl) {
+        synchronized (constructorMap) {
+            Constructor constructor = constructorMap.get(httpClientImpl);
+            if (null == constructor) {
+                try {
+                    constructor = Class.forName(httpClientImpl).getConstructor(HttpClientConfiguration.class);
+                } catch (ClassNotFoundException cnfe) {
+                    throw new AssertionError(cnfe);
+                } catch (NoSuchMethodException nsme) {
+                    throw new AssertionError(nsme);
+                }
+                logger.debug("Will use " + httpClientImpl + " as HttpClient implementation.");
+                constructorMap.put(httpClientImpl, constructor);
+            }
+            return constructor;
+        }
+    }
+
     public static HttpClient getInstance(HttpClientConfiguration conf) {
+        Constructor constructor = HTTP_CLIENT_CONSTRUCTOR;
+        if (null != conf.getHttpClientImpl() && !"".equals(conf.getHttpClientImpl())) {
+            constructor = getConstructor(conf.getHttpClientImpl());
+        }
         try {
-            return (HttpClient) HTTP_CLIENT_CONSTRUCTOR.newInstance(conf);
+            return (HttpClient) constructor.newInstance(conf);
         } catch (InstantiationException e) {
             throw new AssertionError(e);
         } catch (IllegalAccessException e) {
@@ -21,9 +21,6 @@ import twitter4j.conf.ConfigurationContext;
 import twitter4j.internal.logging.Logger;
 import twitter4j.internal.util.T4JInternalStringUtil;
 
-import java.io.BufferedInputStream;
-import java.io.DataOutputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.Authenticator;
@@ -48,6 +45,7 @@ public class HttpClientImpl implements HttpClient, HttpResponseCode, java.io.Ser
 
     private static boolean isJDK14orEarlier = false;
     private final HttpClientConfiguration CONF;
+    private final RetryPolicy retryPolicy;
 
     private static final long serialVersionUID = -8819171414069621503L;
 
@@ -70,10 +68,12 @@ public class HttpClientImpl implements HttpClient, HttpResponseCode, java.io.Ser
 
     public HttpClientImpl() {
         this.CONF = ConfigurationContext.getInstance();
+        this.retryPolicy = RetryPolicyFactory.getInstance(CONF);
     }
 
     public HttpClientImpl(HttpClientConfiguration conf) {
         this.CONF = conf;
+        this.retryPolicy = RetryPolicyFactory.getInstance(conf);
         if (isProxyConfigured() && isJDK14orEarlier) {
             logger.warn("HTTP Proxy is not supported on JDK1.4 or earlier. Try twitter4j-httpclient-supoprt artifact");
         }
@@ -102,11 +102,11 @@ public class HttpClientImpl implements HttpClient, HttpResponseCode, java.io.Ser
     }
 
     public HttpResponse request(HttpRequest req) throws TwitterException {
-        int retriedCount;
-        int retry = CONF.getHttpRetryCount() + 1;
         HttpResponse res = null;
-        for (retriedCount = 0; retriedCount < retry; retriedCount++) {
+        for (int retriedCount = RetryDeferral.takeRetriedCount(); ; retriedCount++) {
+            retryPolicy.beforeRequest(req, retriedCount);
             int responseCode = -1;
+            long delay;
             try {
                 HttpURLConnection con;
                 OutputStream os = null;
@@ -117,39 +117,16 @@ public class HttpClientImpl implements HttpClient, HttpResponseCode, java.io.Ser
                     con.setRequestMethod(req.getMethod().name());
                     if (req.getMethod() == POST) {
                         if (HttpParameter.containsFile(req.getParameters())) {
-                            String boundary = "----Twitter4J-upload" + System.currentTimeMillis();
-                            con.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-                            boundary = "--" + boundary;
+                            HttpMultipartBody body = new HttpMultipartBody(req.getParameters());
+                            con.setRequestProperty("Content-Type", body.getContentType());
+                            long contentLength = body.getContentLength();
+                            if (!isJDK14orEarlier && -1 != contentLength && contentLength <= Integer.MAX_VALUE) {
+                                // stream the body instead of letting HttpURLConnection buffer it
+                                con.setFixedLengthStreamingMode((int) contentLength);
+                            }
                             con.setDoOutput(true);
                             os = con.getOutputStream();
-                            DataOutputStream out = new DataOutputStream(os);
-                            for (HttpParameter param : req.getParameters()) {
-                                if (param.isFile()) {
-                                    write(out, boundary + "\r\n");
-                                    write(out, "Content-Disposition: form-data; name=\"" + param.getName() + "\"; filename=\"" + param.getFile().getName() + "\"\r\n");
-                                    write(out, "Content-Type: " + param.getContentType() + "\r\n\r\n");
-                                    BufferedInputStream in = new BufferedInputStream(
-                                            param.hasFileBody() ? param.getFileBody() : new FileInputStream(param.getFile())
-                                    );
-                                    int buff = 0;
-                                    while ((buff = in.read()) != -1) {
-                                        out.write(buff);
-                                    }
-                                    write(out, "\r\n");
-                                    in.close();
-                                } else {
-                                    write(out, boundary + "\r\n");
-                                    write(out, "Content-Disposition: form-data; name=\"" + param.getName() + "\"\r\n");
-                                    write(out, "Content-Type: text/plain; charset=UTF-8\r\n\r\n");
-                                    logger.debug(param.getValue());
-//                                    out.write(encode(param.getValue()).getBytes("UTF-8"));
-                                    out.write(param.getValue().getBytes("UTF-8"));
-                                    write(out, "\r\n");
-                                }
-                            }
-                            write(out, boundary + "--\r\n");
-                            write(out, "\r\n");
-
+                            body.writeTo(os);
                         } else {
                             con.setRequestProperty("Content-Type",
                                     "application/x-www-form-urlencoded");
@@ -182,14 +159,12 @@ public class HttpClientImpl implements HttpClient, HttpResponseCode, java.io.Ser
                         }
                     }
                     if (responseCode < OK || (responseCode != FOUND && MULTIPLE_CHOICES <= responseCode)) {
-                        if (responseCode == ENHANCE_YOUR_CLAIM ||
-                                responseCode == BAD_REQUEST ||
-                                responseCode < INTERNAL_SERVER_ERROR ||
-                                retriedCount == CONF.getHttpRetryCount()) {
+                        delay = retryPolicy.getRetryDelay(req, retriedCount, res, null);
+                        if (-1 == delay) {
                             throw new TwitterException(res.asString(), res);
                         }
-                        // will retry if the status code is INTERNAL_SERVER_ERROR
                     } else {
+                        retryPolicy.succeeded(req, res);
                         break;
                     }
                 } finally {
@@ -200,28 +175,20 @@ public class HttpClientImpl implements HttpClient, HttpResponseCode, java.io.Ser
                 }
             } catch (IOException ioe) {
                 // connection timeout or read timeout
-                if (retriedCount == CONF.getHttpRetryCount()) {
+                delay = retryPolicy.getRetryDelay(req, retriedCount, null, ioe);
+                if (-1 == delay) {
                     throw new TwitterException(ioe.getMessage(), ioe, responseCode);
                 }
             }
-            try {
-                if (logger.isDebugEnabled() && null != res) {
-                    res.asString();
-                }
-                logger.debug("Sleeping " + CONF.getHttpRetryIntervalSeconds() + " seconds until the next retry.");
-                Thread.sleep(CONF.getHttpRetryIntervalSeconds() * 1000);
-            } catch (InterruptedException ignore) {
-                //nothing to do
+            if (logger.isDebugEnabled() && null != res) {
+                res.asString();
             }
+            logger.debug("Sleeping " + delay + " milliseconds until the next retry.");
+            RetryDeferral.waitForRetry(delay, retriedCount + 1);
         }
         return res;
     }
 
-    private void write(DataOutputStream out, String outStr) throws IOException {
-        out.writeBytes(outStr);
-        logger.debug(outStr);
-    }
-
     public static String encode(String str) {
         try {
             return URLEncoder.encode(str, "UTF-8");
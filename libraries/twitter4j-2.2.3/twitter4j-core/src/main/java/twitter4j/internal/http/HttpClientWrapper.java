@@ -62,11 +62,18 @@ public final class HttpClientWrapper implements java.io.Serializable {
     private HttpResponse request(HttpRequest req) throws TwitterException {
         HttpResponse res;
         try {
-            res = http.request(req);
+            if (http instanceof AsyncHttpClient && RequestDeferral.isActive()) {
+                // answered with a response received earlier, or deferred until the response arrives
+                res = RequestDeferral.request((AsyncHttpClient) http, req);
+            } else {
+                res = http.request(req);
+            }
             //fire HttpResponseEvent
             if (null != httpResponseListener) {
                 httpResponseListener.httpResponseReceived(new HttpResponseEvent(req, res, null));
             }
+        } catch (DeferredRequestException dre) {
+            throw dre;
         } catch (TwitterException te) {
             if (null != httpResponseListener) {
                 httpResponseListener.httpResponseReceived(new HttpResponseEvent(req, null, te));
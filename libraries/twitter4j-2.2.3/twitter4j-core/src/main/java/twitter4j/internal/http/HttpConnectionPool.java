@@ -0,0 +1,365 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import twitter4j.internal.logging.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded pool of keep-alive connections, partitioned by route (scheme, host and port).<br>
+ * At most maxPerRoute connections are leased or idle per route, and at most maxTotal connections in total.
+ * Idle connections are evicted lazily on lease and release once they exceed their keep-alive period.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+final class HttpConnectionPool {
+    private static final Logger logger = Logger.getLogger(HttpConnectionPool.class);
+
+    private final int maxTotal;
+    private final int maxPerRoute;
+    private final long idleTimeout;
+
+    private final Map<String, RouteState> routes = new HashMap<String, RouteState>();
+    private int totalLeased = 0;
+    private int totalAvailable = 0;
+    private boolean closed = false;
+
+    /**
+     * @param maxTotal    maximum number of connections in total
+     * @param maxPerRoute maximum number of connections per route
+     * @param idleTimeout milliseconds an idle connection is kept open unless the server advertises a shorter period
+     */
+    HttpConnectionPool(int maxTotal, int maxPerRoute, long idleTimeout) {
+        this.maxTotal = Math.max(1, maxTotal);
+        this.maxPerRoute = Math.max(1, Math.min(this.maxTotal, maxPerRoute));
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Leases a connection for the route. Returns an idle connection if one is available, otherwise null with a slot reserved
+     * for the caller who is then responsible for opening a connection and calling {@link #attach(PooledConnection)},
+     * or {@link #cancel(String)} if the connection could not be established.
+     *
+     * @param route   route key
+     * @param timeout milliseconds to wait for a free slot, 0 to wait forever
+     * @return idle connection, or null if a new connection has to be opened
+     * @throws IOException when no slot was available within the timeout or the pool has been shut down
+     */
+    PooledConnection lease(String route, long timeout) throws IOException {
+        List<PooledConnection> toBeClosed = new ArrayList<PooledConnection>(0);
+        try {
+            synchronized (this) {
+                long deadline = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+                while (true) {
+                    if (closed) {
+                        throw new IOException("Connection pool has been shut down.");
+                    }
+                    closeExpired(toBeClosed);
+                    RouteState state = getRouteState(route);
+                    if (state.available.size() > 0) {
+                        PooledConnection con = state.available.removeLast();
+                        totalAvailable--;
+                        state.leased++;
+                        totalLeased++;
+                        return con;
+                    }
+                    if (state.leased < maxPerRoute) {
+                        if (totalLeased + totalAvailable >= maxTotal) {
+                            // make room by evicting the least recently used idle connection of another route
+                            PooledConnection victim = removeOldestAvailable();
+                            if (null != victim) {
+                                toBeClosed.add(victim);
+                            }
+                        }
+                        if (totalLeased + totalAvailable < maxTotal) {
+                            state.leased++;
+                            totalLeased++;
+                            return null;
+                        }
+                    }
+                    long toWait = deadline - System.currentTimeMillis();
+                    if (toWait <= 0) {
+                        throw new SocketTimeoutException("Timeout waiting for connection from pool. " + this);
+                    }
+                    try {
+                        wait(toWait);
+                    } catch (InterruptedException ie) {
+                        throw new IOException("Interrupted while waiting for connection from pool.");
+                    }
+                }
+            }
+        } finally {
+            closeAll(toBeClosed);
+        }
+    }
+
+    /**
+     * Called once a connection has been opened for a slot reserved by {@link #lease(String, long)}.
+     *
+     * @param con newly opened connection
+     */
+    void attach(PooledConnection con) {
+        con.leasedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Frees a slot reserved by {@link #lease(String, long)} when the connection could not be established.
+     *
+     * @param route route key
+     */
+    synchronized void cancel(String route) {
+        RouteState state = getRouteState(route);
+        state.leased--;
+        totalLeased--;
+        notifyAll();
+    }
+
+    /**
+     * Returns a leased connection to the pool.
+     *
+     * @param con      connection to be released
+     * @param reusable whether the connection is in a state that allows another request to be sent over it
+     */
+    void release(PooledConnection con, boolean reusable) {
+        List<PooledConnection> toBeClosed = new ArrayList<PooledConnection>(1);
+        synchronized (this) {
+            RouteState state = getRouteState(con.route);
+            state.leased--;
+            totalLeased--;
+            if (reusable && !closed && con.isOpen()) {
+                long now = System.currentTimeMillis();
+                long keepAlive = con.keepAlive > 0 ? Math.min(con.keepAlive, idleTimeout) : idleTimeout;
+                con.expiry = now + keepAlive;
+                con.reused = true;
+                state.available.addLast(con);
+                totalAvailable++;
+            } else {
+                toBeClosed.add(con);
+            }
+            closeExpired(toBeClosed);
+            notifyAll();
+        }
+        closeAll(toBeClosed);
+    }
+
+    /**
+     * Closes all idle connections and refuses further leases. Leased connections are closed on release.
+     */
+    void shutdown() {
+        List<PooledConnection> toBeClosed = new ArrayList<PooledConnection>();
+        synchronized (this) {
+            closed = true;
+            for (RouteState state : routes.values()) {
+                toBeClosed.addAll(state.available);
+                totalAvailable -= state.available.size();
+                state.available.clear();
+            }
+            notifyAll();
+        }
+        closeAll(toBeClosed);
+    }
+
+    /**
+     * Closes idle connections whose keep-alive period has elapsed.
+     */
+    void closeExpired() {
+        List<PooledConnection> toBeClosed = new ArrayList<PooledConnection>(0);
+        synchronized (this) {
+            closeExpired(toBeClosed);
+        }
+        closeAll(toBeClosed);
+    }
+
+    synchronized int getLeasedCount() {
+        return totalLeased;
+    }
+
+    synchronized int getAvailableCount() {
+        return totalAvailable;
+    }
+
+    synchronized int getLeasedCount(String route) {
+        RouteState state = routes.get(route);
+        return null == state ? 0 : state.leased;
+    }
+
+    synchronized int getAvailableCount(String route) {
+        RouteState state = routes.get(route);
+        return null == state ? 0 : state.available.size();
+    }
+
+    private RouteState getRouteState(String route) {
+        RouteState state = routes.get(route);
+        if (null == state) {
+            state = new RouteState();
+            routes.put(route, state);
+        }
+        return state;
+    }
+
+    private void closeExpired(List<PooledConnection> toBeClosed) {
+        if (0 == totalAvailable) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (RouteState state : routes.values()) {
+            Iterator<PooledConnection> iterator = state.available.iterator();
+            while (iterator.hasNext()) {
+                PooledConnection con = iterator.next();
+                if (con.expiry <= now || !con.isOpen()) {
+                    iterator.remove();
+                    totalAvailable--;
+                    toBeClosed.add(con);
+                }
+            }
+        }
+    }
+
+    private PooledConnection removeOldestAvailable() {
+        RouteState oldestState = null;
+        PooledConnection oldest = null;
+        for (RouteState state : routes.values()) {
+            if (state.available.size() > 0) {
+                PooledConnection candidate = state.available.getFirst();
+                if (null == oldest || candidate.expiry < oldest.expiry) {
+                    oldest = candidate;
+                    oldestState = state;
+                }
+            }
+        }
+        if (null != oldestState) {
+            oldestState.available.removeFirst();
+            totalAvailable--;
+        }
+        return oldest;
+    }
+
+    private static void closeAll(List<PooledConnection> connections) {
+        for (PooledConnection con : connections) {
+            con.close();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "HttpConnectionPool{" +
+                "maxTotal=" + maxTotal +
+                ", maxPerRoute=" + maxPerRoute +
+                ", idleTimeout=" + idleTimeout +
+                ", leased=" + totalLeased +
+                ", available=" + totalAvailable +
+                ", closed=" + closed +
+                '}';
+    }
+
+    private static final class RouteState {
+        // least recently released first
+        final LinkedList<PooledConnection> available = new LinkedList<PooledConnection>();
+        int leased = 0;
+    }
+
+    /**
+     * A socket connection owned by the pool.
+     */
+    static final class PooledConnection {
+        final String route;
+        final Socket socket;
+        final InputStream in;
+        final OutputStream out;
+        final int readTimeout;
+        // milliseconds the server advertised with the Keep-Alive header, or 0
+        long keepAlive = 0;
+        long expiry = 0;
+        long leasedAt = 0;
+        // true once the connection has carried at least one exchange
+        boolean reused = false;
+
+        PooledConnection(String route, Socket socket, int readTimeout) throws IOException {
+            this.route = route;
+            this.socket = socket;
+            this.readTimeout = readTimeout;
+            this.in = new BufferedInputStream(socket.getInputStream(), 8192);
+            this.out = new BufferedOutputStream(socket.getOutputStream(), 8192);
+        }
+
+        boolean isOpen() {
+            return !socket.isClosed() && !socket.isInputShutdown() && !socket.isOutputShutdown();
+        }
+
+        /**
+         * Checks whether the peer has closed an idle connection without blocking for more than a millisecond.
+         *
+         * @return true if the connection can no longer be used
+         */
+        boolean isStale() {
+            if (!isOpen()) {
+                return true;
+            }
+            try {
+                socket.setSoTimeout(1);
+                in.mark(1);
+                int read = in.read();
+                if (-1 == read) {
+                    return true;
+                }
+                in.reset();
+                // unsolicited data on an idle connection
+                return true;
+            } catch (SocketTimeoutException expected) {
+                return false;
+            } catch (IOException ioe) {
+                return true;
+            } finally {
+                try {
+                    socket.setSoTimeout(readTimeout);
+                } catch (IOException ignore) {
+                }
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignore) {
+            }
+            logger.debug("Connection closed: " + route);
+        }
+
+        @Override
+        public String toString() {
+            return "PooledConnection{" +
+                    "route='" + route + '\'' +
+                    ", socket=" + socket +
+                    ", reused=" + reused +
+                    '}';
+        }
+    }
+}
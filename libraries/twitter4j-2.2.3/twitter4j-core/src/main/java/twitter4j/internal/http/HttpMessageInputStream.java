@@ -0,0 +1,217 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Body of an HTTP/1.1 message framed by Content-Length, chunked transfer coding, or the end of the connection.<br>
+ * Notifies the owner on close whether the underlying connection is positioned at a message boundary and can be reused.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+final class HttpMessageInputStream extends InputStream {
+    static final long UNTIL_CLOSE = HttpRequestEncoder.UNTIL_CLOSE;
+    static final long CHUNKED = HttpRequestEncoder.CHUNKED;
+
+    interface ReleaseCallback {
+        void released(boolean reusable);
+    }
+
+    private final InputStream in;
+    private final boolean chunked;
+    private final boolean readUntilClose;
+    // bytes left in the body or in the current chunk
+    private long remaining;
+    private boolean complete = false;
+    private boolean closed = false;
+    private final ReleaseCallback callback;
+
+    /**
+     * @param in       connection stream positioned right after the header section
+     * @param length   body length, {@link #CHUNKED} or {@link #UNTIL_CLOSE}
+     * @param callback callback invoked exactly once when the stream is closed
+     * @throws IOException when failed to read the first chunk header
+     */
+    HttpMessageInputStream(InputStream in, long length, ReleaseCallback callback) throws IOException {
+        this.in = in;
+        this.callback = callback;
+        this.chunked = CHUNKED == length;
+        this.readUntilClose = UNTIL_CLOSE == length;
+        if (chunked) {
+            remaining = 0;
+        } else if (readUntilClose) {
+            remaining = Long.MAX_VALUE;
+        } else {
+            remaining = length;
+            complete = 0 == length;
+        }
+    }
+
+    boolean isEmpty() {
+        return complete && !chunked && 0 == remaining;
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int read = read(b, 0, 1);
+        return -1 == read ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream already closed.");
+        }
+        if (complete) {
+            return -1;
+        }
+        if (0 == len) {
+            return 0;
+        }
+        if (chunked && 0 == remaining) {
+            if (!nextChunk()) {
+                return -1;
+            }
+        }
+        int toRead = (int) Math.min(len, remaining);
+        int read = in.read(b, off, toRead);
+        if (-1 == read) {
+            if (readUntilClose) {
+                complete = true;
+                return -1;
+            }
+            throw new IOException("Premature end of message body.");
+        }
+        if (!readUntilClose) {
+            remaining -= read;
+            if (0 == remaining) {
+                if (chunked) {
+                    readCRLF();
+                } else {
+                    complete = true;
+                }
+            }
+        }
+        return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (closed || complete) {
+            return 0;
+        }
+        return (int) Math.min(in.available(), remaining);
+    }
+
+    private boolean nextChunk() throws IOException {
+        String line = HttpMessageInputStream.readLine(in);
+        if (null == line) {
+            throw new IOException("Premature end of chunked message body.");
+        }
+        int extension = line.indexOf(';');
+        if (-1 != extension) {
+            line = line.substring(0, extension);
+        }
+        try {
+            remaining = Long.parseLong(line.trim(), 16);
+        } catch (NumberFormatException nfe) {
+            throw new IOException("Bad chunk size: " + line);
+        }
+        if (0 == remaining) {
+            // skip trailers
+            String trailer;
+            do {
+                trailer = HttpMessageInputStream.readLine(in);
+            } while (null != trailer && trailer.length() > 0);
+            complete = true;
+            return false;
+        }
+        return true;
+    }
+
+    private void readCRLF() throws IOException {
+        String line = HttpMessageInputStream.readLine(in);
+        if (null == line || line.length() != 0) {
+            throw new IOException("Malformed chunk delimiter.");
+        }
+    }
+
+    /**
+     * Reads the rest of the body if it can be done without blocking, so that the connection can be reused.
+     *
+     * @return whether the end of the message has been reached
+     */
+    private boolean drain() {
+        if (readUntilClose) {
+            return false;
+        }
+        byte[] buf = new byte[1024];
+        int drained = 0;
+        try {
+            while (!complete && drained < 64 * 1024 && in.available() > 0) {
+                int read = read(buf, 0, buf.length);
+                if (-1 == read) {
+                    break;
+                }
+                drained += read;
+            }
+        } catch (IOException ioe) {
+            return false;
+        }
+        return complete;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            boolean reusable = complete || drain();
+            closed = true;
+            callback.released(reusable && !readUntilClose);
+        }
+    }
+
+    /**
+     * Reads a CRLF (or LF) terminated line in ISO-8859-1.
+     *
+     * @param in stream to be read
+     * @return the line without the terminator, or null at the end of the stream
+     * @throws IOException when failed to read the stream
+     */
+    static String readLine(InputStream in) throws IOException {
+        StringBuffer buf = new StringBuffer(64);
+        int c;
+        while (-1 != (c = in.read())) {
+            if ('\n' == c) {
+                int length = buf.length();
+                if (length > 0 && '\r' == buf.charAt(length - 1)) {
+                    buf.setLength(length - 1);
+                }
+                return buf.toString();
+            }
+            buf.append((char) c);
+        }
+        return buf.length() == 0 ? null : buf.toString();
+    }
+}
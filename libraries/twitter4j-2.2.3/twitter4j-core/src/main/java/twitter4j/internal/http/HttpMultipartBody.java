@@ -0,0 +1,197 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import twitter4j.internal.logging.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * multipart/form-data request body.<br>
+ * The length of the body is computed up front so that the body can be streamed with a Content-Length header
+ * rather than being buffered in memory. Files are transferred through FileChannel.transferTo(),
+ * other streams are copied in large chunks.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+final class HttpMultipartBody {
+    private static final Logger logger = Logger.getLogger(HttpMultipartBody.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final HttpParameter[] params;
+    private final String boundary;
+    // part headers of file parameters, or entire parts of non-file parameters
+    private final byte[][] parts;
+    private final byte[] closeDelimiter;
+    private final long contentLength;
+
+    HttpMultipartBody(HttpParameter[] params) {
+        this("----Twitter4J-upload" + System.currentTimeMillis(), params);
+    }
+
+    /*package*/ HttpMultipartBody(String boundary, HttpParameter[] params) {
+        this.params = params;
+        this.boundary = boundary;
+        this.parts = new byte[params.length][];
+        String delimiter = "--" + boundary;
+        long length = 0;
+        try {
+            for (int i = 0; i < params.length; i++) {
+                HttpParameter param = params[i];
+                if (param.isFile()) {
+                    parts[i] = (delimiter + "\r\n"
+                            + "Content-Disposition: form-data; name=\"" + param.getName() + "\"; filename=\"" + param.getFile().getName() + "\"\r\n"
+                            + "Content-Type: " + param.getContentType() + "\r\n\r\n").getBytes("ISO-8859-1");
+                    long fileLength = getLength(param);
+                    if (-1 == fileLength || -1 == length) {
+                        length = -1;
+                    } else {
+                        length += parts[i].length + fileLength + CRLF.length;
+                    }
+                } else {
+                    ByteArrayOutputStream part = new ByteArrayOutputStream();
+                    part.write((delimiter + "\r\n"
+                            + "Content-Disposition: form-data; name=\"" + param.getName() + "\"\r\n"
+                            + "Content-Type: text/plain; charset=UTF-8\r\n\r\n").getBytes("ISO-8859-1"));
+                    part.write(param.getValue().getBytes("UTF-8"));
+                    part.write(CRLF);
+                    parts[i] = part.toByteArray();
+                    if (-1 != length) {
+                        length += parts[i].length;
+                    }
+                }
+            }
+            closeDelimiter = (delimiter + "--\r\n\r\n").getBytes("ISO-8859-1");
+        } catch (IOException neverHappen) {
+            throw new AssertionError("will never happen");
+        }
+        this.contentLength = -1 == length ? -1 : length + closeDelimiter.length;
+    }
+
+    /**
+     * @param param file parameter
+     * @return length of the file, or -1 if it is not known without reading the stream
+     */
+    private static long getLength(HttpParameter param) {
+        if (!param.hasFileBody()) {
+            return param.getFile().length();
+        }
+        InputStream in = param.getFileBody();
+        try {
+            if (in instanceof FileInputStream) {
+                FileChannel channel = ((FileInputStream) in).getChannel();
+                return channel.size() - channel.position();
+            }
+        } catch (IOException ioe) {
+            return -1;
+        }
+        if (in instanceof ByteArrayInputStream) {
+            return ((ByteArrayInputStream) in).available();
+        }
+        return -1;
+    }
+
+    String getContentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    /**
+     * @return the exact length of the body, or -1 if a stream of unknown length is contained
+     */
+    long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * @return whether the body can be written more than once, i.e. it contains no stream parameter
+     */
+    boolean isRepeatable() {
+        for (HttpParameter param : params) {
+            if (param.isFile() && param.hasFileBody()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        for (int i = 0; i < params.length; i++) {
+            HttpParameter param = params[i];
+            if (logger.isDebugEnabled()) {
+                logger.debug(new String(parts[i], "ISO-8859-1"));
+            }
+            out.write(parts[i]);
+            if (param.isFile()) {
+                InputStream in = param.hasFileBody() ? param.getFileBody() : new FileInputStream(param.getFile());
+                try {
+                    if (in instanceof FileInputStream) {
+                        transfer(((FileInputStream) in).getChannel(), out);
+                    } else {
+                        copy(in, out);
+                    }
+                } finally {
+                    in.close();
+                }
+                out.write(CRLF);
+            }
+        }
+        out.write(closeDelimiter);
+    }
+
+    private static void transfer(FileChannel channel, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        long position = channel.position();
+        long size = channel.size();
+        while (position < size) {
+            long transferred = channel.transferTo(position, size - position, target);
+            if (transferred <= 0) {
+                throw new IOException("File truncated while uploading.");
+            }
+            position += transferred;
+        }
+        channel.position(position);
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buf = new byte[BUFFER_SIZE];
+        int read;
+        while (-1 != (read = in.read(buf))) {
+            out.write(buf, 0, read);
+        }
+    }
+
+    /**
+     * @return the body in memory
+     * @throws IOException when failed to read a file
+     */
+    byte[] toByteArray() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(-1 == contentLength ? BUFFER_SIZE
+                : (int) Math.min(contentLength, Integer.MAX_VALUE));
+        writeTo(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import twitter4j.internal.logging.Logger;
+import twitter4j.internal.util.T4JInternalStringUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+
+import static twitter4j.internal.http.RequestMethod.POST;
+
+/**
+ * Encodes HTTP/1.1 requests into bytes and interprets response headers, for the HttpClient implementations
+ * which speak HTTP over sockets on their own instead of relying on HttpURLConnection.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+final class HttpRequestEncoder implements java.io.Serializable {
+    private static final long serialVersionUID = -2893711563274918207L;
+    private static final Logger logger = Logger.getLogger(HttpRequestEncoder.class);
+    static final long UNTIL_CLOSE = -1;
+    static final long CHUNKED = -2;
+
+    private final HttpClientConfiguration CONF;
+
+    HttpRequestEncoder(HttpClientConfiguration conf) {
+        this.CONF = conf;
+    }
+
+    /**
+     * Request body with its content type and length.
+     */
+    static final class Body {
+        final String contentType;
+        private final byte[] content;
+        private final HttpMultipartBody multipart;
+
+        Body(String contentType, byte[] content) {
+            this.contentType = contentType;
+            this.content = content;
+            this.multipart = null;
+        }
+
+        Body(HttpMultipartBody multipart) {
+            this.contentType = multipart.getContentType();
+            this.content = null;
+            this.multipart = multipart;
+        }
+
+        long getContentLength() {
+            return null != content ? content.length : multipart.getContentLength();
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            if (null != content) {
+                out.write(content);
+            } else {
+                multipart.writeTo(out);
+            }
+        }
+
+        byte[] toByteArray() throws IOException {
+            return null != content ? content : multipart.toByteArray();
+        }
+    }
+
+    /**
+     * Multipart bodies are streamed from the files when the length is known and the body can be re-sent,
+     * otherwise read into memory.
+     *
+     * @param req request
+     * @return body of the request, or null if the request has no body
+     * @throws IOException when failed to read a file to be uploaded
+     */
+    Body encodeBody(HttpRequest req) throws IOException {
+        if (req.getMethod() != POST) {
+            return null;
+        }
+        if (HttpParameter.containsFile(req.getParameters())) {
+            HttpMultipartBody multipart = new HttpMultipartBody(req.getParameters());
+            if (-1 != multipart.getContentLength() && multipart.isRepeatable()) {
+                return new Body(multipart);
+            }
+            return new Body(multipart.getContentType(), multipart.toByteArray());
+        } else {
+            String postParam = HttpParameter.encodeParameters(req.getParameters());
+            logger.debug("Post Params: ", postParam);
+            return new Body("application/x-www-form-urlencoded", postParam.getBytes("UTF-8"));
+        }
+    }
+
+    /**
+     * @param req  request
+     * @param url  request URL
+     * @param body request body, or null
+     * @return request line and header section
+     * @throws IOException never thrown unless ISO-8859-1 is unsupported
+     */
+    byte[] encodeHead(HttpRequest req, URL url, Body body) throws IOException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Request: ");
+            logger.debug(req.getMethod().name() + " ", req.getURL());
+        }
+        StringBuffer head = new StringBuffer(512);
+        head.append(req.getMethod().name()).append(' ');
+        if (isProxyConfigured() && !isSSL(url)) {
+            // absolute-URI form for plain HTTP requests sent through a proxy
+            head.append(url.toString());
+        } else {
+            String file = url.getFile();
+            head.append("".equals(file) ? "/" : file);
+        }
+        head.append(" HTTP/1.1\r\n");
+        head.append("Host: ").append(url.getHost());
+        if (-1 != url.getPort() && url.getPort() != url.getDefaultPort()) {
+            head.append(':').append(url.getPort());
+        }
+        head.append("\r\n");
+        String authorizationHeader;
+        if (null != req.getAuthorization() && null != (authorizationHeader = req.getAuthorization().getAuthorizationHeader(req))) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Authorization: ", T4JInternalStringUtil.maskString(authorizationHeader));
+            }
+            head.append("Authorization: ").append(authorizationHeader).append("\r\n");
+        }
+        if (null != req.getRequestHeaders()) {
+            for (String key : req.getRequestHeaders().keySet()) {
+                head.append(key).append(": ").append(req.getRequestHeaders().get(key)).append("\r\n");
+                logger.debug(key + ": " + req.getRequestHeaders().get(key));
+            }
+        }
+        if (isProxyConfigured() && isProxyAuthConfigured() && !isSSL(url)) {
+            head.append("Proxy-Authorization: ").append(getProxyAuthorizationHeader()).append("\r\n");
+        }
+        if (null != body) {
+            head.append("Content-Type: ").append(body.contentType).append("\r\n");
+            head.append("Content-Length: ").append(body.getContentLength()).append("\r\n");
+        }
+        head.append("\r\n");
+        return head.toString().getBytes("ISO-8859-1");
+    }
+
+    /**
+     * @param host destination host
+     * @param port destination port
+     * @return CONNECT request establishing a tunnel through the proxy
+     * @throws IOException never thrown unless ISO-8859-1 is unsupported
+     */
+    byte[] encodeConnect(String host, int port) throws IOException {
+        StringBuffer connect = new StringBuffer();
+        connect.append("CONNECT ").append(host).append(':').append(port).append(" HTTP/1.1\r\n");
+        connect.append("Host: ").append(host).append(':').append(port).append("\r\n");
+        if (isProxyAuthConfigured()) {
+            connect.append("Proxy-Authorization: ").append(getProxyAuthorizationHeader()).append("\r\n");
+        }
+        connect.append("\r\n");
+        return connect.toString().getBytes("ISO-8859-1");
+    }
+
+    boolean isProxyConfigured() {
+        return CONF.getHttpProxyHost() != null && !CONF.getHttpProxyHost().equals("");
+    }
+
+    boolean isProxyAuthConfigured() {
+        return CONF.getHttpProxyUser() != null && !CONF.getHttpProxyUser().equals("");
+    }
+
+    private String getProxyAuthorizationHeader() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Proxy AuthUser: " + CONF.getHttpProxyUser());
+            logger.debug("Proxy AuthPassword: " + T4JInternalStringUtil.maskString(CONF.getHttpProxyPassword()));
+        }
+        String userPass = CONF.getHttpProxyUser() + ":" + CONF.getHttpProxyPassword();
+        try {
+            return "Basic " + BASE64Encoder.encode(userPass.getBytes("ISO-8859-1"));
+        } catch (java.io.UnsupportedEncodingException neverHappen) {
+            throw new AssertionError("will never happen");
+        }
+    }
+
+    /**
+     * Enables verification of the peer host name during the TLS handshake, which HttpsURLConnection does on its own.
+     * Requires Java 7 or later, otherwise a warning is logged.
+     *
+     * @param sslType           SSLSocket.class or SSLEngine.class
+     * @param sslSocketOrEngine SSLSocket or SSLEngine not handshaken yet
+     */
+    static void enableEndpointIdentification(Class sslType, Object sslSocketOrEngine) {
+        try {
+            Class parametersType = Class.forName("javax.net.ssl.SSLParameters");
+            Object parameters = sslType.getMethod("getSSLParameters").invoke(sslSocketOrEngine);
+            parametersType.getMethod("setEndpointIdentificationAlgorithm", String.class).invoke(parameters, "HTTPS");
+            sslType.getMethod("setSSLParameters", parametersType).invoke(sslSocketOrEngine, parameters);
+        } catch (Exception e) {
+            logger.warn("Host name verification is not available: ", e.toString());
+        }
+    }
+
+    static boolean isSSL(URL url) {
+        return "https".equals(url.getProtocol());
+    }
+
+    static int getPort(URL url) {
+        return -1 == url.getPort() ? url.getDefaultPort() : url.getPort();
+    }
+
+    /**
+     * @param url request URL
+     * @return key identifying connections which can be shared among requests
+     */
+    static String getRoute(URL url) {
+        return url.getProtocol() + "://" + url.getHost() + ":" + getPort(url);
+    }
+
+    static int parseStatusCode(String statusLine) throws IOException {
+        // HTTP/1.1 200 OK
+        int start = statusLine.indexOf(' ');
+        if (!statusLine.startsWith("HTTP/") || -1 == start) {
+            throw new IOException("Malformed status line: " + statusLine);
+        }
+        int end = statusLine.indexOf(' ', start + 1);
+        try {
+            return Integer.parseInt(-1 == end ? statusLine.substring(start + 1) : statusLine.substring(start + 1, end));
+        } catch (NumberFormatException nfe) {
+            throw new IOException("Malformed status line: " + statusLine);
+        }
+    }
+
+    /**
+     * @param statusLine   status line of the response
+     * @param req          request
+     * @param headerFields response header fields
+     * @return whether the connection can be reused after the response
+     */
+    static boolean isKeepAlive(String statusLine, HttpRequest req, Map<String, List<String>> headerFields) {
+        if (null != req.getRequestHeaders() && "close".equalsIgnoreCase(req.getRequestHeaders().get("Connection"))) {
+            return false;
+        }
+        String connection = getHeader(headerFields, "Connection");
+        if (statusLine.startsWith("HTTP/1.0")) {
+            return "keep-alive".equalsIgnoreCase(connection);
+        }
+        return !"close".equalsIgnoreCase(connection);
+    }
+
+    /**
+     * @param headerFields response header fields
+     * @return milliseconds the server keeps the connection open, or 0 if not advertised
+     */
+    static long getKeepAliveTimeout(Map<String, List<String>> headerFields) {
+        // Keep-Alive: timeout=5, max=100
+        String keepAlive = getHeader(headerFields, "Keep-Alive");
+        if (null != keepAlive) {
+            String[] params = T4JInternalStringUtil.split(keepAlive, ",");
+            for (String param : params) {
+                param = param.trim();
+                if (param.startsWith("timeout=")) {
+                    try {
+                        return Long.parseLong(param.substring(8).trim()) * 1000;
+                    } catch (NumberFormatException ignore) {
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param headRequest  whether the response is to a request that never carries a response body
+     * @param statusCode   status code
+     * @param headerFields response header fields
+     * @return length of the body, {@link #CHUNKED} or {@link #UNTIL_CLOSE}
+     * @throws IOException when Content-Length is malformed
+     */
+    static long getBodyLength(boolean headRequest, int statusCode, Map<String, List<String>> headerFields)
+            throws IOException {
+        if (headRequest || (100 <= statusCode && statusCode < 200)
+                || 204 == statusCode || HttpResponseCode.NOT_MODIFIED == statusCode) {
+            return 0;
+        }
+        String transferEncoding = getHeader(headerFields, "Transfer-Encoding");
+        if (null != transferEncoding && !"identity".equalsIgnoreCase(transferEncoding)) {
+            return CHUNKED;
+        }
+        String contentLength = getHeader(headerFields, "Content-Length");
+        if (null != contentLength) {
+            try {
+                return Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException nfe) {
+                throw new IOException("Malformed Content-Length: " + contentLength);
+            }
+        }
+        return UNTIL_CLOSE;
+    }
+
+    /**
+     * Looks up a header case-insensitively. Returns the last value when the header appears more than once,
+     * consistent with HttpURLConnection.getHeaderField(String).
+     *
+     * @param headerFields header fields
+     * @param name         header name
+     * @return header value, or null
+     */
+    static String getHeader(Map<String, List<String>> headerFields, String name) {
+        for (Map.Entry<String, List<String>> entry : headerFields.entrySet()) {
+            if (null != entry.getKey() && entry.getKey().equalsIgnoreCase(name)) {
+                List<String> values = entry.getValue();
+                return values.size() > 0 ? values.get(values.size() - 1) : null;
+            }
+        }
+        return null;
+    }
+
+    static void logResponseHeaders(Map<String, List<String>> headerFields) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Response: ");
+            for (String key : headerFields.keySet()) {
+                for (String value : headerFields.get(key)) {
+                    if (null != key) {
+                        logger.debug(key + ": " + value);
+                    } else {
+                        logger.debug(value);
+                    }
+                }
+            }
+        }
+    }
+}
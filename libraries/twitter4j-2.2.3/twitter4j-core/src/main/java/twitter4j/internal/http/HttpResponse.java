@@ -18,6 +18,7 @@ package twitter4j.internal.http;
 
 import twitter4j.TwitterException;
 import twitter4j.conf.ConfigurationContext;
+import twitter4j.internal.json.JSONPullParser;
 import twitter4j.internal.logging.Logger;
 import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
@@ -25,6 +26,7 @@ import twitter4j.internal.org.json.JSONObject;
 import twitter4j.internal.org.json.JSONTokener;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -211,6 +213,29 @@ public abstract class HttpResponse {
         return json;
     }
 
+    /**
+     * Returns a pull parser reading the response body.<br>
+     * The caller is responsible for closing the parser, which releases the connection.
+     *
+     * @return pull parser positioned before the first token
+     * @throws TwitterException when failed to read the response body
+     * @since Twitter4J 2.2.4
+     */
+    public final JSONPullParser asJSONPullParser() throws TwitterException {
+        if (null == responseAsString && !logger.isDebugEnabled()) {
+            InputStream stream = asStream();
+            streamConsumed = true;
+            return new JSONPullParser(null == stream ? new ByteArrayInputStream(new byte[0]) : stream);
+        }
+        String body = asString();
+        try {
+            byte[] bytes = null == body ? new byte[0] : body.getBytes("UTF-8");
+            return new JSONPullParser(bytes, 0, bytes.length);
+        } catch (java.io.UnsupportedEncodingException neverHappen) {
+            throw new AssertionError("will never happen");
+        }
+    }
+
     public final InputStreamReader asReader() {
         try {
             return new InputStreamReader(is, "UTF-8");
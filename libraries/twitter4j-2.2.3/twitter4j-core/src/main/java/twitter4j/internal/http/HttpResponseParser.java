@@ -0,0 +1,238 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental HTTP/1.1 response parser fed with whatever bytes are available on a non-blocking channel.<br>
+ * The body is buffered in memory and de-chunked as it arrives.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+final class HttpResponseParser {
+    private static final int STATUS_LINE = 0;
+    private static final int HEADERS = 1;
+    private static final int BODY = 2;
+    private static final int CHUNK_SIZE = 3;
+    private static final int CHUNK_DATA = 4;
+    private static final int CHUNK_DELIMITER = 5;
+    private static final int TRAILERS = 6;
+    private static final int COMPLETE = 7;
+
+    // guards against a peer sending an endless header section
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final boolean headRequest;
+    private int state = STATUS_LINE;
+    private final StringBuffer line = new StringBuffer(128);
+    private String statusLine;
+    private int statusCode = -1;
+    private Map<String, List<String>> headerFields = new LinkedHashMap<String, List<String>>();
+    private long remaining;
+    private boolean readUntilClose = false;
+    private boolean started = false;
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+    /**
+     * @param headRequest whether the response is to a request that never carries a response body
+     */
+    HttpResponseParser(boolean headRequest) {
+        this.headRequest = headRequest;
+    }
+
+    /**
+     * Consumes bytes from the buffer, up to the end of the message.
+     *
+     * @param buf bytes read from the connection
+     * @return true if the message is complete
+     * @throws IOException when the message is malformed
+     */
+    boolean parse(ByteBuffer buf) throws IOException {
+        if (buf.hasRemaining()) {
+            started = true;
+        }
+        while (buf.hasRemaining() && COMPLETE != state) {
+            if (BODY == state || CHUNK_DATA == state) {
+                int length = readUntilClose ? buf.remaining() : (int) Math.min(buf.remaining(), remaining);
+                if (buf.hasArray()) {
+                    body.write(buf.array(), buf.arrayOffset() + buf.position(), length);
+                    buf.position(buf.position() + length);
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        body.write(buf.get());
+                    }
+                }
+                if (!readUntilClose) {
+                    remaining -= length;
+                    if (0 == remaining) {
+                        state = BODY == state ? COMPLETE : CHUNK_DELIMITER;
+                    }
+                }
+            } else {
+                int c = buf.get() & 0xff;
+                if ('\n' == c) {
+                    int length = line.length();
+                    if (length > 0 && '\r' == line.charAt(length - 1)) {
+                        line.setLength(length - 1);
+                    }
+                    String str = line.toString();
+                    line.setLength(0);
+                    handleLine(str);
+                } else {
+                    if (MAX_LINE_LENGTH <= line.length()) {
+                        throw new IOException("Response line too long.");
+                    }
+                    line.append((char) c);
+                }
+            }
+        }
+        return COMPLETE == state;
+    }
+
+    private void handleLine(String str) throws IOException {
+        switch (state) {
+            case STATUS_LINE:
+                if (0 == str.length()) {
+                    // tolerate extra CRLF preceding the status line
+                    return;
+                }
+                statusLine = str;
+                statusCode = HttpRequestEncoder.parseStatusCode(str);
+                List<String> statusLineValue = new ArrayList<String>(1);
+                statusLineValue.add(str);
+                headerFields.put(null, statusLineValue);
+                state = HEADERS;
+                break;
+            case HEADERS:
+                if (0 == str.length()) {
+                    endOfHeaders();
+                } else {
+                    int colon = str.indexOf(':');
+                    if (-1 != colon) {
+                        String key = str.substring(0, colon).trim();
+                        List<String> values = headerFields.get(key);
+                        if (null == values) {
+                            values = new ArrayList<String>(1);
+                            headerFields.put(key, values);
+                        }
+                        values.add(str.substring(colon + 1).trim());
+                    }
+                }
+                break;
+            case CHUNK_SIZE:
+                int extension = str.indexOf(';');
+                if (-1 != extension) {
+                    str = str.substring(0, extension);
+                }
+                try {
+                    remaining = Long.parseLong(str.trim(), 16);
+                } catch (NumberFormatException nfe) {
+                    throw new IOException("Bad chunk size: " + str);
+                }
+                state = 0 == remaining ? TRAILERS : CHUNK_DATA;
+                break;
+            case CHUNK_DELIMITER:
+                if (0 != str.length()) {
+                    throw new IOException("Malformed chunk delimiter.");
+                }
+                state = CHUNK_SIZE;
+                break;
+            case TRAILERS:
+                if (0 == str.length()) {
+                    state = COMPLETE;
+                }
+                break;
+            default:
+                throw new AssertionError("unexpected state: " + state);
+        }
+    }
+
+    private void endOfHeaders() throws IOException {
+        if (100 <= statusCode && statusCode < 200) {
+            // interim response. the final response follows
+            headerFields = new LinkedHashMap<String, List<String>>();
+            state = STATUS_LINE;
+            return;
+        }
+        long length = HttpRequestEncoder.getBodyLength(headRequest, statusCode, headerFields);
+        if (HttpRequestEncoder.CHUNKED == length) {
+            state = CHUNK_SIZE;
+        } else if (HttpRequestEncoder.UNTIL_CLOSE == length) {
+            readUntilClose = true;
+            state = BODY;
+        } else if (0 == length) {
+            state = COMPLETE;
+        } else {
+            remaining = length;
+            state = BODY;
+        }
+    }
+
+    /**
+     * Notifies the parser that the peer closed the connection.
+     *
+     * @return true if the message is complete
+     */
+    boolean endOfStream() {
+        if (BODY == state && readUntilClose) {
+            state = COMPLETE;
+        }
+        return COMPLETE == state;
+    }
+
+    /**
+     * @return whether any byte of the response has been received
+     */
+    boolean isStarted() {
+        return started;
+    }
+
+    boolean isComplete() {
+        return COMPLETE == state;
+    }
+
+    /**
+     * @return whether the end of the body was determined by the peer closing the connection
+     */
+    boolean isReadUntilClose() {
+        return readUntilClose;
+    }
+
+    String getStatusLine() {
+        return statusLine;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    Map<String, List<String>> getHeaderFields() {
+        return headerFields;
+    }
+
+    byte[] getBody() {
+        return body.toByteArray();
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import twitter4j.internal.logging.Logger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Non-blocking connection used by {@link NIOHttpClientImpl}, optionally secured with an SSLEngine.<br>
+ * All methods are called from the selector thread only.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+final class NIOConnection {
+    private static final Logger logger = Logger.getLogger(NIOConnection.class);
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    final String route;
+    final SocketChannel channel;
+    final SelectionKey key;
+    private SSLEngine engine = null;
+    // encrypted bytes received but not unwrapped yet
+    private ByteBuffer netIn;
+    // encrypted bytes wrapped but not written yet
+    private ByteBuffer netOut;
+    // decrypted bytes not delivered yet
+    private ByteBuffer appIn;
+
+    // true while the TCP connection is being established
+    boolean connecting = true;
+    // true while a CONNECT request is being exchanged with the proxy
+    boolean tunneling = false;
+    boolean handshaking = false;
+    // true once the connection has carried at least one exchange
+    boolean reused = false;
+    // milliseconds the server advertised with the Keep-Alive header, or 0
+    long keepAlive = 0;
+    // the time an idle connection expires, or the time the current operation times out. 0 for never
+    long deadline = 0;
+    Object attachment = null;
+
+    NIOConnection(String route, SocketChannel channel, SelectionKey key) {
+        this.route = route;
+        this.channel = channel;
+        this.key = key;
+    }
+
+    private static SSLContext sslContext = null;
+
+    private static synchronized SSLContext getSSLContext() throws SSLException {
+        if (null == sslContext) {
+            try {
+                SSLContext context = SSLContext.getInstance("TLS");
+                context.init(null, null, null);
+                sslContext = context;
+            } catch (NoSuchAlgorithmException nsae) {
+                throw new SSLException(nsae.getMessage());
+            } catch (KeyManagementException kme) {
+                throw new SSLException(kme.getMessage());
+            }
+        }
+        return sslContext;
+    }
+
+    /**
+     * Starts TLS over the connection.
+     *
+     * @param host peer host
+     * @param port peer port
+     * @throws IOException when failed to initialize the SSLEngine
+     */
+    void startSSL(String host, int port) throws IOException {
+        engine = getSSLContext().createSSLEngine(host, port);
+        engine.setUseClientMode(true);
+        HttpRequestEncoder.enableEndpointIdentification(SSLEngine.class, engine);
+        int packetBufferSize = engine.getSession().getPacketBufferSize();
+        int applicationBufferSize = engine.getSession().getApplicationBufferSize();
+        netIn = ByteBuffer.allocate(packetBufferSize);
+        netOut = ByteBuffer.allocate(packetBufferSize);
+        appIn = ByteBuffer.allocate(applicationBufferSize);
+        engine.beginHandshake();
+        handshaking = true;
+    }
+
+    /**
+     * Proceeds the TLS handshake as far as possible without blocking.
+     *
+     * @return true if the handshake has been completed
+     * @throws IOException when the handshake failed
+     */
+    boolean handshake() throws IOException {
+        while (true) {
+            if (!flush()) {
+                return false;
+            }
+            SSLEngineResult.HandshakeStatus status = engine.getHandshakeStatus();
+            if (SSLEngineResult.HandshakeStatus.NEED_TASK == status) {
+                runDelegatedTasks();
+            } else if (SSLEngineResult.HandshakeStatus.NEED_WRAP == status) {
+                wrap(EMPTY);
+            } else if (SSLEngineResult.HandshakeStatus.NEED_UNWRAP == status) {
+                if (!unwrap()) {
+                    int read = fill();
+                    if (-1 == read) {
+                        throw new EOFException("Connection closed by peer during TLS handshake.");
+                    }
+                    if (0 == read) {
+                        return false;
+                    }
+                }
+            } else {
+                // FINISHED or NOT_HANDSHAKING
+                handshaking = false;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reads application bytes without blocking.
+     *
+     * @param dst buffer to be filled
+     * @return number of bytes read, possibly 0, or -1 at the end of the stream
+     * @throws IOException when failed to read
+     */
+    int read(ByteBuffer dst) throws IOException {
+        if (null == engine) {
+            return channel.read(dst);
+        }
+        while (true) {
+            if (0 < appIn.position()) {
+                appIn.flip();
+                int length = Math.min(appIn.remaining(), dst.remaining());
+                int limit = appIn.limit();
+                appIn.limit(appIn.position() + length);
+                dst.put(appIn);
+                appIn.limit(limit);
+                appIn.compact();
+                return length;
+            }
+            if (engine.isInboundDone()) {
+                return -1;
+            }
+            if (!unwrap()) {
+                int read = fill();
+                if (-1 == read) {
+                    return -1;
+                }
+                if (0 == read) {
+                    return 0;
+                }
+            }
+            // post-handshake messages such as session tickets
+            SSLEngineResult.HandshakeStatus status = engine.getHandshakeStatus();
+            if (SSLEngineResult.HandshakeStatus.NEED_TASK == status) {
+                runDelegatedTasks();
+            } else if (SSLEngineResult.HandshakeStatus.NEED_WRAP == status) {
+                wrap(EMPTY);
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Writes application bytes without blocking.
+     *
+     * @param src bytes to be written
+     * @return true if all bytes have been handed to the network
+     * @throws IOException when failed to write
+     */
+    boolean write(ByteBuffer src) throws IOException {
+        if (null == engine) {
+            channel.write(src);
+            return !src.hasRemaining();
+        }
+        while (true) {
+            if (!flush()) {
+                return false;
+            }
+            if (!src.hasRemaining()) {
+                return true;
+            }
+            wrap(src);
+        }
+    }
+
+    /**
+     * @return true if there are encrypted bytes waiting for the channel to become writable
+     */
+    boolean hasPendingOutput() {
+        return null != netOut && 0 < netOut.position();
+    }
+
+    private void wrap(ByteBuffer src) throws IOException {
+        SSLEngineResult result = engine.wrap(src, netOut);
+        if (SSLEngineResult.Status.BUFFER_OVERFLOW == result.getStatus()) {
+            netOut = enlarge(netOut, engine.getSession().getPacketBufferSize());
+        } else if (SSLEngineResult.Status.CLOSED == result.getStatus()) {
+            throw new SSLException("SSLEngine closed.");
+        }
+    }
+
+    /**
+     * @return false if more bytes are needed from the network to make progress
+     */
+    private boolean unwrap() throws IOException {
+        netIn.flip();
+        SSLEngineResult result;
+        try {
+            result = engine.unwrap(netIn, appIn);
+        } finally {
+            netIn.compact();
+        }
+        SSLEngineResult.Status status = result.getStatus();
+        if (SSLEngineResult.Status.BUFFER_UNDERFLOW == status) {
+            if (netIn.position() == netIn.capacity()) {
+                netIn = enlarge(netIn, engine.getSession().getPacketBufferSize());
+            }
+            return false;
+        } else if (SSLEngineResult.Status.BUFFER_OVERFLOW == status) {
+            appIn = enlarge(appIn, engine.getSession().getApplicationBufferSize());
+            return true;
+        } else if (SSLEngineResult.Status.CLOSED == status) {
+            return true;
+        }
+        return 0 < result.bytesConsumed() || 0 < result.bytesProduced();
+    }
+
+    private int fill() throws IOException {
+        return channel.read(netIn);
+    }
+
+    private boolean flush() throws IOException {
+        if (0 == netOut.position()) {
+            return true;
+        }
+        netOut.flip();
+        try {
+            channel.write(netOut);
+            return !netOut.hasRemaining();
+        } finally {
+            netOut.compact();
+        }
+    }
+
+    private void runDelegatedTasks() {
+        Runnable task;
+        while (null != (task = engine.getDelegatedTask())) {
+            task.run();
+        }
+    }
+
+    private static ByteBuffer enlarge(ByteBuffer buf, int size) {
+        ByteBuffer newBuf = ByteBuffer.allocate(Math.max(size, buf.capacity()) + buf.position());
+        buf.flip();
+        newBuf.put(buf);
+        return newBuf;
+    }
+
+    boolean isOpen() {
+        return channel.isOpen() && (null == engine || !engine.isInboundDone());
+    }
+
+    void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignore) {
+        }
+        logger.debug("Connection closed: ", route);
+    }
+
+    @Override
+    public String toString() {
+        return "NIOConnection{" +
+                "route='" + route + '\'' +
+                ", channel=" + channel +
+                ", reused=" + reused +
+                '}';
+    }
+}
@@ -0,0 +1,734 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+import twitter4j.conf.ConfigurationContext;
+import twitter4j.internal.logging.Logger;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+
+import static twitter4j.internal.http.RequestMethod.HEAD;
+
+/**
+ * HttpClient implementation multiplexing requests over non-blocking channels on a single selector thread.<br>
+ * Requests issued with {@link #request(HttpRequest, HttpResponseListener)} do not occupy a thread while waiting for
+ * the response, which allows hundreds of requests to be in flight at the same time. AsyncTwitter issues its requests
+ * this way, so that dispatcher threads are not held while requests are in flight.
+ * Connections are kept alive and reused, bounded by http.maxTotalConnections and http.defaultMaxPerRoute.
+ * Requests exceeding the limits are queued until a connection becomes available.<br>
+ * Response bodies are read into memory entirely, thus this implementation is not suitable for the streaming API.<br>
+ * Listeners are notified on the selector thread and are expected to return quickly.<br>
+ * To enable, set http.clientImpl to twitter4j.internal.http.NIOHttpClientImpl.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class NIOHttpClientImpl implements AsyncHttpClient, HttpResponseCode, java.io.Serializable {
+    private static final Logger logger = Logger.getLogger(NIOHttpClientImpl.class);
+    private static final long serialVersionUID = -403500272719330534L;
+
+    // idle connections are closed after this period unless the server advertises a shorter one
+    static final long DEFAULT_IDLE_TIMEOUT = 30 * 1000;
+
+    private final HttpClientConfiguration CONF;
+    private final HttpRequestEncoder encoder;
+    private final RetryPolicy retryPolicy;
+    private transient SelectorThread selectorThread;
+
+    public NIOHttpClientImpl() {
+        this(ConfigurationContext.getInstance());
+    }
+
+    public NIOHttpClientImpl(HttpClientConfiguration conf) {
+        this.CONF = conf;
+        this.encoder = new HttpRequestEncoder(conf);
+        this.retryPolicy = RetryPolicyFactory.getInstance(conf);
+    }
+
+    private synchronized SelectorThread getSelectorThread() throws IOException {
+        if (null == selectorThread) {
+            selectorThread = new SelectorThread();
+            selectorThread.start();
+        }
+        return selectorThread;
+    }
+
+    /**
+     * Closes all connections. Requests in flight are notified with TwitterException.
+     */
+    public void shutdown() {
+        SelectorThread selectorThread;
+        synchronized (this) {
+            selectorThread = this.selectorThread;
+            this.selectorThread = null;
+        }
+        if (null != selectorThread) {
+            selectorThread.shutdown();
+        }
+    }
+
+    public HttpResponse get(String url) throws TwitterException {
+        return request(new HttpRequest(RequestMethod.GET, url, null, null, null));
+    }
+
+    public HttpResponse post(String url, HttpParameter[] params) throws TwitterException {
+        return request(new HttpRequest(RequestMethod.POST, url, params, null, null));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public HttpResponse request(HttpRequest req) throws TwitterException {
+        if (Thread.currentThread() instanceof SelectorThread) {
+            throw new TwitterException("Synchronous request cannot be made from an HttpResponseListener.");
+        }
+        final HttpResponseEvent[] result = new HttpResponseEvent[1];
+        request(req, new HttpResponseListener() {
+            public void httpResponseReceived(HttpResponseEvent event) {
+                synchronized (result) {
+                    result[0] = event;
+                    result.notifyAll();
+                }
+            }
+        });
+        synchronized (result) {
+            while (null == result[0]) {
+                try {
+                    result.wait();
+                } catch (InterruptedException ie) {
+                    throw new TwitterException(ie.getMessage(), ie);
+                }
+            }
+        }
+        if (null != result[0].getTwitterException()) {
+            throw result[0].getTwitterException();
+        }
+        return result[0].getResponse();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void request(HttpRequest req, HttpResponseListener listener) {
+        try {
+            retryPolicy.beforeRequest(req, 0);
+        } catch (TwitterException te) {
+            notifyListener(listener, new HttpResponseEvent(req, null, te));
+            return;
+        }
+        try {
+            URL url = new URL(req.getURL());
+            InetSocketAddress address;
+            // resolve the address on the calling thread so that the selector thread never blocks on DNS
+            if (encoder.isProxyConfigured()) {
+                address = new InetSocketAddress(CONF.getHttpProxyHost(), CONF.getHttpProxyPort());
+            } else {
+                address = new InetSocketAddress(url.getHost(), HttpRequestEncoder.getPort(url));
+            }
+            if (address.isUnresolved()) {
+                throw new java.net.UnknownHostException(address.getHostName());
+            }
+            Exchange exchange = new Exchange(req, listener, url, address, encoder.encodeBody(req));
+            getSelectorThread().submit(exchange);
+        } catch (IOException ioe) {
+            notifyListener(listener, new HttpResponseEvent(req, null, new TwitterException(ioe.getMessage(), ioe, -1)));
+        }
+    }
+
+    private static void notifyListener(HttpResponseListener listener, HttpResponseEvent event) {
+        try {
+            listener.httpResponseReceived(event);
+        } catch (RuntimeException re) {
+            logger.warn("Exception thrown from HttpResponseListener: ", re.toString());
+        }
+    }
+
+    private static long deadline(long now, int timeout) {
+        return timeout > 0 ? now + timeout : 0;
+    }
+
+    /**
+     * A request and its progress.
+     */
+    private static final class Exchange {
+        final HttpRequest req;
+        final HttpResponseListener listener;
+        final URL url;
+        final String route;
+        final InetSocketAddress address;
+        final HttpRequestEncoder.Body body;
+        final byte[] bodyBytes;
+        ByteBuffer headBuffer;
+        ByteBuffer bodyBuffer;
+        HttpResponseParser parser;
+        ByteBuffer tunnelRequest;
+        HttpResponseParser tunnelParser;
+        int retriedCount = 0;
+        // true once the exchange has been re-sent because a pooled connection turned out to be closed
+        boolean staleRetried = false;
+        // true once the request has been written out entirely. the server may be processing it from here on
+        boolean sent = false;
+        long notBefore = 0;
+
+        Exchange(HttpRequest req, HttpResponseListener listener, URL url, InetSocketAddress address
+                , HttpRequestEncoder.Body body) throws IOException {
+            this.req = req;
+            this.listener = listener;
+            this.url = url;
+            this.route = HttpRequestEncoder.getRoute(url);
+            this.address = address;
+            this.body = body;
+            // read files on the calling thread
+            this.bodyBytes = null == body ? null : body.toByteArray();
+        }
+
+        void prepare(byte[] head) {
+            headBuffer = ByteBuffer.wrap(head);
+            bodyBuffer = null == bodyBytes ? null : ByteBuffer.wrap(bodyBytes);
+            parser = new HttpResponseParser(req.getMethod() == HEAD);
+            sent = false;
+        }
+    }
+
+    /**
+     * Connections and queued exchanges of a route.
+     */
+    private static final class Route {
+        final String key;
+        // least recently released first
+        final LinkedList<NIOConnection> idle = new LinkedList<NIOConnection>();
+        final LinkedList<Exchange> pending = new LinkedList<Exchange>();
+        int connections = 0;
+
+        Route(String key) {
+            this.key = key;
+        }
+    }
+
+    private final class SelectorThread extends Thread {
+        private final Selector selector;
+        private final int maxTotal;
+        private final int maxPerRoute;
+        private final LinkedList<Exchange> submitted = new LinkedList<Exchange>();
+        private boolean alive = true;
+        // exchanges waiting for the retry interval, ordered by notBefore
+        private final LinkedList<Exchange> delayed = new LinkedList<Exchange>();
+        private final Map<String, Route> routes = new HashMap<String, Route>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(16 * 1024);
+        private int totalConnections = 0;
+
+        SelectorThread() throws IOException {
+            super("Twitter4J NIO HttpClient");
+            setDaemon(true);
+            selector = Selector.open();
+            maxTotal = Math.max(1, CONF.getHttpMaxTotalConnections());
+            maxPerRoute = Math.max(1, Math.min(maxTotal, CONF.getHttpDefaultMaxPerRoute()));
+        }
+
+        void submit(Exchange exchange) throws IOException {
+            synchronized (submitted) {
+                if (!alive) {
+                    throw new IOException("HttpClient has already been shut down.");
+                }
+                submitted.addLast(exchange);
+            }
+            selector.wakeup();
+        }
+
+        void shutdown() {
+            synchronized (submitted) {
+                alive = false;
+            }
+            selector.wakeup();
+        }
+
+        public void run() {
+            while (true) {
+                List<Exchange> newExchanges;
+                synchronized (submitted) {
+                    if (!alive) {
+                        break;
+                    }
+                    newExchanges = new ArrayList<Exchange>(submitted);
+                    submitted.clear();
+                }
+                try {
+                    for (Exchange exchange : newExchanges) {
+                        enqueue(exchange);
+                    }
+                    long now = System.currentTimeMillis();
+                    while (delayed.size() > 0 && delayed.getFirst().notBefore <= now) {
+                        Exchange exchange = delayed.removeFirst();
+                        try {
+                            retryPolicy.beforeRequest(exchange.req, exchange.retriedCount);
+                        } catch (TwitterException te) {
+                            notifyListener(exchange.listener, new HttpResponseEvent(exchange.req, null, te));
+                            continue;
+                        }
+                        enqueue(exchange);
+                    }
+                    checkDeadlines(now);
+                    selector.select(getSelectTimeout(now));
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (key.isValid()) {
+                            process((NIOConnection) key.attachment());
+                        }
+                    }
+                } catch (IOException ioe) {
+                    logger.warn("Failed to select: ", ioe.getMessage());
+                } catch (RuntimeException re) {
+                    logger.error("Unexpected exception in the selector thread", re);
+                }
+            }
+            close();
+        }
+
+        private void enqueue(Exchange exchange) {
+            Route route = routes.get(exchange.route);
+            if (null == route) {
+                route = new Route(exchange.route);
+                routes.put(exchange.route, route);
+            }
+            route.pending.addLast(exchange);
+            dispatch(route);
+        }
+
+        /**
+         * Assigns queued exchanges of the route to idle or new connections as far as the limits allow.
+         */
+        private void dispatch(Route route) {
+            while (route.pending.size() > 0) {
+                NIOConnection con = null;
+                while (null == con && route.idle.size() > 0) {
+                    NIOConnection candidate = route.idle.removeLast();
+                    if (candidate.isOpen()) {
+                        con = candidate;
+                    } else {
+                        closeConnection(candidate);
+                    }
+                }
+                Exchange exchange = route.pending.getFirst();
+                if (null == con) {
+                    if (route.connections >= maxPerRoute) {
+                        return;
+                    }
+                    if (totalConnections >= maxTotal && !evictIdleConnection()) {
+                        return;
+                    }
+                    try {
+                        con = openConnection(route, exchange);
+                    } catch (IOException ioe) {
+                        route.pending.removeFirst();
+                        retryOrFail(exchange, ioe);
+                        continue;
+                    }
+                }
+                route.pending.removeFirst();
+                assign(con, exchange);
+            }
+        }
+
+        private void dispatchAll() {
+            for (Route route : new ArrayList<Route>(routes.values())) {
+                if (route.pending.size() > 0) {
+                    dispatch(route);
+                }
+            }
+        }
+
+        /**
+         * Closes the least recently used idle connection to make room for a new connection.
+         *
+         * @return false if there is no idle connection
+         */
+        private boolean evictIdleConnection() {
+            NIOConnection oldest = null;
+            for (Route route : routes.values()) {
+                if (route.idle.size() > 0) {
+                    NIOConnection candidate = route.idle.getFirst();
+                    if (null == oldest || candidate.deadline < oldest.deadline) {
+                        oldest = candidate;
+                    }
+                }
+            }
+            if (null == oldest) {
+                return false;
+            }
+            closeConnection(oldest);
+            return true;
+        }
+
+        private NIOConnection openConnection(Route route, Exchange exchange) throws IOException {
+            SocketChannel channel = SocketChannel.open();
+            boolean opened = false;
+            try {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Opening connection(" + exchange.address + ")");
+                }
+                boolean connected = channel.connect(exchange.address);
+                SelectionKey key = channel.register(selector, connected ? SelectionKey.OP_WRITE : SelectionKey.OP_CONNECT);
+                NIOConnection con = new NIOConnection(route.key, channel, key);
+                key.attach(con);
+                con.deadline = deadline(System.currentTimeMillis(), CONF.getHttpConnectionTimeout());
+                route.connections++;
+                totalConnections++;
+                opened = true;
+                return con;
+            } finally {
+                if (!opened) {
+                    try {
+                        channel.close();
+                    } catch (IOException ignore) {
+                    }
+                }
+            }
+        }
+
+        private void assign(NIOConnection con, Exchange exchange) {
+            con.attachment = exchange;
+            try {
+                // the authorization header is computed for each attempt
+                exchange.prepare(encoder.encodeHead(exchange.req, exchange.url, exchange.body));
+            } catch (IOException ioe) {
+                failed(con, exchange, ioe);
+                return;
+            }
+            if (!con.connecting) {
+                logger.debug("Reusing connection: ", con.route);
+                con.deadline = deadline(System.currentTimeMillis(), CONF.getHttpReadTimeout());
+                con.key.interestOps(SelectionKey.OP_WRITE | SelectionKey.OP_READ);
+            }
+        }
+
+        private void process(NIOConnection con) {
+            Exchange exchange = (Exchange) con.attachment;
+            if (null == exchange) {
+                // an idle connection became readable, which means it has been closed by the peer
+                closeConnection(con);
+                dispatchAll();
+                return;
+            }
+            try {
+                proceed(con, exchange);
+            } catch (IOException ioe) {
+                failed(con, exchange, ioe);
+            }
+        }
+
+        private void proceed(NIOConnection con, Exchange exchange) throws IOException {
+            String host = exchange.url.getHost();
+            int port = HttpRequestEncoder.getPort(exchange.url);
+            if (con.connecting) {
+                if (!con.channel.finishConnect()) {
+                    return;
+                }
+                con.connecting = false;
+                logger.debug("Opened new connection: ", con.route);
+                if (HttpRequestEncoder.isSSL(exchange.url)) {
+                    if (encoder.isProxyConfigured()) {
+                        con.tunneling = true;
+                        exchange.tunnelRequest = ByteBuffer.wrap(encoder.encodeConnect(host, port));
+                        exchange.tunnelParser = new HttpResponseParser(true);
+                    } else {
+                        con.startSSL(host, port);
+                    }
+                }
+            }
+            con.deadline = deadline(System.currentTimeMillis(), CONF.getHttpReadTimeout());
+            if (con.tunneling) {
+                if (!con.write(exchange.tunnelRequest)) {
+                    setInterest(con, true);
+                    return;
+                }
+                if (!readResponse(con, exchange.tunnelParser)) {
+                    setInterest(con, false);
+                    return;
+                }
+                if (OK != exchange.tunnelParser.getStatusCode()) {
+                    throw new IOException("Unable to tunnel through proxy: " + exchange.tunnelParser.getStatusLine());
+                }
+                con.tunneling = false;
+                con.startSSL(host, port);
+            }
+            if (con.handshaking && !con.handshake()) {
+                setInterest(con, con.hasPendingOutput());
+                return;
+            }
+            if (!con.write(exchange.headBuffer)
+                    || (null != exchange.bodyBuffer && !con.write(exchange.bodyBuffer))) {
+                setInterest(con, true);
+                return;
+            }
+            exchange.sent = true;
+            if (!readResponse(con, exchange.parser)) {
+                setInterest(con, false);
+                return;
+            }
+            completed(con, exchange);
+        }
+
+        private void setInterest(NIOConnection con, boolean write) {
+            if (write || con.hasPendingOutput()) {
+                con.key.interestOps(SelectionKey.OP_WRITE | SelectionKey.OP_READ);
+            } else {
+                con.key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        /**
+         * Reads available bytes from the connection into the parser.
+         *
+         * @return true if the response is complete
+         */
+        private boolean readResponse(NIOConnection con, HttpResponseParser parser) throws IOException {
+            while (true) {
+                readBuffer.clear();
+                int read = con.read(readBuffer);
+                if (-1 == read) {
+                    if (parser.endOfStream()) {
+                        return true;
+                    }
+                    throw new EOFException(parser.isStarted() ? "Premature end of response."
+                            : "Connection closed by peer before the response.");
+                }
+                if (0 == read) {
+                    return false;
+                }
+                readBuffer.flip();
+                if (parser.parse(readBuffer)) {
+                    return true;
+                }
+            }
+        }
+
+        private void completed(NIOConnection con, Exchange exchange) {
+            HttpResponseParser parser = exchange.parser;
+            HttpRequestEncoder.logResponseHeaders(parser.getHeaderFields());
+            boolean keepAlive = !parser.isReadUntilClose()
+                    && HttpRequestEncoder.isKeepAlive(parser.getStatusLine(), exchange.req, parser.getHeaderFields());
+            con.keepAlive = HttpRequestEncoder.getKeepAliveTimeout(parser.getHeaderFields());
+            release(con, keepAlive);
+            HttpResponse res;
+            try {
+                res = new NIOHttpResponseImpl(CONF, parser.getStatusCode(), parser.getHeaderFields(), parser.getBody());
+            } catch (IOException ioe) {
+                retryOrFail(exchange, ioe);
+                return;
+            }
+            int responseCode = res.getStatusCode();
+            if (responseCode < OK || (responseCode != FOUND && MULTIPLE_CHOICES <= responseCode)) {
+                long delay = retryPolicy.getRetryDelay(exchange.req, exchange.retriedCount, res, null);
+                if (-1 == delay) {
+                    TwitterException te;
+                    try {
+                        te = new TwitterException(res.asString(), res);
+                    } catch (TwitterException failedToRead) {
+                        te = failedToRead;
+                    }
+                    notifyListener(exchange.listener, new HttpResponseEvent(exchange.req, null, te));
+                } else {
+                    retry(exchange, delay);
+                }
+            } else {
+                retryPolicy.succeeded(exchange.req, res);
+                notifyListener(exchange.listener, new HttpResponseEvent(exchange.req, res, null));
+            }
+        }
+
+        private void failed(NIOConnection con, Exchange exchange, IOException ioe) {
+            // the connection was closed by the server while idle, if the request couldn't be written or got no response.
+            // a read timeout means the server may still be processing the request
+            boolean stale = con.reused && !exchange.staleRetried && exchange.req.getMethod().isIdempotent()
+                    && !(ioe instanceof SocketTimeoutException)
+                    && (!exchange.sent || (ioe instanceof EOFException && !exchange.parser.isStarted()));
+            con.attachment = null;
+            closeConnection(con);
+            if (stale) {
+                // the server closed the idle connection
+                logger.debug("Stale connection, retrying: ", ioe.getMessage());
+                exchange.staleRetried = true;
+                enqueue(exchange);
+            } else {
+                retryOrFail(exchange, ioe);
+            }
+            dispatchAll();
+        }
+
+        private void retryOrFail(Exchange exchange, IOException ioe) {
+            long delay = retryPolicy.getRetryDelay(exchange.req, exchange.retriedCount, null, ioe);
+            if (-1 == delay) {
+                notifyListener(exchange.listener, new HttpResponseEvent(exchange.req, null
+                        , new TwitterException(ioe.getMessage(), ioe, -1)));
+            } else {
+                retry(exchange, delay);
+            }
+        }
+
+        private void retry(Exchange exchange, long delay) {
+            exchange.retriedCount++;
+            exchange.staleRetried = false;
+            logger.debug("Retrying in " + delay + " milliseconds.");
+            exchange.notBefore = System.currentTimeMillis() + delay;
+            ListIterator<Exchange> iterator = delayed.listIterator(delayed.size());
+            while (iterator.hasPrevious()) {
+                if (iterator.previous().notBefore <= exchange.notBefore) {
+                    iterator.next();
+                    break;
+                }
+            }
+            iterator.add(exchange);
+        }
+
+        private void release(NIOConnection con, boolean reusable) {
+            con.attachment = null;
+            Route route = routes.get(con.route);
+            if (reusable && con.isOpen()) {
+                con.reused = true;
+                long keepAlive = con.keepAlive > 0 ? Math.min(con.keepAlive, DEFAULT_IDLE_TIMEOUT) : DEFAULT_IDLE_TIMEOUT;
+                con.deadline = System.currentTimeMillis() + keepAlive;
+                // stay interested in reads to notice the peer closing the connection
+                con.key.interestOps(SelectionKey.OP_READ);
+                route.idle.addLast(con);
+            } else {
+                closeConnection(con);
+            }
+            dispatchAll();
+        }
+
+        private void closeConnection(NIOConnection con) {
+            Route route = routes.get(con.route);
+            route.idle.remove(con);
+            route.connections--;
+            totalConnections--;
+            con.close();
+        }
+
+        private void checkDeadlines(long now) {
+            boolean closed = false;
+            for (SelectionKey key : new ArrayList<SelectionKey>(selector.keys())) {
+                NIOConnection con = (NIOConnection) key.attachment();
+                if (!key.isValid() || 0 == con.deadline || now < con.deadline) {
+                    continue;
+                }
+                Exchange exchange = (Exchange) con.attachment;
+                if (null == exchange) {
+                    // keep-alive period elapsed
+                    closeConnection(con);
+                    closed = true;
+                } else {
+                    failed(con, exchange, new SocketTimeoutException(con.connecting ? "connect timed out" : "Read timed out"));
+                }
+            }
+            if (closed) {
+                dispatchAll();
+            }
+        }
+
+        private long getSelectTimeout(long now) {
+            long next = Long.MAX_VALUE;
+            if (delayed.size() > 0) {
+                next = delayed.getFirst().notBefore;
+            }
+            for (SelectionKey key : selector.keys()) {
+                NIOConnection con = (NIOConnection) key.attachment();
+                if (key.isValid() && 0 != con.deadline && con.deadline < next) {
+                    next = con.deadline;
+                }
+            }
+            if (Long.MAX_VALUE == next) {
+                // wait until woken up
+                return 0;
+            }
+            return Math.max(1, next - now);
+        }
+
+        private void close() {
+            List<Exchange> exchanges = new ArrayList<Exchange>();
+            synchronized (submitted) {
+                exchanges.addAll(submitted);
+                submitted.clear();
+            }
+            exchanges.addAll(delayed);
+            delayed.clear();
+            for (Route route : routes.values()) {
+                exchanges.addAll(route.pending);
+                route.pending.clear();
+            }
+            for (SelectionKey key : new ArrayList<SelectionKey>(selector.keys())) {
+                NIOConnection con = (NIOConnection) key.attachment();
+                if (null != con.attachment) {
+                    exchanges.add((Exchange) con.attachment);
+                }
+                con.close();
+            }
+            try {
+                selector.close();
+            } catch (IOException ignore) {
+            }
+            for (Exchange exchange : exchanges) {
+                notifyListener(exchange.listener, new HttpResponseEvent(exchange.req, null
+                        , new TwitterException("HttpClient has been shut down.")));
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        NIOHttpClientImpl that = (NIOHttpClientImpl) o;
+
+        if (CONF != null ? !CONF.equals(that.CONF) : that.CONF != null)
+            return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return CONF != null ? CONF.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "NIOHttpClientImpl{" +
+                "CONF=" + CONF +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HttpResponse whose body has been read into memory by {@link NIOHttpClientImpl}.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+final class NIOHttpResponseImpl extends HttpResponse {
+    private final Map<String, List<String>> headerFields;
+
+    NIOHttpResponseImpl(HttpClientConfiguration conf, int statusCode, Map<String, List<String>> headerFields
+            , byte[] body) throws IOException {
+        super(conf);
+        this.statusCode = statusCode;
+        this.headerFields = headerFields;
+        this.is = new ByteArrayInputStream(body);
+        if ("gzip".equalsIgnoreCase(getResponseHeader("Content-Encoding")) && 0 < body.length) {
+            // the response is gzipped
+            is = new GZIPInputStream(is);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getResponseHeader(String name) {
+        return HttpRequestEncoder.getHeader(headerFields, name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, List<String>> getResponseHeaderFields() {
+        return headerFields;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void disconnect() {
+        // the connection has already been released
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+import twitter4j.conf.ConfigurationContext;
+import twitter4j.internal.logging.Logger;
+
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static twitter4j.internal.http.RequestMethod.HEAD;
+
+/**
+ * HttpClient implementation speaking HTTP/1.1 over pooled keep-alive connections.<br>
+ * Unlike {@link HttpClientImpl}, which opens a new HttpURLConnection for every request, connections are kept open
+ * after the response body has been consumed and reused for subsequent requests to the same route,
+ * saving the TCP and TLS handshakes. The pool is bounded by http.maxTotalConnections and http.defaultMaxPerRoute.<br>
+ * To enable, set http.clientImpl to twitter4j.internal.http.PooledHttpClientImpl.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class PooledHttpClientImpl implements HttpClient, HttpResponseCode, java.io.Serializable {
+    private static final Logger logger = Logger.getLogger(PooledHttpClientImpl.class);
+    private static final long serialVersionUID = 2473587460349217436L;
+
+    // idle connections are closed after this period unless the server advertises a shorter one
+    static final long DEFAULT_IDLE_TIMEOUT = 30 * 1000;
+
+    private final HttpClientConfiguration CONF;
+    private final RetryPolicy retryPolicy;
+    private final HttpRequestEncoder encoder;
+    private transient HttpConnectionPool pool;
+
+    public PooledHttpClientImpl() {
+        this(ConfigurationContext.getInstance());
+    }
+
+    public PooledHttpClientImpl(HttpClientConfiguration conf) {
+        this.CONF = conf;
+        this.encoder = new HttpRequestEncoder(conf);
+        this.retryPolicy = RetryPolicyFactory.getInstance(conf);
+    }
+
+    /*package*/ synchronized HttpConnectionPool getPool() {
+        if (null == pool) {
+            pool = new HttpConnectionPool(CONF.getHttpMaxTotalConnections(), CONF.getHttpDefaultMaxPerRoute()
+                    , DEFAULT_IDLE_TIMEOUT);
+        }
+        return pool;
+    }
+
+    public void shutdown() {
+        HttpConnectionPool pool;
+        synchronized (this) {
+            pool = this.pool;
+            this.pool = null;
+        }
+        if (null != pool) {
+            pool.shutdown();
+        }
+    }
+
+    public HttpResponse get(String url) throws TwitterException {
+        return request(new HttpRequest(RequestMethod.GET, url, null, null, null));
+    }
+
+    public HttpResponse post(String url, HttpParameter[] params) throws TwitterException {
+        return request(new HttpRequest(RequestMethod.POST, url, params, null, null));
+    }
+
+    public HttpResponse request(HttpRequest req) throws TwitterException {
+        HttpResponse res = null;
+        for (int retriedCount = RetryDeferral.takeRetriedCount(); ; retriedCount++) {
+            retryPolicy.beforeRequest(req, retriedCount);
+            int responseCode = -1;
+            long delay;
+            try {
+                res = execute(req);
+                responseCode = res.getStatusCode();
+                if (responseCode < OK || (responseCode != FOUND && MULTIPLE_CHOICES <= responseCode)) {
+                    delay = retryPolicy.getRetryDelay(req, retriedCount, res, null);
+                    if (-1 == delay) {
+                        throw new TwitterException(res.asString(), res);
+                    }
+                    // consume the error response so that the connection goes back to the pool
+                    res.asString();
+                } else {
+                    retryPolicy.succeeded(req, res);
+                    break;
+                }
+            } catch (IOException ioe) {
+                // connection timeout or read timeout
+                delay = retryPolicy.getRetryDelay(req, retriedCount, null, ioe);
+                if (-1 == delay) {
+                    throw new TwitterException(ioe.getMessage(), ioe, responseCode);
+                }
+            }
+            logger.debug("Sleeping " + delay + " milliseconds until the next retry.");
+            RetryDeferral.waitForRetry(delay, retriedCount + 1);
+        }
+        return res;
+    }
+
+    /**
+     * Sends the request once. An idempotent request that fails on a connection taken from the pool while being written,
+     * or that is answered by an immediate end of stream, is re-sent once over a fresh connection, since the server may
+     * have closed the idle connection. Other failures, such as a read timeout, are left to the RetryPolicy.
+     *
+     * @param req request
+     * @return response
+     * @throws IOException when failed to send the request or to read the response header
+     */
+    private HttpResponse execute(HttpRequest req) throws IOException {
+        URL url = new URL(req.getURL());
+        HttpRequestEncoder.Body body = encoder.encodeBody(req);
+        // connections go back to the pool they were leased from, even if the client is shut down meanwhile
+        HttpConnectionPool pool = getPool();
+        HttpConnectionPool.PooledConnection con = leaseConnection(pool, url);
+        try {
+            return exchange(pool, con, req, url, body);
+        } catch (StaleConnectionException sce) {
+            logger.debug("Stale connection, retrying: " + sce.getMessage());
+            con = leaseConnection(pool, url);
+            return exchange(pool, con, req, url, body);
+        }
+    }
+
+    private HttpResponse exchange(final HttpConnectionPool pool, final HttpConnectionPool.PooledConnection con
+            , HttpRequest req, URL url, HttpRequestEncoder.Body body) throws IOException {
+        // the connection was closed by the server while idle, if the request couldn't be written or got no response
+        boolean stale = true;
+        boolean released = false;
+        try {
+            con.out.write(encoder.encodeHead(req, url, body));
+            if (null != body) {
+                body.writeTo(con.out);
+            }
+            con.out.flush();
+            // the server may be processing the request from here on
+            stale = false;
+            String statusLine = HttpMessageInputStream.readLine(con.in);
+            if (null == statusLine) {
+                stale = true;
+                throw new IOException("Connection closed by peer before the response.");
+            }
+            int statusCode = HttpRequestEncoder.parseStatusCode(statusLine);
+            Map<String, List<String>> headerFields = new LinkedHashMap<String, List<String>>();
+            List<String> statusLineValue = new ArrayList<String>(1);
+            statusLineValue.add(statusLine);
+            headerFields.put(null, statusLineValue);
+            String line;
+            while (null != (line = HttpMessageInputStream.readLine(con.in)) && line.length() > 0) {
+                int colon = line.indexOf(':');
+                if (-1 == colon) {
+                    continue;
+                }
+                String key = line.substring(0, colon).trim();
+                String value = line.substring(colon + 1).trim();
+                List<String> values = headerFields.get(key);
+                if (null == values) {
+                    values = new ArrayList<String>(1);
+                    headerFields.put(key, values);
+                }
+                values.add(value);
+            }
+            HttpRequestEncoder.logResponseHeaders(headerFields);
+            final boolean keepAlive = HttpRequestEncoder.isKeepAlive(statusLine, req, headerFields);
+            con.keepAlive = HttpRequestEncoder.getKeepAliveTimeout(headerFields);
+            long length = HttpRequestEncoder.getBodyLength(req.getMethod() == HEAD, statusCode, headerFields);
+            HttpMessageInputStream bodyStream = new HttpMessageInputStream(con.in, length
+                    , new HttpMessageInputStream.ReleaseCallback() {
+                        public void released(boolean reusable) {
+                            pool.release(con, reusable && keepAlive);
+                        }
+                    });
+            // from here on the body stream is responsible for releasing the connection
+            released = true;
+            try {
+                return new PooledHttpResponseImpl(CONF, statusCode, headerFields, bodyStream);
+            } catch (IOException ioe) {
+                bodyStream.close();
+                throw ioe;
+            }
+        } catch (IOException ioe) {
+            if (!released) {
+                released = true;
+                pool.release(con, false);
+                if (con.reused && stale && req.getMethod().isIdempotent()) {
+                    throw new StaleConnectionException(ioe.getMessage());
+                }
+            }
+            throw ioe;
+        } finally {
+            if (!released) {
+                pool.release(con, false);
+            }
+        }
+    }
+
+    private HttpConnectionPool.PooledConnection leaseConnection(HttpConnectionPool pool, URL url) throws IOException {
+        String route = HttpRequestEncoder.getRoute(url);
+        while (true) {
+            HttpConnectionPool.PooledConnection con = pool.lease(route, CONF.getHttpConnectionTimeout());
+            if (null == con) {
+                return openConnection(pool, url, route);
+            }
+            if (!con.isStale()) {
+                logger.debug("Reusing pooled connection: ", route);
+                pool.attach(con);
+                return con;
+            }
+            // the server closed the idle connection
+            pool.release(con, false);
+        }
+    }
+
+    /**
+     * Opens a new connection on a slot already reserved in the pool.
+     *
+     * @param pool  pool the slot was reserved in
+     * @param url   request URL
+     * @param route route key
+     * @return connection
+     * @throws IOException when failed to connect
+     */
+    private HttpConnectionPool.PooledConnection openConnection(HttpConnectionPool pool, URL url, String route)
+            throws IOException {
+        boolean opened = false;
+        Socket socket = null;
+        try {
+            boolean ssl = HttpRequestEncoder.isSSL(url);
+            int port = HttpRequestEncoder.getPort(url);
+            socket = new Socket();
+            if (encoder.isProxyConfigured()) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Opening proxied connection(" + CONF.getHttpProxyHost() + ":" + CONF.getHttpProxyPort() + ")");
+                }
+                socket.connect(new InetSocketAddress(CONF.getHttpProxyHost(), CONF.getHttpProxyPort())
+                        , Math.max(0, CONF.getHttpConnectionTimeout()));
+            } else {
+                socket.connect(new InetSocketAddress(url.getHost(), port), Math.max(0, CONF.getHttpConnectionTimeout()));
+            }
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(Math.max(0, CONF.getHttpReadTimeout()));
+            if (ssl) {
+                if (encoder.isProxyConfigured()) {
+                    tunnel(socket, url.getHost(), port);
+                }
+                SSLSocket sslSocket = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault())
+                        .createSocket(socket, url.getHost(), port, true);
+                HttpRequestEncoder.enableEndpointIdentification(SSLSocket.class, sslSocket);
+                sslSocket.startHandshake();
+                socket = sslSocket;
+            }
+            HttpConnectionPool.PooledConnection con = new HttpConnectionPool.PooledConnection(route, socket
+                    , Math.max(0, CONF.getHttpReadTimeout()));
+            pool.attach(con);
+            opened = true;
+            logger.debug("Opened new connection: ", route);
+            return con;
+        } finally {
+            if (!opened) {
+                if (null != socket) {
+                    try {
+                        socket.close();
+                    } catch (IOException ignore) {
+                    }
+                }
+                pool.cancel(route);
+            }
+        }
+    }
+
+    /**
+     * Establishes a tunnel through the HTTP proxy with the CONNECT method.
+     */
+    private void tunnel(Socket socket, String host, int port) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(encoder.encodeConnect(host, port));
+        out.flush();
+        InputStream in = socket.getInputStream();
+        String statusLine = HttpMessageInputStream.readLine(in);
+        if (null == statusLine) {
+            throw new IOException("Proxy closed the connection.");
+        }
+        int statusCode = HttpRequestEncoder.parseStatusCode(statusLine);
+        String line;
+        while (null != (line = HttpMessageInputStream.readLine(in)) && line.length() > 0) {
+            // skip headers
+        }
+        if (OK != statusCode) {
+            throw new IOException("Unable to tunnel through proxy: " + statusLine);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        PooledHttpClientImpl that = (PooledHttpClientImpl) o;
+
+        if (CONF != null ? !CONF.equals(that.CONF) : that.CONF != null)
+            return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return CONF != null ? CONF.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "PooledHttpClientImpl{" +
+                "CONF=" + CONF +
+                ", pool=" + pool +
+                '}';
+    }
+
+    /**
+     * Signals that a pooled connection turned out to be closed by the peer before any response was received.
+     */
+    private static final class StaleConnectionException extends IOException {
+        private static final long serialVersionUID = -1473921749014402914L;
+
+        StaleConnectionException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HttpResponse read from a pooled connection. The connection is handed back to the pool once the body has been consumed
+ * or the response is disconnected.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+final class PooledHttpResponseImpl extends HttpResponse {
+    private final Map<String, List<String>> headerFields;
+    private final HttpMessageInputStream body;
+
+    PooledHttpResponseImpl(HttpClientConfiguration conf, int statusCode, Map<String, List<String>> headerFields
+            , HttpMessageInputStream body) throws IOException {
+        super(conf);
+        this.statusCode = statusCode;
+        this.headerFields = headerFields;
+        this.body = body;
+        this.is = body;
+        if ("gzip".equalsIgnoreCase(getResponseHeader("Content-Encoding")) && !body.isEmpty()) {
+            // the response is gzipped
+            is = new GZIPInputStream(is);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getResponseHeader(String name) {
+        return HttpRequestEncoder.getHeader(headerFields, name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, List<String>> getResponseHeaderFields() {
+        return headerFields;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void disconnect() throws IOException {
+        body.close();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+
+import java.util.List;
+
+/**
+ * Lets a thread that must not block, such as a dispatcher thread, run an invocation of the API in steps when the
+ * HttpClient implements {@link AsyncHttpClient}. Instead of waiting for a response, HttpClientWrapper throws
+ * {@link DeferredRequestException}, and the invocation is re-run once the response has arrived. Requests already
+ * answered are not sent again; their responses are replayed in order.<br>
+ * Only the client that sends the first request of the invocation defers. Other clients used on the same thread, such
+ * as a Twitter instance called from a listener, send their requests as usual.
+ * <pre>
+ * RequestDeferral.begin(responses);
+ * try {
+ *     // invoke the API
+ * } catch (DeferredRequestException dre) {
+ *     // dre.request(listener) sends the request. the listener adds the event to responses and re-runs the invocation
+ * } finally {
+ *     RequestDeferral.end();
+ * }
+ * </pre>
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public final class RequestDeferral {
+    private static final ThreadLocal<Replay> replay = new ThreadLocal<Replay>();
+
+    private RequestDeferral() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Starts deferring requests on the current thread.
+     *
+     * @param responses responses to the requests of the invocation received so far, in the order they were sent
+     */
+    public static void begin(List<HttpResponseEvent> responses) {
+        replay.set(new Replay(responses));
+    }
+
+    /**
+     * Stops deferring requests on the current thread.
+     */
+    public static void end() {
+        replay.set(null);
+    }
+
+    public static boolean isActive() {
+        return null != replay.get();
+    }
+
+    /**
+     * Returns the next replayed response, or defers the request if it hasn't been answered yet. Requests of other
+     * clients than the one the invocation started with are sent as usual.
+     *
+     * @param http client to send the request with
+     * @param req  request
+     * @return response
+     * @throws TwitterException        the replayed exception
+     * @throws DeferredRequestException when the request has yet to be sent
+     */
+    static HttpResponse request(AsyncHttpClient http, HttpRequest req) throws TwitterException {
+        Replay replay = RequestDeferral.replay.get();
+        if (null == replay.http) {
+            replay.http = http;
+        } else if (replay.http != http) {
+            return http.request(req);
+        }
+        if (replay.index < replay.responses.size()) {
+            HttpResponseEvent event = replay.responses.get(replay.index++);
+            if (null != event.getTwitterException()) {
+                throw event.getTwitterException();
+            }
+            return event.getResponse();
+        }
+        throw new DeferredRequestException(http, req);
+    }
+
+    private static final class Replay {
+        final List<HttpResponseEvent> responses;
+        // client the invocation started with
+        AsyncHttpClient http;
+        int index = 0;
+
+        Replay(List<HttpResponseEvent> responses) {
+            this.responses = responses;
+        }
+    }
+}
@@ -44,6 +44,14 @@ public final class RequestMethod implements java.io.Serializable {
         return name;
     }
 
+    /**
+     * @return true if sending the request twice has the same effect as sending it once
+     * @since Twitter4J 2.2.4
+     */
+    public boolean isIdempotent() {
+        return this != POST;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
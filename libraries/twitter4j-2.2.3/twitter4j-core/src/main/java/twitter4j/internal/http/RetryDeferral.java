@@ -0,0 +1,98 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+
+/**
+ * Lets a thread that must not block, such as a dispatcher thread, have the HttpClient throw
+ * {@link DeferredRetryException} instead of sleeping until the next retry.
+ * <pre>
+ * RetryDeferral.begin(retriedCount);
+ * try {
+ *     // invoke the API
+ * } catch (DeferredRetryException dre) {
+ *     // schedule the invocation to be re-run after dre.getDelay() with dre.getRetriedCount()
+ * } finally {
+ *     RetryDeferral.end();
+ * }
+ * </pre>
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public final class RetryDeferral {
+    private static final ThreadLocal<int[]> retriedCount = new ThreadLocal<int[]>();
+
+    private RetryDeferral() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Starts deferring retries on the current thread.
+     *
+     * @param count number of retries already made for the invocation being run
+     */
+    public static void begin(int count) {
+        retriedCount.set(new int[]{count});
+    }
+
+    /**
+     * Stops deferring retries on the current thread.
+     */
+    public static void end() {
+        retriedCount.set(null);
+    }
+
+    public static boolean isActive() {
+        return null != retriedCount.get();
+    }
+
+    /**
+     * Returns the number of retries already made, and resets it so that only the first request of the invocation
+     * resumes from it.
+     *
+     * @return number of retries already made
+     */
+    static int takeRetriedCount() {
+        int[] count = retriedCount.get();
+        if (null == count) {
+            return 0;
+        }
+        int taken = count[0];
+        count[0] = 0;
+        return taken;
+    }
+
+    /**
+     * Waits for the next retry, or throws DeferredRetryException if retries are deferred on the current thread.
+     *
+     * @param delay            milliseconds to wait
+     * @param nextRetriedCount number of retries made including the next one
+     * @throws DeferredRetryException when retries are deferred
+     */
+    static void waitForRetry(long delay, int nextRetriedCount) throws TwitterException {
+        if (isActive()) {
+            throw new DeferredRetryException(delay, nextRetriedCount);
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ignore) {
+            //nothing to do
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+
+import java.io.IOException;
+
+/**
+ * Decides whether and when a failed request is retried.<br>
+ * An instance is shared by all HttpClients built with the same configuration, thus implementations must be thread safe.
+ * Implementations are specified with http.retryPolicyImpl and must have a constructor taking HttpClientConfiguration.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public interface RetryPolicy {
+
+    /**
+     * Called before each attempt.
+     *
+     * @param req          request to be sent
+     * @param retriedCount number of attempts made so far
+     * @throws TwitterException to fail the request without sending it
+     */
+    void beforeRequest(HttpRequest req, int retriedCount) throws TwitterException;
+
+    /**
+     * Called after an attempt failed, either with an error response or with an IOException.
+     *
+     * @param req          request
+     * @param retriedCount number of retries made so far
+     * @param res          error response, or null if the attempt failed with an IOException
+     * @param ioe          exception thrown while sending the request or reading the response, or null
+     * @return milliseconds to wait before the next attempt, or -1 not to retry
+     */
+    long getRetryDelay(HttpRequest req, int retriedCount, HttpResponse res, IOException ioe);
+
+    /**
+     * Called when the request succeeded.
+     *
+     * @param req request
+     * @param res response
+     */
+    void succeeded(HttpRequest req, HttpResponse res);
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import twitter4j.internal.logging.Logger;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Provides the RetryPolicy specified with http.retryPolicyImpl. Instances are shared per configuration so that
+ * clients built from the same configuration share retry budgets and circuit states.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public final class RetryPolicyFactory {
+    private static final Logger logger = Logger.getLogger(RetryPolicyFactory.class);
+    private static final Map<HttpClientConfiguration, RetryPolicy> instanceMap
+            = new HashMap<HttpClientConfiguration, RetryPolicy>(1);
+
+    private RetryPolicyFactory() {
+        throw new AssertionError();
+    }
+
+    public static RetryPolicy getInstance(HttpClientConfiguration conf) {
+        synchronized (instanceMap) {
+            RetryPolicy policy = instanceMap.get(conf);
+            if (null == policy) {
+                policy = newInstance(conf);
+                instanceMap.put(conf, policy);
+            }
+            return policy;
+        }
+    }
+
+    private static RetryPolicy newInstance(HttpClientConfiguration conf) {
+        String retryPolicyImpl = conf.getHttpRetryPolicyImpl();
+        if (null == retryPolicyImpl || "".equals(retryPolicyImpl)) {
+            return new FixedIntervalRetryPolicy(conf);
+        }
+        try {
+            Constructor constructor = Class.forName(retryPolicyImpl).getConstructor(HttpClientConfiguration.class);
+            logger.debug("Will use " + retryPolicyImpl + " as RetryPolicy implementation.");
+            return (RetryPolicy) constructor.newInstance(conf);
+        } catch (ClassNotFoundException cnfe) {
+            throw new AssertionError(cnfe);
+        } catch (NoSuchMethodException nsme) {
+            throw new AssertionError(nsme);
+        } catch (InstantiationException e) {
+            throw new AssertionError(e);
+        } catch (IllegalAccessException e) {
+            throw new AssertionError(e);
+        } catch (InvocationTargetException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,632 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.json;
+
+import twitter4j.internal.org.json.JSONArray;
+import twitter4j.internal.org.json.JSONException;
+import twitter4j.internal.org.json.JSONObject;
+import twitter4j.internal.util.StringPool;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A pull parser reading JSON directly from UTF-8 encoded bytes.<br>
+ * Unlike {@link twitter4j.internal.org.json.JSONTokener}, it does not build a tree. The caller walks the document
+ * token by token with {@link #next()} and picks the values it needs, skipping the rest without decoding them.
+ * The read buffer and the text buffer are reused for all tokens, and field names are shared across parsers so that
+ * repeated names do not allocate.<br>
+ * Multiple top-level values, such as statuses delimited by new lines, are returned one after another.<br>
+ * This class is not thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public final class JSONPullParser {
+    public static final int END_DOCUMENT = -1;
+    public static final int START_OBJECT = 1;
+    public static final int END_OBJECT = 2;
+    public static final int START_ARRAY = 3;
+    public static final int END_ARRAY = 4;
+    public static final int FIELD_NAME = 5;
+    public static final int VALUE_STRING = 6;
+    public static final int VALUE_NUMBER = 7;
+    public static final int VALUE_TRUE = 8;
+    public static final int VALUE_FALSE = 9;
+    public static final int VALUE_NULL = 10;
+
+    private static final int NONE = 0;
+    // field names seen so far, shared by all parsers
+    private static final StringPool NAMES = new StringPool(1024);
+
+    private InputStream in;
+    private byte[] buf;
+    private int pos;
+    private int limit;
+    // text of the current string, field name or number
+    private char[] text = new char[256];
+    private int textLength;
+    private boolean integral;
+    // true for an object, false for an array
+    private boolean[] containers = new boolean[32];
+    private int depth;
+    // true once a value has been read in the current container
+    private boolean needComma;
+    private int token = NONE;
+    private String currentName;
+
+    /**
+     * @param in UTF-8 encoded JSON stream
+     */
+    public JSONPullParser(InputStream in) {
+        reset(in);
+    }
+
+    /**
+     * @param bytes  UTF-8 encoded JSON
+     * @param offset offset of the JSON in bytes
+     * @param length length of the JSON in bytes
+     */
+    public JSONPullParser(byte[] bytes, int offset, int length) {
+        reset(bytes, offset, length);
+    }
+
+    /**
+     * Prepares the parser for another stream, reusing its buffers.
+     *
+     * @param in UTF-8 encoded JSON stream
+     */
+    public void reset(InputStream in) {
+        this.in = in;
+        if (null == buf || buf.length < 8192) {
+            buf = new byte[8192];
+        }
+        pos = 0;
+        limit = 0;
+        resetState();
+    }
+
+    /**
+     * Prepares the parser for another document, reusing its buffers.
+     *
+     * @param bytes  UTF-8 encoded JSON
+     * @param offset offset of the JSON in bytes
+     * @param length length of the JSON in bytes
+     */
+    public void reset(byte[] bytes, int offset, int length) {
+        this.in = null;
+        this.buf = bytes;
+        this.pos = offset;
+        this.limit = offset + length;
+        resetState();
+    }
+
+    private void resetState() {
+        depth = 0;
+        needComma = false;
+        token = NONE;
+        currentName = null;
+        textLength = 0;
+    }
+
+    /**
+     * Advances to the next token.
+     *
+     * @return the next token, or {@link #END_DOCUMENT} at the end of the input
+     * @throws JSONException when the input is not well-formed JSON or failed to read the stream
+     */
+    public int next() throws JSONException {
+        int c = nextNonWhitespace();
+        if (depth > 0 && FIELD_NAME != token) {
+            boolean object = containers[depth - 1];
+            if (c == (object ? '}' : ']')) {
+                if (!needComma && START_OBJECT != token && START_ARRAY != token) {
+                    throw syntaxError("Unexpected '" + (char) c + "'");
+                }
+                depth--;
+                needComma = true;
+                return token = object ? END_OBJECT : END_ARRAY;
+            }
+            if (needComma) {
+                if (',' != c) {
+                    throw syntaxError("Expected ',' or '" + (object ? '}' : ']') + "'");
+                }
+                c = nextNonWhitespace();
+            }
+            if (object) {
+                if ('"' != c) {
+                    throw syntaxError("Expected a field name");
+                }
+                readString();
+                currentName = toName();
+                if (':' != nextNonWhitespace()) {
+                    throw syntaxError("Expected ':' after " + currentName);
+                }
+                needComma = false;
+                return token = FIELD_NAME;
+            }
+        }
+        if (-1 == c) {
+            if (depth > 0 || FIELD_NAME == token) {
+                throw syntaxError("Unexpected end of input");
+            }
+            return token = END_DOCUMENT;
+        }
+        needComma = true;
+        switch (c) {
+            case '{':
+                push(true);
+                return token = START_OBJECT;
+            case '[':
+                push(false);
+                return token = START_ARRAY;
+            case '"':
+                readString();
+                return token = VALUE_STRING;
+            case 't':
+                readLiteral("true");
+                return token = VALUE_TRUE;
+            case 'f':
+                readLiteral("false");
+                return token = VALUE_FALSE;
+            case 'n':
+                readLiteral("null");
+                return token = VALUE_NULL;
+            default:
+                if ('-' == c || ('0' <= c && c <= '9')) {
+                    readNumber(c);
+                    return token = VALUE_NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * Returns the position right after the current token in the bytes given to
+     * {@link #JSONPullParser(byte[], int, int)}. After a field name it is the start of the value, and after a value or
+     * {@link #skipChildren()} it is the end of the value. Not meaningful for a parser reading from a stream.
+     *
+     * @return position in the bytes
+     * @since Twitter4J 2.2.4
+     */
+    public int getPosition() {
+        return pos;
+    }
+
+    /**
+     * @return the current token
+     */
+    public int getToken() {
+        return token;
+    }
+
+    /**
+     * @return name of the current field, or of the field whose value is the current token
+     */
+    public String getCurrentName() {
+        return currentName;
+    }
+
+    /**
+     * @return the current string, number or field name, "true", "false" or "null" for literals, otherwise null
+     */
+    public String getText() {
+        switch (token) {
+            case FIELD_NAME:
+                return currentName;
+            case VALUE_STRING:
+            case VALUE_NUMBER:
+                return new String(text, 0, textLength);
+            case VALUE_TRUE:
+                return "true";
+            case VALUE_FALSE:
+                return "false";
+            case VALUE_NULL:
+                return "null";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Same as {@link #getText()}, except that strings and numbers are taken from the pool. No String is allocated
+     * when the pool has the value already.
+     *
+     * @param pool pool of the values
+     * @return the current string, number or field name, "true", "false" or "null" for literals, otherwise null
+     */
+    public String getText(StringPool pool) {
+        if (VALUE_STRING == token || VALUE_NUMBER == token) {
+            return pool.intern(text, 0, textLength);
+        }
+        return getText();
+    }
+
+    /**
+     * @return true if the current token is a string, a number, a boolean or null
+     */
+    public boolean isScalarValue() {
+        return token >= VALUE_STRING;
+    }
+
+    /**
+     * @return the current number, or the current string parsed as a number
+     * @throws JSONException when the current token cannot be converted to long
+     */
+    public long getLongValue() throws JSONException {
+        if (VALUE_NUMBER == token && integral && textLength < 19) {
+            // fits in long without overflow
+            int i = 0;
+            boolean negative = '-' == text[0];
+            if (negative) {
+                i++;
+            }
+            long value = 0;
+            for (; i < textLength; i++) {
+                value = value * 10 + (text[i] - '0');
+            }
+            return negative ? -value : value;
+        }
+        String str = getText();
+        try {
+            if (VALUE_NUMBER == token && !integral) {
+                return (long) Double.parseDouble(str);
+            }
+            return Long.parseLong(str);
+        } catch (NumberFormatException nfe) {
+            throw new JSONException("Not a number: " + str);
+        } catch (NullPointerException npe) {
+            throw new JSONException("Not a number: " + token);
+        }
+    }
+
+    /**
+     * @return the current number, or the current string parsed as a number
+     * @throws JSONException when the current token cannot be converted to int
+     */
+    public int getIntValue() throws JSONException {
+        long value = getLongValue();
+        if (value < Integer.MIN_VALUE || Integer.MAX_VALUE < value) {
+            throw new JSONException("Out of int range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * @return the current number, or the current string parsed as a number
+     * @throws JSONException when the current token cannot be converted to double
+     */
+    public double getDoubleValue() throws JSONException {
+        if (VALUE_NUMBER == token && integral && textLength < 16) {
+            return getLongValue();
+        }
+        String str = getText();
+        try {
+            return Double.parseDouble(str);
+        } catch (NumberFormatException nfe) {
+            throw new JSONException("Not a number: " + str);
+        } catch (NullPointerException npe) {
+            throw new JSONException("Not a number: " + token);
+        }
+    }
+
+    /**
+     * Skips the object or array starting at the current token. Does nothing if the current token is not
+     * {@link #START_OBJECT} or {@link #START_ARRAY}.<br>
+     * The skipped part is only checked for balanced brackets, and strings in it are not decoded.
+     *
+     * @throws JSONException when the input ended before the end of the object or array
+     */
+    public void skipChildren() throws JSONException {
+        if (START_OBJECT != token && START_ARRAY != token) {
+            return;
+        }
+        int level = 1;
+        while (level > 0) {
+            int c = read();
+            switch (c) {
+                case -1:
+                    throw syntaxError("Unexpected end of input");
+                case '"':
+                    skipString();
+                    break;
+                case '{':
+                case '[':
+                    level++;
+                    break;
+                case '}':
+                case ']':
+                    level--;
+                    break;
+                default:
+            }
+        }
+        depth--;
+        needComma = true;
+        token = containers[depth] ? END_OBJECT : END_ARRAY;
+    }
+
+    /**
+     * Builds a tree from the object starting at the current token, for values that are rarely present and not worth
+     * parsing field by field.
+     *
+     * @return the object, or null if the current token is null
+     * @throws JSONException when the current token does not start an object or the input is not well-formed
+     */
+    public JSONObject readJSONObject() throws JSONException {
+        if (VALUE_NULL == token) {
+            return null;
+        }
+        if (START_OBJECT != token) {
+            throw syntaxError("Expected an object");
+        }
+        JSONObject json = new JSONObject();
+        while (FIELD_NAME == next()) {
+            String name = currentName;
+            next();
+            json.put(name, readValue());
+        }
+        return json;
+    }
+
+    /**
+     * Builds a tree from the array starting at the current token.
+     *
+     * @return the array, or null if the current token is null
+     * @throws JSONException when the current token does not start an array or the input is not well-formed
+     */
+    public JSONArray readJSONArray() throws JSONException {
+        if (VALUE_NULL == token) {
+            return null;
+        }
+        if (START_ARRAY != token) {
+            throw syntaxError("Expected an array");
+        }
+        JSONArray json = new JSONArray();
+        while (END_ARRAY != next()) {
+            json.put(readValue());
+        }
+        return json;
+    }
+
+    /**
+     * Reads the value starting at the current token, building a tree for an object or an array.
+     *
+     * @return JSONObject, JSONArray, String, Number, Boolean, or JSONObject.NULL
+     * @throws JSONException when the current token does not start a value or the input is not well-formed
+     * @since Twitter4J 2.2.4
+     */
+    public Object readValue() throws JSONException {
+        switch (token) {
+            case START_OBJECT:
+                return readJSONObject();
+            case START_ARRAY:
+                return readJSONArray();
+            case VALUE_STRING:
+                return getText();
+            case VALUE_NUMBER:
+                return JSONObject.stringToValue(getText());
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return JSONObject.NULL;
+            default:
+                throw syntaxError("Expected a value");
+        }
+    }
+
+    /**
+     * Closes the underlying stream.
+     */
+    public void close() {
+        if (null != in) {
+            try {
+                in.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    private void push(boolean object) {
+        if (depth == containers.length) {
+            boolean[] newContainers = new boolean[depth * 2];
+            System.arraycopy(containers, 0, newContainers, 0, depth);
+            containers = newContainers;
+        }
+        containers[depth++] = object;
+        needComma = false;
+    }
+
+    private int read() throws JSONException {
+        if (pos < limit) {
+            return buf[pos++] & 0xff;
+        }
+        if (null == in) {
+            return -1;
+        }
+        try {
+            int read;
+            do {
+                read = in.read(buf, 0, buf.length);
+            } while (0 == read);
+            if (-1 == read) {
+                return -1;
+            }
+            pos = 0;
+            limit = read;
+        } catch (IOException ioe) {
+            throw new JSONException(ioe);
+        }
+        return buf[pos++] & 0xff;
+    }
+
+    private int nextNonWhitespace() throws JSONException {
+        int c;
+        do {
+            c = read();
+        } while (' ' == c || '\n' == c || '\r' == c || '\t' == c);
+        return c;
+    }
+
+    private void readLiteral(String literal) throws JSONException {
+        for (int i = 1; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw syntaxError("Expected " + literal);
+            }
+        }
+    }
+
+    private void readNumber(int first) throws JSONException {
+        textLength = 0;
+        integral = true;
+        int c = first;
+        while (true) {
+            if ('.' == c || 'e' == c || 'E' == c || '+' == c) {
+                integral = false;
+            } else if ('-' != c && (c < '0' || '9' < c)) {
+                break;
+            }
+            append((char) c);
+            c = read();
+        }
+        if (-1 != c) {
+            // push back the delimiter
+            pos--;
+        }
+    }
+
+    private void readString() throws JSONException {
+        textLength = 0;
+        while (true) {
+            int c = read();
+            if ('"' == c) {
+                return;
+            }
+            if (c < 0x80) {
+                if ('\\' == c) {
+                    append(readEscape());
+                } else if (-1 == c) {
+                    throw syntaxError("Unterminated string");
+                } else {
+                    append((char) c);
+                }
+            } else if (c < 0xe0) {
+                append((char) (((c & 0x1f) << 6) | readContinuation()));
+            } else if (c < 0xf0) {
+                append((char) (((c & 0x0f) << 12) | (readContinuation() << 6) | readContinuation()));
+            } else {
+                int codePoint = ((c & 0x07) << 18) | (readContinuation() << 12) | (readContinuation() << 6)
+                        | readContinuation();
+                codePoint -= 0x10000;
+                append((char) (0xd800 | (codePoint >> 10)));
+                append((char) (0xdc00 | (codePoint & 0x3ff)));
+            }
+        }
+    }
+
+    private int readContinuation() throws JSONException {
+        int c = read();
+        if (0x80 != (c & 0xc0)) {
+            throw syntaxError("Malformed UTF-8");
+        }
+        return c & 0x3f;
+    }
+
+    private char readEscape() throws JSONException {
+        int c = read();
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'f':
+                return '\f';
+            case 'r':
+                return '\r';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    value = (value << 4) | hex(read());
+                }
+                return (char) value;
+            case '"':
+            case '\'':
+            case '\\':
+            case '/':
+                return (char) c;
+            default:
+                throw syntaxError("Illegal escape");
+        }
+    }
+
+    private int hex(int c) throws JSONException {
+        if ('0' <= c && c <= '9') {
+            return c - '0';
+        }
+        if ('a' <= c && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if ('A' <= c && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        throw syntaxError("Illegal hex digit");
+    }
+
+    private void skipString() throws JSONException {
+        while (true) {
+            int c = read();
+            if ('"' == c) {
+                return;
+            }
+            if ('\\' == c) {
+                read();
+            } else if (-1 == c) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private void append(char c) {
+        if (textLength == text.length) {
+            char[] newText = new char[textLength * 2];
+            System.arraycopy(text, 0, newText, 0, textLength);
+            text = newText;
+        }
+        text[textLength++] = c;
+    }
+
+    private String toName() {
+        return NAMES.intern(text, 0, textLength);
+    }
+
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at " + pos);
+    }
+
+    @Override
+    public String toString() {
+        return "JSONPullParser{" +
+                "token=" + token +
+                ", currentName='" + currentName + '\'' +
+                ", depth=" + depth +
+                '}';
+    }
+}
@@ -412,11 +412,7 @@ public class JSONArray {
      * @return The truth.
      */
     public boolean optBoolean(int index, boolean defaultValue) {
-        try {
-            return getBoolean(index);
-        } catch (Exception e) {
-            return defaultValue;
-        }
+        return JSONObject.toBoolean(opt(index), defaultValue);
     }
 
 
@@ -443,11 +439,7 @@ public class JSONArray {
      * @return The value.
      */
     public double optDouble(int index, double defaultValue) {
-        try {
-            return getDouble(index);
-        } catch (Exception e) {
-            return defaultValue;
-        }
+        return JSONObject.toDouble(opt(index), defaultValue);
     }
 
 
@@ -474,11 +466,7 @@ public class JSONArray {
      * @return The value.
      */
     public int optInt(int index, int defaultValue) {
-        try {
-            return getInt(index);
-        } catch (Exception e) {
-            return defaultValue;
-        }
+        return JSONObject.toInt(opt(index), defaultValue);
     }
 
 
@@ -532,11 +520,7 @@ public class JSONArray {
      * @return The value.
      */
     public long optLong(int index, long defaultValue) {
-        try {
-            return getLong(index);
-        } catch (Exception e) {
-            return defaultValue;
-        }
+        return JSONObject.toLong(opt(index), defaultValue);
     }
 
 
@@ -797,11 +797,7 @@ public class JSONObject {
      * @return The truth.
      */
     public boolean optBoolean(String key, boolean defaultValue) {
-        try {
-            return getBoolean(key);
-        } catch (Exception e) {
-            return defaultValue;
-        }
+        return toBoolean(opt(key), defaultValue);
     }
 
 
@@ -830,11 +826,7 @@ public class JSONObject {
      * @return An object which is the value.
      */
     public double optDouble(String key, double defaultValue) {
-        try {
-            return getDouble(key);
-        } catch (Exception e) {
-            return defaultValue;
-        }
+        return toDouble(opt(key), defaultValue);
     }
 
 
@@ -863,11 +855,7 @@ public class JSONObject {
      * @return An object which is the value.
      */
     public int optInt(String key, int defaultValue) {
-        try {
-            return getInt(key);
-        } catch (Exception e) {
-            return defaultValue;
-        }
+        return toInt(opt(key), defaultValue);
     }
 
 
@@ -924,11 +912,111 @@ public class JSONObject {
      * @return An object which is the value.
      */
     public long optLong(String key, long defaultValue) {
-        try {
-            return getLong(key);
-        } catch (Exception e) {
+        return toLong(opt(key), defaultValue);
+    }
+
+
+    /**
+     * Converts a value to boolean without throwing exceptions.
+     *
+     * @param value        A Boolean, or a String "true" or "false" (case insensitive).
+     * @param defaultValue The default.
+     * @return The truth, or the default if the value cannot be converted.
+     */
+    static boolean toBoolean(Object value, boolean defaultValue) {
+        if (value instanceof Boolean) {
+            return ((Boolean) value).booleanValue();
+        }
+        if (value instanceof String) {
+            if ("true".equalsIgnoreCase((String) value)) {
+                return true;
+            }
+            if ("false".equalsIgnoreCase((String) value)) {
+                return false;
+            }
+        }
+        return defaultValue;
+    }
+
+
+    /**
+     * Converts a value to double. Numbers are converted without throwing exceptions.
+     *
+     * @param value        A Number, or a String representing a number.
+     * @param defaultValue The default.
+     * @return The value, or the default if the value cannot be converted.
+     */
+    static double toDouble(Object value, double defaultValue) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String && ((String) value).length() > 0) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        return defaultValue;
+    }
+
+
+    /**
+     * Converts a value to int without throwing exceptions.
+     *
+     * @param value        A Number, or a String representing an integer.
+     * @param defaultValue The default.
+     * @return The value, or the default if the value cannot be converted or is out of the int range.
+     */
+    static int toInt(Object value, int defaultValue) {
+        if (value instanceof Integer) {
+            return ((Integer) value).intValue();
+        }
+        long longValue = value instanceof Double ? (long) ((Double) value).doubleValue()
+                : toLong(value, Long.MIN_VALUE);
+        if (longValue < Integer.MIN_VALUE || Integer.MAX_VALUE < longValue) {
+            return defaultValue;
+        }
+        return (int) longValue;
+    }
+
+
+    /**
+     * Converts a value to long without throwing exceptions.
+     *
+     * @param value        A Number, or a String representing an integer.
+     * @param defaultValue The default.
+     * @return The value, or the default if the value cannot be converted.
+     */
+    static long toLong(Object value, long defaultValue) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (!(value instanceof String)) {
+            return defaultValue;
+        }
+        String string = (String) value;
+        int length = string.length();
+        int i = 0;
+        boolean negative = length > 0 && string.charAt(0) == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == length || length - i > 19) {
             return defaultValue;
         }
+        long result = 0;
+        for (; i < length; i++) {
+            char c = string.charAt(i);
+            if (c < '0' || '9' < c) {
+                return defaultValue;
+            }
+            result = result * 10 + (c - '0');
+            if (result < 0) {
+                // overflow
+                return defaultValue;
+            }
+        }
+        return negative ? -result : result;
     }
 
 
@@ -1289,11 +1377,11 @@ public class JSONObject {
                         string.indexOf('e') > -1 || string.indexOf('E') > -1) {
                     return Double.valueOf(string);
                 } else {
-                    Long myLong = new Long(string);
-                    if (myLong.longValue() == myLong.intValue()) {
-                        return new Integer(myLong.intValue());
+                    long myLong = Long.parseLong(string);
+                    if (myLong == (int) myLong) {
+                        return Integer.valueOf((int) myLong);
                     } else {
-                        return myLong;
+                        return Long.valueOf(myLong);
                     }
                 }
             } catch (Exception ignore) {
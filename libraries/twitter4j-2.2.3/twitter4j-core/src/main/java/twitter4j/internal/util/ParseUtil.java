@@ -18,6 +18,7 @@ package twitter4j.internal.util;
 
 import twitter4j.TwitterException;
 import twitter4j.internal.http.HTMLEntity;
+import twitter4j.internal.json.JSONPullParser;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 
@@ -49,20 +50,87 @@ public final class ParseUtil {
         }
     };
 
+    // values of the fields having few distinct values, such as colors and language codes
+    private static final StringPool VALUES = new StringPool(4096);
+
     public static String getUnescapedString(String str, JSONObject json) {
         return HTMLEntity.unescape(getRawString(str, json));
     }
 
     public static String getRawString(String name, JSONObject json) {
-        try {
-            if (json.isNull(name)) {
-                return null;
-            } else {
-                return json.getString(name);
-            }
-        } catch (JSONException jsone) {
+        return json.optString(name, null);
+    }
+
+    public static String getUnescapedString(JSONPullParser parser) throws JSONException {
+        return HTMLEntity.unescape(getRawString(parser));
+    }
+
+    /**
+     * Reads the current value of the parser as string. An object or an array is skipped and treated as null.
+     *
+     * @param parser parser positioned at a value
+     * @return the value, or null
+     * @throws JSONException when failed to skip the value
+     * @since Twitter4J 2.2.4
+     */
+    public static String getRawString(JSONPullParser parser) throws JSONException {
+        if (!parser.isScalarValue()) {
+            parser.skipChildren();
             return null;
         }
+        return JSONPullParser.VALUE_NULL == parser.getToken() ? null : parser.getText();
+    }
+
+    /**
+     * Same as {@link #getRawString(String, JSONObject)}, except that the value is shared with equal values read
+     * before. For fields having few distinct values.
+     *
+     * @param name name of the field
+     * @param json object
+     * @return the value, or null
+     * @since Twitter4J 2.2.4
+     */
+    public static String getInternedString(String name, JSONObject json) {
+        return VALUES.intern(getRawString(name, json));
+    }
+
+    /**
+     * Same as {@link #getRawString(JSONPullParser)}, except that the value is shared with equal values read before.
+     * No String is allocated for a value read before.
+     *
+     * @param parser parser positioned at a value
+     * @return the value, or null
+     * @throws JSONException when failed to skip the value
+     * @since Twitter4J 2.2.4
+     */
+    public static String getInternedString(JSONPullParser parser) throws JSONException {
+        if (!parser.isScalarValue()) {
+            parser.skipChildren();
+            return null;
+        }
+        return JSONPullParser.VALUE_NULL == parser.getToken() ? null : parser.getText(VALUES);
+    }
+
+    /**
+     * @param name name of the field
+     * @param json object
+     * @return the unescaped value shared with equal values read before, or null
+     * @since Twitter4J 2.2.4
+     */
+    public static String getInternedUnescapedString(String name, JSONObject json) {
+        return VALUES.intern(getUnescapedString(name, json));
+    }
+
+    /**
+     * @param parser parser positioned at a value
+     * @return the unescaped value shared with equal values read before, or null
+     * @throws JSONException when failed to skip the value
+     * @since Twitter4J 2.2.4
+     */
+    public static String getInternedUnescapedString(JSONPullParser parser) throws JSONException {
+        String raw = getInternedString(parser);
+        String unescaped = HTMLEntity.unescape(raw);
+        return raw == unescaped ? raw : VALUES.intern(unescaped);
     }
 
     public static String getURLDecodedString(String name, JSONObject json) {
@@ -89,7 +157,21 @@ public final class ParseUtil {
         }
     }
 
+    public static Date getDate(JSONPullParser parser, String format) throws TwitterException, JSONException {
+        String dateStr = getUnescapedString(parser);
+        if ("null".equals(dateStr) || null == dateStr) {
+            return null;
+        } else {
+            return getDate(dateStr, format);
+        }
+    }
+
     public static Date getDate(String name, String format) throws TwitterException {
+        // dates returned by the API are in fixed formats. SimpleDateFormat is only needed for the others
+        long millis = TwitterDateParser.parse(name);
+        if (TwitterDateParser.UNPARSEABLE != millis) {
+            return new Date(millis);
+        }
         SimpleDateFormat sdf = formatMap.get().get(format);
         if (null == sdf) {
             sdf = new SimpleDateFormat(format, Locale.ENGLISH);
@@ -104,7 +186,19 @@ public final class ParseUtil {
     }
 
     public static int getInt(String name, JSONObject json) {
-        return getInt(getRawString(name, json));
+        // numbers are kept as Integer or Long in JSONObject. no need to go through String
+        return json.optInt(name, -1);
+    }
+
+    public static int getInt(JSONPullParser parser) throws JSONException {
+        if (JSONPullParser.VALUE_NUMBER == parser.getToken()) {
+            try {
+                return parser.getIntValue();
+            } catch (JSONException jsone) {
+                return -1;
+            }
+        }
+        return getInt(getRawString(parser));
     }
 
     public static int getInt(String str) {
@@ -121,7 +215,80 @@ public final class ParseUtil {
     }
 
     public static long getLong(String name, JSONObject json) {
-        return getLong(getRawString(name, json));
+        Object value = json.opt(name);
+        if (value instanceof String) {
+            return getLong((String) value);
+        }
+        return json.optLong(name, -1);
+    }
+
+    /**
+     * Reads the current array of numbers such as indices of an entity.
+     *
+     * @param parser parser positioned at an array
+     * @return the numbers, or null if the value is not an array
+     * @throws JSONException when the array contains a value that is not a number
+     * @since Twitter4J 2.2.4
+     */
+    public static int[] getIntArray(JSONPullParser parser) throws JSONException {
+        if (JSONPullParser.START_ARRAY != parser.getToken()) {
+            parser.skipChildren();
+            return null;
+        }
+        int[] values = new int[2];
+        int size = 0;
+        while (JSONPullParser.END_ARRAY != parser.next()) {
+            if (size == values.length) {
+                int[] newValues = new int[size * 2];
+                System.arraycopy(values, 0, newValues, 0, size);
+                values = newValues;
+            }
+            values[size++] = parser.getIntValue();
+        }
+        if (size != values.length) {
+            int[] newValues = new int[size];
+            System.arraycopy(values, 0, newValues, 0, size);
+            values = newValues;
+        }
+        return values;
+    }
+
+    /**
+     * Reads the current array of numbers such as ids into a long[], without boxing them.
+     *
+     * @param parser parser positioned at an array
+     * @return the numbers, or null if the value is not an array
+     * @throws JSONException when the array contains a value that is not a number
+     * @since Twitter4J 2.2.4
+     */
+    public static long[] getLongArray(JSONPullParser parser) throws JSONException {
+        if (JSONPullParser.START_ARRAY != parser.getToken()) {
+            parser.skipChildren();
+            return null;
+        }
+        long[] values = new long[16];
+        int size = 0;
+        while (JSONPullParser.END_ARRAY != parser.next()) {
+            if (size == values.length) {
+                long[] newValues = new long[size * 2];
+                System.arraycopy(values, 0, newValues, 0, size);
+                values = newValues;
+            }
+            values[size++] = parser.getLongValue();
+        }
+        if (size != values.length) {
+            long[] newValues = new long[size];
+            System.arraycopy(values, 0, newValues, 0, size);
+            values = newValues;
+        }
+        return values;
+    }
+
+    public static long getLong(JSONPullParser parser) throws JSONException {
+        if (JSONPullParser.VALUE_NUMBER == parser.getToken()) {
+            return parser.getLongValue();
+        }
+        return getLong(getRawString(parser));
     }
 
     public static long getLong(String str) {
@@ -138,19 +305,37 @@ public final class ParseUtil {
     }
 
     public static double getDouble(String name, JSONObject json) {
-        String str2 = getRawString(name, json);
-        if (null == str2 || "".equals(str2) || "null".equals(str2)) {
+        return json.optDouble(name, -1);
+    }
+
+    public static double getDouble(JSONPullParser parser) throws JSONException {
+        if (JSONPullParser.VALUE_NUMBER == parser.getToken()) {
+            return parser.getDoubleValue();
+        }
+        String str = getRawString(parser);
+        if (null == str || "".equals(str) || "null".equals(str)) {
             return -1;
         } else {
-            return Double.valueOf(str2);
+            return Double.valueOf(str);
         }
     }
 
-    public static boolean getBoolean(String name, JSONObject json) {
-        String str = getRawString(name, json);
-        if (null == str || "null".equals(str)) {
-            return false;
+    public static boolean getBoolean(JSONPullParser parser) throws JSONException {
+        switch (parser.getToken()) {
+            case JSONPullParser.VALUE_TRUE:
+                return true;
+            case JSONPullParser.VALUE_FALSE:
+                return false;
+            default:
+                String str = getRawString(parser);
+                if (null == str || "null".equals(str)) {
+                    return false;
+                }
+                return Boolean.valueOf(str);
         }
-        return Boolean.valueOf(str);
+    }
+
+    public static boolean getBoolean(String name, JSONObject json) {
+        return json.optBoolean(name, false);
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.util;
+
+/**
+ * A bounded table of shared String instances for values with few distinct values, such as field names, colors or
+ * language codes.<br>
+ * Each value has one slot determined by its hash, and a value colliding with another one replaces it. The table is
+ * never locked: updates are racy by design, as Strings are immutable and a lost update only costs an allocation.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public final class StringPool {
+    private final String[] table;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    public StringPool(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        table = new String[size];
+    }
+
+    /**
+     * @param str string
+     * @return an equal string in the table, or the given string which is put in the table
+     */
+    public String intern(String str) {
+        if (null == str) {
+            return null;
+        }
+        int index = indexOf(str.hashCode());
+        String pooled = table[index];
+        if (str.equals(pooled)) {
+            return pooled;
+        }
+        table[index] = str;
+        return str;
+    }
+
+    /**
+     * Returns the string of the characters without allocating one when an equal string is in the table.
+     *
+     * @param chars  characters
+     * @param offset offset of the first character
+     * @param length number of characters
+     * @return an equal string in the table, or a new string which is put in the table
+     */
+    public String intern(char[] chars, int offset, int length) {
+        // same as String.hashCode()
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int index = indexOf(hash);
+        String pooled = table[index];
+        if (null != pooled && pooled.length() == length) {
+            int i = 0;
+            while (i < length && pooled.charAt(i) == chars[offset + i]) {
+                i++;
+            }
+            if (i == length) {
+                return pooled;
+            }
+        }
+        String str = new String(chars, offset, length);
+        table[index] = str;
+        return str;
+    }
+
+    private int indexOf(int hash) {
+        return (hash ^ (hash >>> 16)) & (table.length - 1);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.util;
+
+/**
+ * Parses the fixed date formats returned by Twitter into epoch milliseconds, without SimpleDateFormat and
+ * without allocating.<br>
+ * Supported formats:
+ * <ul>
+ * <li>REST and Streaming API: Tue Nov 08 07:34:58 +0000 2011</li>
+ * <li>Search API (RFC 822): Tue, 08 Nov 2011 07:34:58 +0000</li>
+ * </ul>
+ * The zone may also be GMT or UTC. Other strings are reported as {@link #UNPARSEABLE} so that the caller can fall
+ * back to SimpleDateFormat.<br>
+ * The last result is cached since statuses arriving in a row often share the same second.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public final class TwitterDateParser {
+    public static final long UNPARSEABLE = Long.MIN_VALUE;
+
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+
+    private static volatile CacheEntry cache = new CacheEntry("", UNPARSEABLE);
+
+    private TwitterDateParser() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param str date string
+     * @return epoch milliseconds, or {@link #UNPARSEABLE} if the string is not in a supported format
+     */
+    public static long parse(String str) {
+        CacheEntry entry = cache;
+        if (entry.str.equals(str)) {
+            return entry.millis;
+        }
+        long millis = parseUncached(str);
+        if (UNPARSEABLE != millis) {
+            cache = new CacheEntry(str, millis);
+        }
+        return millis;
+    }
+
+    /*package*/ static long parseUncached(String str) {
+        int length = str.length();
+        if (length < 24) {
+            return UNPARSEABLE;
+        }
+        int pos = 3;
+        int day;
+        int month;
+        int year;
+        int timeAt;
+        int zoneAt;
+        if (',' == str.charAt(3)) {
+            // Tue, 08 Nov 2011 07:34:58 +0000
+            pos = 5;
+            int dayEnd = str.indexOf(' ', pos);
+            if (dayEnd < 0) {
+                return UNPARSEABLE;
+            }
+            day = digits(str, pos, dayEnd);
+            pos = dayEnd + 1;
+            month = month(str, pos);
+            if (' ' != charAt(str, pos + 3)) {
+                return UNPARSEABLE;
+            }
+            year = digits(str, pos + 4, pos + 8);
+            if (' ' != charAt(str, pos + 8)) {
+                return UNPARSEABLE;
+            }
+            timeAt = pos + 9;
+            zoneAt = timeAt + 9;
+            if (zoneAt >= length) {
+                return UNPARSEABLE;
+            }
+        } else {
+            // Tue Nov 08 07:34:58 +0000 2011
+            if (' ' != str.charAt(3)) {
+                return UNPARSEABLE;
+            }
+            month = month(str, 4);
+            if (' ' != str.charAt(7)) {
+                return UNPARSEABLE;
+            }
+            int dayEnd = str.indexOf(' ', 8);
+            if (dayEnd < 0) {
+                return UNPARSEABLE;
+            }
+            day = digits(str, 8, dayEnd);
+            timeAt = dayEnd + 1;
+            zoneAt = timeAt + 9;
+            int yearAt = str.indexOf(' ', zoneAt);
+            if (yearAt < 0) {
+                return UNPARSEABLE;
+            }
+            year = digits(str, yearAt + 1, length);
+            length = yearAt;
+        }
+        if (' ' != charAt(str, timeAt + 8) || ':' != charAt(str, timeAt + 2) || ':' != charAt(str, timeAt + 5)) {
+            return UNPARSEABLE;
+        }
+        int hour = digits(str, timeAt, timeAt + 2);
+        int minute = digits(str, timeAt + 3, timeAt + 5);
+        int second = digits(str, timeAt + 6, timeAt + 8);
+        int offset = zoneOffset(str, zoneAt, length);
+        if (month < 0 || day < 1 || day > 31 || year < 0 || hour < 0 || hour > 23 || minute < 0 || minute > 59
+                || second < 0 || second > 60 || Integer.MIN_VALUE == offset) {
+            return UNPARSEABLE;
+        }
+        long days = daysFromEpoch(year, month + 1, day);
+        return ((days * 24 + hour) * 60 + minute) * 60000L + second * 1000L - offset * 60000L;
+    }
+
+    private static char charAt(String str, int index) {
+        return index < str.length() ? str.charAt(index) : '\0';
+    }
+
+    /**
+     * @return the value of the digits in [start, end), or -1 if not all of them are digits
+     */
+    private static int digits(String str, int start, int end) {
+        if (start >= end || end > str.length() || end - start > 4) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = str.charAt(i);
+            if (c < '0' || '9' < c) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * @return 0 for January to 11 for December, or -1
+     */
+    private static int month(String str, int start) {
+        if (start + 3 > str.length()) {
+            return -1;
+        }
+        for (int i = 0; i < 12; i++) {
+            if (str.regionMatches(start, MONTHS, i * 3, 3)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the offset from UTC in minutes of the zone in [start, end), or Integer.MIN_VALUE
+     */
+    private static int zoneOffset(String str, int start, int end) {
+        int length = end - start;
+        if (5 == length) {
+            char sign = str.charAt(start);
+            int hours = digits(str, start + 1, start + 3);
+            int minutes = digits(str, start + 3, start + 5);
+            if (('+' != sign && '-' != sign) || hours < 0 || minutes < 0) {
+                return Integer.MIN_VALUE;
+            }
+            int offset = hours * 60 + minutes;
+            return '-' == sign ? -offset : offset;
+        }
+        if (3 == length && (str.startsWith("GMT", start) || str.startsWith("UTC", start))) {
+            return 0;
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * @return days since 1970-01-01 of the proleptic Gregorian date
+     */
+    private static long daysFromEpoch(int year, int month, int day) {
+        // shift the year to start in March so that the leap day comes last
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static final class CacheEntry {
+        final String str;
+        final long millis;
+
+        CacheEntry(String str, long millis) {
+            this.str = str;
+            this.millis = millis;
+        }
+    }
+}
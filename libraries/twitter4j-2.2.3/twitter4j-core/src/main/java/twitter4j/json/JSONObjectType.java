@@ -16,10 +16,14 @@
 
 package twitter4j.json;
 
+import twitter4j.internal.json.JSONPullParser;
 import twitter4j.internal.logging.Logger;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * @author Dan Checkoway - dcheckoway at gmail.com
  * @since Twitter4J 2.1.9
@@ -51,6 +55,36 @@ public final class JSONObjectType implements java.io.Serializable {
     public static final JSONObjectType UNBLOCK = new JSONObjectType("UNBLOCK");
     private static final long serialVersionUID = -4487565183481849892L;
 
+    // top-level fields telling the type, in order of precedence
+    private static final String[] TYPE_FIELDS = {"sender", "text", "direct_message", "delete", "limit", "scrub_geo",
+            "friends"};
+    private static final JSONObjectType[] FIELD_TYPES = {SENDER, STATUS, DIRECT_MESSAGE, DELETE, LIMIT, SCRUB_GEO,
+            FRIENDS};
+    private static final Map<String, Integer> FIELD_PRECEDENCE = new HashMap<String, Integer>();
+    private static final Map<String, JSONObjectType> EVENT_TYPES = new HashMap<String, JSONObjectType>();
+
+    static {
+        for (int i = 0; i < TYPE_FIELDS.length; i++) {
+            FIELD_PRECEDENCE.put(TYPE_FIELDS[i], i);
+        }
+        EVENT_TYPES.put("favorite", FAVORITE);
+        EVENT_TYPES.put("unfavorite", UNFAVORITE);
+        // note: retweet events also show up as statuses
+        EVENT_TYPES.put("retweet", RETWEET);
+        EVENT_TYPES.put("follow", FOLLOW);
+        EVENT_TYPES.put("unfollow", UNFOLLOW);
+        EVENT_TYPES.put("list_member_added", USER_LIST_MEMBER_ADDED);
+        EVENT_TYPES.put("list_member_removed", USER_LIST_MEMBER_DELETED);
+        EVENT_TYPES.put("list_user_subscribed", USER_LIST_SUBSCRIBED);
+        EVENT_TYPES.put("list_user_unsubscribed", USER_LIST_UNSUBSCRIBED);
+        EVENT_TYPES.put("list_created", USER_LIST_CREATED);
+        EVENT_TYPES.put("list_updated", USER_LIST_UPDATED);
+        EVENT_TYPES.put("list_destroyed", USER_LIST_DESTROYED);
+        EVENT_TYPES.put("user_update", USER_UPDATE);
+        EVENT_TYPES.put("block", BLOCK);
+        EVENT_TYPES.put("unblock", UNBLOCK);
+    }
+
     private final String name;
 
     private JSONObjectType() {
@@ -79,58 +113,15 @@ public final class JSONObjectType implements java.io.Serializable {
         // This code originally lived in AbstractStreamImplementation.
         // I've moved it in here to expose it as a public encapsulation of
         // the object type determination logic.
-        if (!json.isNull("sender")) {
-            return SENDER;
-        } else if (!json.isNull("text")) {
-            return STATUS;
-        } else if (!json.isNull("direct_message")) {
-            return DIRECT_MESSAGE;
-        } else if (!json.isNull("delete")) {
-            return DELETE;
-        } else if (!json.isNull("limit")) {
-            return LIMIT;
-        } else if (!json.isNull("scrub_geo")) {
-            return SCRUB_GEO;
-        } else if (!json.isNull("friends")) {
-            return FRIENDS;
-        } else if (!json.isNull("event")) {
-            String event;
+        // the fields are looked up in order of precedence. the first one present tells the type
+        for (int i = 0; i < TYPE_FIELDS.length; i++) {
+            if (!json.isNull(TYPE_FIELDS[i])) {
+                return FIELD_TYPES[i];
+            }
+        }
+        if (!json.isNull("event")) {
             try {
-                event = json.getString("event");
-                if ("favorite".equals(event)) {
-                    return FAVORITE;
-                } else if ("unfavorite".equals(event)) {
-                    return UNFAVORITE;
-                } else if ("retweet".equals(event)) {
-                    // note: retweet events also show up as statuses
-                    return RETWEET;
-                } else if ("follow".equals(event)) {
-                    return FOLLOW;
-                } else if ("unfollow".equals(event)) {
-                    return UNFOLLOW;
-                } else if (event.startsWith("list")) {
-                    if ("list_member_added".equals(event)) {
-                        return USER_LIST_MEMBER_ADDED;
-                    } else if ("list_member_removed".equals(event)) {
-                        return USER_LIST_MEMBER_DELETED;
-                    } else if ("list_user_subscribed".equals(event)) {
-                        return USER_LIST_SUBSCRIBED;
-                    } else if ("list_user_unsubscribed".equals(event)) {
-                        return USER_LIST_UNSUBSCRIBED;
-                    } else if ("list_created".equals(event)) {
-                        return USER_LIST_CREATED;
-                    } else if ("list_updated".equals(event)) {
-                        return USER_LIST_UPDATED;
-                    } else if ("list_destroyed".equals(event)) {
-                        return USER_LIST_DESTROYED;
-                    }
-                } else if ("user_update".equals(event)) {
-                    return USER_UPDATE;
-                } else if ("block".equals(event)) {
-                    return BLOCK;
-                } else if ("unblock".equals(event)) {
-                    return UNBLOCK;
-                }
+                return EVENT_TYPES.get(json.getString("event"));
             } catch (JSONException jsone) {
                 try {
                     logger.warn("Failed to get event element: ", json.toString(2));
@@ -141,6 +132,83 @@ public final class JSONObjectType implements java.io.Serializable {
         return null;
     }
 
+    /**
+     * Reads the object starting at the current token of the parser and determines its type as the fields are read,
+     * with one lookup per field. No second pass over the object is needed.
+     *
+     * @param parser parser positioned at the start of an object
+     * @param json   empty object to which the fields are put
+     * @return the determined JSONObjectType, or null if not recognized
+     * @throws JSONException when the object is not well-formed
+     * @since Twitter4J 2.2.4
+     */
+    public static JSONObjectType determine(JSONPullParser parser, JSONObject json) throws JSONException {
+        if (JSONPullParser.START_OBJECT != parser.getToken()) {
+            throw new JSONException("Expected an object: " + parser);
+        }
+        int precedence = TYPE_FIELDS.length;
+        Object event = null;
+        while (JSONPullParser.FIELD_NAME == parser.next()) {
+            String name = parser.getCurrentName();
+            parser.next();
+            Object value = parser.readValue();
+            json.put(name, value);
+            if (JSONObject.NULL == value) {
+                continue;
+            }
+            Integer fieldPrecedence = FIELD_PRECEDENCE.get(name);
+            if (null != fieldPrecedence) {
+                if (fieldPrecedence < precedence) {
+                    precedence = fieldPrecedence;
+                }
+            } else if ("event".equals(name)) {
+                event = value;
+            }
+        }
+        if (precedence < TYPE_FIELDS.length) {
+            return FIELD_TYPES[precedence];
+        }
+        return null == event ? null : EVENT_TYPES.get(event.toString());
+    }
+
+    /**
+     * Determines the type of the object starting at the current token of the parser from the names of its fields.
+     * Values are skipped without being decoded, except for "event". Cheaper than
+     * {@link #determine(JSONPullParser, JSONObject)} when the object is to be parsed by other means afterwards.
+     *
+     * @param parser parser positioned at the start of an object
+     * @return the determined JSONObjectType, or null if not recognized
+     * @throws JSONException when the object is not well-formed
+     * @since Twitter4J 2.2.4
+     */
+    public static JSONObjectType determine(JSONPullParser parser) throws JSONException {
+        if (JSONPullParser.START_OBJECT != parser.getToken()) {
+            throw new JSONException("Expected an object: " + parser);
+        }
+        int precedence = TYPE_FIELDS.length;
+        String event = null;
+        while (JSONPullParser.FIELD_NAME == parser.next()) {
+            String name = parser.getCurrentName();
+            int token = parser.next();
+            if (JSONPullParser.VALUE_NULL == token) {
+                continue;
+            }
+            Integer fieldPrecedence = FIELD_PRECEDENCE.get(name);
+            if (null != fieldPrecedence) {
+                if (fieldPrecedence < precedence) {
+                    precedence = fieldPrecedence;
+                }
+            } else if ("event".equals(name) && parser.isScalarValue()) {
+                event = parser.getText();
+            }
+            parser.skipChildren();
+        }
+        if (precedence < TYPE_FIELDS.length) {
+            return FIELD_TYPES[precedence];
+        }
+        return null == event ? null : EVENT_TYPES.get(event);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
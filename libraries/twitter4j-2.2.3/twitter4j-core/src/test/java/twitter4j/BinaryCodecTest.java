@@ -0,0 +1,340 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.internal.org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Verifies that objects written by BinaryEncoder are read back by BinaryDecoder without losing any field.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class BinaryCodecTest extends TestCase {
+
+    public BinaryCodecTest(String name) {
+        super(name);
+    }
+
+    private static final String USER = "{\"id\":6358482,\"name\":\"Twitter4J\",\"screen_name\":\"twit4j\""
+            + ",\"location\":\"Tokyo \\u3042\",\"description\":\"Java library\",\"contributors_enabled\":false"
+            + ",\"profile_image_url\":\"http:\\/\\/a0.twimg.com\\/profile_images\\/1.png\""
+            + ",\"profile_image_url_https\":\"https:\\/\\/si0.twimg.com\\/profile_images\\/1.png\",\"url\":\"http:\\/\\/twitter4j.org\\/\""
+            + ",\"protected\":false,\"geo_enabled\":true,\"verified\":true,\"followers_count\":101"
+            + ",\"profile_background_color\":\"9ae4e8\",\"profile_text_color\":\"000000\",\"profile_link_color\":\"0000ff\""
+            + ",\"profile_sidebar_fill_color\":\"e0ff92\",\"profile_sidebar_border_color\":\"87bc44\""
+            + ",\"profile_use_background_image\":true,\"show_all_inline_media\":false"
+            + ",\"profile_background_image_url\":\"http:\\/\\/a1.twimg.com\\/bg.png\""
+            + ",\"friends_count\":24,\"created_at\":\"Sun May 27 10:59:47 +0000 2007\""
+            + ",\"favourites_count\":0,\"utc_offset\":32400,\"time_zone\":\"Tokyo\",\"profile_background_tile\":true"
+            + ",\"lang\":\"ja\",\"statuses_count\":1532,\"listed_count\":31,\"is_translator\":true}";
+
+    private static final String PLACE = "{\"id\":\"2e0d3cbdb8a2aec9\",\"name\":\"Shibuya\",\"full_name\":\"Shibuya, Tokyo\""
+            + ",\"country_code\":\"JP\",\"country\":\"Japan\",\"place_type\":\"city\""
+            + ",\"url\":\"http:\\/\\/api.twitter.com\\/1\\/geo\\/id\\/2e0d3cbdb8a2aec9.json\""
+            + ",\"bounding_box\":{\"type\":\"Polygon\",\"coordinates\":[[[139.66,35.64],[139.72,35.64],[139.72,35.69],[139.66,35.69]]]}"
+            + ",\"contained_within\":[{\"id\":\"1f5b3a0a4f\",\"name\":\"Tokyo\",\"full_name\":\"Tokyo\",\"place_type\":\"admin\"}]}";
+
+    private static final String STATUS = "{\"created_at\":\"Tue Nov 08 07:34:58 +0000 2011\",\"id\":133811048014868480"
+            + ",\"text\":\"@twit4j \\u3053\\u3093\\u306b\\u3061\\u306f &amp; #t4j http:\\/\\/t.co\\/abc\""
+            + ",\"source\":\"\\u003Ca href=\\\"http:\\/\\/twitter4j.org\\\"\\u003ETwitter4J\\u003C\\/a\\u003E\""
+            + ",\"truncated\":true,\"in_reply_to_status_id\":133800000000000000,\"in_reply_to_user_id\":6358482"
+            + ",\"in_reply_to_screen_name\":\"twit4j\",\"favorited\":true,\"retweeted\":false,\"retweet_count\":101"
+            + ",\"geo\":{\"type\":\"Point\",\"coordinates\":[35.6,139.7]}"
+            + ",\"place\":" + PLACE + ",\"contributors\":[6358482,6377362]"
+            + ",\"annotations\":[{\"review\":{\"rating\":\"5\",\"title\":\"Twitter4J\"}}]"
+            + ",\"entities\":{\"user_mentions\":[{\"screen_name\":\"twit4j\",\"name\":\"Twitter4J\",\"id\":6358482,\"indices\":[0,7]}]"
+            + ",\"urls\":[{\"url\":\"http:\\/\\/t.co\\/abc\",\"expanded_url\":\"http:\\/\\/twitter4j.org\\/\",\"display_url\":\"twitter4j.org\",\"indices\":[24,42]}]"
+            + ",\"hashtags\":[{\"text\":\"t4j\",\"indices\":[19,23]}]"
+            + ",\"media\":[{\"id\":133811048019062785,\"indices\":[43,63],\"url\":\"http:\\/\\/t.co\\/xyz\""
+            + ",\"media_url\":\"http:\\/\\/p.twimg.com\\/a.jpg\",\"media_url_https\":\"https:\\/\\/p.twimg.com\\/a.jpg\""
+            + ",\"expanded_url\":\"http:\\/\\/twitter.com\\/twit4j\\/status\\/1\\/photo\\/1\",\"display_url\":\"pic.twitter.com\\/xyz\""
+            + ",\"sizes\":{\"large\":{\"w\":1024,\"h\":768,\"resize\":\"fit\"},\"medium\":{\"w\":600,\"h\":450,\"resize\":\"fit\"}"
+            + ",\"small\":{\"w\":340,\"h\":255,\"resize\":\"fit\"},\"thumb\":{\"w\":150,\"h\":150,\"resize\":\"crop\"}}}]}"
+            + ",\"user\":" + USER + "}";
+
+    private static String normalize(Object obj) {
+        // arrays are printed with identity hash codes
+        return String.valueOf(obj).replaceAll("\\[+[A-Za-z0-9.;]+@[0-9a-f]+", "");
+    }
+
+    public void testStatus() throws Exception {
+        String json = "{\"text\":\"RT\",\"id\":133811048014868481,\"created_at\":\"Tue Nov 08 07:35:00 +0000 2011\""
+                + ",\"retweeted_status\":" + STATUS + ",\"user\":" + USER + "}";
+        Status original = new StatusJSONImpl(new JSONObject(json));
+        Status decoded = BinaryDecoder.decodeStatus(BinaryEncoder.encode(original));
+
+        assertEquals(normalize(original), normalize(decoded));
+        assertEquals(normalize(original.getUser()), normalize(decoded.getUser()));
+        Status retweeted = decoded.getRetweetedStatus();
+        Status originalRetweeted = original.getRetweetedStatus();
+        assertEquals(normalize(originalRetweeted), normalize(retweeted));
+        assertEquals(originalRetweeted.getCreatedAt(), retweeted.getCreatedAt());
+        assertTrue(retweeted.isTruncated());
+        assertTrue(retweeted.isFavorited());
+        assertEquals(originalRetweeted.getGeoLocation(), retweeted.getGeoLocation());
+        assertTrue(Arrays.equals(originalRetweeted.getContributors(), retweeted.getContributors()));
+        assertEquals(originalRetweeted.getAnnotations(), retweeted.getAnnotations());
+        assertTrue(Arrays.equals(originalRetweeted.getUserMentionEntities(), retweeted.getUserMentionEntities()));
+        assertTrue(Arrays.equals(originalRetweeted.getURLEntities(), retweeted.getURLEntities()));
+        assertTrue(Arrays.equals(originalRetweeted.getHashtagEntities(), retweeted.getHashtagEntities()));
+        assertTrue(Arrays.equals(originalRetweeted.getMediaEntities(), retweeted.getMediaEntities()));
+        assertEquals(originalRetweeted.getMediaEntities()[0].getSizes(), retweeted.getMediaEntities()[0].getSizes());
+        assertEquals(MediaEntity.Size.CROP, retweeted.getMediaEntities()[0].getSizes().get(MediaEntity.Size.THUMB).getResize());
+
+        Place place = retweeted.getPlace();
+        assertEquals(normalize(originalRetweeted.getPlace()), normalize(place));
+        assertEquals(4, place.getBoundingBoxCoordinates()[0].length);
+        assertEquals(originalRetweeted.getPlace().getBoundingBoxCoordinates()[0][2], place.getBoundingBoxCoordinates()[0][2]);
+        assertEquals("Tokyo", place.getContainedWithIn()[0].getName());
+        assertNull(place.getGeometryCoordinates());
+
+        User user = retweeted.getUser();
+        assertEquals(normalize(originalRetweeted.getUser()), normalize(user));
+        assertEquals(originalRetweeted.getUser().getProfileImageUrlHttps(), user.getProfileImageUrlHttps());
+        assertEquals("87bc44", user.getProfileSidebarBorderColor());
+        assertTrue(user.isProfileBackgroundTiled());
+        assertTrue(user.isTranslator());
+        assertFalse(user.isFollowRequestSent());
+    }
+
+    public void testMinimalStatus() throws Exception {
+        Status original = new StatusJSONImpl(new JSONObject("{\"id\":1,\"text\":null}"));
+        Status decoded = BinaryDecoder.decodeStatus(BinaryEncoder.encode(original));
+        assertEquals(normalize(original), normalize(decoded));
+        assertNull(decoded.getCreatedAt());
+        assertNull(decoded.getUser());
+        assertNull(decoded.getPlace());
+        assertNull(decoded.getAnnotations());
+        assertNull(decoded.getRetweetedStatus());
+        assertEquals(-1, decoded.getInReplyToStatusId());
+    }
+
+    public void testStreamOfObjects() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryEncoder encoder = new BinaryEncoder(bytes);
+        List<Status> statuses = timeline(20);
+        encoder.writeStatuses(statuses);
+        encoder.writeUser(new UserJSONImpl(new JSONObject(USER)));
+        encoder.writeStatus(null);
+        DirectMessage message = new DirectMessageJSONImpl(new JSONObject("{\"id\":1,\"text\":\"hi\""
+                + ",\"sender_id\":6358482,\"recipient_id\":6377362,\"created_at\":\"Tue Nov 08 07:34:58 +0000 2011\""
+                + ",\"sender_screen_name\":\"twit4j\",\"recipient_screen_name\":\"twit4j2\""
+                + ",\"sender\":" + USER + ",\"recipient\":" + USER.replace("6358482", "6377362") + "}"));
+        encoder.writeDirectMessage(message);
+        List<User> users = new ArrayList<User>();
+        users.add(statuses.get(0).getUser());
+        encoder.writeUsers(users);
+        encoder.close();
+
+        BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(bytes.toByteArray()));
+        ResponseList<Status> decodedStatuses = decoder.readStatuses();
+        assertEquals(20, decodedStatuses.size());
+        for (int i = 0; i < statuses.size(); i++) {
+            assertEquals(normalize(statuses.get(i)), normalize(decodedStatuses.get(i)));
+        }
+        assertEquals(normalize(new UserJSONImpl(new JSONObject(USER))), normalize(decoder.readUser()));
+        assertNull(decoder.readStatus());
+        DirectMessage decodedMessage = decoder.readDirectMessage();
+        assertEquals(normalize(message), normalize(decodedMessage));
+        assertEquals(6377362, decodedMessage.getRecipient().getId());
+        assertEquals(normalize(users), normalize(decoder.readUsers()));
+        try {
+            decoder.readStatus();
+            fail("expecting IOException");
+        } catch (IOException expected) {
+        }
+    }
+
+    public void testOtherTypes() throws Exception {
+        UserList list = new UserListJSONImpl(new JSONObject("{\"id\":1234,\"name\":\"t4j\",\"full_name\":\"@twit4j\\/t4j\""
+                + ",\"slug\":\"t4j\",\"description\":\"Twitter4J users\",\"subscriber_count\":3,\"member_count\":5"
+                + ",\"uri\":\"\\/twit4j\\/t4j\",\"mode\":\"public\",\"following\":true,\"user\":" + USER + "}"));
+        SavedSearch savedSearch = new SavedSearchJSONImpl(new JSONObject("{\"created_at\":\"Tue Nov 08 07:34:58 +0000 2011\""
+                + ",\"query\":\"twitter4j\",\"position\":2,\"name\":\"Twitter4J\",\"id\":5678}"));
+        Relationship relationship = new RelationshipJSONImpl(new JSONObject("{\"relationship\":{\"source\":{\"id\":6358482"
+                + ",\"screen_name\":\"twit4j\",\"blocking\":false,\"following\":true,\"followed_by\":false"
+                + ",\"notifications_enabled\":true},\"target\":{\"id\":6377362,\"screen_name\":\"twit4j2\""
+                + ",\"following\":false,\"followed_by\":true}}}"));
+        Trends trends = new TrendsJSONImpl("{\"as_of\":\"1320737698\",\"trends\":[{\"name\":\"#t4j\""
+                + ",\"url\":\"http:\\/\\/search.twitter.com\\/search?q=%23t4j\",\"query\":\"%23t4j\"},{\"name\":\"Java\""
+                + ",\"url\":\"http:\\/\\/search.twitter.com\\/search?q=Java\",\"query\":\"Java\"}]"
+                + ",\"locations\":[{\"name\":\"Tokyo\",\"woeid\":1118370,\"countryCode\":\"JP\",\"country\":\"Japan\""
+                + ",\"placeType\":{\"name\":\"Town\",\"code\":7},\"url\":\"http:\\/\\/where.yahooapis.com\\/v1\\/place\\/1118370\"}]}");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryEncoder encoder = new BinaryEncoder(bytes);
+        encoder.writeUserList(list);
+        encoder.writeSavedSearch(savedSearch);
+        encoder.writeRelationship(relationship);
+        encoder.writeTrends(trends);
+        encoder.writeTrends(null);
+        encoder.close();
+
+        BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(bytes.toByteArray()));
+        UserList decodedList = decoder.readUserList();
+        assertEquals(normalize(list), normalize(decodedList));
+        assertEquals(list.getURI(), decodedList.getURI());
+        assertTrue(decodedList.isPublic());
+        assertTrue(decodedList.isFollowing());
+        assertEquals(normalize(list.getUser()), normalize(decodedList.getUser()));
+        SavedSearch decodedSavedSearch = decoder.readSavedSearch();
+        assertEquals(normalize(savedSearch), normalize(decodedSavedSearch));
+        assertEquals(savedSearch.getCreatedAt(), decodedSavedSearch.getCreatedAt());
+        Relationship decodedRelationship = decoder.readRelationship();
+        assertEquals(normalize(relationship), normalize(decodedRelationship));
+        assertFalse(decodedRelationship.isSourceBlockingTarget());
+        assertTrue(decodedRelationship.isTargetFollowedBySource());
+        Trends decodedTrends = decoder.readTrends();
+        assertEquals(trends, decodedTrends);
+        assertEquals(normalize(trends.getLocation()), normalize(decodedTrends.getLocation()));
+        assertEquals(7, decodedTrends.getLocation().getPlaceCode());
+        assertNull(decoder.readTrends());
+    }
+
+    public void testSize() throws Exception {
+        List<Status> statuses = timeline(100);
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(serialized);
+        oos.writeObject(new ArrayList<Status>(statuses));
+        oos.close();
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        BinaryEncoder encoder = new BinaryEncoder(encoded);
+        encoder.writeStatuses(statuses);
+        encoder.close();
+        assertTrue(serialized.size() + " bytes serialized, " + encoded.size() + " bytes encoded",
+                encoded.size() * 3 <= serialized.size());
+    }
+
+    public void testMalformed() throws Exception {
+        try {
+            BinaryDecoder.decodeStatus("{\"id\":1}".getBytes("UTF-8"));
+            fail("expecting StreamCorruptedException");
+        } catch (StreamCorruptedException expected) {
+        }
+        byte[] bytes = BinaryEncoder.encode(new StatusJSONImpl(new JSONObject(STATUS)));
+        byte[] truncated = new byte[bytes.length / 2];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        try {
+            BinaryDecoder.decodeStatus(truncated);
+            fail("expecting IOException");
+        } catch (IOException expected) {
+        }
+    }
+
+    public void testCorruptLength() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryEncoder encoder = new BinaryEncoder(bytes);
+        encoder.writeVarInt(Integer.MAX_VALUE);
+        encoder.writeVarInt(-2);
+        encoder.writeVarInt(Integer.MAX_VALUE);
+        encoder.close();
+        BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(bytes.toByteArray()));
+        try {
+            // not allocated upfront. the stream ends before the list is full
+            decoder.readStatuses();
+            fail("expecting IOException");
+        } catch (IOException expected) {
+        }
+        decoder = new BinaryDecoder(new ByteArrayInputStream(bytes.toByteArray()));
+        decoder.readVarInt();
+        try {
+            decoder.readNullableLength();
+            fail("expecting StreamCorruptedException");
+        } catch (StreamCorruptedException expected) {
+        }
+        try {
+            decoder.readLength();
+            fail("expecting StreamCorruptedException");
+        } catch (StreamCorruptedException expected) {
+        }
+    }
+
+    /**
+     * Builds a home timeline posted by several authors from several places, each status with its own entities.
+     */
+    private static List<Status> timeline(int count) throws Exception {
+        String[] hashtags = {"t4j", "java", "twitter", "tokyo", "android"};
+        List<Status> statuses = new ArrayList<Status>();
+        for (int i = 0; i < count; i++) {
+            int author = i % 7;
+            JSONObject json = new JSONObject(STATUS);
+            json.put("id", 133811048014868480L + i * 1000);
+            json.put("created_at", "Tue Nov 08 07:" + (10 + i % 50) + ":58 +0000 2011");
+            String hashtag = hashtags[i % hashtags.length];
+            String mention = "user" + ((i + 3) % 7);
+            json.put("text", "@" + mention + " status " + i + " posted by user" + author + " #" + hashtag
+                    + " http://t.co/" + Integer.toString(i * 7919, 36));
+            json.put("retweet_count", i % 11);
+            json.put("favorited", 0 == i % 3);
+            json.put("in_reply_to_status_id", 0 == i % 4 ? 133811048014868480L + i * 500 : -1);
+            json.put("in_reply_to_screen_name", 0 == i % 4 ? mention : null);
+            json.put("geo", new JSONObject("{\"type\":\"Point\",\"coordinates\":[" + (35 + i * 0.013) + ","
+                    + (139 + i * 0.017) + "]}"));
+            if (0 == i % 3) {
+                JSONObject place = new JSONObject(PLACE);
+                place.put("id", Long.toHexString(0x2e0d3cbdb8a2aec9L + i % 4));
+                place.put("name", "Place " + i % 4);
+                place.put("full_name", "Place " + i % 4 + ", Tokyo");
+                json.put("place", place);
+            } else {
+                json.remove("place");
+            }
+            if (0 != i % 5) {
+                json.remove("annotations");
+            }
+            JSONObject entities = json.getJSONObject("entities");
+            JSONObject mentionEntity = entities.getJSONArray("user_mentions").getJSONObject(0);
+            mentionEntity.put("screen_name", mention);
+            mentionEntity.put("name", "User " + mention);
+            mentionEntity.put("id", 6358482 + (i + 3) % 7);
+            JSONObject url = entities.getJSONArray("urls").getJSONObject(0);
+            url.put("url", "http://t.co/" + Integer.toString(i * 7919, 36));
+            url.put("expanded_url", "http://example.com/" + author + "/article/" + i);
+            url.put("display_url", "example.com/" + author + "/article/" + i);
+            entities.getJSONArray("hashtags").getJSONObject(0).put("text", hashtag);
+            if (0 == i % 6) {
+                entities.getJSONArray("media").getJSONObject(0).put("id", 133811048019062785L + i);
+            } else {
+                entities.remove("media");
+            }
+            JSONObject user = json.getJSONObject("user");
+            user.put("id", 6358482 + author);
+            user.put("name", "User " + author);
+            user.put("screen_name", "user" + author);
+            user.put("description", "the profile of user " + author + ", who tweets about " + hashtags[author % 5]);
+            user.put("location", 0 == author % 2 ? "Tokyo" : "San Francisco, CA");
+            user.put("profile_image_url", "http://a0.twimg.com/profile_images/" + (1000 + author) + "/icon.png");
+            user.put("profile_image_url_https", "https://si0.twimg.com/profile_images/" + (1000 + author) + "/icon.png");
+            user.put("url", "http://example.com/" + author);
+            user.put("followers_count", 100 * author + i);
+            user.put("statuses_count", 1532 + author * 10 + i);
+            statuses.add(new StatusJSONImpl(json));
+        }
+        return statuses;
+    }
+}
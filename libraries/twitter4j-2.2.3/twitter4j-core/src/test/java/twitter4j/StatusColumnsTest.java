@@ -0,0 +1,101 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.internal.json.JSONPullParser;
+import twitter4j.internal.org.json.JSONObject;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class StatusColumnsTest extends TestCase {
+
+    public StatusColumnsTest(String name) {
+        super(name);
+    }
+
+    private static final String USER = StatusJSONImplTest.USER;
+    private static final String STATUS = StatusJSONImplTest.STATUS;
+
+    public void testStatusColumns() throws Exception {
+        String retweet = "{\"text\":\"RT\",\"id\":2,\"retweeted_status\":" + STATUS + ",\"user\":" + USER + "}";
+        StatusColumns statuses = new StatusColumns(1);
+        assertEquals(2, StatusJSONImpl.appendStatuses(arrayParser("[" + STATUS + "," + retweet + "]"), statuses));
+        assertEquals(2, statuses.size());
+        assertEquals(133811048014868480L, statuses.getId(0));
+        assertEquals(new StatusJSONImpl(new JSONObject(STATUS)).getCreatedAt(), statuses.getCreatedAt(0));
+        assertEquals(6358482, statuses.getUserId(1));
+        assertEquals("twit4j", statuses.getScreenName(1));
+        assertEquals(133800000000000000L, statuses.getInReplyToStatusId(0));
+        assertEquals(101, statuses.getRetweetCount(0));
+        assertEquals(-1, statuses.getRetweetedStatusId(0));
+        assertEquals(133811048014868480L, statuses.getRetweetedStatusId(1));
+        assertEquals("RT", statuses.getText(1));
+        assertEquals("<a href=\"http://twitter4j.org\">Twitter4J</a>", statuses.getSource(0));
+        assertNull(statuses.getSource(1));
+        statuses.trimToSize();
+        assertEquals(2, statuses.getIds().length);
+        try {
+            statuses.getId(2);
+            fail("expecting IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        // the source and the screen name are dictionary-encoded. both rows share the screen name
+        assertTrue(statuses.toString().endsWith("distinctStrings=2}"));
+    }
+
+    public void testUserColumns() throws Exception {
+        UserColumns users = new UserColumns();
+        assertEquals(2, UserJSONImpl.appendUsers(arrayParser("[" + USER + "," + USER.replace("6358482", "6377362") + "]"), users));
+        assertEquals(6377362, users.getId(1));
+        assertEquals("twit4j", users.getScreenName(0));
+        assertEquals("Tokyo \u3042", users.getLocation(1));
+        assertEquals("ja", users.getLang(0));
+        assertEquals(32400, users.getUtcOffset(0));
+        assertEquals(24, users.getFriendsCount(0));
+        assertEquals(1532, users.getStatusesCount(1));
+        assertTrue(users.isGeoEnabled(0));
+        assertFalse(users.isVerified(0));
+        assertFalse(users.isProtected(0));
+        // only the language and the time zone are dictionary-encoded
+        assertTrue(users.toString().endsWith("distinctStrings=2}"));
+    }
+
+    public void testIDs() throws Exception {
+        IDs ids = new IDsJSONImpl("{\"previous_cursor\":0,\"ids\":[1,\"2\",133811048014868480],\"next_cursor\":3}");
+        assertEquals(3, ids.getIDs().length);
+        assertEquals(2, ids.getIDs()[1]);
+        assertEquals(133811048014868480L, ids.getIDs()[2]);
+        assertFalse(ids.hasPrevious());
+        assertEquals(3, ids.getNextCursor());
+        ids = new IDsJSONImpl("[4,5]");
+        assertEquals(5, ids.getIDs()[1]);
+        assertEquals(-1, ids.getNextCursor());
+        try {
+            new IDsJSONImpl("{\"ids\":[\"abc\"]}");
+            fail("expecting TwitterException");
+        } catch (TwitterException expected) {
+        }
+    }
+
+    private static JSONPullParser arrayParser(String json) throws Exception {
+        byte[] bytes = json.getBytes("UTF-8");
+        return new JSONPullParser(bytes, 0, bytes.length);
+    }
+}
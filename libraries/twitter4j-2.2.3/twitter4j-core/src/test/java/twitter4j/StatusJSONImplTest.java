@@ -0,0 +1,203 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.internal.json.JSONPullParser;
+import twitter4j.internal.org.json.JSONObject;
+
+/**
+ * Verifies that statuses and users populated by JSONPullParser are identical to those built from JSONObject.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class StatusJSONImplTest extends TestCase {
+
+    public StatusJSONImplTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    static final String USER = "{\"id\":6358482,\"name\":\"Twitter4J\",\"screen_name\":\"twit4j\""
+            + ",\"location\":\"Tokyo \\u3042\",\"description\":null,\"contributors_enabled\":false"
+            + ",\"profile_image_url\":\"http:\\/\\/a0.twimg.com\\/profile_images\\/1.png\",\"url\":null"
+            + ",\"protected\":false,\"geo_enabled\":true,\"verified\":false,\"followers_count\":\"100+\""
+            + ",\"profile_background_color\":\"9ae4e8\",\"friends_count\":24,\"created_at\":\"Sun May 27 10:59:47 +0000 2007\""
+            + ",\"favourites_count\":0,\"utc_offset\":32400,\"time_zone\":\"Tokyo\",\"profile_background_tile\":false"
+            + ",\"lang\":\"ja\",\"statuses_count\":1532,\"listed_count\":31,\"follow_request_sent\":null"
+            + ",\"notifications\":null,\"id_str\":\"6358482\"}";
+
+    static final String STATUS = "{\"created_at\":\"Tue Nov 08 07:34:58 +0000 2011\",\"id\":133811048014868480"
+            + ",\"id_str\":\"133811048014868480\",\"text\":\"@twit4j \\u3053\\u3093\\u306b\\u3061\\u306f &amp; #t4j http:\\/\\/t.co\\/abc\""
+            + ",\"source\":\"\\u003Ca href=\\\"http:\\/\\/twitter4j.org\\\"\\u003ETwitter4J\\u003C\\/a\\u003E\""
+            + ",\"truncated\":false,\"in_reply_to_status_id\":133800000000000000,\"in_reply_to_user_id\":6358482"
+            + ",\"in_reply_to_screen_name\":\"twit4j\",\"favorited\":true,\"retweeted\":false,\"retweet_count\":\"100+\""
+            + ",\"geo\":{\"type\":\"Point\",\"coordinates\":[35.6,139.7]},\"coordinates\":{\"type\":\"Point\",\"coordinates\":[139.7,35.6]}"
+            + ",\"place\":null,\"contributors\":[6358482,6377362]"
+            + ",\"entities\":{\"user_mentions\":[{\"screen_name\":\"twit4j\",\"name\":\"Twitter4J\",\"id\":6358482,\"indices\":[0,7]}]"
+            + ",\"urls\":[{\"url\":\"http:\\/\\/t.co\\/abc\",\"expanded_url\":\"http:\\/\\/twitter4j.org\\/\",\"display_url\":\"twitter4j.org\",\"indices\":[24,42]}]"
+            + ",\"hashtags\":[{\"text\":\"t4j\",\"indices\":[19,23]}]}"
+            + ",\"user\":" + USER + "}";
+
+    public void testStatus() throws Exception {
+        String json = "{\"text\":\"RT\",\"id\":2,\"retweeted_status\":" + STATUS + ",\"user\":" + USER
+                + ",\"unknown\":[{\"a\":[]}],\"in_reply_to_status_id\":null}";
+        Status tree = new StatusJSONImpl(new JSONObject(json));
+        Status pulled = new StatusJSONImpl(parser(json));
+        // contributors are printed with identity hash codes
+        assertEquals(tree.toString().replaceAll("\\[J@[0-9a-f]+", ""), pulled.toString().replaceAll("\\[J@[0-9a-f]+", ""));
+        assertEquals(tree.getUser().toString(), pulled.getUser().toString());
+        Status retweeted = pulled.getRetweetedStatus();
+        assertEquals(133811048014868480L, retweeted.getId());
+        assertEquals("\u3053\u3093\u306b\u3061\u306f & #t4j", retweeted.getText().substring(8, 20));
+        assertEquals(101, retweeted.getRetweetCount());
+        assertEquals(35.6, retweeted.getGeoLocation().getLatitude());
+        assertEquals(2, retweeted.getContributors().length);
+        assertEquals(7, retweeted.getUserMentionEntities()[0].getEnd());
+        assertEquals("twitter4j.org", retweeted.getURLEntities()[0].getDisplayURL());
+        assertEquals("t4j", retweeted.getHashtagEntities()[0].getText());
+        assertEquals(-1, pulled.getInReplyToStatusId());
+    }
+
+    public void testLazyStatus() throws Exception {
+        String json = "{\"text\":\"RT\",\"id\":2,\"retweeted_status\":" + STATUS + ",\"user\":" + USER
+                + ",\"unknown\":[{\"a\":[]}],\"in_reply_to_status_id\":null}";
+        byte[] bytes = json.getBytes("UTF-8");
+        Status tree = new StatusJSONImpl(new JSONObject(json));
+        LazyStatusJSONImpl lazy = new LazyStatusJSONImpl(bytes, 0, bytes.length);
+        assertTrue(lazy.isStatus());
+        assertEquals(2, lazy.getId());
+        assertSame(lazy.getUser(), lazy.getUser());
+        assertTrue(lazy.isRetweet());
+        assertEquals(-1, lazy.getInReplyToStatusId());
+        assertEquals(tree.toString().replaceAll("\\[J@[0-9a-f]+", ""),
+                lazy.toString().replaceAll("\\[J@[0-9a-f]+", "").replaceAll("LazyStatusJSONImpl", "StatusJSONImpl"));
+        Status retweeted = lazy.getRetweetedStatus();
+        assertEquals(133811048014868480L, retweeted.getId());
+        assertEquals("t4j", retweeted.getHashtagEntities()[0].getText());
+        assertNull(retweeted.getMediaEntities());
+        assertEquals(tree.getRetweetedStatus(), retweeted);
+
+        // fields are decoded independently. a broken field doesn't prevent reading the others
+        bytes = "{\"id\":3,\"created_at\":\"yesterday\",\"text\":\"a\"}".getBytes("UTF-8");
+        lazy = new LazyStatusJSONImpl(bytes, 0, bytes.length);
+        assertNull(lazy.getCreatedAt());
+        assertEquals("a", lazy.getText());
+        assertEquals(3, lazy.getId());
+        assertNull(lazy.getURLEntities());
+        assertFalse(lazy.isRetweet());
+
+        bytes = "{\"delete\":{\"status\":{\"id\":1,\"user_id\":2}}}".getBytes("UTF-8");
+        assertFalse(new LazyStatusJSONImpl(bytes, 0, bytes.length).isStatus());
+        bytes = "{\"sender\":{},\"text\":\"dm\"}".getBytes("UTF-8");
+        assertFalse(new LazyStatusJSONImpl(bytes, 0, bytes.length).isStatus());
+    }
+
+    public void testUserCache() throws Exception {
+        UserCache userCache = new UserCache(1);
+        // the retweeted status is posted by the same user
+        String json = "{\"text\":\"RT\",\"id\":2,\"retweeted_status\":" + STATUS + ",\"user\":" + USER + "}";
+        Status status = new StatusJSONImpl(parser(json), null, userCache);
+        assertSame(status.getUser(), status.getRetweetedStatus().getUser());
+        assertSame(status.getUser(), new StatusJSONImpl(new JSONObject(json), userCache).getUser());
+        byte[] bytes = json.getBytes("UTF-8");
+        assertSame(status.getUser(), new LazyStatusJSONImpl(bytes, 0, bytes.length, userCache).getUser());
+
+        // the user has tweeted since. unchanged strings are still shared
+        String updated = json.replace("\"statuses_count\":1532", "\"statuses_count\":1533");
+        User user = new StatusJSONImpl(parser(updated), null, userCache).getUser();
+        assertNotSame(status.getUser(), user);
+        assertEquals(1533, user.getStatusesCount());
+        assertSame(status.getUser().getLocation(), user.getLocation());
+        assertSame(user, new StatusJSONImpl(parser(updated), null, userCache).getUser());
+        assertEquals(1, userCache.size());
+
+        // partially decoded users are not shared
+        User projected = new StatusJSONImpl(parser(updated), new StatusProjection("user.id"), userCache).getUser();
+        assertNotSame(user, projected);
+        assertNull(projected.getLocation());
+    }
+
+    public void testUserCacheOnStream() throws Exception {
+        UserCache userCache = new UserCache(10);
+        // statuses_count changes with every status of the user on a stream
+        User first = null;
+        for (int i = 0; i < 3; i++) {
+            String json = "{\"text\":\"hi\",\"id\":" + i + ",\"user\":"
+                    + USER.replace("\"statuses_count\":1532", "\"statuses_count\":" + (1532 + i)) + "}";
+            User user = new StatusJSONImpl(parser(json), null, userCache).getUser();
+            assertEquals(1532 + i, user.getStatusesCount());
+            if (null == first) {
+                first = user;
+                continue;
+            }
+            // the instance can't be shared, the profile strings are
+            assertNotSame(first, user);
+            assertSame(first.getName(), user.getName());
+            assertSame(first.getScreenName(), user.getScreenName());
+            assertSame(first.getLocation(), user.getLocation());
+        }
+        assertEquals(1, userCache.size());
+    }
+
+    public void testProjection() throws Exception {
+        String json = "{\"text\":\"RT\",\"id\":2,\"retweeted_status\":" + STATUS + ",\"user\":" + USER + "}";
+        Status status = new StatusJSONImpl(parser(json), new StatusProjection("id", "retweeted_status", "user.screen_name"));
+        assertEquals(2, status.getId());
+        assertNull(status.getText());
+        assertEquals("twit4j", status.getUser().getScreenName());
+        assertEquals(-1, status.getUser().getId());
+        assertNull(status.getUser().getLocation());
+        Status retweeted = status.getRetweetedStatus();
+        assertEquals(133811048014868480L, retweeted.getId());
+        assertNull(retweeted.getHashtagEntities());
+        assertNull(retweeted.getGeoLocation());
+
+        assertNull(StatusProjection.union(new StatusProjection("id"), null));
+        StatusProjection union = StatusProjection.union(new StatusProjection("id", "user.id"),
+                new StatusProjection("text", "user.screen_name"));
+        assertEquals(new StatusProjection("id", "text", "user.id", "user.screen_name"), union);
+        assertTrue(union.isIncluded("user"));
+        assertFalse(union.isUserFieldIncluded("location"));
+        union = StatusProjection.union(union, new StatusProjection("user"));
+        assertTrue(union.isUserFieldIncluded("location"));
+    }
+
+    public void testUser() throws Exception {
+        User tree = new UserJSONImpl(new JSONObject(USER));
+        User pulled = new UserJSONImpl(parser(USER));
+        assertEquals(tree.toString(), pulled.toString());
+        assertEquals(24, pulled.getFriendsCount());
+        assertEquals("Tokyo \u3042", pulled.getLocation());
+        assertNull(pulled.getDescription());
+    }
+
+    private static JSONPullParser parser(String json) throws Exception {
+        byte[] bytes = json.getBytes("UTF-8");
+        JSONPullParser parser = new JSONPullParser(bytes, 0, bytes.length);
+        assertEquals(JSONPullParser.START_OBJECT, parser.next());
+        return parser;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package twitter4j.auth;
+
+import junit.framework.TestCase;
+import twitter4j.TwitterException;
+import twitter4j.conf.ConfigurationBuilder;
+import twitter4j.internal.http.DeferredRetryException;
+import twitter4j.internal.http.HttpClient;
+import twitter4j.internal.http.HttpClientConfiguration;
+import twitter4j.internal.http.HttpRequest;
+import twitter4j.internal.http.HttpResponse;
+import twitter4j.internal.http.RetryDeferral;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class OAuthAuthorizationTest extends TestCase {
+
+    public OAuthAuthorizationTest(String name) {
+        super(name);
+    }
+
+    public void testXAuthDeferredRetry() throws Exception {
+        OAuthAuthorization auth = new OAuthAuthorization(new ConfigurationBuilder()
+                .setOAuthConsumerKey("key").setOAuthConsumerSecret("secret")
+                .setHttpClientImpl(DeferringHttpClient.class.getName()).build());
+        RetryDeferral.begin(0);
+        try {
+            auth.getOAuthAccessToken("twit4j", "password");
+            fail("expecting DeferredRetryException");
+        } catch (DeferredRetryException dre) {
+            // not reported as invalid credentials
+            assertEquals(5000, dre.getDelay());
+            assertEquals(1, dre.getRetriedCount());
+        } finally {
+            RetryDeferral.end();
+        }
+    }
+
+    /**
+     * Defers every request as the retry policy does on a transient error.
+     */
+    public static final class DeferringHttpClient implements HttpClient {
+        public DeferringHttpClient(HttpClientConfiguration conf) {
+        }
+
+        public HttpResponse request(HttpRequest req) throws TwitterException {
+            throw new DeferredRetryException(5000, 1);
+        }
+
+        public void shutdown() {
+        }
+    }
+}
@@ -40,6 +40,10 @@ public class HTMLEntityTest extends TestCase {
     }
 
     public void testUnescape() {
+        String plain = "no entities";
+        assertSame(plain, HTMLEntity.unescape(plain));
+        assertNull(HTMLEntity.unescape((String) null));
+
         String original = "&lt;&lt;=% !&nbsp;&gt;";
         String expected = "<<=% !\u00A0>";
         assertEquals(expected, HTMLEntity.unescape(original));
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.async;
+
+import junit.framework.TestCase;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public class BoundedDispatcherImplTest extends TestCase {
+
+    public BoundedDispatcherImplTest(String name) {
+        super(name);
+    }
+
+    private int count;
+
+    private synchronized void increment() {
+        count++;
+    }
+
+    private synchronized int getCount() {
+        return count;
+    }
+
+    private int discardedCount;
+
+    private synchronized void discarded() {
+        discardedCount++;
+    }
+
+    private synchronized int getDiscardedCount() {
+        return discardedCount;
+    }
+
+    private BoundedDispatcherImpl newDispatcher(int numThreads, int capacity, String policy) {
+        Configuration conf = new ConfigurationBuilder()
+                .setDispatcherImpl("twitter4j.internal.async.BoundedDispatcherImpl")
+                .setAsyncNumThreads(numThreads)
+                .setAsyncQueueCapacity(capacity)
+                .setAsyncOverflowPolicy(policy).build();
+        return (BoundedDispatcherImpl) new DispatcherFactory(conf).getInstance();
+    }
+
+    public void testManyProducers() throws Exception {
+        final BoundedDispatcherImpl dispatcher = newDispatcher(4, 16, BoundedDispatcherImpl.BLOCK);
+        assertEquals(16, dispatcher.getCapacity());
+        count = 0;
+        Thread[] producers = new Thread[4];
+        for (int i = 0; i < producers.length; i++) {
+            producers[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        dispatcher.invokeLater(new Runnable() {
+                            public void run() {
+                                increment();
+                            }
+                        });
+                    }
+                }
+            };
+            producers[i].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        for (int i = 0; i < 100 && 40000 != getCount(); i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(40000, getCount());
+        assertEquals(40000, dispatcher.getEnqueuedCount());
+        assertEquals(0, dispatcher.getQueueDepth());
+        assertTrue(dispatcher.getPeakQueueDepth() <= 16);
+        assertEquals(0, dispatcher.getDroppedCount());
+        dispatcher.shutdown();
+    }
+
+    public void testDropOldest() throws Exception {
+        BoundedDispatcherImpl dispatcher = newDispatcher(1, 4, BoundedDispatcherImpl.DROP_OLDEST);
+        Object lock = new Object();
+        count = 0;
+        synchronized (lock) {
+            dispatcher.invokeLater(new BlockingTask(lock));
+            waitUntilEmpty(dispatcher);
+            for (int i = 0; i < 10; i++) {
+                dispatcher.invokeLater(new IncrementTask());
+            }
+            assertEquals(4, dispatcher.getQueueDepth());
+            assertEquals(6, dispatcher.getDroppedCount());
+            lock.notifyAll();
+        }
+        waitUntilEmpty(dispatcher);
+        Thread.sleep(100);
+        assertEquals(4, getCount());
+        dispatcher.shutdown();
+    }
+
+    public void testDiscarded() throws Exception {
+        BoundedDispatcherImpl dispatcher = newDispatcher(1, 4, BoundedDispatcherImpl.DROP_OLDEST);
+        Object lock = new Object();
+        count = 0;
+        discardedCount = 0;
+        synchronized (lock) {
+            dispatcher.invokeLater(new BlockingTask(lock));
+            waitUntilEmpty(dispatcher);
+            for (int i = 0; i < 10; i++) {
+                dispatcher.invokeLater(new DiscardableTask());
+            }
+            assertEquals(6, getDiscardedCount());
+            // tasks left in the queue are discarded at shutdown
+            dispatcher.shutdown();
+            assertEquals(10, getDiscardedCount());
+            dispatcher.invokeLater(new DiscardableTask());
+            assertEquals(11, getDiscardedCount());
+            lock.notifyAll();
+        }
+        Thread.sleep(100);
+        assertEquals(0, getCount());
+    }
+
+    public void testCallerRuns() throws Exception {
+        BoundedDispatcherImpl dispatcher = newDispatcher(1, 4, BoundedDispatcherImpl.CALLER_RUNS);
+        Object lock = new Object();
+        count = 0;
+        synchronized (lock) {
+            dispatcher.invokeLater(new BlockingTask(lock));
+            waitUntilEmpty(dispatcher);
+            for (int i = 0; i < 10; i++) {
+                dispatcher.invokeLater(new IncrementTask());
+            }
+            // overflowed tasks ran synchronously on this thread
+            assertEquals(6, getCount());
+            assertEquals(6, dispatcher.getCallerRunsCount());
+            lock.notifyAll();
+        }
+        waitUntilEmpty(dispatcher);
+        Thread.sleep(100);
+        assertEquals(10, getCount());
+        dispatcher.shutdown();
+    }
+
+    public void testUnknownPolicyFallsBackToBlock() throws Exception {
+        BoundedDispatcherImpl dispatcher = newDispatcher(1, 3, "unknown");
+        assertEquals(BoundedDispatcherImpl.BLOCK, dispatcher.getOverflowPolicy());
+        assertEquals(4, dispatcher.getCapacity());
+        dispatcher.shutdown();
+    }
+
+    private void waitUntilEmpty(BoundedDispatcherImpl dispatcher) throws InterruptedException {
+        for (int i = 0; i < 100 && 0 != dispatcher.getQueueDepth(); i++) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(50);
+    }
+
+    class IncrementTask implements Runnable {
+        public void run() {
+            increment();
+        }
+    }
+
+    class DiscardableTask implements DiscardableRunnable {
+        public void run() {
+            increment();
+        }
+
+        public void discarded() {
+            BoundedDispatcherImplTest.this.discarded();
+        }
+    }
+
+    class BlockingTask implements Runnable {
+        private final Object lock;
+
+        BlockingTask(Object lock) {
+            this.lock = lock;
+        }
+
+        public void run() {
+            synchronized (lock) {
+                // released once the test thread calls notifyAll() and leaves the monitor
+            }
+        }
+    }
+}
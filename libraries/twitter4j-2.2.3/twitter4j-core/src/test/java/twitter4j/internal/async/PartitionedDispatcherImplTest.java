@@ -0,0 +1,144 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.async;
+
+import junit.framework.TestCase;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public class PartitionedDispatcherImplTest extends TestCase {
+
+    public PartitionedDispatcherImplTest(String name) {
+        super(name);
+    }
+
+    private final Map<Long, List<Integer>> executed = new HashMap<Long, List<Integer>>();
+    private int count = 0;
+
+    private PartitionedDispatcherImpl newDispatcher(int numThreads, int queueCapacity) {
+        Configuration conf = new ConfigurationBuilder()
+                .setDispatcherImpl("twitter4j.internal.async.PartitionedDispatcherImpl")
+                .setAsyncNumThreads(numThreads)
+                .setAsyncQueueCapacity(queueCapacity).build();
+        return (PartitionedDispatcherImpl) new DispatcherFactory(conf).getInstance();
+    }
+
+    public void testOrderPerKey() throws Exception {
+        PartitionedDispatcherImpl dispatcher = newDispatcher(4, 16);
+        assertEquals(4, dispatcher.getNumPartitions());
+        for (int i = 0; i < 400; i++) {
+            dispatcher.invokeLater(new Task((long) (i % 7), i));
+        }
+        synchronized (this) {
+            while (count < 400) {
+                wait(5000);
+            }
+        }
+        assertEquals(7, executed.size());
+        for (Map.Entry<Long, List<Integer>> entry : executed.entrySet()) {
+            List<Integer> sequence = entry.getValue();
+            for (int i = 0; i < sequence.size(); i++) {
+                assertEquals(entry.getKey() + i * 7, (long) sequence.get(i));
+            }
+        }
+        dispatcher.shutdown();
+    }
+
+    public void testPartition() throws Exception {
+        assertEquals(0, PartitionedDispatcherImpl.getPartition(null, 8));
+        boolean[] used = new boolean[8];
+        for (long id = 1; id <= 64; id++) {
+            int partition = PartitionedDispatcherImpl.getPartition(id, 8);
+            assertTrue(0 <= partition && partition < 8);
+            assertEquals(partition, PartitionedDispatcherImpl.getPartition(new Long(id), 8));
+            used[partition] = true;
+        }
+        for (boolean partitionUsed : used) {
+            assertTrue(partitionUsed);
+        }
+    }
+
+    public void testBlockWhenFull() throws Exception {
+        final PartitionedDispatcherImpl dispatcher = newDispatcher(1, 2);
+        final Object lock = new Object();
+        synchronized (lock) {
+            dispatcher.invokeLater(new Runnable() {
+                public void run() {
+                    synchronized (lock) {
+                    }
+                }
+            });
+            Thread.sleep(100);
+            dispatcher.invokeLater(new Task(1L, 0));
+            dispatcher.invokeLater(new Task(1L, 1));
+            assertEquals(2, dispatcher.getQueueDepth(0));
+            Thread producer = new Thread() {
+                public void run() {
+                    dispatcher.invokeLater(new Task(1L, 2));
+                }
+            };
+            producer.start();
+            producer.join(200);
+            assertTrue(producer.isAlive());
+        }
+        synchronized (this) {
+            while (count < 3) {
+                wait(5000);
+            }
+        }
+        assertEquals("[0, 1, 2]", executed.get(1L).toString());
+        dispatcher.shutdown();
+    }
+
+    private class Task implements KeyedRunnable {
+        private final Long key;
+        private final int sequence;
+
+        Task(Long key, int sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public void run() {
+            if (0 == sequence % 3) {
+                Thread.yield();
+            }
+            synchronized (PartitionedDispatcherImplTest.this) {
+                List<Integer> sequence = executed.get(key);
+                if (null == sequence) {
+                    sequence = new ArrayList<Integer>();
+                    executed.put(key, sequence);
+                }
+                sequence.add(this.sequence);
+                count++;
+                PartitionedDispatcherImplTest.this.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.async;
+
+import junit.framework.TestCase;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public class VirtualThreadDispatcherImplTest extends TestCase {
+
+    public VirtualThreadDispatcherImplTest(String name) {
+        super(name);
+    }
+
+    private int running;
+    private int maxRunning;
+    private final List<String> executed = new ArrayList<String>();
+
+    private VirtualThreadDispatcherImpl newDispatcher(int maxConcurrency) {
+        Configuration conf = new ConfigurationBuilder()
+                .setDispatcherImpl("twitter4j.internal.async.VirtualThreadDispatcherImpl")
+                .setAsyncMaxConcurrency(maxConcurrency).build();
+        return (VirtualThreadDispatcherImpl) new DispatcherFactory(conf).getInstance();
+    }
+
+    public void testConcurrencyLimit() throws Exception {
+        VirtualThreadDispatcherImpl dispatcher = newDispatcher(3);
+        for (int i = 0; i < 30; i++) {
+            dispatcher.invokeLater(new Task("a", 20));
+        }
+        assertEquals(3, dispatcher.getRunningCount());
+        assertEquals(27, dispatcher.getPendingCount());
+        waitForCompletion(dispatcher);
+        assertEquals(30, executed.size());
+        assertEquals(3, maxRunning);
+        dispatcher.shutdown();
+    }
+
+    public void testRoundRobinAcrossKeys() throws Exception {
+        VirtualThreadDispatcherImpl dispatcher = newDispatcher(1);
+        Object lock = new Object();
+        synchronized (lock) {
+            dispatcher.invokeLater(new BlockingTask(lock));
+            for (int i = 0; i < 5; i++) {
+                dispatcher.invokeLater(new Task("a", 0));
+            }
+            dispatcher.invokeLater(new Task("b", 0));
+            dispatcher.invokeLater(new Task("c", 0));
+            dispatcher.invokeLater(new Task("b", 0));
+            assertEquals(8, dispatcher.getPendingCount());
+        }
+        waitForCompletion(dispatcher);
+        // keys take turns instead of b and c waiting behind all tasks for a
+        assertEquals("[a, b, c, a, b, a, a, a]", executed.toString());
+        dispatcher.shutdown();
+    }
+
+    public void testShutdownDiscardsPendingTasks() throws Exception {
+        VirtualThreadDispatcherImpl dispatcher = newDispatcher(1);
+        Object lock = new Object();
+        synchronized (lock) {
+            dispatcher.invokeLater(new BlockingTask(lock));
+            dispatcher.invokeLater(new Task("a", 0));
+            dispatcher.shutdown();
+            dispatcher.invokeLater(new Task("a", 0));
+            assertEquals(0, dispatcher.getPendingCount());
+        }
+        waitForCompletion(dispatcher);
+        assertEquals(0, executed.size());
+    }
+
+    private void waitForCompletion(VirtualThreadDispatcherImpl dispatcher) throws InterruptedException {
+        for (int i = 0; i < 200 && 0 != dispatcher.getRunningCount(); i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, dispatcher.getRunningCount());
+    }
+
+    class Task implements KeyedRunnable {
+        private final String key;
+        private final long sleep;
+
+        Task(String key, long sleep) {
+            this.key = key;
+            this.sleep = sleep;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public void run() {
+            synchronized (VirtualThreadDispatcherImplTest.this) {
+                running++;
+                maxRunning = Math.max(maxRunning, running);
+            }
+            try {
+                Thread.sleep(sleep);
+            } catch (InterruptedException ignore) {
+            }
+            synchronized (VirtualThreadDispatcherImplTest.this) {
+                running--;
+                executed.add(key);
+            }
+        }
+    }
+
+    class BlockingTask implements Runnable {
+        private final Object lock;
+
+        BlockingTask(Object lock) {
+            this.lock = lock;
+        }
+
+        public void run() {
+            synchronized (lock) {
+                // released when the test thread leaves the monitor
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class HttpConnectionPoolTest extends TestCase {
+    private ServerSocket serverSocket;
+
+    public HttpConnectionPoolTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        serverSocket = new ServerSocket(0);
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        serverSocket.close();
+    }
+
+    public void testMaxPerRoute() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(10, 2, 30000);
+        assertNull(pool.lease("http://a:80", 100));
+        assertNull(pool.lease("http://a:80", 100));
+        assertEquals(2, pool.getLeasedCount("http://a:80"));
+        try {
+            pool.lease("http://a:80", 100);
+            fail("expecting SocketTimeoutException");
+        } catch (SocketTimeoutException expected) {
+        }
+        // another route is not affected
+        assertNull(pool.lease("http://b:80", 100));
+        pool.cancel("http://a:80");
+        assertNull(pool.lease("http://a:80", 100));
+        assertEquals(3, pool.getLeasedCount());
+    }
+
+    public void testMaxTotal() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(2, 2, 30000);
+        assertNull(pool.lease("http://a:80", 100));
+        assertNull(pool.lease("http://b:80", 100));
+        try {
+            pool.lease("http://c:80", 100);
+            fail("expecting SocketTimeoutException");
+        } catch (SocketTimeoutException expected) {
+        }
+    }
+
+    public void testReuse() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(2, 2, 30000);
+        String route = "http://localhost:" + serverSocket.getLocalPort();
+        assertNull(pool.lease(route, 100));
+        HttpConnectionPool.PooledConnection con = connect(route);
+        pool.attach(con);
+        pool.release(con, true);
+        assertEquals(0, pool.getLeasedCount());
+        assertEquals(1, pool.getAvailableCount(route));
+        assertTrue(con.reused);
+
+        HttpConnectionPool.PooledConnection reused = pool.lease(route, 100);
+        assertSame(con, reused);
+        assertFalse(reused.isStale());
+        pool.release(reused, false);
+        assertEquals(0, pool.getAvailableCount());
+        assertFalse(con.isOpen());
+    }
+
+    public void testEvictIdleConnectionOfOtherRoute() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(1, 1, 30000);
+        String route = "http://localhost:" + serverSocket.getLocalPort();
+        assertNull(pool.lease(route, 100));
+        HttpConnectionPool.PooledConnection con = connect(route);
+        pool.release(con, true);
+        assertEquals(1, pool.getAvailableCount());
+        assertNull(pool.lease("http://b:80", 100));
+        assertEquals(0, pool.getAvailableCount());
+        assertFalse(con.isOpen());
+    }
+
+    public void testShutdown() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(2, 2, 30000);
+        pool.shutdown();
+        try {
+            pool.lease("http://a:80", 100);
+            fail("expecting IOException");
+        } catch (IOException expected) {
+        }
+    }
+
+    private HttpConnectionPool.PooledConnection connect(String route) throws IOException {
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress("localhost", serverSocket.getLocalPort()), 1000);
+        return new HttpConnectionPool.PooledConnection(route, socket, 1000);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class HttpMultipartBodyTest extends TestCase {
+    private File file;
+
+    public HttpMultipartBodyTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        file = File.createTempFile("t4j", ".png");
+        FileOutputStream out = new FileOutputStream(file);
+        byte[] content = new byte[200 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        out.write(content);
+        out.close();
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        file.delete();
+    }
+
+    public void testFile() throws Exception {
+        HttpMultipartBody body = new HttpMultipartBody("boundary", new HttpParameter[]{
+                new HttpParameter("status", "\u3042"), new HttpParameter("image", file)});
+        assertEquals("multipart/form-data; boundary=boundary", body.getContentType());
+        assertTrue(body.isRepeatable());
+        byte[] written = body.toByteArray();
+        assertEquals(written.length, body.getContentLength());
+        String header = "--boundary\r\n"
+                + "Content-Disposition: form-data; name=\"status\"\r\n"
+                + "Content-Type: text/plain; charset=UTF-8\r\n\r\n"
+                + "\u3042\r\n"
+                + "--boundary\r\n"
+                + "Content-Disposition: form-data; name=\"image\"; filename=\"" + file.getName() + "\"\r\n"
+                + "Content-Type: image/png\r\n\r\n";
+        byte[] expectedHeader = header.getBytes("UTF-8");
+        for (int i = 0; i < expectedHeader.length; i++) {
+            assertEquals(expectedHeader[i], written[i]);
+        }
+        for (int i = 0; i < file.length(); i++) {
+            assertEquals((byte) i, written[expectedHeader.length + i]);
+        }
+        assertEquals("\r\n--boundary--\r\n\r\n", new String(written, expectedHeader.length + (int) file.length()
+                , written.length - expectedHeader.length - (int) file.length(), "ISO-8859-1"));
+        // can be written again
+        assertEquals(written.length, body.toByteArray().length);
+    }
+
+    public void testStream() throws Exception {
+        HttpMultipartBody body = new HttpMultipartBody("boundary", new HttpParameter[]{
+                new HttpParameter("image", "image.png", new FileInputStream(file))});
+        assertFalse(body.isRepeatable());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        assertEquals(out.size(), body.getContentLength());
+
+        body = new HttpMultipartBody("boundary", new HttpParameter[]{
+                new HttpParameter("image", "image.png", new ByteArrayInputStream(new byte[100]))});
+        assertEquals(body.toByteArray().length, body.getContentLength());
+
+        InputStream unknownLength = new InputStream() {
+            int count = 0;
+
+            public int read() {
+                return count++ < 100 ? 0 : -1;
+            }
+        };
+        body = new HttpMultipartBody("boundary", new HttpParameter[]{
+                new HttpParameter("image", "image.png", unknownLength)});
+        assertEquals(-1, body.getContentLength());
+        assertEquals(new HttpMultipartBody("boundary", new HttpParameter[]{
+                new HttpParameter("image", "image.png", new ByteArrayInputStream(new byte[100]))})
+                .getContentLength(), body.toByteArray().length);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class HttpResponseParserTest extends TestCase {
+
+    public HttpResponseParserTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    public void testContentLength() throws Exception {
+        HttpResponseParser parser = new HttpResponseParser(false);
+        assertFalse(parser.parse(toBuffer("HTTP/1.1 200 OK\r\nContent-Length: 5\r\nX-RateLimit-Limit: 350\r\n\r\nhel")));
+        assertTrue(parser.isStarted());
+        assertTrue(parser.parse(toBuffer("lo")));
+        assertEquals(200, parser.getStatusCode());
+        assertEquals("HTTP/1.1 200 OK", parser.getStatusLine());
+        assertEquals("350", HttpRequestEncoder.getHeader(parser.getHeaderFields(), "x-ratelimit-limit"));
+        assertEquals("hello", new String(parser.getBody(), "UTF-8"));
+        assertFalse(parser.isReadUntilClose());
+    }
+
+    public void testChunked() throws Exception {
+        HttpResponseParser parser = new HttpResponseParser(false);
+        String response = "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n5;ext=1\r\nhello\r\n6\r\n world\r\n0\r\nX-Trailer: 1\r\n\r\n";
+        // feed byte by byte
+        for (int i = 0; i < response.length() - 1; i++) {
+            assertFalse(parser.parse(toBuffer(response.substring(i, i + 1))));
+        }
+        assertTrue(parser.parse(toBuffer(response.substring(response.length() - 1))));
+        assertEquals("hello world", new String(parser.getBody(), "UTF-8"));
+    }
+
+    public void testReadUntilClose() throws Exception {
+        HttpResponseParser parser = new HttpResponseParser(false);
+        assertFalse(parser.parse(toBuffer("HTTP/1.0 200 OK\r\n\r\nhello")));
+        assertTrue(parser.endOfStream());
+        assertTrue(parser.isReadUntilClose());
+        assertEquals("hello", new String(parser.getBody(), "UTF-8"));
+    }
+
+    public void testNoBody() throws Exception {
+        HttpResponseParser parser = new HttpResponseParser(true);
+        assertTrue(parser.parse(toBuffer("HTTP/1.1 200 OK\r\nContent-Length: 5\r\n\r\n")));
+        assertEquals(0, parser.getBody().length);
+
+        parser = new HttpResponseParser(false);
+        assertTrue(parser.parse(toBuffer("HTTP/1.1 304 Not Modified\r\n\r\n")));
+
+        parser = new HttpResponseParser(false);
+        assertFalse(parser.parse(toBuffer("HTTP/1.1 100 Continue\r\n\r\n")));
+        assertTrue(parser.parse(toBuffer("HTTP/1.1 204 No Content\r\n\r\n")));
+        assertEquals(204, parser.getStatusCode());
+    }
+
+    public void testPrematureEnd() throws Exception {
+        HttpResponseParser parser = new HttpResponseParser(false);
+        assertFalse(parser.endOfStream());
+        assertFalse(parser.isStarted());
+        assertFalse(parser.parse(toBuffer("HTTP/1.1 200 OK\r\nContent-Length: 5\r\n\r\nhel")));
+        assertFalse(parser.endOfStream());
+    }
+
+    private static ByteBuffer toBuffer(String str) throws Exception {
+        return ByteBuffer.wrap(str.getBytes("ISO-8859-1"));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import junit.framework.TestCase;
+import twitter4j.TwitterException;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class PooledHttpClientImplTest extends TestCase {
+    private ServerSocket serverSocket;
+    private PooledHttpClientImpl client;
+    // what the server does on each request: "ok" responds, "close" closes the connection, "hang" never responds
+    private final List<String> actions = Collections.synchronizedList(new ArrayList<String>());
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+
+    public PooledHttpClientImplTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        serverSocket = new ServerSocket(0);
+        Thread acceptor = new Thread() {
+            public void run() {
+                try {
+                    while (true) {
+                        final Socket socket = serverSocket.accept();
+                        new Thread() {
+                            public void run() {
+                                serve(socket);
+                            }
+                        }.start();
+                    }
+                } catch (IOException closed) {
+                }
+            }
+        };
+        acceptor.setDaemon(true);
+        acceptor.start();
+        client = new PooledHttpClientImpl(new ConfigurationBuilder().setHttpReadTimeout(500)
+                .setHttpRetryCount(0).build());
+    }
+
+    protected void tearDown() throws Exception {
+        client.shutdown();
+        serverSocket.close();
+        super.tearDown();
+    }
+
+    public void testStaleConnectionIsResent() throws Exception {
+        actions.addAll(Arrays.asList("ok", "close", "ok"));
+        assertEquals("ok", client.get(url()).asString().trim());
+        // the server closed the idle connection. the request is re-sent over a new connection
+        assertEquals("ok", client.get(url()).asString().trim());
+        assertEquals(Arrays.asList("GET", "GET", "GET"), requests);
+    }
+
+    public void testPostIsNotResent() throws Exception {
+        actions.addAll(Arrays.asList("ok", "close", "ok"));
+        assertEquals("ok", client.get(url()).asString().trim());
+        try {
+            client.post(url(), new HttpParameter[]{new HttpParameter("status", "hello")});
+            fail("expecting TwitterException");
+        } catch (TwitterException expected) {
+        }
+        assertEquals(Arrays.asList("GET", "POST"), requests);
+    }
+
+    public void testReadTimeoutIsNotResent() throws Exception {
+        actions.addAll(Arrays.asList("ok", "hang", "ok"));
+        assertEquals("ok", client.get(url()).asString().trim());
+        try {
+            client.get(url());
+            fail("expecting TwitterException");
+        } catch (TwitterException expected) {
+        }
+        assertEquals(Arrays.asList("GET", "GET"), requests);
+    }
+
+    public void testReleaseAfterShutdown() throws Exception {
+        actions.add("ok");
+        HttpResponse res = client.get(url());
+        assertEquals(1, client.getPool().getLeasedCount());
+        client.shutdown();
+        // the connection goes back to the pool it was leased from, not to a fresh one
+        res.disconnect();
+        assertEquals(0, client.getPool().getLeasedCount());
+        assertEquals(0, client.getPool().getAvailableCount());
+    }
+
+    private String url() {
+        return "http://localhost:" + serverSocket.getLocalPort() + "/";
+    }
+
+    private void serve(Socket socket) {
+        try {
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream();
+            String requestLine;
+            while (null != (requestLine = readLine(in))) {
+                int contentLength = 0;
+                String line;
+                while (null != (line = readLine(in)) && line.length() > 0) {
+                    if (line.toLowerCase().startsWith("content-length:")) {
+                        contentLength = Integer.parseInt(line.substring(15).trim());
+                    }
+                }
+                for (int i = 0; i < contentLength; i++) {
+                    in.read();
+                }
+                requests.add(requestLine.substring(0, requestLine.indexOf(' ')));
+                String action = actions.isEmpty() ? "close" : actions.remove(0);
+                if ("ok".equals(action)) {
+                    out.write("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nok".getBytes("ISO-8859-1"));
+                    out.flush();
+                } else if ("hang".equals(action)) {
+                    Thread.sleep(2000);
+                    break;
+                } else {
+                    break;
+                }
+            }
+        } catch (Exception ignore) {
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuffer buf = new StringBuffer();
+        int c;
+        while (-1 != (c = in.read())) {
+            if ('\n' == c) {
+                return buf.toString().trim();
+            }
+            buf.append((char) c);
+        }
+        return 0 == buf.length() ? null : buf.toString();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.http;
+
+import junit.framework.TestCase;
+import twitter4j.TwitterException;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class RetryPolicyTest extends TestCase {
+
+    public RetryPolicyTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    private HttpClientConfiguration conf = new ConfigurationBuilder()
+            .setHttpRetryCount(3).setHttpRetryIntervalSeconds(2).build();
+
+    private HttpRequest req = new HttpRequest(RequestMethod.GET
+            , "http://api.twitter.com/1/statuses/show/12345.json?include_entities=true", null, null, null);
+
+    public void testFixedInterval() throws Exception {
+        RetryPolicy policy = new FixedIntervalRetryPolicy(conf);
+        assertEquals(2000, policy.getRetryDelay(req, 0, new MockResponse(503), null));
+        assertEquals(2000, policy.getRetryDelay(req, 2, null, new IOException()));
+        assertEquals(-1, policy.getRetryDelay(req, 3, new MockResponse(503), null));
+        assertEquals(-1, policy.getRetryDelay(req, 0, new MockResponse(404), null));
+        assertEquals(-1, policy.getRetryDelay(req, 0, new MockResponse(420), null));
+    }
+
+    public void testEndpoint() throws Exception {
+        assertEquals("http://api.twitter.com/1/statuses/show/:id.json"
+                , ExponentialBackoffRetryPolicy.getEndpoint(req));
+        assertEquals("http://api.twitter.com/1/statuses/:id/retweeted_by.json"
+                , ExponentialBackoffRetryPolicy.getEndpoint(new HttpRequest(RequestMethod.GET
+                , "http://api.twitter.com/1/statuses/123/retweeted_by.json", null, null, null)));
+        assertEquals("http://api.twitter.com/1/users/show/abc123.json"
+                , ExponentialBackoffRetryPolicy.getEndpoint(new HttpRequest(RequestMethod.GET
+                , "http://api.twitter.com/1/users/show/abc123.json", null, null, null)));
+    }
+
+    public void testExponentialBackoff() throws Exception {
+        ExponentialBackoffRetryPolicy policy = new ExponentialBackoffRetryPolicy(conf, 60 * 1000, 100, 1000, 1, 10);
+        for (int i = 0; i < 3; i++) {
+            long delay = policy.getRetryDelay(req, i, new MockResponse(502), null);
+            long expected = 2000L << i;
+            assertTrue(delay >= expected / 2);
+            assertTrue(delay <= expected);
+        }
+        assertEquals(-1, policy.getRetryDelay(req, 3, new MockResponse(502), null));
+        assertEquals(-1, policy.getRetryDelay(req, 0, new MockResponse(404), null));
+        assertTrue(policy.getBackoff(20) <= 60 * 1000);
+    }
+
+    public void testRetryAfter() throws Exception {
+        RetryPolicy policy = new ExponentialBackoffRetryPolicy(conf);
+        MockResponse res = new MockResponse(503);
+        res.headers.put("Retry-After", "7");
+        assertEquals(7000, policy.getRetryDelay(req, 0, res, null));
+
+        res = new MockResponse(400);
+        res.headers.put("X-RateLimit-Remaining", "0");
+        res.headers.put("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + 60));
+        long delay = policy.getRetryDelay(req, 0, res, null);
+        assertTrue(delay > 55 * 1000);
+        assertTrue(delay <= 60 * 1000);
+
+        // longer than the maximum delay
+        res = new MockResponse(503);
+        res.headers.put("Retry-After", "3600");
+        assertEquals(-1, policy.getRetryDelay(req, 0, res, null));
+
+        res = new MockResponse(503);
+        res.headers.put("Retry-After", "Fri, 31 Dec 1999 23:59:59 GMT");
+        assertEquals(0, policy.getRetryDelay(req, 0, res, null));
+    }
+
+    public void testRetryBudget() throws Exception {
+        RetryPolicy policy = new ExponentialBackoffRetryPolicy(conf, 60 * 1000, 100, 1000, 0.5, 2);
+        policy.beforeRequest(req, 0);
+        assertTrue(-1 != policy.getRetryDelay(req, 0, new MockResponse(500), null));
+        assertTrue(-1 != policy.getRetryDelay(req, 1, new MockResponse(500), null));
+        // budget exhausted
+        assertEquals(-1, policy.getRetryDelay(req, 2, new MockResponse(500), null));
+        policy.beforeRequest(req, 0);
+        assertEquals(-1, policy.getRetryDelay(req, 0, new MockResponse(500), null));
+        policy.beforeRequest(req, 0);
+        assertTrue(-1 != policy.getRetryDelay(req, 0, new MockResponse(500), null));
+    }
+
+    public void testCircuitBreaker() throws Exception {
+        RetryPolicy policy = new ExponentialBackoffRetryPolicy(conf, 60 * 1000, 2, 200, 1, 10);
+        HttpRequest other = new HttpRequest(RequestMethod.GET, "http://api.twitter.com/1/help/test.json"
+                , null, null, null);
+        policy.beforeRequest(req, 0);
+        assertTrue(-1 != policy.getRetryDelay(req, 0, new MockResponse(500), null));
+        policy.beforeRequest(req, 1);
+        assertEquals(-1, policy.getRetryDelay(req, 1, null, new IOException()));
+        try {
+            policy.beforeRequest(req, 0);
+            fail("circuit should be open");
+        } catch (TwitterException expected) {
+            assertEquals(503, expected.getStatusCode());
+        }
+        // other endpoints are not affected
+        policy.beforeRequest(other, 0);
+        Thread.sleep(300);
+        policy.beforeRequest(req, 0);
+        policy.succeeded(req, new MockResponse(200));
+        policy.beforeRequest(req, 0);
+    }
+
+    public void testFactory() throws Exception {
+        assertTrue(RetryPolicyFactory.getInstance(conf) instanceof FixedIntervalRetryPolicy);
+        HttpClientConfiguration exponential = new ConfigurationBuilder()
+                .setHttpRetryPolicyImpl("twitter4j.internal.http.ExponentialBackoffRetryPolicy").build();
+        RetryPolicy policy = RetryPolicyFactory.getInstance(exponential);
+        assertTrue(policy instanceof ExponentialBackoffRetryPolicy);
+        assertSame(policy, RetryPolicyFactory.getInstance(exponential));
+    }
+
+    public void testDeferral() throws Exception {
+        assertFalse(RetryDeferral.isActive());
+        RetryDeferral.begin(2);
+        try {
+            assertTrue(RetryDeferral.isActive());
+            assertEquals(2, RetryDeferral.takeRetriedCount());
+            assertEquals(0, RetryDeferral.takeRetriedCount());
+            try {
+                RetryDeferral.waitForRetry(1000, 3);
+                fail("should be deferred");
+            } catch (DeferredRetryException expected) {
+                assertEquals(1000, expected.getDelay());
+                assertEquals(3, expected.getRetriedCount());
+            }
+        } finally {
+            RetryDeferral.end();
+        }
+        assertFalse(RetryDeferral.isActive());
+    }
+
+    private static final class MockResponse extends HttpResponse {
+        final Map<String, String> headers = new HashMap<String, String>();
+
+        MockResponse(int statusCode) {
+            this.statusCode = statusCode;
+        }
+
+        public String getResponseHeader(String name) {
+            return headers.get(name);
+        }
+
+        public Map<String, List<String>> getResponseHeaderFields() {
+            return null;
+        }
+
+        public void disconnect() throws IOException {
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.internal.json;
+
+import junit.framework.TestCase;
+import twitter4j.internal.org.json.JSONException;
+import twitter4j.internal.org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public class JSONPullParserTest extends TestCase {
+
+    public JSONPullParserTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    public void testTokens() throws Exception {
+        JSONPullParser parser = parser("{\"id\":1234567890123456789,\"text\":\"hello\",\"truncated\":false,"
+                + "\"favorited\":true,\"geo\":null,\"ratio\":-1.5e2,\"indices\":[0, 5],\"user\":{}}");
+        assertEquals(JSONPullParser.START_OBJECT, parser.next());
+        assertEquals(JSONPullParser.FIELD_NAME, parser.next());
+        assertEquals("id", parser.getCurrentName());
+        assertEquals(JSONPullParser.VALUE_NUMBER, parser.next());
+        assertEquals(1234567890123456789L, parser.getLongValue());
+        assertEquals("id", parser.getCurrentName());
+        assertEquals(JSONPullParser.FIELD_NAME, parser.next());
+        assertEquals(JSONPullParser.VALUE_STRING, parser.next());
+        assertEquals("hello", parser.getText());
+        parser.next();
+        assertEquals(JSONPullParser.VALUE_FALSE, parser.next());
+        parser.next();
+        assertEquals(JSONPullParser.VALUE_TRUE, parser.next());
+        parser.next();
+        assertEquals(JSONPullParser.VALUE_NULL, parser.next());
+        parser.next();
+        assertEquals(JSONPullParser.VALUE_NUMBER, parser.next());
+        assertEquals(-150d, parser.getDoubleValue());
+        assertEquals(-150, parser.getLongValue());
+        parser.next();
+        assertEquals(JSONPullParser.START_ARRAY, parser.next());
+        assertEquals(JSONPullParser.VALUE_NUMBER, parser.next());
+        assertEquals(0, parser.getIntValue());
+        assertEquals(JSONPullParser.VALUE_NUMBER, parser.next());
+        assertEquals(5, parser.getIntValue());
+        assertEquals(JSONPullParser.END_ARRAY, parser.next());
+        assertEquals(JSONPullParser.FIELD_NAME, parser.next());
+        assertEquals(JSONPullParser.START_OBJECT, parser.next());
+        assertEquals(JSONPullParser.END_OBJECT, parser.next());
+        assertEquals(JSONPullParser.END_OBJECT, parser.next());
+        assertEquals(JSONPullParser.END_DOCUMENT, parser.next());
+        assertEquals(JSONPullParser.END_DOCUMENT, parser.next());
+    }
+
+    public void testStrings() throws Exception {
+        // a, e-acute, hiragana a, U+1F600 and escapes
+        String json = "[\"a\u00e9\u3042\ud83d\ude00\",\"\\\"\\\\\\/\\b\\f\\n\\r\\t\\u3042\\u00E9\"]";
+        JSONPullParser parser = parser(json);
+        assertEquals(JSONPullParser.START_ARRAY, parser.next());
+        assertEquals(JSONPullParser.VALUE_STRING, parser.next());
+        assertEquals("a\u00e9\u3042\ud83d\ude00", parser.getText());
+        assertEquals(JSONPullParser.VALUE_STRING, parser.next());
+        assertEquals("\"\\/\b\f\n\r\t\u3042\u00e9", parser.getText());
+        assertEquals(JSONPullParser.END_ARRAY, parser.next());
+    }
+
+    public void testBufferBoundaries() throws Exception {
+        StringBuffer buf = new StringBuffer("[");
+        for (int i = 0; i < 2000; i++) {
+            if (i > 0) {
+                buf.append(',');
+            }
+            buf.append("{\"text\":\"\u3042\u3044\u3046 ").append(i).append("\",\"id\":").append(i).append('}');
+        }
+        buf.append(']');
+        // deliver the stream one byte at a time
+        final byte[] bytes = buf.toString().getBytes("UTF-8");
+        InputStream in = new ByteArrayInputStream(bytes) {
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+        JSONPullParser parser = new JSONPullParser(in);
+        assertEquals(JSONPullParser.START_ARRAY, parser.next());
+        int count = 0;
+        while (JSONPullParser.START_OBJECT == parser.next()) {
+            parser.next();
+            parser.next();
+            assertEquals("\u3042\u3044\u3046 " + count, parser.getText());
+            parser.next();
+            parser.next();
+            assertEquals(count, parser.getLongValue());
+            assertEquals(JSONPullParser.END_OBJECT, parser.next());
+            count++;
+        }
+        assertEquals(2000, count);
+        assertEquals(JSONPullParser.END_DOCUMENT, parser.next());
+    }
+
+    public void testSkipChildren() throws Exception {
+        JSONPullParser parser = parser("{\"skipped\":{\"a\":[1,{\"b\":\"]}\\\"\"}],\"c\":{}},\"id\":1}");
+        parser.next();
+        parser.next();
+        assertEquals(JSONPullParser.START_OBJECT, parser.next());
+        parser.skipChildren();
+        assertEquals(JSONPullParser.END_OBJECT, parser.getToken());
+        assertEquals(JSONPullParser.FIELD_NAME, parser.next());
+        assertEquals("id", parser.getCurrentName());
+        parser.next();
+        assertEquals(1, parser.getIntValue());
+        assertEquals(JSONPullParser.END_OBJECT, parser.next());
+    }
+
+    public void testReadJSONObject() throws Exception {
+        JSONPullParser parser = parser("{\"place\":{\"name\":\"Tokyo\",\"count\":3,\"box\":[[1.5,2]],\"x\":null},\"id\":2}");
+        parser.next();
+        parser.next();
+        parser.next();
+        JSONObject place = parser.readJSONObject();
+        assertEquals("Tokyo", place.getString("name"));
+        assertEquals(3, place.getInt("count"));
+        assertEquals(1.5, place.getJSONArray("box").getJSONArray(0).getDouble(0));
+        assertTrue(place.isNull("x"));
+        assertEquals(JSONPullParser.FIELD_NAME, parser.next());
+        assertEquals("id", parser.getCurrentName());
+    }
+
+    public void testMultipleDocuments() throws Exception {
+        JSONPullParser parser = parser("{\"id\":1}\r\n{\"id\":2}\r\n");
+        assertEquals(JSONPullParser.START_OBJECT, parser.next());
+        parser.skipChildren();
+        assertEquals(JSONPullParser.START_OBJECT, parser.next());
+        parser.next();
+        parser.next();
+        assertEquals(2, parser.getIntValue());
+        assertEquals(JSONPullParser.END_OBJECT, parser.next());
+        assertEquals(JSONPullParser.END_DOCUMENT, parser.next());
+    }
+
+    public void testReset() throws Exception {
+        byte[] bytes = "xx[1]".getBytes("UTF-8");
+        JSONPullParser parser = parser("{\"id\":1}");
+        parser.next();
+        parser.reset(bytes, 2, 3);
+        assertEquals(JSONPullParser.START_ARRAY, parser.next());
+        assertEquals(JSONPullParser.VALUE_NUMBER, parser.next());
+        assertEquals(JSONPullParser.END_ARRAY, parser.next());
+        assertEquals(JSONPullParser.END_DOCUMENT, parser.next());
+    }
+
+    public void testMalformed() throws Exception {
+        String[] malformed = {"{\"id\" 1}", "{\"id\":1,}", "[1 2]", "{\"id\":tru}", "[\"unterminated", "{\"id\":1"
+                , "[1,]", "{1:2}", "[\"\\x\"]"};
+        for (int i = 0; i < malformed.length; i++) {
+            JSONPullParser parser = parser(malformed[i]);
+            try {
+                while (JSONPullParser.END_DOCUMENT != parser.next()) {
+                }
+                fail("should fail: " + malformed[i]);
+            } catch (JSONException expected) {
+            }
+        }
+    }
+
+    public void testIOException() throws Exception {
+        JSONPullParser parser = new JSONPullParser(new InputStream() {
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        });
+        try {
+            parser.next();
+            fail("should fail");
+        } catch (JSONException expected) {
+            assertTrue(expected.getCause() instanceof IOException);
+        }
+    }
+
+    private static JSONPullParser parser(String json) throws Exception {
+        byte[] bytes = json.getBytes("UTF-8");
+        return new JSONPullParser(bytes, 0, bytes.length);
+    }
+}
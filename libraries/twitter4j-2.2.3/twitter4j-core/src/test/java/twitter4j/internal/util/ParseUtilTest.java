@@ -17,6 +17,14 @@
 package twitter4j.internal.util;
 
 import junit.framework.TestCase;
+import twitter4j.internal.json.JSONPullParser;
+import twitter4j.internal.org.json.JSONObject;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
 
 /**
  * @author Yusuke Yamamoto - yusuke at mac.com
@@ -42,4 +50,115 @@ public class ParseUtilTest extends TestCase {
     public void testParseIntOverflow() {
         assertEquals(-1, ParseUtil.getInt("4294967295"));
     }
+
+    public void testJSONObjectAccessors() throws Exception {
+        JSONObject json = new JSONObject("{\"int\":123,\"long\":133811048014868480,\"double\":-1.5"
+                + ",\"intString\":\"456\",\"plus\":\"100+\",\"overflow\":4294967295,\"null\":null"
+                + ",\"true\":true,\"trueString\":\"TRUE\",\"false\":false,\"text\":\"abc\",\"empty\":\"\"}");
+        assertEquals(123, ParseUtil.getInt("int", json));
+        assertEquals(456, ParseUtil.getInt("intString", json));
+        assertEquals(-1, ParseUtil.getInt("plus", json));
+        assertEquals(-1, ParseUtil.getInt("overflow", json));
+        assertEquals(-1, ParseUtil.getInt("null", json));
+        assertEquals(-1, ParseUtil.getInt("missing", json));
+        assertEquals(-1, ParseUtil.getInt("text", json));
+        assertEquals(-1, ParseUtil.getInt("empty", json));
+
+        assertEquals(133811048014868480L, ParseUtil.getLong("long", json));
+        assertEquals(123, ParseUtil.getLong("int", json));
+        assertEquals(456, ParseUtil.getLong("intString", json));
+        assertEquals(101, ParseUtil.getLong("plus", json));
+        assertEquals(-1, ParseUtil.getLong("null", json));
+        assertEquals(-1, ParseUtil.getLong("missing", json));
+        assertEquals(-1, ParseUtil.getLong("empty", json));
+
+        assertEquals(-1.5, ParseUtil.getDouble("double", json));
+        assertEquals(123d, ParseUtil.getDouble("int", json));
+        assertEquals(-1d, ParseUtil.getDouble("null", json));
+        assertEquals(-1d, ParseUtil.getDouble("missing", json));
+
+        assertTrue(ParseUtil.getBoolean("true", json));
+        assertTrue(ParseUtil.getBoolean("trueString", json));
+        assertFalse(ParseUtil.getBoolean("false", json));
+        assertFalse(ParseUtil.getBoolean("null", json));
+        assertFalse(ParseUtil.getBoolean("missing", json));
+        assertFalse(ParseUtil.getBoolean("text", json));
+
+        assertEquals("abc", ParseUtil.getRawString("text", json));
+        assertEquals("123", ParseUtil.getRawString("int", json));
+        assertNull(ParseUtil.getRawString("null", json));
+        assertNull(ParseUtil.getRawString("missing", json));
+    }
+
+    public void testInternedString() throws Exception {
+        String json = "{\"lang\":\"en\",\"source\":\"\\u003Ca href=\\\"http:\\/\\/twitter4j.org\\\"\\u003ET4J &amp; co\\u003C\\/a\\u003E\"}";
+        String[] langs = new String[2];
+        String[] sources = new String[2];
+        for (int i = 0; i < 2; i++) {
+            byte[] bytes = json.getBytes("UTF-8");
+            JSONPullParser parser = new JSONPullParser(bytes, 0, bytes.length);
+            parser.next();
+            parser.next();
+            parser.next();
+            langs[i] = ParseUtil.getInternedString(parser);
+            parser.next();
+            parser.next();
+            sources[i] = ParseUtil.getInternedUnescapedString(parser);
+        }
+        assertEquals("en", langs[0]);
+        assertSame(langs[0], langs[1]);
+        assertEquals("<a href=\"http://twitter4j.org\">T4J & co</a>", sources[0]);
+        assertSame(sources[0], sources[1]);
+        JSONObject tree = new JSONObject(json);
+        assertSame(langs[0], ParseUtil.getInternedString("lang", tree));
+        assertSame(sources[0], ParseUtil.getInternedUnescapedString("source", tree));
+        assertNull(ParseUtil.getInternedString("missing", tree));
+    }
+
+    public void testStringPool() {
+        StringPool pool = new StringPool(2);
+        String a = pool.intern("a");
+        assertSame(a, pool.intern(new String("a")));
+        assertSame(a, pool.intern(new char[]{'x', 'a'}, 1, 1));
+        assertNull(pool.intern(null));
+        // colliding values replace each other, and the pool stays bounded
+        for (int i = 0; i < 100; i++) {
+            assertEquals(String.valueOf(i), pool.intern(String.valueOf(i)));
+        }
+    }
+
+    public void testFastDateParser() throws Exception {
+        SimpleDateFormat rest = new SimpleDateFormat("EEE MMM dd HH:mm:ss Z yyyy", Locale.ENGLISH);
+        SimpleDateFormat search = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss Z", Locale.ENGLISH);
+        Random random = new Random(1);
+        String[] zones = {"GMT", "America/New_York", "Asia/Tokyo", "Asia/Kolkata"};
+        for (int i = 0; i < 2000; i++) {
+            long millis = (random.nextLong() & 0x7fffffffffffL) / 1000 * 1000;
+            TimeZone zone = TimeZone.getTimeZone(zones[i % zones.length]);
+            rest.setTimeZone(zone);
+            search.setTimeZone(zone);
+            String restStr = rest.format(new Date(millis));
+            String searchStr = search.format(new Date(millis));
+            assertEquals(restStr, millis, TwitterDateParser.parseUncached(restStr));
+            assertEquals(searchStr, millis, TwitterDateParser.parseUncached(searchStr));
+        }
+        assertEquals(1320737698000L, TwitterDateParser.parse("Tue Nov 08 07:34:58 +0000 2011"));
+        assertEquals(1320737698000L, TwitterDateParser.parse("Tue Nov 08 07:34:58 +0000 2011"));
+        assertEquals(1320737698000L, TwitterDateParser.parse("Tue Nov 8 07:34:58 GMT 2011"));
+        assertEquals(1320737698000L, TwitterDateParser.parse("Tue, 08 Nov 2011 07:34:58 +0000"));
+        assertEquals(1320737698000L, TwitterDateParser.parse("Tue, 8 Nov 2011 16:34:58 +0900"));
+        assertEquals(1330473600000L, TwitterDateParser.parse("Wed Feb 29 00:00:00 +0000 2012"));
+        assertEquals(TwitterDateParser.UNPARSEABLE, TwitterDateParser.parse("2011-11-08T07:34:58Z"));
+        assertEquals(TwitterDateParser.UNPARSEABLE, TwitterDateParser.parse("Tue Nox 08 07:34:58 +0000 2011"));
+        assertEquals(TwitterDateParser.UNPARSEABLE, TwitterDateParser.parse("Tue Nov 08 07:34:58 JST 2011"));
+
+        assertEquals(new Date(1320737698000L), ParseUtil.getDate("Tue Nov 08 07:34:58 +0000 2011", "EEE MMM d HH:mm:ss z yyyy"));
+        // formats the fast parser does not know fall back to SimpleDateFormat
+        assertEquals(new Date(1320710400000L), ParseUtil.getDate("2011-11-08", "yyyy-MM-dd"));
+        try {
+            ParseUtil.getDate("Tue Nox 08 07:34:58 +0000 2011", "EEE MMM d HH:mm:ss z yyyy");
+            fail("expecting TwitterException");
+        } catch (twitter4j.TwitterException expected) {
+        }
+    }
 }
@@ -17,19 +17,25 @@
 package twitter4j;
 
 import twitter4j.conf.Configuration;
+import twitter4j.internal.async.DiscardableRunnable;
 import twitter4j.internal.async.Dispatcher;
+import twitter4j.internal.async.KeyedRunnable;
+import twitter4j.internal.async.PartitionedDispatcherImpl;
 import twitter4j.internal.http.HttpResponse;
 import twitter4j.internal.json.DataObjectFactoryUtil;
+import twitter4j.internal.json.JSONPullParser;
 import twitter4j.internal.logging.Logger;
 import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 import twitter4j.json.JSONObjectType;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.Map;
 
 /**
  * @author Yusuke Yamamoto - yusuke at mac.com
@@ -39,19 +45,90 @@ abstract class AbstractStreamImplementation {
     protected static final Logger logger = Logger.getLogger(StatusStreamImpl.class);
 
     private boolean streamAlive = true;
-    private BufferedReader br;
+    private StreamFramer framer;
+    private final StreamBuffer buffer;
+    // events of the same user go to the same lane of the dispatcher, bypassing the buffer
+    private final boolean partitioned;
+    private static final int ELEMENTS_PER_RUN = 100;
+
+    // handlers of the element types other than status, looked up once per element
+    private static final int SENDER = 1;
+    private static final int DIRECT_MESSAGE = 2;
+    private static final int DELETE = 3;
+    private static final int LIMIT = 4;
+    private static final int SCRUB_GEO = 5;
+    private static final int FRIENDS = 6;
+    private static final int FAVORITE = 7;
+    private static final int UNFAVORITE = 8;
+    private static final int RETWEET = 9;
+    private static final int FOLLOW = 10;
+    private static final int UNFOLLOW = 11;
+    private static final int USER_LIST_MEMBER_ADDED = 12;
+    private static final int USER_LIST_MEMBER_DELETED = 13;
+    private static final int USER_LIST_SUBSCRIBED = 14;
+    private static final int USER_LIST_UNSUBSCRIBED = 15;
+    private static final int USER_LIST_CREATED = 16;
+    private static final int USER_LIST_UPDATED = 17;
+    private static final int USER_LIST_DESTROYED = 18;
+    private static final int USER_UPDATE = 19;
+    private static final int BLOCK = 20;
+    private static final int UNBLOCK = 21;
+    private static final Map<JSONObjectType, Integer> HANDLERS = new HashMap<JSONObjectType, Integer>();
+
+    static {
+        HANDLERS.put(JSONObjectType.SENDER, SENDER);
+        HANDLERS.put(JSONObjectType.DIRECT_MESSAGE, DIRECT_MESSAGE);
+        HANDLERS.put(JSONObjectType.DELETE, DELETE);
+        HANDLERS.put(JSONObjectType.LIMIT, LIMIT);
+        HANDLERS.put(JSONObjectType.SCRUB_GEO, SCRUB_GEO);
+        HANDLERS.put(JSONObjectType.FRIENDS, FRIENDS);
+        HANDLERS.put(JSONObjectType.FAVORITE, FAVORITE);
+        HANDLERS.put(JSONObjectType.UNFAVORITE, UNFAVORITE);
+        HANDLERS.put(JSONObjectType.RETWEET, RETWEET);
+        HANDLERS.put(JSONObjectType.FOLLOW, FOLLOW);
+        HANDLERS.put(JSONObjectType.UNFOLLOW, UNFOLLOW);
+        HANDLERS.put(JSONObjectType.USER_LIST_MEMBER_ADDED, USER_LIST_MEMBER_ADDED);
+        HANDLERS.put(JSONObjectType.USER_LIST_MEMBER_DELETED, USER_LIST_MEMBER_DELETED);
+        HANDLERS.put(JSONObjectType.USER_LIST_SUBSCRIBED, USER_LIST_SUBSCRIBED);
+        HANDLERS.put(JSONObjectType.USER_LIST_UNSUBSCRIBED, USER_LIST_UNSUBSCRIBED);
+        HANDLERS.put(JSONObjectType.USER_LIST_CREATED, USER_LIST_CREATED);
+        HANDLERS.put(JSONObjectType.USER_LIST_UPDATED, USER_LIST_UPDATED);
+        HANDLERS.put(JSONObjectType.USER_LIST_DESTROYED, USER_LIST_DESTROYED);
+        HANDLERS.put(JSONObjectType.USER_UPDATE, USER_UPDATE);
+        HANDLERS.put(JSONObjectType.BLOCK, BLOCK);
+        HANDLERS.put(JSONObjectType.UNBLOCK, UNBLOCK);
+    }
     private InputStream is;
     private HttpResponse response;
     protected final Dispatcher dispatcher;
     private final Configuration CONF;
+    // delivers events to each listener on its own thread, in order. null when listeners are called serially
+    private final Map<StreamListener, ListenerLane> lanes;
+    private final StatusBatcher batcher;
+    // statuses are decoded field by field on access. the raw JSON store needs JSONObjects
+    private final boolean lazyStatus;
+    // statuses of the same user share the unchanged profile strings of the User. null when disabled
+    private final UserCache userCache;
+    // fields of statuses to decode. null for all fields
+    private volatile StatusProjection projection = null;
+    private volatile StatusPreFilter preFilter = null;
 
     /*package*/
 
     AbstractStreamImplementation(Dispatcher dispatcher, InputStream stream, Configuration conf) throws IOException {
         this.is = stream;
-        this.br = new BufferedReader(new InputStreamReader(stream, "UTF-8"));
+        this.framer = new StreamFramer(stream);
+        this.buffer = new StreamBuffer(conf);
         this.dispatcher = dispatcher;
+        this.partitioned = dispatcher instanceof PartitionedDispatcherImpl;
         this.CONF = conf;
+        // raw JSON is registered to the thread local map of the dispatcher thread, and wouldn't be visible to
+        // listeners called on other threads
+        this.lanes = conf.isStreamListenersParallelEnabled() && !conf.isJSONStoreEnabled()
+                ? new IdentityHashMap<StreamListener, ListenerLane>() : null;
+        this.batcher = new StatusBatcher(conf.getStreamBatchSize(), conf.getStreamBatchWindow());
+        this.lazyStatus = conf.isStreamLazyStatusEnabled() && !conf.isJSONStoreEnabled();
+        this.userCache = 0 < conf.getStreamUserCacheSize() ? new UserCache(conf.getStreamUserCacheSize()) : null;
     }
     /*package*/
 
@@ -60,97 +137,160 @@ abstract class AbstractStreamImplementation {
         this.response = response;
     }
 
-    protected String parseLine(String line) {
-        return line;
+    /**
+     * Reads the JSON object of an element, determining its type from the top-level fields as they are read.
+     *
+     * @param parser parser positioned before the element
+     * @param json   empty object to which the fields of the element are put
+     * @return the type of the element, or null if not recognized
+     * @throws JSONException when the element is not well-formed
+     */
+    protected JSONObjectType parseElement(JSONPullParser parser, JSONObject json) throws JSONException {
+        parser.next();
+        return JSONObjectType.determine(parser, json);
+    }
+
+    /**
+     * Drains the buffer on a dispatcher thread. After a while it resubmits itself so that other streams sharing the
+     * dispatcher get their turn.
+     */
+    private final class StreamEventConsumer implements DiscardableRunnable {
+        public void run() {
+            for (int i = 0; i < ELEMENTS_PER_RUN; i++) {
+                byte[] element = buffer.poll();
+                if (null == element) {
+                    return;
+                }
+                handleElement(element);
+            }
+            dispatcher.invokeLater(this);
+        }
+
+        public void discarded() {
+            buffer.consumerDiscarded();
+        }
     }
 
-    abstract class StreamEvent implements Runnable {
-        String line;
+    /**
+     * An element handled on the lane of its user, so that a status and its deletion are delivered in order.
+     */
+    private final class PartitionedStreamEvent implements KeyedRunnable {
+        private final byte[] element;
+        private final Long key;
 
-        StreamEvent(String line) {
-            this.line = line;
+        PartitionedStreamEvent(byte[] element) {
+            this.element = element;
+            this.key = StreamPartitionKey.extract(element);
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public void run() {
+            handleElement(element);
         }
     }
 
     abstract void next(StreamListener[] listeners) throws TwitterException;
 
+    /**
+     * A call to a listener method with an event that has already been decoded.
+     */
+    interface ListenerCall {
+        void call(StreamListener listener);
+    }
+
+    /**
+     * A call to {@link StatusListener#onStatus(Status)}, which is batched for a {@link BatchStatusListener}.
+     */
+    static final class StatusCall implements ListenerCall {
+        private final Status status;
+
+        StatusCall(Status status) {
+            this.status = status;
+        }
+
+        public void call(StreamListener listener) {
+            ((StatusListener) listener).onStatus(status);
+        }
+    }
+
+    /**
+     * Delivers an event to the listeners. The event is decoded once by the caller and the same instance is passed to
+     * every listener.<br>
+     * By default listeners are called one after another on the current thread. With stream.listeners.parallel, each
+     * listener is called on its own thread so that a slow listener doesn't hold up the others. Each listener still
+     * receives events in the order they were delivered. Up to stream.buffer.capacity events wait for each listener.
+     * Beyond that, events for the listener are discarded with the drop policy, and otherwise the caller waits, which
+     * lets the stream buffer fill up and apply its own policy.<br>
+     * Statuses for a {@link BatchStatusListener} are added to its batch instead. Its pending batch is delivered before
+     * any other event.
+     *
+     * @param listeners listeners
+     * @param call      listener method to call
+     */
+    protected void fanOut(StreamListener[] listeners, ListenerCall call) {
+        if (null == lanes || 1 == listeners.length) {
+            for (StreamListener listener : listeners) {
+                deliver(listener, call);
+            }
+        } else {
+            for (StreamListener listener : listeners) {
+                if (listener instanceof BatchStatusListener) {
+                    // the batch already decouples the listener from the stream
+                    deliver(listener, call);
+                } else {
+                    getLane(listener).enqueue(call);
+                }
+            }
+        }
+    }
+
+    private void deliver(StreamListener listener, ListenerCall call) {
+        if (listener instanceof BatchStatusListener) {
+            BatchStatusListener batchListener = (BatchStatusListener) listener;
+            if (call instanceof StatusCall) {
+                batcher.add(batchListener, ((StatusCall) call).status);
+                return;
+            }
+            batcher.flush(batchListener);
+        }
+        call.call(listener);
+    }
+
+    private ListenerLane getLane(StreamListener listener) {
+        synchronized (lanes) {
+            ListenerLane lane = lanes.get(listener);
+            if (null == lane) {
+                lane = new ListenerLane(listener, lanes.size(), CONF.getStreamBufferCapacity()
+                        , StreamBuffer.DROP.equals(CONF.getStreamBufferOverflowPolicy()) ? buffer : null);
+                lane.start();
+                lanes.put(listener, lane);
+            }
+            return lane;
+        }
+    }
+
     protected void handleNextElement() throws TwitterException {
         if (!streamAlive) {
             throw new IllegalStateException("Stream already closed.");
         }
         try {
-            String line = br.readLine();
-            if (null == line) {
+            byte[] element = framer.next();
+            if (null == element) {
                 //invalidate this status stream
                 throw new IOException("the end of the stream has been reached");
             }
-            dispatcher.invokeLater(new StreamEvent(line) {
-                public void run() {
-                    line = parseLine(line);
-                    if (line.length() > 0) {
-                        try {
-                            if (CONF.isJSONStoreEnabled()) {
-                                DataObjectFactoryUtil.clearThreadLocalMap();
-                            }
-                            JSONObject json = new JSONObject(line);
-                            JSONObjectType jsonObjectType = JSONObjectType.determine(json);
-                            if (logger.isDebugEnabled()) {
-                                logger.debug("Received:", CONF.isPrettyDebugEnabled() ? json.toString(1) : json.toString());
-                            }
-                            if (JSONObjectType.SENDER == jsonObjectType) {
-                                onSender(json);
-                            } else if (JSONObjectType.STATUS == jsonObjectType) {
-                                onStatus(json);
-                            } else if (JSONObjectType.DIRECT_MESSAGE == jsonObjectType) {
-                                onDirectMessage(json);
-                            } else if (JSONObjectType.DELETE == jsonObjectType) {
-                                onDelete(json);
-                            } else if (JSONObjectType.LIMIT == jsonObjectType) {
-                                onLimit(json);
-                            } else if (JSONObjectType.SCRUB_GEO == jsonObjectType) {
-                                onScrubGeo(json);
-                            } else if (JSONObjectType.FRIENDS == jsonObjectType) {
-                                onFriends(json);
-                            } else if (JSONObjectType.FAVORITE == jsonObjectType) {
-                                onFavorite(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"));
-                            } else if (JSONObjectType.UNFAVORITE == jsonObjectType) {
-                                onUnfavorite(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"));
-                            } else if (JSONObjectType.RETWEET == jsonObjectType) {
-                                // note: retweet events also show up as statuses
-                                onRetweet(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"));
-                            } else if (JSONObjectType.FOLLOW == jsonObjectType) {
-                                onFollow(json.getJSONObject("source"), json.getJSONObject("target"));
-                            } else if (JSONObjectType.UNFOLLOW == jsonObjectType) {
-                                onUnfollow(json.getJSONObject("source"), json.getJSONObject("target"));
-                            } else if (JSONObjectType.USER_LIST_MEMBER_ADDED == jsonObjectType) {
-                                onUserListMemberAddition(json.getJSONObject("target"), json.getJSONObject("source"), json.getJSONObject("target_object"));
-                            } else if (JSONObjectType.USER_LIST_MEMBER_DELETED == jsonObjectType) {
-                                onUserListMemberDeletion(json.getJSONObject("target"), json.getJSONObject("source"), json.getJSONObject("target_object"));
-                            } else if (JSONObjectType.USER_LIST_SUBSCRIBED == jsonObjectType) {
-                                onUserListSubscription(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"));
-                            } else if (JSONObjectType.USER_LIST_UNSUBSCRIBED == jsonObjectType) {
-                                onUserListUnsubscription(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"));
-                            } else if (JSONObjectType.USER_LIST_CREATED == jsonObjectType) {
-                                onUserListCreation(json.getJSONObject("source"), json.getJSONObject("target"));
-                            } else if (JSONObjectType.USER_LIST_UPDATED == jsonObjectType) {
-                                onUserListUpdated(json.getJSONObject("source"), json.getJSONObject("target"));
-                            } else if (JSONObjectType.USER_LIST_DESTROYED == jsonObjectType) {
-                                onUserListDestroyed(json.getJSONObject("source"), json.getJSONObject("target"));
-                            } else if (JSONObjectType.USER_UPDATE == jsonObjectType) {
-                                onUserUpdate(json.getJSONObject("source"), json.getJSONObject("target"));
-                            } else if (JSONObjectType.BLOCK == jsonObjectType) {
-                                onBlock(json.getJSONObject("source"), json.getJSONObject("target"));
-                            } else if (JSONObjectType.UNBLOCK == jsonObjectType) {
-                                onUnblock(json.getJSONObject("source"), json.getJSONObject("target"));
-                            } else {
-                                logger.warn("Received unknown event:", CONF.isPrettyDebugEnabled() ? json.toString(1) : json.toString());
-                            }
-                        } catch (Exception ex) {
-                            onException(ex);
-                        }
-                    }
-                }
-            });
+            if (StreamFramer.KEEP_ALIVE == element) {
+                return;
+            }
+            if (partitioned) {
+                // blocks while the lane is full
+                dispatcher.invokeLater(new PartitionedStreamEvent(element));
+            } else if (buffer.put(element)) {
+                dispatcher.invokeLater(new StreamEventConsumer());
+            }
 
         } catch (IOException ioe) {
             try {
@@ -165,6 +305,122 @@ abstract class AbstractStreamImplementation {
         }
     }
 
+    private void handleElement(byte[] element) {
+        StatusPreFilter preFilter = this.preFilter;
+        if (null != preFilter && !preFilter.accept(element)) {
+            return;
+        }
+        try {
+            if (CONF.isJSONStoreEnabled()) {
+                DataObjectFactoryUtil.clearThreadLocalMap();
+            }
+            StatusProjection projection = this.projection;
+            if (lazyStatus) {
+                // only the offsets of the fields are read here. other elements are parsed as usual
+                LazyStatusJSONImpl status = new LazyStatusJSONImpl(element, 0, element.length, userCache);
+                if (status.isStatus()) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Received:", new String(element, "UTF-8"));
+                    }
+                    onStatus(status);
+                    return;
+                }
+            } else if (null != projection) {
+                // only the field names are read here. a status is then parsed once, decoding the projected fields
+                JSONPullParser parser = new JSONPullParser(element, 0, element.length);
+                parser.next();
+                if (JSONObjectType.STATUS == JSONObjectType.determine(parser)) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Received:", new String(element, "UTF-8"));
+                    }
+                    onStatus(asStatus(element, projection));
+                    return;
+                }
+            }
+            // the element is handed to the parser as bytes. no String is made for the whole line
+            JSONObject json = new JSONObject();
+            JSONObjectType jsonObjectType = parseElement(new JSONPullParser(element, 0, element.length), json);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Received:", CONF.isPrettyDebugEnabled() ? json.toString(1) : json.toString());
+            }
+            if (JSONObjectType.STATUS == jsonObjectType) {
+                onStatus(json);
+                return;
+            }
+            Integer handler = null == jsonObjectType ? null : HANDLERS.get(jsonObjectType);
+            switch (null == handler ? 0 : handler) {
+                case SENDER:
+                    onSender(json);
+                    break;
+                case DIRECT_MESSAGE:
+                    onDirectMessage(json);
+                    break;
+                case DELETE:
+                    onDelete(json);
+                    break;
+                case LIMIT:
+                    onLimit(json);
+                    break;
+                case SCRUB_GEO:
+                    onScrubGeo(json);
+                    break;
+                case FRIENDS:
+                    onFriends(json);
+                    break;
+                case FAVORITE:
+                    onFavorite(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"));
+                    break;
+                case UNFAVORITE:
+                    onUnfavorite(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"));
+                    break;
+                case RETWEET:
+                    // note: retweet events also show up as statuses
+                    onRetweet(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"));
+                    break;
+                case FOLLOW:
+                    onFollow(json.getJSONObject("source"), json.getJSONObject("target"));
+                    break;
+                case UNFOLLOW:
+                    onUnfollow(json.getJSONObject("source"), json.getJSONObject("target"));
+                    break;
+                case USER_LIST_MEMBER_ADDED:
+                    onUserListMemberAddition(json.getJSONObject("target"), json.getJSONObject("source"), json.getJSONObject("target_object"));
+                    break;
+                case USER_LIST_MEMBER_DELETED:
+                    onUserListMemberDeletion(json.getJSONObject("target"), json.getJSONObject("source"), json.getJSONObject("target_object"));
+                    break;
+                case USER_LIST_SUBSCRIBED:
+                    onUserListSubscription(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"));
+                    break;
+                case USER_LIST_UNSUBSCRIBED:
+                    onUserListUnsubscription(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"));
+                    break;
+                case USER_LIST_CREATED:
+                    onUserListCreation(json.getJSONObject("source"), json.getJSONObject("target"));
+                    break;
+                case USER_LIST_UPDATED:
+                    onUserListUpdated(json.getJSONObject("source"), json.getJSONObject("target"));
+                    break;
+                case USER_LIST_DESTROYED:
+                    onUserListDestroyed(json.getJSONObject("source"), json.getJSONObject("target"));
+                    break;
+                case USER_UPDATE:
+                    onUserUpdate(json.getJSONObject("source"), json.getJSONObject("target"));
+                    break;
+                case BLOCK:
+                    onBlock(json.getJSONObject("source"), json.getJSONObject("target"));
+                    break;
+                case UNBLOCK:
+                    onUnblock(json.getJSONObject("source"), json.getJSONObject("target"));
+                    break;
+                default:
+                    logger.warn("Received unknown event:", CONF.isPrettyDebugEnabled() ? json.toString(1) : json.toString());
+            }
+        } catch (Exception ex) {
+            onException(ex);
+        }
+    }
+
     protected void onSender(JSONObject json) throws TwitterException {
         logger.warn("Unhandled event: onSender");
     }
@@ -173,6 +429,10 @@ abstract class AbstractStreamImplementation {
         logger.warn("Unhandled event: onStatus");
     }
 
+    protected void onStatus(Status status) throws TwitterException {
+        logger.warn("Unhandled event: onStatus");
+    }
+
     protected void onDirectMessage(JSONObject json) throws TwitterException, JSONException {
         logger.warn("Unhandled event: onDirectMessage");
     }
@@ -259,15 +519,57 @@ abstract class AbstractStreamImplementation {
 
     public void close() throws IOException {
         streamAlive = false;
+        buffer.close();
+        batcher.close();
+        if (null != lanes) {
+            synchronized (lanes) {
+                for (ListenerLane lane : lanes.values()) {
+                    lane.shutdown();
+                }
+                lanes.clear();
+            }
+        }
         is.close();
-        br.close();
         if (null != response) {
             response.disconnect();
         }
     }
 
+    /**
+     * Declares the fields of statuses the listeners need. Ignored with stream.status.lazy, as lazy statuses decode
+     * only the fields accessed anyway, and with jsonStoreEnabled.
+     *
+     * @param projection fields to decode, or null for all fields
+     */
+    public void setStatusProjection(StatusProjection projection) {
+        this.projection = CONF.isJSONStoreEnabled() ? null : projection;
+    }
+
+    /**
+     * Sets a filter dropping statuses before they are decoded.
+     *
+     * @param filter filter, or null to pass all statuses
+     */
+    public void setStatusPreFilter(StatusPreFilter filter) {
+        this.preFilter = filter;
+    }
+
+    public StreamStatistics getStatistics() {
+        return buffer;
+    }
+
+    protected Status asStatus(byte[] element, StatusProjection projection) throws TwitterException {
+        JSONPullParser parser = new JSONPullParser(element, 0, element.length);
+        try {
+            parser.next();
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        }
+        return new StatusJSONImpl(parser, projection, userCache);
+    }
+
     protected Status asStatus(JSONObject json) throws TwitterException {
-        Status status = new StatusJSONImpl(json);
+        Status status = new StatusJSONImpl(json, userCache);
         if (CONF.isJSONStoreEnabled()) {
             DataObjectFactoryUtil.registerJSONObject(status, json);
         }
@@ -317,4 +619,76 @@ abstract class AbstractStreamImplementation {
         return userList;
     }
 
+    private static final class ListenerLane extends Thread {
+        private final StreamListener listener;
+        private final LinkedList<ListenerCall> calls = new LinkedList<ListenerCall>();
+        private final int capacity;
+        // counts events discarded while the lane is full. null to block the caller instead
+        private final StreamBuffer dropTo;
+        private boolean alive = true;
+
+        ListenerLane(StreamListener listener, int index, int capacity, StreamBuffer dropTo) {
+            super("Twitter4J Stream Listener[" + index + "]");
+            this.listener = listener;
+            this.capacity = Math.max(1, capacity);
+            this.dropTo = dropTo;
+            setDaemon(true);
+        }
+
+        synchronized void enqueue(ListenerCall call) {
+            while (alive && calls.size() >= capacity) {
+                if (null != dropTo) {
+                    dropTo.dropped();
+                    return;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException ignore) {
+                }
+            }
+            if (!alive) {
+                return;
+            }
+            calls.addLast(call);
+            notifyAll();
+        }
+
+        /**
+         * Stops the thread once the events already delivered have been passed to the listener.
+         */
+        synchronized void shutdown() {
+            alive = false;
+            notifyAll();
+        }
+
+        public void run() {
+            while (true) {
+                ListenerCall call;
+                synchronized (this) {
+                    while (alive && calls.isEmpty()) {
+                        try {
+                            wait();
+                        } catch (InterruptedException ignore) {
+                        }
+                    }
+                    if (calls.isEmpty()) {
+                        return;
+                    }
+                    if (capacity == calls.size()) {
+                        // wake up the callers blocked in enqueue()
+                        notifyAll();
+                    }
+                    call = calls.removeFirst();
+                }
+                try {
+                    call.call(listener);
+                } catch (Exception e) {
+                    try {
+                        listener.onException(e);
+                    } catch (Exception ignore) {
+                    }
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.util.List;
+
+/**
+ * A StatusListener receiving statuses in batches, for sinks that are more efficient in bulk.<br>
+ * Statuses are collected until stream.batch.size statuses are available or stream.batch.window milliseconds have
+ * passed since the first status of the batch, and then delivered through {@link #onStatuses(java.util.List)}.
+ * {@link #onStatus(Status)} is not called for a listener implementing this interface.<br>
+ * A pending batch is delivered before any other notice, so that a deletion notice never arrives before the batch
+ * containing the deleted status. The statuses in a batch are in the order they were parsed, which can differ from the
+ * order they were received when the stream is processed by more than one thread.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public interface BatchStatusListener extends StatusListener {
+    /**
+     * Called with a batch of statuses. Batches are delivered one at a time, either on a dispatcher thread or on the
+     * thread flushing batches whose time window has passed.
+     *
+     * @param statuses statuses, never empty
+     */
+    void onStatuses(List<Status> statuses);
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Bounded set of the ids of the statuses delivered lately. The oldest id is forgotten when the set is full.<br>
+ * The set can be enlarged to cover a backfill larger than expected.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+final class RecentStatusIds implements java.io.Serializable {
+    private static final long serialVersionUID = -1460215284934733062L;
+    private long[] ids;
+    private final Set<Long> idSet;
+    private int next = 0;
+    private int size = 0;
+
+    RecentStatusIds(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        ids = new long[capacity];
+        idSet = new HashSet<Long>(capacity * 4 / 3 + 1);
+    }
+
+    /**
+     * @param id id of a status
+     * @return false if the id has been seen lately
+     */
+    synchronized boolean add(long id) {
+        if (!idSet.add(id)) {
+            return false;
+        }
+        if (size == ids.length) {
+            idSet.remove(ids[next]);
+        } else {
+            size++;
+        }
+        ids[next] = id;
+        next = (next + 1) % ids.length;
+        return true;
+    }
+
+    /**
+     * Enlarges the set, keeping the ids recorded so far.
+     *
+     * @param capacity number of ids to remember at least
+     */
+    synchronized void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        long[] newIds = new long[capacity];
+        // oldest first
+        int oldest = size == ids.length ? next : 0;
+        for (int i = 0; i < size; i++) {
+            newIds[i] = ids[(oldest + i) % ids.length];
+        }
+        ids = newIds;
+        next = size;
+    }
+
+    synchronized int capacity() {
+        return ids.length;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+}
@@ -19,9 +19,11 @@ package twitter4j;
 import twitter4j.conf.Configuration;
 import twitter4j.internal.async.Dispatcher;
 import twitter4j.internal.http.HttpResponse;
+import twitter4j.internal.json.JSONPullParser;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 import twitter4j.internal.util.ParseUtil;
+import twitter4j.json.JSONObjectType;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -47,20 +49,32 @@ class SiteStreamsImpl extends AbstractStreamImplementation implements StreamImpl
         handleNextElement();
     }
 
-    protected String parseLine(String line) {
-        if ("".equals(line) || null == line) {
-            return line;
+    /**
+     * Unwraps the message from the envelope: {"for_user":1888,"message":{...}}
+     */
+    @Override
+    protected JSONObjectType parseElement(JSONPullParser parser, JSONObject json) throws JSONException {
+        JSONObjectType type = null;
+        boolean messageFound = false;
+        parser.next();
+        while (JSONPullParser.FIELD_NAME == parser.next()) {
+            String name = parser.getCurrentName();
+            parser.next();
+            if ("for_user".equals(name)) {
+                // in the documentation for_user is not quoted, but actually it is quoted
+                forUser.set(JSONPullParser.VALUE_STRING == parser.getToken()
+                        ? Integer.parseInt(parser.getText()) : parser.getIntValue());
+            } else if ("message".equals(name)) {
+                type = JSONObjectType.determine(parser, json);
+                messageFound = true;
+            } else {
+                parser.skipChildren();
+            }
         }
-        int userIdEnd = line.indexOf(',', 12);
-        // in the documentation for_user is not quoted, but actually it is quoted
-        // n
-        if (line.charAt(12) == '"') {
-            forUser.set(Integer.parseInt(line.substring(13, userIdEnd - 1)));
-            return line.substring(userIdEnd + 11, line.length() - 1);
-        } else {
-            forUser.set(Integer.parseInt(line.substring(12, userIdEnd)));
-            return line.substring(userIdEnd + 11, line.length() - 1);
+        if (!messageFound) {
+            throw new JSONException("message not found in the envelope");
         }
+        return type;
     }
 
     private static ThreadLocal<Integer> forUser =
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.internal.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects statuses for each {@link BatchStatusListener} of a stream and delivers them by size or time window.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+final class StatusBatcher {
+    private static final Logger logger = Logger.getLogger(StatusBatcher.class);
+
+    private final int batchSize;
+    private final long window;
+    private final Map<BatchStatusListener, Batch> batches = new IdentityHashMap<BatchStatusListener, Batch>();
+    private Flusher flusher;
+    // true when a batch has been started after the flusher computed its deadline
+    private boolean started = false;
+    private volatile boolean closed = false;
+
+    StatusBatcher(int batchSize, long window) {
+        this.batchSize = Math.max(1, batchSize);
+        this.window = Math.max(1, window);
+    }
+
+    void add(BatchStatusListener listener, Status status) {
+        getBatch(listener).add(status);
+    }
+
+    /**
+     * Delivers the pending batch of the listener.
+     *
+     * @param listener listener
+     */
+    void flush(BatchStatusListener listener) {
+        Batch batch;
+        synchronized (this) {
+            batch = batches.get(listener);
+        }
+        if (null != batch) {
+            batch.flush();
+        }
+    }
+
+    /**
+     * Delivers all pending batches and stops the flusher thread.
+     */
+    void close() {
+        Batch[] pending;
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+            pending = batches.values().toArray(new Batch[batches.size()]);
+        }
+        for (Batch batch : pending) {
+            batch.flush();
+        }
+    }
+
+    private synchronized Batch getBatch(BatchStatusListener listener) {
+        Batch batch = batches.get(listener);
+        if (null == batch) {
+            batch = new Batch(listener);
+            batches.put(listener, batch);
+            if (null == flusher) {
+                flusher = new Flusher();
+                flusher.start();
+            }
+        }
+        return batch;
+    }
+
+    private synchronized void batchStarted() {
+        started = true;
+        notifyAll();
+    }
+
+    private final class Batch {
+        private final BatchStatusListener listener;
+        private List<Status> statuses;
+        private long deadline;
+
+        Batch(BatchStatusListener listener) {
+            this.listener = listener;
+            this.statuses = new ArrayList<Status>(batchSize);
+        }
+
+        // the lock is held while the listener is called, so that batches are delivered one at a time and in order
+        synchronized void add(Status status) {
+            statuses.add(status);
+            if (batchSize <= statuses.size() || closed) {
+                deliver();
+            } else if (1 == statuses.size()) {
+                deadline = System.currentTimeMillis() + window;
+                batchStarted();
+            }
+        }
+
+        synchronized void flush() {
+            if (0 < statuses.size()) {
+                deliver();
+            }
+        }
+
+        /**
+         * @param now current time
+         * @return deadline of the pending batch, or Long.MAX_VALUE if there is none
+         */
+        synchronized long flushIfExpired(long now) {
+            if (0 == statuses.size()) {
+                return Long.MAX_VALUE;
+            }
+            if (deadline <= now) {
+                deliver();
+                return Long.MAX_VALUE;
+            }
+            return deadline;
+        }
+
+        private void deliver() {
+            List<Status> batch = statuses;
+            statuses = new ArrayList<Status>(batchSize);
+            try {
+                listener.onStatuses(batch);
+            } catch (Exception ex) {
+                logger.warn("Got an exception while delivering a batch: ", ex.getMessage());
+            }
+        }
+    }
+
+    private final class Flusher extends Thread {
+        Flusher() {
+            super("Twitter4J Status Batch Flusher");
+            setDaemon(true);
+        }
+
+        public void run() {
+            while (true) {
+                Batch[] current;
+                synchronized (StatusBatcher.this) {
+                    if (closed) {
+                        return;
+                    }
+                    started = false;
+                    current = batches.values().toArray(new Batch[batches.size()]);
+                }
+                long now = System.currentTimeMillis();
+                long next = Long.MAX_VALUE;
+                for (Batch batch : current) {
+                    next = Math.min(next, batch.flushIfExpired(now));
+                }
+                synchronized (StatusBatcher.this) {
+                    try {
+                        if (!closed && !started) {
+                            if (Long.MAX_VALUE == next) {
+                                StatusBatcher.this.wait();
+                            } else {
+                                StatusBatcher.this.wait(Math.max(1, next - System.currentTimeMillis()));
+                            }
+                        }
+                    } catch (InterruptedException ignore) {
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.internal.json.JSONPullParser;
+import twitter4j.internal.org.json.JSONException;
+import twitter4j.internal.util.ParseUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A condition on statuses evaluated on the raw JSON before the status is decoded. Statuses not matching it are
+ * dropped without allocating a Status, and other elements such as deletion notices always pass.<br>
+ * Fields are named after the JSON fields of a status, like "lang" or "text", or of its user, like
+ * "user.followers_count". Only the fields used by the filter are decoded and the rest of the element is skipped.
+ * <pre>
+ * twitterStream.setStatusPreFilter(StatusPreFilter.and(
+ *         StatusPreFilter.fieldEquals("user.lang", "en"),
+ *         StatusPreFilter.between("user.followers_count", 1000, Long.MAX_VALUE)));
+ * </pre>
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public abstract class StatusPreFilter implements java.io.Serializable {
+    private static final long serialVersionUID = 5180958307462536452L;
+    // fields used by this filter and its operands. built on first use
+    private transient String[] fields;
+
+    StatusPreFilter() {
+    }
+
+    /**
+     * @param field name of a field
+     * @param value value
+     * @return a filter matching statuses whose field is the value
+     */
+    public static StatusPreFilter fieldEquals(final String field, final String value) {
+        return new Leaf(field) {
+            private static final long serialVersionUID = -3304651883425549364L;
+
+            boolean matches(String fieldValue) {
+                return value.equals(fieldValue);
+            }
+        };
+    }
+
+    /**
+     * @param field   name of a string field
+     * @param keyword keyword, compared ignoring case
+     * @return a filter matching statuses whose field contains the keyword
+     */
+    public static StatusPreFilter contains(final String field, String keyword) {
+        final String lowerKeyword = keyword.toLowerCase();
+        return new Leaf(field) {
+            private static final long serialVersionUID = 2779212580766466294L;
+
+            boolean matches(String fieldValue) {
+                return null != fieldValue && fieldValue.toLowerCase().contains(lowerKeyword);
+            }
+        };
+    }
+
+    /**
+     * @param field name of a numeric field
+     * @param min   minimum, inclusive
+     * @param max   maximum, inclusive
+     * @return a filter matching statuses whose field is within the range
+     */
+    public static StatusPreFilter between(final String field, final long min, final long max) {
+        return new Leaf(field) {
+            private static final long serialVersionUID = -7640069400718838047L;
+
+            boolean matches(String fieldValue) {
+                if (null == fieldValue) {
+                    return false;
+                }
+                try {
+                    long value = ParseUtil.getLong(fieldValue);
+                    return min <= value && value <= max;
+                } catch (NumberFormatException nfe) {
+                    return false;
+                }
+            }
+        };
+    }
+
+    /**
+     * @param filters filters
+     * @return a filter matching statuses matching all the filters
+     */
+    public static StatusPreFilter and(final StatusPreFilter... filters) {
+        return new Operator(filters) {
+            private static final long serialVersionUID = 1957287400163226245L;
+
+            boolean matches(String[] fields, String[] values) {
+                for (StatusPreFilter filter : filters) {
+                    if (!filter.matches(fields, values)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param filters filters
+     * @return a filter matching statuses matching any of the filters
+     */
+    public static StatusPreFilter or(final StatusPreFilter... filters) {
+        return new Operator(filters) {
+            private static final long serialVersionUID = -8870127180409062815L;
+
+            boolean matches(String[] fields, String[] values) {
+                for (StatusPreFilter filter : filters) {
+                    if (filter.matches(fields, values)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param filter filter
+     * @return a filter matching statuses not matching the filter
+     */
+    public static StatusPreFilter not(final StatusPreFilter filter) {
+        return new Operator(new StatusPreFilter[]{filter}) {
+            private static final long serialVersionUID = 6505436120577262512L;
+
+            boolean matches(String[] fields, String[] values) {
+                return !filter.matches(fields, values);
+            }
+        };
+    }
+
+    /**
+     * @param recentIds ids of the statuses delivered lately, updated with the ids of the statuses passing
+     * @return a filter matching statuses whose id is not in the set
+     */
+    static StatusPreFilter unseen(final RecentStatusIds recentIds) {
+        return new Leaf("id") {
+            private static final long serialVersionUID = 3527381297066553264L;
+
+            boolean matches(String fieldValue) {
+                if (null == fieldValue) {
+                    return true;
+                }
+                try {
+                    return recentIds.add(ParseUtil.getLong(fieldValue));
+                } catch (NumberFormatException nfe) {
+                    return true;
+                }
+            }
+        };
+    }
+
+    abstract void collectFields(List<String> fields);
+
+    /**
+     * @param fields fields read from the element
+     * @param values values of the fields as text, null when absent
+     * @return true if the values match this filter
+     */
+    abstract boolean matches(String[] fields, String[] values);
+
+    /**
+     * Tells whether an element is to be processed.
+     *
+     * @param element raw JSON of an element
+     * @return false if the element is a status not matching this filter
+     */
+    final boolean accept(byte[] element) {
+        String[] fields = this.fields;
+        if (null == fields) {
+            List<String> list = new ArrayList<String>();
+            collectFields(list);
+            this.fields = fields = list.toArray(new String[list.size()]);
+        }
+        String[] values = new String[fields.length];
+        boolean hasText = false;
+        boolean hasSender = false;
+        JSONPullParser parser = new JSONPullParser(element, 0, element.length);
+        try {
+            if (JSONPullParser.START_OBJECT != parser.next()) {
+                return true;
+            }
+            while (JSONPullParser.FIELD_NAME == parser.next()) {
+                String name = parser.getCurrentName();
+                int token = parser.next();
+                if (JSONPullParser.VALUE_NULL == token) {
+                    continue;
+                }
+                if ("text".equals(name)) {
+                    hasText = true;
+                } else if ("sender".equals(name)) {
+                    hasSender = true;
+                }
+                if (JSONPullParser.START_OBJECT == token && hasNestedField(fields, name)) {
+                    while (JSONPullParser.FIELD_NAME == parser.next()) {
+                        String nestedName = parser.getCurrentName();
+                        parser.next();
+                        read(parser, fields, values, name, nestedName);
+                    }
+                } else {
+                    read(parser, fields, values, null, name);
+                }
+            }
+        } catch (JSONException jsone) {
+            // the element will be reported when it is parsed
+            return true;
+        }
+        // see JSONObjectType.determine()
+        return !hasText || hasSender || matches(fields, values);
+    }
+
+    private static boolean hasNestedField(String[] fields, String name) {
+        for (String field : fields) {
+            if (field.length() > name.length() && '.' == field.charAt(name.length()) && field.startsWith(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void read(JSONPullParser parser, String[] fields, String[] values, String parent, String name)
+            throws JSONException {
+        if (parser.isScalarValue()) {
+            for (int i = 0; i < fields.length; i++) {
+                if (isField(fields[i], parent, name)) {
+                    values[i] = parser.getText();
+                    return;
+                }
+            }
+        }
+        parser.skipChildren();
+    }
+
+    private static boolean isField(String field, String parent, String name) {
+        if (null == parent) {
+            return field.equals(name);
+        }
+        return field.length() == parent.length() + 1 + name.length() && field.startsWith(parent)
+                && '.' == field.charAt(parent.length()) && field.endsWith(name);
+    }
+
+    private abstract static class Leaf extends StatusPreFilter {
+        private static final long serialVersionUID = 4045213744719911580L;
+        private final String field;
+
+        Leaf(String field) {
+            this.field = field;
+        }
+
+        void collectFields(List<String> fields) {
+            if (!fields.contains(field)) {
+                fields.add(field);
+            }
+        }
+
+        boolean matches(String[] fields, String[] values) {
+            for (int i = 0; i < fields.length; i++) {
+                if (fields[i].equals(field)) {
+                    return matches(values[i]);
+                }
+            }
+            return matches((String) null);
+        }
+
+        abstract boolean matches(String fieldValue);
+    }
+
+    private abstract static class Operator extends StatusPreFilter {
+        private static final long serialVersionUID = -2117372342497211457L;
+        private final StatusPreFilter[] filters;
+
+        Operator(StatusPreFilter[] filters) {
+            this.filters = filters;
+        }
+
+        void collectFields(List<String> fields) {
+            for (StatusPreFilter filter : filters) {
+                filter.collectFields(fields);
+            }
+        }
+    }
+}
@@ -44,8 +44,6 @@ class StatusStreamImpl extends AbstractStreamImplementation implements StatusStr
         super(dispatcher, response, conf);
     }
 
-    protected String line;
-
     protected StreamListener[] listeners;
 
     /**
@@ -67,53 +65,66 @@ class StatusStreamImpl extends AbstractStreamImplementation implements StatusStr
         handleNextElement();
     }
 
-    protected String parseLine(String line) {
-        this.line = line;
-        return line;
+    @Override
+    protected void onStatus(JSONObject json) throws TwitterException {
+        onStatus(asStatus(json));
     }
 
     @Override
-    protected void onStatus(JSONObject json) throws TwitterException {
-        for (StreamListener listener : listeners) {
-            ((StatusListener) listener).onStatus(asStatus(json));
-        }
+    protected void onStatus(Status status) throws TwitterException {
+        fanOut(listeners, new StatusCall(status));
     }
 
     @Override
     protected void onDelete(JSONObject json) throws TwitterException, JSONException {
-        for (StreamListener listener : listeners) {
-            JSONObject deletionNotice = json.getJSONObject("delete");
-            if (deletionNotice.has("status")) {
-                ((StatusListener) listener).onDeletionNotice(new StatusDeletionNoticeImpl(deletionNotice.getJSONObject("status")));
-            } else {
-                JSONObject directMessage = deletionNotice.getJSONObject("direct_message");
-                ((UserStreamListener) listener).onDeletionNotice(ParseUtil.getLong("id", directMessage)
-                        , ParseUtil.getLong("user_id", directMessage));
-            }
+        JSONObject deletionNotice = json.getJSONObject("delete");
+        if (deletionNotice.has("status")) {
+            final StatusDeletionNotice statusDeletionNotice = new StatusDeletionNoticeImpl(deletionNotice.getJSONObject("status"));
+            fanOut(listeners, new ListenerCall() {
+                public void call(StreamListener listener) {
+                    ((StatusListener) listener).onDeletionNotice(statusDeletionNotice);
+                }
+            });
+        } else {
+            JSONObject directMessage = deletionNotice.getJSONObject("direct_message");
+            final long directMessageId = ParseUtil.getLong("id", directMessage);
+            final long userId = ParseUtil.getLong("user_id", directMessage);
+            fanOut(listeners, new ListenerCall() {
+                public void call(StreamListener listener) {
+                    ((UserStreamListener) listener).onDeletionNotice(directMessageId, userId);
+                }
+            });
         }
     }
 
     @Override
     protected void onLimit(JSONObject json) throws TwitterException, JSONException {
-        for (StreamListener listener : listeners) {
-            ((StatusListener) listener).onTrackLimitationNotice(ParseUtil.getInt("track", json.getJSONObject("limit")));
-        }
+        final int numberOfLimitedStatuses = ParseUtil.getInt("track", json.getJSONObject("limit"));
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((StatusListener) listener).onTrackLimitationNotice(numberOfLimitedStatuses);
+            }
+        });
     }
 
     @Override
     protected void onScrubGeo(JSONObject json) throws TwitterException, JSONException {
         JSONObject scrubGeo = json.getJSONObject("scrub_geo");
-        for (StreamListener listener : listeners) {
-            ((StatusListener) listener).onScrubGeo(ParseUtil.getLong("user_id", scrubGeo)
-                    , ParseUtil.getLong("up_to_status_id", scrubGeo));
-        }
-
+        final long userId = ParseUtil.getLong("user_id", scrubGeo);
+        final long upToStatusId = ParseUtil.getLong("up_to_status_id", scrubGeo);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((StatusListener) listener).onScrubGeo(userId, upToStatusId);
+            }
+        });
     }
 
     @Override
-    public void onException(Exception e) {
-        for (StreamListener listener : listeners) {
-            listener.onException(e);
-        }
+    public void onException(final Exception e) {
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                listener.onException(e);
+            }
+        });
     }
 }
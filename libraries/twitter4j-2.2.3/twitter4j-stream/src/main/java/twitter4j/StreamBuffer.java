@@ -0,0 +1,320 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+import twitter4j.internal.logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Bounded ring buffer of raw messages between the thread reading the stream and the dispatcher threads parsing them
+ * and calling listeners.<br>
+ * What happens when the buffer is full is decided by stream.buffer.overflowPolicy:
+ * <ul>
+ * <li>block - the reading thread waits for room (default). Twitter will eventually disconnect a client that
+ * doesn't keep up</li>
+ * <li>drop - the message is discarded and counted</li>
+ * <li>spill - the message is appended to a temporary file in stream.buffer.spillDirectory and read back once the
+ * listeners catch up. Messages are still delivered in order</li>
+ * </ul>
+ * The buffer also keeps track of how many dispatcher threads are draining it, so that no more than async.numThreads
+ * tasks are submitted per stream regardless of the stream rate. A consumer is counted from its submission until it
+ * finds the buffer empty or the dispatcher discards it.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+final class StreamBuffer implements StreamStatistics {
+    private static final Logger logger = Logger.getLogger(StreamBuffer.class);
+
+    static final String BLOCK = "block";
+    static final String DROP = "drop";
+    static final String SPILL = "spill";
+
+    private final byte[][] elements;
+    private final long[] timestamps;
+    private int head = 0;
+    private int size = 0;
+    private int peakOccupancy = 0;
+
+    private final String overflowPolicy;
+    private final File spillDirectory;
+    private File spillFile;
+    private RandomAccessFile spill;
+    private long spillReadPosition = 0;
+    private long spillWritePosition = 0;
+    private int spillBacklog = 0;
+
+    private final int maxConsumers;
+    private int consumers = 0;
+    private boolean closed = false;
+
+    private long receivedCount = 0;
+    private long droppedCount = 0;
+    private long spilledCount = 0;
+
+    StreamBuffer(Configuration conf) {
+        elements = new byte[Math.max(1, conf.getStreamBufferCapacity())][];
+        timestamps = new long[elements.length];
+        String policy = conf.getStreamBufferOverflowPolicy();
+        if (DROP.equals(policy) || SPILL.equals(policy)) {
+            overflowPolicy = policy;
+        } else {
+            if (null != policy && !BLOCK.equals(policy)) {
+                logger.warn("Unknown stream.buffer.overflowPolicy: " + policy + ". Falling back to " + BLOCK);
+            }
+            overflowPolicy = BLOCK;
+        }
+        spillDirectory = null == conf.getStreamBufferSpillDirectory() ? null : new File(conf.getStreamBufferSpillDirectory());
+        maxConsumers = Math.max(1, conf.getAsyncNumThreads());
+    }
+
+    /**
+     * Adds a message, applying the overflow policy if the buffer is full.
+     *
+     * @param element message
+     * @return true if the caller should submit a new consumer draining this buffer
+     */
+    synchronized boolean put(byte[] element) {
+        receivedCount++;
+        long now = System.currentTimeMillis();
+        if (0 == spillBacklog && size < elements.length) {
+            enqueue(element, now);
+        } else if (SPILL == overflowPolicy && spill(element, now)) {
+            // spilled
+        } else if (BLOCK == overflowPolicy) {
+            while (size == elements.length && !closed) {
+                try {
+                    wait();
+                } catch (InterruptedException ignore) {
+                }
+            }
+            if (closed) {
+                droppedCount++;
+                return false;
+            }
+            enqueue(element, now);
+        } else {
+            droppedCount++;
+            return false;
+        }
+        if (consumers < maxConsumers) {
+            consumers++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes the oldest message. A consumer receiving null must stop, as it is no longer counted.
+     *
+     * @return the oldest message, or null if the buffer is empty
+     */
+    synchronized byte[] poll() {
+        if (0 < size) {
+            byte[] element = elements[head];
+            elements[head] = null;
+            head = (head + 1) % elements.length;
+            if (elements.length == size--) {
+                // wake up the reading thread blocked in put()
+                notifyAll();
+            }
+            return element;
+        }
+        if (0 < spillBacklog) {
+            byte[] element = unspill();
+            if (null != element) {
+                return element;
+            }
+        }
+        consumers--;
+        if (closed) {
+            deleteSpillFile();
+        }
+        return null;
+    }
+
+    /**
+     * Gives back the count of a consumer the dispatcher dropped without running it, so that the next put() can
+     * submit a replacement.
+     */
+    synchronized void consumerDiscarded() {
+        consumers--;
+        if (closed && 0 == consumers) {
+            deleteSpillFile();
+        }
+    }
+
+    /**
+     * Counts a message discarded after it left the buffer, e.g. because the queue of a parallel listener was full.
+     */
+    synchronized void dropped() {
+        droppedCount++;
+    }
+
+    synchronized void close() {
+        closed = true;
+        notifyAll();
+        if (0 == consumers) {
+            deleteSpillFile();
+        }
+    }
+
+    private void enqueue(byte[] element, long timestamp) {
+        int tail = (head + size) % elements.length;
+        elements[tail] = element;
+        timestamps[tail] = timestamp;
+        if (++size > peakOccupancy) {
+            peakOccupancy = size;
+        }
+    }
+
+    private boolean spill(byte[] element, long timestamp) {
+        try {
+            if (null == spill) {
+                spillFile = File.createTempFile("twitter4j-stream-", ".spill", spillDirectory);
+                spillFile.deleteOnExit();
+                spill = new RandomAccessFile(spillFile, "rw");
+            }
+            byte[] header = new byte[12];
+            writeLong(header, 0, timestamp);
+            writeInt(header, 8, element.length);
+            spill.seek(spillWritePosition);
+            spill.write(header);
+            spill.write(element);
+            spillWritePosition += header.length + element.length;
+            spillBacklog++;
+            spilledCount++;
+            return true;
+        } catch (IOException ioe) {
+            logger.warn("Failed to spill a message: " + ioe.getMessage());
+            return false;
+        }
+    }
+
+    private byte[] unspill() {
+        try {
+            spill.seek(spillReadPosition + 8);
+            byte[] element = new byte[spill.readInt()];
+            spill.readFully(element);
+            spillReadPosition += 12 + element.length;
+            if (0 == --spillBacklog) {
+                // caught up. start over from the head of the file
+                spillReadPosition = 0;
+                spillWritePosition = 0;
+                spill.setLength(0);
+            }
+            return element;
+        } catch (IOException ioe) {
+            logger.error("Failed to read spilled messages. " + spillBacklog + " messages are lost.", ioe);
+            droppedCount += spillBacklog;
+            spillBacklog = 0;
+            spillReadPosition = 0;
+            spillWritePosition = 0;
+            return null;
+        }
+    }
+
+    private void deleteSpillFile() {
+        if (null != spill) {
+            try {
+                spill.close();
+            } catch (IOException ignore) {
+            }
+            spill = null;
+            spillFile.delete();
+            spillFile = null;
+            spillBacklog = 0;
+            spillReadPosition = 0;
+            spillWritePosition = 0;
+        }
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        writeInt(bytes, offset, (int) (value >>> 32));
+        writeInt(bytes, offset + 4, (int) value);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    public int getCapacity() {
+        return elements.length;
+    }
+
+    public synchronized int getOccupancy() {
+        return size;
+    }
+
+    public synchronized int getPeakOccupancy() {
+        return peakOccupancy;
+    }
+
+    public synchronized int getSpillBacklog() {
+        return spillBacklog;
+    }
+
+    public synchronized long getLag() {
+        long oldest;
+        if (0 < size) {
+            oldest = timestamps[head];
+        } else if (0 < spillBacklog) {
+            try {
+                spill.seek(spillReadPosition);
+                oldest = spill.readLong();
+            } catch (IOException ioe) {
+                return 0;
+            }
+        } else {
+            return 0;
+        }
+        return Math.max(0, System.currentTimeMillis() - oldest);
+    }
+
+    public synchronized long getReceivedCount() {
+        return receivedCount;
+    }
+
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public synchronized long getSpilledCount() {
+        return spilledCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "StreamBuffer{" +
+                "capacity=" + elements.length +
+                ", overflowPolicy='" + overflowPolicy + '\'' +
+                ", occupancy=" + size +
+                ", peakOccupancy=" + peakOccupancy +
+                ", spillBacklog=" + spillBacklog +
+                ", receivedCount=" + receivedCount +
+                ", droppedCount=" + droppedCount +
+                ", spilledCount=" + spilledCount +
+                '}';
+    }
+}
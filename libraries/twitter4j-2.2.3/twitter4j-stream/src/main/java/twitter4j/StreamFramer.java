@@ -0,0 +1,151 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Splits the streaming API response into messages at the byte level, without decoding it into Strings.<br>
+ * Messages are separated by CR LF. With delimited=length, each message is preceded by a line holding its length in
+ * bytes, and the message is read in one go without scanning for the separator. Both forms are recognized
+ * automatically since a message itself never consists of digits only.<br>
+ * The read buffer is reused, and only the bytes of each message are copied out.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+final class StreamFramer {
+    static final byte[] KEEP_ALIVE = new byte[0];
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final InputStream is;
+    private byte[] buf = new byte[INITIAL_BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+
+    StreamFramer(InputStream is) {
+        this.is = is;
+    }
+
+    /**
+     * Reads the next message.
+     *
+     * @return bytes of the next message, {@link #KEEP_ALIVE} for a blank line, or null when the end of the stream
+     *         has been reached
+     * @throws IOException when the underlying stream fails
+     */
+    byte[] next() throws IOException {
+        int scanFrom = position;
+        while (true) {
+            for (int i = scanFrom; i < limit; i++) {
+                if ('\n' == buf[i]) {
+                    int start = position;
+                    position = i + 1;
+                    return frame(start, i);
+                }
+            }
+            scanFrom = limit - position;
+            if (!fill()) {
+                if (position == limit) {
+                    return null;
+                }
+                // the last line isn't terminated
+                int start = position;
+                position = limit;
+                return frame(start, limit);
+            }
+            scanFrom += position;
+        }
+    }
+
+    private byte[] frame(int start, int end) throws IOException {
+        end = trim(start, end);
+        if (start == end) {
+            return KEEP_ALIVE;
+        }
+        int length = parseLength(start, end);
+        if (-1 == length) {
+            return copy(start, end);
+        }
+        // delimited=length: the message follows the length line
+        while (limit - position < length) {
+            if (!fill()) {
+                throw new IOException("the end of the stream has been reached in the middle of a message");
+            }
+        }
+        start = position;
+        position += length;
+        end = trim(start, position);
+        return start == end ? KEEP_ALIVE : copy(start, end);
+    }
+
+    private int trim(int start, int end) {
+        while (start < end && ('\r' == buf[end - 1] || '\n' == buf[end - 1] || ' ' == buf[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * @return length of the following message if the line consists of digits only, or -1
+     */
+    private int parseLength(int start, int end) {
+        if (end - start > 9) {
+            return -1;
+        }
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buf[i];
+            if (b < '0' || '9' < b) {
+                return -1;
+            }
+            length = length * 10 + (b - '0');
+        }
+        return length;
+    }
+
+    private byte[] copy(int start, int end) {
+        byte[] frame = new byte[end - start];
+        System.arraycopy(buf, start, frame, 0, frame.length);
+        return frame;
+    }
+
+    /**
+     * Reads more bytes, moving unconsumed bytes to the head of the buffer or growing it as needed.
+     *
+     * @return false if the end of the stream has been reached
+     */
+    private boolean fill() throws IOException {
+        if (0 < position) {
+            System.arraycopy(buf, position, buf, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buf.length) {
+            byte[] newBuf = new byte[buf.length * 2];
+            System.arraycopy(buf, 0, newBuf, 0, limit);
+            buf = newBuf;
+        }
+        int read = is.read(buf, limit, buf.length - limit);
+        if (-1 == read) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+}
@@ -12,4 +12,10 @@ interface StreamImplementation {
     void close() throws IOException;
 
     void onException(Exception ex);
+
+    StreamStatistics getStatistics();
+
+    void setStatusProjection(StatusProjection projection);
+
+    void setStatusPreFilter(StatusPreFilter filter);
 }
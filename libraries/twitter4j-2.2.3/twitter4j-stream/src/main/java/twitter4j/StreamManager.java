@@ -0,0 +1,173 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.auth.Authorization;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationContext;
+import twitter4j.internal.async.Dispatcher;
+import twitter4j.internal.async.DispatcherFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns a number of named stream connections, such as filter streams of different accounts.<br>
+ * Unlike instances obtained from {@link TwitterStreamFactory}, which share one JVM-wide dispatcher, each stream gets a
+ * dispatcher of its own so that slow listeners of one stream do not hold up the others.
+ * Statistics are kept per stream as well.<br>
+ * Reader threads are not shared: each stream reads its connection on a thread of its own, as the HTTP client blocks
+ * on reads. What this class isolates is the dispatch of the messages read, not the reading.<br>
+ * An instance of this class is thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public final class StreamManager {
+    private final Configuration conf;
+    private final Map<String, ManagedStream> streams = new LinkedHashMap<String, ManagedStream>();
+    private boolean shutdown = false;
+
+    /**
+     * Creates a StreamManager with the root configuration.
+     */
+    public StreamManager() {
+        this(ConfigurationContext.getInstance());
+    }
+
+    /**
+     * Creates a StreamManager with the given configuration. async.numThreads and dispatcherImpl apply to the
+     * dispatcher of each stream.
+     *
+     * @param conf the configuration to use
+     */
+    public StreamManager(Configuration conf) {
+        this.conf = conf;
+    }
+
+    /**
+     * Creates a stream with its own dispatcher. Listeners are added and the stream is started as usual.
+     * Once started, the stream holds a reader thread besides the threads of its dispatcher.
+     *
+     * @param name name of the stream, unique in this manager
+     * @param auth authorization of the stream
+     * @return the stream
+     * @throws IllegalArgumentException when a stream of the same name exists
+     * @throws IllegalStateException    when the manager has been shut down
+     */
+    public synchronized TwitterStream newStream(String name, Authorization auth) {
+        if (shutdown) {
+            throw new IllegalStateException("StreamManager is already shut down.");
+        }
+        if (streams.containsKey(name)) {
+            throw new IllegalArgumentException("Stream already exists: " + name);
+        }
+        Dispatcher dispatcher = new DispatcherFactory(conf).getInstance();
+        ManagedStream stream = new ManagedStream(new TwitterStreamImpl(conf, auth, dispatcher), dispatcher);
+        streams.put(name, stream);
+        return stream.twitterStream;
+    }
+
+    /**
+     * @param name name of the stream
+     * @return the stream, or null if not found
+     */
+    public synchronized TwitterStream getStream(String name) {
+        ManagedStream stream = streams.get(name);
+        return null == stream ? null : stream.twitterStream;
+    }
+
+    /**
+     * @return names of the streams, in the order they were created
+     */
+    public synchronized List<String> getStreamNames() {
+        return new ArrayList<String>(streams.keySet());
+    }
+
+    /**
+     * @param name name of the stream
+     * @return statistics of the stream, or null if not found or not connected
+     */
+    public synchronized StreamStatistics getStreamStatistics(String name) {
+        ManagedStream stream = streams.get(name);
+        return null == stream ? null : stream.twitterStream.getStreamStatistics();
+    }
+
+    /**
+     * @return statistics of the connected streams by name
+     */
+    public synchronized Map<String, StreamStatistics> getStreamStatistics() {
+        Map<String, StreamStatistics> statistics = new LinkedHashMap<String, StreamStatistics>();
+        for (Map.Entry<String, ManagedStream> entry : streams.entrySet()) {
+            StreamStatistics stat = entry.getValue().twitterStream.getStreamStatistics();
+            if (null != stat) {
+                statistics.put(entry.getKey(), stat);
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Shuts down the stream and its dispatcher.
+     *
+     * @param name name of the stream
+     * @return true if the stream was found
+     */
+    public synchronized boolean remove(String name) {
+        ManagedStream stream = streams.remove(name);
+        if (null == stream) {
+            return false;
+        }
+        stream.shutdown();
+        return true;
+    }
+
+    /**
+     * Shuts down all streams and their dispatchers.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        for (ManagedStream stream : streams.values()) {
+            stream.shutdown();
+        }
+        streams.clear();
+    }
+
+    private static final class ManagedStream {
+        private final TwitterStreamImpl twitterStream;
+        private final Dispatcher dispatcher;
+
+        ManagedStream(TwitterStreamImpl twitterStream, Dispatcher dispatcher) {
+            this.twitterStream = twitterStream;
+            this.dispatcher = dispatcher;
+        }
+
+        void shutdown() {
+            twitterStream.shutdown();
+            dispatcher.shutdown();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StreamManager{" +
+                "streams=" + getStreamNames() +
+                '}';
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.internal.json.JSONPullParser;
+import twitter4j.internal.org.json.JSONException;
+
+/**
+ * Finds the id of the user an element is about without parsing the element, so that events of the same user can be
+ * kept in order while events of different users are processed in parallel.<br>
+ * A status is keyed by the author, a deletion or a location deletion by the owner of the deleted status, a direct
+ * message by the sender, an event by the source user and a site streams message by the recipient.
+ * Fields that are not part of the key are skipped at byte level.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+final class StreamPartitionKey {
+    private StreamPartitionKey() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param element raw JSON of an element
+     * @return id of the user, or null if the element has no user
+     */
+    static Long extract(byte[] element) {
+        JSONPullParser parser = new JSONPullParser(element, 0, element.length);
+        try {
+            if (JSONPullParser.START_OBJECT != parser.next()) {
+                return null;
+            }
+            while (JSONPullParser.FIELD_NAME == parser.next()) {
+                String name = parser.getCurrentName();
+                parser.next();
+                if ("for_user".equals(name)) {
+                    return asLong(parser);
+                } else if ("user".equals(name)
+                        || ("source".equals(name) && JSONPullParser.START_OBJECT == parser.getToken())) {
+                    // the source of a status is the name of the client, not the source user of an event
+                    return findLong(parser, "id");
+                } else if ("delete".equals(name)) {
+                    // {"delete":{"status":{"id":..,"user_id":..}}}
+                    if (JSONPullParser.START_OBJECT == parser.getToken()
+                            && JSONPullParser.FIELD_NAME == parser.next()) {
+                        parser.next();
+                        return findLong(parser, "user_id");
+                    }
+                    return null;
+                } else if ("scrub_geo".equals(name)) {
+                    return findLong(parser, "user_id");
+                } else if ("direct_message".equals(name)) {
+                    return findLong(parser, "sender_id");
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (JSONException ignore) {
+            // the element will be reported when it is parsed
+        }
+        return null;
+    }
+
+    private static Long findLong(JSONPullParser parser, String fieldName) throws JSONException {
+        if (JSONPullParser.START_OBJECT != parser.getToken()) {
+            return null;
+        }
+        while (JSONPullParser.FIELD_NAME == parser.next()) {
+            boolean found = fieldName.equals(parser.getCurrentName());
+            parser.next();
+            if (found) {
+                return asLong(parser);
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    private static Long asLong(JSONPullParser parser) throws JSONException {
+        if (JSONPullParser.VALUE_NUMBER == parser.getToken()) {
+            return parser.getLongValue();
+        }
+        return null;
+    }
+}
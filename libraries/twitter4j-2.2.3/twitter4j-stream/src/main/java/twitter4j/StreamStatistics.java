@@ -0,0 +1,66 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Statistics of the buffer between the thread reading the stream and the threads calling listeners.<br>
+ * Useful to tell whether listeners keep up with the stream and to size stream.buffer.capacity and async.numThreads.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.2.4
+ */
+public interface StreamStatistics {
+    /**
+     * @return number of messages the buffer holds in memory
+     */
+    int getCapacity();
+
+    /**
+     * @return number of messages currently waiting in memory
+     */
+    int getOccupancy();
+
+    /**
+     * @return highest occupancy observed
+     */
+    int getPeakOccupancy();
+
+    /**
+     * @return number of messages currently waiting in the spill file
+     */
+    int getSpillBacklog();
+
+    /**
+     * @return milliseconds the oldest waiting message has been waiting, or 0 if none
+     */
+    long getLag();
+
+    /**
+     * @return number of messages read from the stream
+     */
+    long getReceivedCount();
+
+    /**
+     * @return number of messages discarded because the buffer, or the queue of a parallel listener, was full
+     */
+    long getDroppedCount();
+
+    /**
+     * @return number of messages written to the spill file because the buffer was full
+     */
+    long getSpilledCount();
+}
@@ -42,6 +42,35 @@ public interface TwitterStream extends OAuthSupport, TwitterBase {
      */
     void addListener(StatusListener listener);
 
+    /**
+     * Adds a listener receiving statuses in batches of stream.batch.size statuses, or fewer when
+     * stream.batch.window milliseconds have passed.
+     *
+     * @param listener listener to add
+     * @since Twitter4J 2.2.4
+     */
+    void addListener(BatchStatusListener listener);
+
+    /**
+     * Adds a listener that only needs the given fields of statuses.<br>
+     * Statuses are decoded once for all listeners. Fields are skipped only when every listener of the stream declares
+     * a projection, and then the fields of all projections are decoded.
+     *
+     * @param listener   listener to add
+     * @param projection fields the listener needs
+     * @since Twitter4J 2.2.4
+     */
+    void addListener(StatusListener listener, StatusProjection projection);
+
+    /**
+     * Sets a filter evaluated on the raw JSON of each status before it is decoded. Statuses not matching the filter
+     * are dropped and never reach the listeners. Takes effect on the next connection.
+     *
+     * @param filter filter, or null to pass all statuses
+     * @since Twitter4J 2.2.4
+     */
+    void setStatusPreFilter(StatusPreFilter filter);
+
     /**
      * @param listener listener to add
      * @since Twitter4J 2.1.8
@@ -207,6 +236,16 @@ public interface TwitterStream extends OAuthSupport, TwitterBase {
      */
     StatusStream getFilterStream(FilterQuery query) throws TwitterException;
 
+    /**
+     * Returns statistics of the buffer between the stream and the listeners for the current connection.<br>
+     * With PartitionedDispatcherImpl, elements are queued on the lanes of the dispatcher instead and the buffer is not
+     * used.
+     *
+     * @return statistics, or null if no stream is connected
+     * @since Twitter4J 2.2.4
+     */
+    StreamStatistics getStreamStatistics();
+
     /**
      * shutdown internal stream consuming thread
      *
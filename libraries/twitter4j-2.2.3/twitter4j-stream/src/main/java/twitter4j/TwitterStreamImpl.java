@@ -22,6 +22,7 @@ import twitter4j.internal.async.DispatcherFactory;
 import twitter4j.internal.http.HttpClientWrapper;
 import twitter4j.internal.http.HttpClientWrapperConfiguration;
 import twitter4j.internal.http.HttpParameter;
+import twitter4j.internal.http.NIOHttpClientImpl;
 import twitter4j.internal.logging.Logger;
 import twitter4j.internal.util.T4JInternalStringUtil;
 
@@ -29,6 +30,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -48,19 +50,36 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
     private static final Logger logger = Logger.getLogger(TwitterStreamImpl.class);
 
     private StreamListener[] streamListeners = new StreamListener[0];
+    private final Map<StreamListener, StatusProjection> projections = new IdentityHashMap<StreamListener, StatusProjection>();
+    private volatile StatusPreFilter preFilter = null;
+    // drops statuses delivered twice across overlapping connections. built on first use
+    private transient StatusPreFilter unseenFilter = null;
+    private transient RecentStatusIds recentIds = null;
     private List<ConnectionLifeCycleListener> lifeCycleListeners = new ArrayList<ConnectionLifeCycleListener>(0);
     private TwitterStreamConsumer handler = null;
+    // dispatcher of this instance alone. null to share the static one
+    private final transient Dispatcher ownDispatcher;
 
     /*package*/
     TwitterStreamImpl(Configuration conf, Authorization auth) {
+        this(conf, auth, null);
+    }
+
+    /**
+     * @param ownDispatcher dispatcher used only by this instance, or null to share the static one
+     */
+    /*package*/
+    TwitterStreamImpl(Configuration conf, Authorization auth, Dispatcher ownDispatcher) {
         super(conf, auth);
         http = new HttpClientWrapper(new StreamingReadTimeoutConfiguration(conf));
+        this.ownDispatcher = ownDispatcher;
     }
 
     /*package*/
     TwitterStreamImpl(Configuration conf) {
         super(conf);
         http = new HttpClientWrapper(new StreamingReadTimeoutConfiguration(conf));
+        ownDispatcher = null;
     }
 
     /* Streaming API */
@@ -74,7 +93,7 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         ensureStatusStreamListenerIsSet();
         startHandler(new TwitterStreamConsumer() {
             public StatusStream getStream() throws TwitterException {
-                return getFirehoseStream(count);
+                return getFirehoseStream(getBackfillCount(count, this));
             }
         });
     }
@@ -96,7 +115,7 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         ensureStatusStreamListenerIsSet();
         startHandler(new TwitterStreamConsumer() {
             public StatusStream getStream() throws TwitterException {
-                return getLinksStream(count);
+                return getLinksStream(getBackfillCount(count, this));
             }
         });
     }
@@ -109,6 +128,30 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         return getCountStream("statuses/links.json", count);
     }
 
+    /**
+     * Largest count the Streaming API accepts for backfill.
+     */
+    private static final int MAX_BACKFILL_COUNT = 150000;
+
+    /**
+     * @param count    count given by the application
+     * @param consumer consumer establishing the connection
+     * @return the count to request. On reconnection with stream.reconnect.overlap, statuses possibly missed meanwhile
+     *         are requested again and the ones already delivered are dropped by their ids.
+     *         The number of missed statuses is estimated from the rate of the last connection and the time it has been
+     *         down, at least stream.dedup.size and at most the count the API accepts. A longer outage leaves a gap.
+     */
+    private int getBackfillCount(int count, TwitterStreamConsumer consumer) {
+        if (consumer.hasConnected() && conf.isStreamReconnectOverlapEnabled()) {
+            int backfill = Math.max(count, Math.min(MAX_BACKFILL_COUNT
+                    , Math.max(conf.getStreamDedupSize(), consumer.estimateMissedCount())));
+            // the statuses delivered before the outage must still be remembered when they come again
+            getRecentStatusIds().ensureCapacity(backfill);
+            return backfill;
+        }
+        return count;
+    }
+
     private StatusStream getCountStream(String relativeUrl, int count) throws TwitterException {
         ensureAuthorizationEnabled();
         try {
@@ -248,7 +291,10 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         });
     }
 
-    private Dispatcher getDispatcher() {
+    /*package*/ Dispatcher getDispatcher() {
+        if (null != ownDispatcher) {
+            return ownDispatcher;
+        }
         if (null == TwitterStreamImpl.dispatcher) {
             synchronized (TwitterStreamImpl.class) {
                 if (null == TwitterStreamImpl.dispatcher) {
@@ -325,7 +371,13 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
     private static int numberOfHandlers = 0;
 
     private synchronized void startHandler(TwitterStreamConsumer handler) {
-        cleanUp();
+        if (conf.isStreamReconnectOverlapEnabled() && null != this.handler && this.handler.isConnected()) {
+            // the current connection is closed once the new one is established
+            handler.replace(this.handler);
+            numberOfHandlers--;
+        } else {
+            cleanUp();
+        }
         if (streamListeners.length == 0) {
             throw new IllegalStateException("StatusListener is not set.");
         }
@@ -334,6 +386,13 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         numberOfHandlers++;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized StreamStatistics getStreamStatistics() {
+        return null == handler ? null : handler.getStatistics();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -381,6 +440,13 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         addListener((StreamListener) listener);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void addListener(BatchStatusListener listener) {
+        addListener((StreamListener) listener);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -388,11 +454,66 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
         addListener((StreamListener) listener);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized void addListener(StatusListener listener, StatusProjection projection) {
+        projections.put(listener, projection);
+        addListener((StreamListener) listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void setStatusPreFilter(StatusPreFilter filter) {
+        this.preFilter = filter;
+    }
+
+    /**
+     * @return the filter of the application, combined with the one dropping duplicates with
+     *         stream.reconnect.overlap
+     */
+    private synchronized StatusPreFilter getStatusPreFilter() {
+        if (!conf.isStreamReconnectOverlapEnabled()) {
+            return preFilter;
+        }
+        if (null == unseenFilter) {
+            unseenFilter = StatusPreFilter.unseen(getRecentStatusIds());
+        }
+        // ids are recorded only for the statuses passing the filter of the application
+        return null == preFilter ? unseenFilter : StatusPreFilter.and(preFilter, unseenFilter);
+    }
+
+    private synchronized RecentStatusIds getRecentStatusIds() {
+        if (null == recentIds) {
+            recentIds = new RecentStatusIds(conf.getStreamDedupSize());
+        }
+        return recentIds;
+    }
+
+    /**
+     * @return the union of the projections of the listeners, or null if a listener needs all fields
+     */
+    private synchronized StatusProjection getStatusProjection() {
+        if (0 == streamListeners.length) {
+            return null;
+        }
+        StatusProjection projection = projections.get(streamListeners[0]);
+        for (int i = 1; i < streamListeners.length && null != projection; i++) {
+            projection = StatusProjection.union(projection, projections.get(streamListeners[i]));
+        }
+        return projection;
+    }
+
     private synchronized void addListener(StreamListener listener) {
         StreamListener[] newListeners = new StreamListener[this.streamListeners.length + 1];
         System.arraycopy(this.streamListeners, 0, newListeners, 0, this.streamListeners.length);
         newListeners[newListeners.length - 1] = listener;
         this.streamListeners = newListeners;
+        // a listener added to a live stream may need more fields than the current projection
+        if (null != handler) {
+            handler.setStatusProjection(getStatusProjection());
+        }
     }
 
     /*
@@ -412,9 +533,16 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
     static int count = 0;
 
     abstract class TwitterStreamConsumer extends Thread {
-        private StreamImplementation stream = null;
+        private volatile StreamImplementation stream = null;
         private final String NAME = "Twitter Stream consumer-" + (++count);
         private volatile boolean closed = false;
+        private boolean hasConnected = false;
+        // consumer to close once this one is connected
+        private volatile TwitterStreamConsumer replaced = null;
+        // when the last connection was established and lost, and how many messages it received
+        private long connectedAt = 0;
+        private long disconnectedAt = 0;
+        private long receivedCount = 0;
 
         TwitterStreamConsumer() {
             super();
@@ -431,7 +559,11 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
                         logger.info("Establishing connection.");
                         setStatus("[Establishing connection]");
                         stream = getStream();
+                        stream.setStatusProjection(getStatusProjection());
+                        stream.setStatusPreFilter(getStatusPreFilter());
                         connected = true;
+                        hasConnected = true;
+                        connectedAt = System.currentTimeMillis();
                         logger.info("Connection established.");
                         for (ConnectionLifeCycleListener listener : lifeCycleListeners) {
                             try {
@@ -440,6 +572,7 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
                                 logger.warn(e.getMessage());
                             }
                         }
+                        closeReplaced();
                         // connection established successfully
                         timeToSleep = NO_WAIT;
                         logger.info("Receiving status stream.");
@@ -464,6 +597,9 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
                     }
                 } catch (TwitterException te) {
                     logger.info(te.getMessage());
+                    if (connected) {
+                        markDisconnected();
+                    }
                     if (!closed) {
                         if (NO_WAIT == timeToSleep) {
                             if (te.getStatusCode() == FORBIDDEN) {
@@ -522,6 +658,7 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
                     }
                 }
             }
+            closeReplaced();
             if (null != this.stream && connected) {
                 try {
                     this.stream.close();
@@ -550,6 +687,7 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
 
         public synchronized void close() {
             setStatus("[Disposing thread]");
+            closeReplaced();
             try {
                 if (null != stream) {
                     try {
@@ -565,6 +703,66 @@ class TwitterStreamImpl extends TwitterBaseImpl implements TwitterStream {
             }
         }
 
+        /**
+         * Keeps the consumer running until this one is connected, so that no status is missed in between.
+         *
+         * @param replaced consumer to be replaced
+         */
+        void replace(TwitterStreamConsumer replaced) {
+            this.replaced = replaced;
+        }
+
+        private void closeReplaced() {
+            TwitterStreamConsumer replaced = this.replaced;
+            if (null != replaced) {
+                this.replaced = null;
+                logger.info("Closing the replaced connection.");
+                replaced.close();
+            }
+        }
+
+        boolean isConnected() {
+            return null != stream;
+        }
+
+        private void markDisconnected() {
+            StreamStatistics statistics = getStatistics();
+            receivedCount = null == statistics ? 0 : statistics.getReceivedCount();
+            disconnectedAt = System.currentTimeMillis();
+        }
+
+        /**
+         * @return number of messages possibly missed since the last connection was lost, assuming they kept coming
+         *         at the rate of that connection
+         */
+        int estimateMissedCount() {
+            long connectedFor = disconnectedAt - connectedAt;
+            if (0 == disconnectedAt || connectedFor <= 0) {
+                return 0;
+            }
+            long missed = (receivedCount * (System.currentTimeMillis() - disconnectedAt) + connectedFor - 1) / connectedFor;
+            return (int) Math.min(Integer.MAX_VALUE, missed);
+        }
+
+        /**
+         * @return whether a connection has been established before
+         */
+        boolean hasConnected() {
+            return hasConnected;
+        }
+
+        StreamStatistics getStatistics() {
+            StreamImplementation stream = this.stream;
+            return null == stream ? null : stream.getStatistics();
+        }
+
+        void setStatusProjection(StatusProjection projection) {
+            StreamImplementation stream = this.stream;
+            if (null != stream) {
+                stream.setStatusProjection(projection);
+            }
+        }
+
         private void setStatus(String message) {
             String actualMessage = NAME + message;
             setName(actualMessage);
@@ -654,6 +852,26 @@ class StreamingReadTimeoutConfiguration implements HttpClientWrapperConfiguratio
         return nestedConf.getHttpDefaultMaxPerRoute();
     }
 
+    public String getHttpClientImpl() {
+        String httpClientImpl = nestedConf.getHttpClientImpl();
+        // NIOHttpClientImpl reads the whole response body before returning, and the body of a stream never ends.
+        // streams fall back to the default client returning the body as it arrives
+        if (null != httpClientImpl && !"".equals(httpClientImpl)) {
+            try {
+                if (NIOHttpClientImpl.class.isAssignableFrom(Class.forName(httpClientImpl))) {
+                    return null;
+                }
+            } catch (ClassNotFoundException ignore) {
+                // HttpClientFactory reports it
+            }
+        }
+        return httpClientImpl;
+    }
+
+    public String getHttpRetryPolicyImpl() {
+        return nestedConf.getHttpRetryPolicyImpl();
+    }
+
     public Map<String, String> getRequestHeaders() {
         return nestedConf.getRequestHeaders();
     }
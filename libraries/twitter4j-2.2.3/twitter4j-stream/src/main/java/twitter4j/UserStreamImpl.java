@@ -53,144 +53,208 @@ class UserStreamImpl extends StatusStreamImpl implements UserStream {
         handleNextElement();
     }
 
-    protected String parseLine(String line) {
-        this.line = line;
-        return line;
-    }
-
     @Override
     protected void onSender(JSONObject json) throws TwitterException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onDirectMessage(new DirectMessageJSONImpl(json));
-        }
+        final DirectMessage directMessage = new DirectMessageJSONImpl(json);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onDirectMessage(directMessage);
+            }
+        });
     }
 
     @Override
     protected void onDirectMessage(JSONObject json) throws TwitterException, JSONException {
-        DirectMessage directMessage = asDirectMessage(json);
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onDirectMessage(directMessage);
-        }
+        final DirectMessage directMessage = asDirectMessage(json);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onDirectMessage(directMessage);
+            }
+        });
     }
 
     @Override
     protected void onScrubGeo(JSONObject json) throws TwitterException {
         // Not implemented yet
-        logger.info("Geo-tagging deletion notice (not implemented yet): " + line);
+        logger.info("Geo-tagging deletion notice (not implemented yet): " + json);
     }
 
     @Override
     protected void onFriends(JSONObject json) throws TwitterException, JSONException {
-        long[] friendIds = asFriendList(json);
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onFriendList(friendIds);
-        }
+        final long[] friendIds = asFriendList(json);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onFriendList(friendIds);
+            }
+        });
     }
 
     @Override
     protected void onFavorite(JSONObject source, JSONObject target, JSONObject targetObject) throws TwitterException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onFavorite(asUser(source), asUser(target), asStatus(targetObject));
-        }
+        final User sourceUser = asUser(source);
+        final User targetUser = asUser(target);
+        final Status targetStatus = asStatus(targetObject);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onFavorite(sourceUser, targetUser, targetStatus);
+            }
+        });
     }
 
     @Override
     protected void onUnfavorite(JSONObject source, JSONObject target, JSONObject targetObject) throws TwitterException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onUnfavorite(asUser(source), asUser(target), asStatus(targetObject));
-        }
+        final User sourceUser = asUser(source);
+        final User targetUser = asUser(target);
+        final Status targetStatus = asStatus(targetObject);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onUnfavorite(sourceUser, targetUser, targetStatus);
+            }
+        });
     }
 
     @Override
     protected void onRetweet(JSONObject source, JSONObject target, JSONObject targetObject) throws TwitterException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onRetweet(asUser(source), asUser(target), asStatus(targetObject));
-        }
+        final User sourceUser = asUser(source);
+        final User targetUser = asUser(target);
+        final Status targetStatus = asStatus(targetObject);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onRetweet(sourceUser, targetUser, targetStatus);
+            }
+        });
     }
 
     @Override
     protected void onFollow(JSONObject source, JSONObject target) throws TwitterException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onFollow(asUser(source), asUser(target));
-        }
+        final User sourceUser = asUser(source);
+        final User targetUser = asUser(target);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onFollow(sourceUser, targetUser);
+            }
+        });
     }
 
     @Override
     protected void onUserListMemberAddition(JSONObject addedMember, JSONObject owner, JSONObject target) throws TwitterException, JSONException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onUserListMemberAddition(asUser(addedMember), asUser(owner), asUserList(target));
-        }
+        final User addedMemberUser = asUser(addedMember);
+        final User ownerUser = asUser(owner);
+        final UserList userList = asUserList(target);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onUserListMemberAddition(addedMemberUser, ownerUser, userList);
+            }
+        });
     }
 
     @Override
     protected void onUserListMemberDeletion(JSONObject deletedMember, JSONObject owner, JSONObject target) throws TwitterException, JSONException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onUserListMemberDeletion(asUser(deletedMember), asUser(owner), asUserList(target));
-        }
+        final User deletedMemberUser = asUser(deletedMember);
+        final User ownerUser = asUser(owner);
+        final UserList userList = asUserList(target);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onUserListMemberDeletion(deletedMemberUser, ownerUser, userList);
+            }
+        });
     }
 
-
     @Override
     protected void onUserListSubscription(JSONObject source, JSONObject owner, JSONObject target) throws TwitterException, JSONException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onUserListSubscription(asUser(source), asUser(owner), asUserList(target));
-        }
+        final User sourceUser = asUser(source);
+        final User ownerUser = asUser(owner);
+        final UserList userList = asUserList(target);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onUserListSubscription(sourceUser, ownerUser, userList);
+            }
+        });
     }
 
     @Override
     protected void onUserListUnsubscription(JSONObject source, JSONObject owner, JSONObject target) throws TwitterException, JSONException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onUserListUnsubscription(asUser(source), asUser(owner), asUserList(target));
-        }
+        final User sourceUser = asUser(source);
+        final User ownerUser = asUser(owner);
+        final UserList userList = asUserList(target);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onUserListUnsubscription(sourceUser, ownerUser, userList);
+            }
+        });
     }
 
     @Override
     protected void onUserListCreation(JSONObject source, JSONObject target) throws TwitterException, JSONException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onUserListCreation(asUser(source), asUserList(target));
-        }
+        final User sourceUser = asUser(source);
+        final UserList userList = asUserList(target);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onUserListCreation(sourceUser, userList);
+            }
+        });
     }
 
     @Override
     protected void onUserListUpdated(JSONObject source, JSONObject target) throws TwitterException, JSONException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onUserListUpdate(asUser(source), asUserList(target));
-        }
+        final User sourceUser = asUser(source);
+        final UserList userList = asUserList(target);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onUserListUpdate(sourceUser, userList);
+            }
+        });
     }
 
     @Override
     protected void onUserListDestroyed(JSONObject source, JSONObject target) throws TwitterException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onUserListDeletion(asUser(source), asUserList(target));
-        }
+        final User sourceUser = asUser(source);
+        final UserList userList = asUserList(target);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onUserListDeletion(sourceUser, userList);
+            }
+        });
     }
 
     @Override
     protected void onUserUpdate(JSONObject source, JSONObject target) throws TwitterException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onUserProfileUpdate(asUser(source));
-        }
+        final User sourceUser = asUser(source);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onUserProfileUpdate(sourceUser);
+            }
+        });
     }
 
     @Override
     protected void onBlock(JSONObject source, JSONObject target) throws TwitterException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onBlock(asUser(source), asUser(target));
-        }
+        final User sourceUser = asUser(source);
+        final User targetUser = asUser(target);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onBlock(sourceUser, targetUser);
+            }
+        });
     }
 
     @Override
     protected void onUnblock(JSONObject source, JSONObject target) throws TwitterException {
-        for (StreamListener listener : listeners) {
-            ((UserStreamListener) listener).onUnblock(asUser(source), asUser(target));
-        }
+        final User sourceUser = asUser(source);
+        final User targetUser = asUser(target);
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                ((UserStreamListener) listener).onUnblock(sourceUser, targetUser);
+            }
+        });
     }
 
     @Override
-    public void onException(Exception e) {
-        for (StreamListener listener : listeners) {
-            listener.onException(e);
-        }
+    public void onException(final Exception e) {
+        fanOut(listeners, new ListenerCall() {
+            public void call(StreamListener listener) {
+                listener.onException(e);
+            }
+        });
     }
 }
-
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public class StatusBatcherTest extends TestCase {
+
+    public StatusBatcherTest(String name) {
+        super(name);
+    }
+
+    private final List<Integer> sizes = new ArrayList<Integer>();
+    private final List<Thread> threads = new ArrayList<Thread>();
+
+    private final BatchStatusListener listener = new BatchStatusListener() {
+        public void onStatuses(List<Status> statuses) {
+            synchronized (StatusBatcherTest.this) {
+                sizes.add(statuses.size());
+                threads.add(Thread.currentThread());
+                StatusBatcherTest.this.notifyAll();
+            }
+        }
+
+        public void onStatus(Status status) {
+            fail("onStatus must not be called");
+        }
+
+        public void onDeletionNotice(StatusDeletionNotice statusDeletionNotice) {
+        }
+
+        public void onTrackLimitationNotice(int numberOfLimitedStatuses) {
+        }
+
+        public void onScrubGeo(long userId, long upToStatusId) {
+        }
+
+        public void onException(Exception ex) {
+        }
+    };
+
+    public void testBatchSize() throws Exception {
+        StatusBatcher batcher = new StatusBatcher(3, 10000);
+        for (int i = 0; i < 7; i++) {
+            batcher.add(listener, null);
+        }
+        assertEquals("[3, 3]", sizes.toString());
+        assertSame(Thread.currentThread(), threads.get(0));
+        batcher.flush(listener);
+        assertEquals("[3, 3, 1]", sizes.toString());
+        // nothing is pending
+        batcher.flush(listener);
+        batcher.close();
+        assertEquals("[3, 3, 1]", sizes.toString());
+    }
+
+    public void testWindow() throws Exception {
+        StatusBatcher batcher = new StatusBatcher(500, 50);
+        long start = System.currentTimeMillis();
+        batcher.add(listener, null);
+        batcher.add(listener, null);
+        synchronized (this) {
+            while (sizes.isEmpty() && System.currentTimeMillis() - start < 5000) {
+                wait(100);
+            }
+        }
+        assertTrue(System.currentTimeMillis() - start >= 50);
+        assertEquals("[2]", sizes.toString());
+        assertEquals("Twitter4J Status Batch Flusher", threads.get(0).getName());
+        // the flusher is woken up for the next batch
+        batcher.add(listener, null);
+        synchronized (this) {
+            while (1 == sizes.size() && System.currentTimeMillis() - start < 5000) {
+                wait(100);
+            }
+        }
+        assertEquals("[2, 1]", sizes.toString());
+        batcher.close();
+    }
+
+    public void testCloseDeliversPendingBatch() throws Exception {
+        StatusBatcher batcher = new StatusBatcher(500, 10000);
+        batcher.add(listener, null);
+        batcher.close();
+        assertEquals("[1]", sizes.toString());
+        // statuses parsed after closing are not held back
+        batcher.add(listener, null);
+        assertEquals("[1, 1]", sizes.toString());
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+import twitter4j.internal.async.Dispatcher;
+import twitter4j.internal.async.DispatcherFactory;
+
+import java.io.InputStream;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public class StatusPreFilterTest extends TestCase {
+
+    public StatusPreFilterTest(String name) {
+        super(name);
+    }
+
+    private static final String STATUS = "{\"text\":\"Hello Twitter4J &amp; world\",\"lang\":null,\"id\":1,"
+            + "\"entities\":{\"hashtags\":[{\"text\":\"t4j\"}]},\"retweeted_status\":{\"user\":{\"lang\":\"ja\"}},"
+            + "\"user\":{\"id\":6358482,\"lang\":\"en\",\"followers_count\":1500,\"status\":{\"text\":\"x\"}}}";
+
+    public void testLeaves() throws Exception {
+        assertTrue(accept(StatusPreFilter.fieldEquals("user.lang", "en"), STATUS));
+        // fields of the retweeted status are not confused with those of the user
+        assertFalse(accept(StatusPreFilter.fieldEquals("user.lang", "ja"), STATUS));
+        assertFalse(accept(StatusPreFilter.fieldEquals("lang", "en"), STATUS));
+        assertTrue(accept(StatusPreFilter.contains("text", "twitter4j"), STATUS));
+        assertFalse(accept(StatusPreFilter.contains("text", "java"), STATUS));
+        assertTrue(accept(StatusPreFilter.between("user.followers_count", 1000, 2000), STATUS));
+        assertFalse(accept(StatusPreFilter.between("user.followers_count", 0, 1000), STATUS));
+        assertTrue(accept(StatusPreFilter.between("id", 1, 1), STATUS));
+        // objects can't be compared
+        assertFalse(accept(StatusPreFilter.fieldEquals("entities", "t4j"), STATUS));
+    }
+
+    public void testOperators() throws Exception {
+        StatusPreFilter english = StatusPreFilter.fieldEquals("user.lang", "en");
+        StatusPreFilter popular = StatusPreFilter.between("user.followers_count", 10000, Long.MAX_VALUE);
+        assertFalse(accept(StatusPreFilter.and(english, popular), STATUS));
+        assertTrue(accept(StatusPreFilter.or(english, popular), STATUS));
+        assertTrue(accept(StatusPreFilter.and(english, StatusPreFilter.not(popular)), STATUS));
+        assertFalse(accept(StatusPreFilter.not(english), STATUS));
+    }
+
+    public void testUnseen() throws Exception {
+        RecentStatusIds recentIds = new RecentStatusIds(2);
+        StatusPreFilter unseen = StatusPreFilter.unseen(recentIds);
+        assertTrue(accept(unseen, STATUS));
+        assertFalse(accept(unseen, STATUS));
+        assertTrue(accept(unseen, STATUS.replace("\"id\":1,", "\"id\":2,")));
+        assertTrue(accept(unseen, STATUS.replace("\"id\":1,", "\"id\":3,")));
+        assertEquals(2, recentIds.size());
+        // the oldest id has been forgotten
+        assertTrue(accept(unseen, STATUS));
+        assertFalse(accept(unseen, STATUS.replace("\"id\":1,", "\"id\":3,")));
+        // the ids recorded so far are kept when the set is enlarged for a larger backfill
+        recentIds.ensureCapacity(4);
+        assertEquals(4, recentIds.capacity());
+        assertFalse(accept(unseen, STATUS));
+        assertFalse(accept(unseen, STATUS.replace("\"id\":1,", "\"id\":3,")));
+        assertTrue(accept(unseen, STATUS.replace("\"id\":1,", "\"id\":4,")));
+        assertTrue(accept(unseen, STATUS.replace("\"id\":1,", "\"id\":5,")));
+        assertEquals(4, recentIds.size());
+        // the oldest id is forgotten first
+        assertTrue(accept(unseen, STATUS.replace("\"id\":1,", "\"id\":6,")));
+        assertTrue(accept(unseen, STATUS.replace("\"id\":1,", "\"id\":3,")));
+        assertFalse(accept(unseen, STATUS.replace("\"id\":1,", "\"id\":4,")));
+        // ids of the statuses not passing the other filter are not recorded
+        recentIds = new RecentStatusIds(10);
+        StatusPreFilter japanese = StatusPreFilter.and(StatusPreFilter.fieldEquals("user.lang", "ja"),
+                StatusPreFilter.unseen(recentIds));
+        assertFalse(accept(japanese, STATUS));
+        assertEquals(0, recentIds.size());
+    }
+
+    public void testOtherElementsPass() throws Exception {
+        StatusPreFilter filter = StatusPreFilter.contains("text", "java");
+        assertTrue(accept(filter, "{\"delete\":{\"status\":{\"id\":1,\"user_id\":2}}}"));
+        assertTrue(accept(filter, "{\"limit\":{\"track\":12}}"));
+        assertTrue(accept(filter, "{\"sender\":{\"id\":1},\"text\":\"direct message\"}"));
+        assertTrue(accept(filter, "{\"text\":"));
+    }
+
+    public void testStream() throws Exception {
+        Configuration conf = new ConfigurationBuilder().build();
+        Dispatcher dispatcher = new DispatcherFactory(conf).getInstance();
+        InputStream is = StatusPreFilterTest.class.getResourceAsStream("/streamingapi-testcase.json");
+        StatusStreamImpl stream = new StatusStreamImpl(dispatcher, is, conf);
+        stream.setStatusPreFilter(StatusPreFilter.fieldEquals("user.screen_name", "_Sabrinaa_"));
+        final StringBuffer events = new StringBuffer();
+        StatusListener listener = new StatusAdapter() {
+            public void onStatus(Status status) {
+                events.append("status:").append(status.getId()).append(" ");
+            }
+
+            public void onDeletionNotice(StatusDeletionNotice statusDeletionNotice) {
+                events.append("delete ");
+            }
+
+            public void onScrubGeo(long userId, long upToStatusId) {
+                events.append("scrubGeo");
+            }
+        };
+        for (int i = 0; i < 6; i++) {
+            stream.next(listener);
+        }
+        for (int i = 0; i < 100 && !events.toString().endsWith("scrubGeo"); i++) {
+            Thread.sleep(50);
+        }
+        stream.close();
+        dispatcher.shutdown();
+        assertEquals("delete status:6832063504 scrubGeo", events.toString());
+    }
+
+    private static boolean accept(StatusPreFilter filter, String json) throws Exception {
+        return filter.accept(json.getBytes("UTF-8"));
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+import twitter4j.internal.async.Dispatcher;
+import twitter4j.internal.async.DispatcherFactory;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public class StatusStreamImplTest extends TestCase {
+
+    public StatusStreamImplTest(String name) {
+        super(name);
+    }
+
+    public void testSerialFanOut() throws Exception {
+        RecordingListener[] listeners = read(false);
+        assertEquals(listeners[0].events, listeners[1].events);
+        // each status is decoded once and shared by all listeners
+        assertSame(listeners[0].statuses.get(0), listeners[1].statuses.get(0));
+        assertSame(listeners[0].statuses.get(1), listeners[1].statuses.get(1));
+        assertEquals(listeners[0].threads.get(0), listeners[1].threads.get(0));
+    }
+
+    public void testParallelFanOut() throws Exception {
+        RecordingListener[] listeners = read(true);
+        assertEquals(listeners[0].events, listeners[1].events);
+        assertSame(listeners[0].statuses.get(0), listeners[1].statuses.get(0));
+        // listeners are called on their own threads
+        assertFalse(listeners[0].threads.get(0).equals(listeners[1].threads.get(0)));
+    }
+
+    public void testParallelFanOutBackPressure() throws Exception {
+        // the stream waits for the slow listener rather than queueing events without limit
+        RecordingListener[] listeners = read(new ConfigurationBuilder().setStreamListenersParallelEnabled(true)
+                .setStreamBufferCapacity(1).build());
+        assertEquals(listeners[0].events, listeners[1].events);
+    }
+
+    public void testParallelFanOutDrop() throws Exception {
+        Configuration conf = new ConfigurationBuilder().setStreamListenersParallelEnabled(true)
+                .setStreamBufferCapacity(1).setStreamBufferOverflowPolicy(StreamBuffer.DROP).build();
+        Dispatcher dispatcher = new DispatcherFactory(conf).getInstance();
+        InputStream is = StatusStreamImplTest.class.getResourceAsStream("/streamingapi-testcase.json");
+        StatusStreamImpl stream = new StatusStreamImpl(dispatcher, is, conf);
+        RecordingListener slow = new RecordingListener(200);
+        RecordingListener fast = new RecordingListener(0);
+        for (int i = 0; i < 6; i++) {
+            stream.next(new StreamListener[]{slow, fast});
+        }
+        Thread.sleep(1000);
+        stream.close();
+        dispatcher.shutdown();
+        // events beyond the capacity of the slow listener's queue are discarded and counted
+        assertTrue(slow.events.size() < 6);
+        assertTrue(0 < stream.getStatistics().getDroppedCount());
+    }
+
+    public void testPartitionedDispatch() throws Exception {
+        Configuration conf = new ConfigurationBuilder()
+                .setDispatcherImpl("twitter4j.internal.async.PartitionedDispatcherImpl")
+                .setAsyncNumThreads(4).build();
+        RecordingListener[] listeners = read(conf);
+        // events of different users may be delivered in any order
+        List<String> events = new ArrayList<String>(listeners[0].events);
+        Collections.sort(events);
+        List<String> expected = new ArrayList<String>(listeners[1].events);
+        Collections.sort(expected);
+        assertEquals(expected, events);
+    }
+
+    public void testLazyStatus() throws Exception {
+        RecordingListener[] listeners = read(new ConfigurationBuilder().setStreamLazyStatusEnabled(true).build());
+        assertEquals("[delete:6832057002, status:6832063504, status:6832063500, limit:121564, status:6832063502, scrubGeo:14090452]",
+                listeners[0].events.toString());
+        Status status = listeners[0].statuses.get(0);
+        assertTrue(status instanceof LazyStatusJSONImpl);
+        assertEquals(87018638, status.getUser().getId());
+    }
+
+    public void testProjection() throws Exception {
+        Configuration conf = new ConfigurationBuilder().build();
+        Dispatcher dispatcher = new DispatcherFactory(conf).getInstance();
+        InputStream is = StatusStreamImplTest.class.getResourceAsStream("/streamingapi-testcase.json");
+        StatusStreamImpl stream = new StatusStreamImpl(dispatcher, is, conf);
+        stream.setStatusProjection(new StatusProjection("id", "user.id"));
+        RecordingListener listener = new RecordingListener(0);
+        for (int i = 0; i < 6; i++) {
+            stream.next(listener);
+        }
+        for (int i = 0; i < 100 && listener.events.size() < 6; i++) {
+            Thread.sleep(50);
+        }
+        stream.close();
+        dispatcher.shutdown();
+        assertEquals("[delete:6832057002, status:6832063504, status:6832063500, limit:121564, status:6832063502, scrubGeo:14090452]",
+                listener.events.toString());
+        Status status = listener.statuses.get(0);
+        assertEquals(87018638, status.getUser().getId());
+        assertNull(status.getText());
+        assertNull(status.getUser().getScreenName());
+    }
+
+    public void testBatchDelivery() throws Exception {
+        Configuration conf = new ConfigurationBuilder().setStreamBatchSize(2).setStreamBatchWindow(10000).build();
+        Dispatcher dispatcher = new DispatcherFactory(conf).getInstance();
+        InputStream is = StatusStreamImplTest.class.getResourceAsStream("/streamingapi-testcase.json");
+        StatusStreamImpl stream = new StatusStreamImpl(dispatcher, is, conf);
+        BatchRecordingListener batch = new BatchRecordingListener();
+        RecordingListener single = new RecordingListener(0);
+        StreamListener[] listeners = new StreamListener[]{batch, single};
+        for (int i = 0; i < 6; i++) {
+            stream.next(listeners);
+        }
+        for (int i = 0; i < 100 && batch.events.size() < 5; i++) {
+            Thread.sleep(50);
+        }
+        stream.close();
+        dispatcher.shutdown();
+        // the pending status is delivered before the location deletion notice
+        assertEquals("[delete:6832057002, statuses:2, limit:121564, statuses:1, scrubGeo:14090452]",
+                batch.events.toString());
+        assertEquals(3, single.statuses.size());
+        assertEquals(single.statuses, batch.statuses);
+    }
+
+    private RecordingListener[] read(boolean parallel) throws Exception {
+        RecordingListener[] listeners = read(new ConfigurationBuilder().setStreamListenersParallelEnabled(parallel).build());
+        assertEquals("[delete:6832057002, status, status, limit:121564, status, scrubGeo:14090452]",
+                listeners[0].events.toString().replaceAll("status:\\d+", "status"));
+        return listeners;
+    }
+
+    private RecordingListener[] read(Configuration conf) throws Exception {
+        Dispatcher dispatcher = new DispatcherFactory(conf).getInstance();
+        InputStream is = StatusStreamImplTest.class.getResourceAsStream("/streamingapi-testcase.json");
+        StatusStreamImpl stream = new StatusStreamImpl(dispatcher, is, conf);
+        RecordingListener slow = new RecordingListener(20);
+        RecordingListener fast = new RecordingListener(0);
+        StreamListener[] listeners = new StreamListener[]{slow, fast};
+        for (int i = 0; i < 6; i++) {
+            stream.next(listeners);
+        }
+        for (int i = 0; i < 100 && (slow.events.size() < 6 || fast.events.size() < 6); i++) {
+            Thread.sleep(50);
+        }
+        stream.close();
+        dispatcher.shutdown();
+        assertEquals(6, slow.events.size());
+        return new RecordingListener[]{slow, fast};
+    }
+
+    class BatchRecordingListener extends RecordingListener implements BatchStatusListener {
+        BatchRecordingListener() {
+            super(0);
+        }
+
+        public void onStatuses(List<Status> statuses) {
+            this.statuses.addAll(statuses);
+            record("statuses:" + statuses.size());
+        }
+    }
+
+    class RecordingListener implements StatusListener {
+        private final long sleep;
+        final List<String> events = new ArrayList<String>();
+        final List<Status> statuses = new ArrayList<Status>();
+        final List<Thread> threads = new ArrayList<Thread>();
+
+        RecordingListener(long sleep) {
+            this.sleep = sleep;
+        }
+
+        synchronized void record(String event) {
+            try {
+                Thread.sleep(sleep);
+            } catch (InterruptedException ignore) {
+            }
+            events.add(event);
+            threads.add(Thread.currentThread());
+        }
+
+        public void onStatus(Status status) {
+            statuses.add(status);
+            record("status:" + status.getId());
+        }
+
+        public void onDeletionNotice(StatusDeletionNotice statusDeletionNotice) {
+            record("delete:" + statusDeletionNotice.getStatusId());
+        }
+
+        public void onTrackLimitationNotice(int numberOfLimitedStatuses) {
+            record("limit:" + numberOfLimitedStatuses);
+        }
+
+        public void onScrubGeo(long userId, long upToStatusId) {
+            record("scrubGeo:" + userId);
+        }
+
+        public void onException(Exception ex) {
+            record("exception:" + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.File;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public class StreamBufferTest extends TestCase {
+
+    public StreamBufferTest(String name) {
+        super(name);
+    }
+
+    private StreamBuffer newBuffer(int capacity, String policy, int numThreads) {
+        return new StreamBuffer(new ConfigurationBuilder()
+                .setStreamBufferCapacity(capacity)
+                .setStreamBufferOverflowPolicy(policy)
+                .setAsyncNumThreads(numThreads).build());
+    }
+
+    public void testConsumerCount() throws Exception {
+        StreamBuffer buffer = newBuffer(10, StreamBuffer.BLOCK, 2);
+        assertTrue(buffer.put(bytes(1)));
+        assertTrue(buffer.put(bytes(2)));
+        // two consumers are already draining the buffer
+        assertFalse(buffer.put(bytes(3)));
+        assertEquals(1, buffer.poll()[0]);
+        assertEquals(2, buffer.poll()[0]);
+        assertEquals(3, buffer.poll()[0]);
+        assertNull(buffer.poll());
+        assertTrue(buffer.put(bytes(4)));
+        assertEquals(3, buffer.getPeakOccupancy());
+        assertEquals(4, buffer.getReceivedCount());
+    }
+
+    public void testConsumerDiscarded() throws Exception {
+        StreamBuffer buffer = newBuffer(10, StreamBuffer.BLOCK, 2);
+        assertTrue(buffer.put(bytes(1)));
+        assertTrue(buffer.put(bytes(2)));
+        assertFalse(buffer.put(bytes(3)));
+        // the dispatcher dropped both consumers without running them
+        buffer.consumerDiscarded();
+        buffer.consumerDiscarded();
+        assertTrue(buffer.put(bytes(4)));
+        assertTrue(buffer.put(bytes(5)));
+        assertFalse(buffer.put(bytes(6)));
+        assertEquals(6, buffer.getOccupancy());
+    }
+
+    public void testBlock() throws Exception {
+        final StreamBuffer buffer = newBuffer(2, StreamBuffer.BLOCK, 1);
+        buffer.put(bytes(1));
+        buffer.put(bytes(2));
+        Thread reader = new Thread() {
+            public void run() {
+                buffer.put(bytes(3));
+            }
+        };
+        reader.start();
+        reader.join(200);
+        assertTrue("put() should block while the buffer is full", reader.isAlive());
+        assertEquals(2, buffer.getOccupancy());
+        assertTrue(buffer.getLag() >= 150);
+        assertEquals(1, buffer.poll()[0]);
+        reader.join(1000);
+        assertFalse(reader.isAlive());
+        assertEquals(2, buffer.poll()[0]);
+        assertEquals(3, buffer.poll()[0]);
+        assertEquals(0, buffer.getDroppedCount());
+    }
+
+    public void testDrop() throws Exception {
+        StreamBuffer buffer = newBuffer(2, StreamBuffer.DROP, 1);
+        for (int i = 1; i <= 5; i++) {
+            buffer.put(bytes(i));
+        }
+        assertEquals(3, buffer.getDroppedCount());
+        assertEquals(1, buffer.poll()[0]);
+        assertEquals(2, buffer.poll()[0]);
+        assertNull(buffer.poll());
+    }
+
+    public void testSpill() throws Exception {
+        File dir = new File(System.getProperty("java.io.tmpdir"), "twitter4j-spill-test");
+        dir.mkdirs();
+        StreamBuffer buffer = new StreamBuffer(new ConfigurationBuilder()
+                .setStreamBufferCapacity(2)
+                .setStreamBufferOverflowPolicy(StreamBuffer.SPILL)
+                .setStreamBufferSpillDirectory(dir.getAbsolutePath()).build());
+        for (int i = 1; i <= 5; i++) {
+            buffer.put(bytes(i));
+        }
+        assertEquals(0, buffer.getDroppedCount());
+        assertEquals(3, buffer.getSpilledCount());
+        assertEquals(3, buffer.getSpillBacklog());
+        assertEquals(1, dir.list().length);
+        assertEquals(1, buffer.poll()[0]);
+        // messages arriving while the spill file has a backlog go after it, even if there's room in memory
+        buffer.put(bytes(6));
+        for (int i = 2; i <= 6; i++) {
+            byte[] element = buffer.poll();
+            assertEquals(i, element[0]);
+            assertEquals(i, element.length);
+        }
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.getSpillBacklog());
+        buffer.close();
+        assertEquals(0, dir.list().length);
+        dir.delete();
+    }
+
+    private static byte[] bytes(int value) {
+        byte[] bytes = new byte[value];
+        bytes[0] = (byte) value;
+        return bytes;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public class StreamFramerTest extends TestCase {
+
+    public StreamFramerTest(String name) {
+        super(name);
+    }
+
+    public void testNewlineDelimited() throws Exception {
+        StreamFramer framer = new StreamFramer(stream("{\"a\":1}\r\n\r\n{\"b\":\"\u3042\"}\r\n{\"c\":3}", false));
+        assertEquals("{\"a\":1}", next(framer));
+        assertSame(StreamFramer.KEEP_ALIVE, framer.next());
+        assertEquals("{\"b\":\"\u3042\"}", next(framer));
+        // the last line doesn't need to be terminated
+        assertEquals("{\"c\":3}", next(framer));
+        assertNull(framer.next());
+    }
+
+    public void testLengthDelimited() throws Exception {
+        String first = "{\"text\":\"line\\nbreak \u3042\"}\r\n";
+        String second = "{\"b\":2}\r\n";
+        StreamFramer framer = new StreamFramer(stream(first.getBytes("UTF-8").length + "\r\n" + first
+                + "\r\n" + second.getBytes("UTF-8").length + "\r\n" + second, false));
+        assertEquals("{\"text\":\"line\\nbreak \u3042\"}", next(framer));
+        assertSame(StreamFramer.KEEP_ALIVE, framer.next());
+        assertEquals("{\"b\":2}", next(framer));
+        assertNull(framer.next());
+    }
+
+    public void testByteByByte() throws Exception {
+        StringBuffer large = new StringBuffer("{\"text\":\"");
+        for (int i = 0; i < 20000; i++) {
+            large.append((char) ('a' + i % 26));
+        }
+        large.append("\"}");
+        String first = "{\"a\":1}";
+        StreamFramer framer = new StreamFramer(stream((first.length() + 2) + "\r\n" + first + "\r\n" + large + "\r\n", true));
+        assertEquals(first, next(framer));
+        // larger than the initial buffer
+        assertEquals(large.toString(), next(framer));
+        assertNull(framer.next());
+    }
+
+    public void testTruncatedMessage() throws Exception {
+        StreamFramer framer = new StreamFramer(stream("100\r\n{\"a\":1}", false));
+        try {
+            framer.next();
+            fail("expecting IOException");
+        } catch (IOException expected) {
+        }
+    }
+
+    private String next(StreamFramer framer) throws IOException {
+        return new String(framer.next(), "UTF-8");
+    }
+
+    private InputStream stream(String str, boolean byteByByte) throws IOException {
+        if (!byteByByte) {
+            return new ByteArrayInputStream(str.getBytes("UTF-8"));
+        }
+        return new ByteArrayInputStream(str.getBytes("UTF-8")) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+    }
+}
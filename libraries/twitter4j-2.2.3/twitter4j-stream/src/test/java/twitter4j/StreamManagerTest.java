@@ -0,0 +1,91 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.auth.NullAuthorization;
+import twitter4j.conf.ConfigurationBuilder;
+import twitter4j.internal.async.Dispatcher;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public class StreamManagerTest extends TestCase {
+
+    public StreamManagerTest(String name) {
+        super(name);
+    }
+
+    public void testStreams() throws Exception {
+        StreamManager manager = new StreamManager(new ConfigurationBuilder().build());
+        TwitterStream a = manager.newStream("a", NullAuthorization.getInstance());
+        TwitterStream b = manager.newStream("b", NullAuthorization.getInstance());
+        assertSame(a, manager.getStream("a"));
+        assertEquals(Arrays.asList("a", "b"), manager.getStreamNames());
+        try {
+            manager.newStream("a", NullAuthorization.getInstance());
+            fail("expecting IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+        // not connected yet
+        assertNull(manager.getStreamStatistics("a"));
+        assertTrue(manager.getStreamStatistics().isEmpty());
+
+        assertTrue(manager.remove("a"));
+        assertFalse(manager.remove("a"));
+        assertNull(manager.getStream("a"));
+        assertSame(b, manager.getStream("b"));
+        manager.shutdown();
+        assertTrue(manager.getStreamNames().isEmpty());
+        try {
+            manager.newStream("c", NullAuthorization.getInstance());
+            fail("expecting IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    public void testIsolatedDispatchers() throws Exception {
+        StreamManager manager = new StreamManager(new ConfigurationBuilder().setAsyncNumThreads(1).build());
+        Dispatcher slow = ((TwitterStreamImpl) manager.newStream("slow", NullAuthorization.getInstance())).getDispatcher();
+        Dispatcher fast = ((TwitterStreamImpl) manager.newStream("fast", NullAuthorization.getInstance())).getDispatcher();
+        assertNotSame(slow, fast);
+
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        slow.invokeLater(new Runnable() {
+            public void run() {
+                try {
+                    blocked.await();
+                } catch (InterruptedException ignore) {
+                }
+            }
+        });
+        fast.invokeLater(new Runnable() {
+            public void run() {
+                done.countDown();
+            }
+        });
+        // the only thread of the slow stream is busy, but the fast stream is not held up
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        blocked.countDown();
+        manager.shutdown();
+    }
+}
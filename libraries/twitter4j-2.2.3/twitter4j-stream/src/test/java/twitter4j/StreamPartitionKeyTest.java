@@ -0,0 +1,54 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public class StreamPartitionKeyTest extends TestCase {
+
+    public StreamPartitionKeyTest(String name) {
+        super(name);
+    }
+
+    public void testExtract() throws Exception {
+        // the user of the retweeted status is skipped
+        assertEquals(new Long(6253282L), extract("{\"id\":1,\"text\":\"RT\",\"retweeted_status\":{\"id\":2,"
+                + "\"user\":{\"id\":12}},\"user\":{\"name\":\"API\",\"id\":6253282}}"));
+        // the client name of a status comes before the author
+        assertEquals(new Long(6253282L), extract("{\"created_at\":\"Tue Nov 08 07:34:58 +0000 2011\",\"id\":1"
+                + ",\"id_str\":\"1\",\"text\":\"hi\",\"source\":\"\\u003Ca href=\\\"http:\\/\\/twitter4j.org\\\"\\u003E"
+                + "Twitter4J\\u003C\\/a\\u003E\",\"truncated\":false,\"in_reply_to_status_id\":null"
+                + ",\"user\":{\"id\":6253282,\"screen_name\":\"twitterapi\"},\"place\":null,\"retweet_count\":0}"));
+        assertEquals(new Long(6253282L), extract("{\"text\":\"hi\",\"source\":\"web\",\"id\":1,\"user\":{\"id\":6253282}}"));
+        assertEquals(new Long(6253282L), extract("{\"delete\":{\"status\":{\"id\":1234,\"user_id\":6253282}}}"));
+        assertEquals(new Long(6253282L), extract("{\"delete\":{\"direct_message\":{\"id\":1234,\"user_id\":6253282}}}"));
+        assertEquals(new Long(6253282L), extract("{\"scrub_geo\":{\"user_id\":6253282,\"up_to_status_id\":1234}}"));
+        assertEquals(new Long(6253282L), extract("{\"direct_message\":{\"id\":1,\"sender_id\":6253282}}"));
+        assertEquals(new Long(6253282L), extract("{\"target\":{\"id\":12},\"source\":{\"id\":6253282},\"event\":\"favorite\"}"));
+        assertEquals(new Long(6253282L), extract("{\"for_user\":6253282,\"message\":{\"user\":{\"id\":12}}}"));
+        assertNull(extract("{\"limit\":{\"track\":1234}}"));
+        assertNull(extract("{\"friends\":[1,2,3]}"));
+        assertNull(extract("{\"user\":"));
+    }
+
+    private static Long extract(String json) throws Exception {
+        return StreamPartitionKey.extract(json.getBytes("UTF-8"));
+    }
+}
@@ -1,6 +1,7 @@
 package twitter4j.json;
 
 import junit.framework.TestCase;
+import twitter4j.internal.json.JSONPullParser;
 import twitter4j.internal.org.json.JSONObject;
 
 /**
@@ -53,5 +54,32 @@ public class JSONObjectTypeTest extends TestCase {
         }
         System.out.println("Random passed");
     }
-}
 
+    public void testDetermineWhileParsing() throws Exception {
+        assertDetermined(JSONObjectType.STATUS, statusJsonText);
+        assertDetermined(JSONObjectType.DELETE, deleteJsonText);
+        assertDetermined(JSONObjectType.SCRUB_GEO, scrubGeoJsonText);
+        assertDetermined(JSONObjectType.LIMIT, limitJsonText);
+        assertDetermined(null, randomJsonText);
+        // sender takes precedence over text wherever it appears
+        assertDetermined(JSONObjectType.SENDER, "{\"text\":\"hi\",\"id\":1,\"sender\":{\"id\":6358482}}");
+        assertDetermined(JSONObjectType.STATUS, "{\"sender\":null,\"text\":\"hi\"}");
+        assertDetermined(JSONObjectType.FOLLOW, "{\"source\":{\"id\":1},\"target\":{\"id\":2},\"event\":\"follow\"}");
+        assertDetermined(null, "{\"event\":\"unknown\"}");
+    }
+
+    private void assertDetermined(JSONObjectType expected, String jsonText) throws Exception {
+        byte[] bytes = jsonText.getBytes("UTF-8");
+        JSONPullParser parser = new JSONPullParser(bytes, 0, bytes.length);
+        parser.next();
+        JSONObject json = new JSONObject();
+        assertEquals(expected, JSONObjectType.determine(parser, json));
+        assertEquals(expected, JSONObjectType.determine(json));
+        assertEquals(new JSONObject(jsonText).toString(), json.toString());
+        // by field names only
+        parser = new JSONPullParser(bytes, 0, bytes.length);
+        parser.next();
+        assertEquals(expected, JSONObjectType.determine(parser));
+        assertEquals(JSONPullParser.END_OBJECT, parser.getToken());
+    }
+}